@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.wagon.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.wagon.events.TransferEvent;
+import org.apache.maven.wagon.observers.AbstractTransferListener;
+import org.apache.maven.wagon.resource.Resource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Transfers of unknown length, such as chunked HTTP responses, with the buffer adapted to the throughput against the
+ * static {@value org.apache.maven.wagon.TransferBufferPool#MINIMUM_CAPACITY} bytes buffer they used to get.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AdaptiveBufferBenchmark {
+    /**
+     * <code>0</code> for the adaptive buffer, else the capacity of a static buffer.
+     */
+    @Param({"0", "4096"})
+    private int bufferSize;
+
+    @Param({"65536", "16777216"})
+    private int contentLength;
+
+    /**
+     * The most bytes a read of the source returns, as a socket would with its receive buffer.
+     */
+    @Param({"16384", "2147483647"})
+    private int readSize;
+
+    private byte[] content;
+
+    private BenchmarkWagon wagon;
+
+    private OutputStream output;
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        content = new byte[contentLength];
+        new Random(0L).nextBytes(content);
+
+        wagon = new BenchmarkWagon(bufferSize);
+        wagon.addTransferListener(new AbstractTransferListener() {
+            @Override
+            public void transferProgress(TransferEvent transferEvent, byte[] buffer, int length) {
+                blackhole.consume(length);
+            }
+        });
+
+        output = new OutputStream() {
+            @Override
+            public void write(int b) {
+                blackhole.consume(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                blackhole.consume(len);
+            }
+        };
+    }
+
+    @Benchmark
+    public void transfer() throws IOException {
+        InputStream input = new ByteArrayInputStream(content) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, readSize));
+            }
+        };
+        wagon.transfer(new Resource("benchmark"), input, output);
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.wagon.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.apache.maven.wagon.AbstractWagon;
+import org.apache.maven.wagon.AdaptiveBufferSizer;
+import org.apache.maven.wagon.events.TransferEvent;
+import org.apache.maven.wagon.resource.Resource;
+
+/**
+ * Wagon exposing the transfer loop of {@link AbstractWagon}, optionally with a fixed buffer capacity, which is then
+ * not adapted to the throughput either.
+ */
+final class BenchmarkWagon extends AbstractWagon {
+    private final int bufferCapacity;
+
+    /**
+     * @param bufferCapacity the capacity of the transfer buffers, <code>0</code> or less to size them as usual
+     */
+    BenchmarkWagon(int bufferCapacity) {
+        this.bufferCapacity = bufferCapacity;
+    }
+
+    void transfer(Resource resource, InputStream input, OutputStream output) throws IOException {
+        transfer(resource, input, output, TransferEvent.REQUEST_GET);
+    }
+
+    int bufferCapacityFor(long numberOfBytes) {
+        return getBufferCapacityForTransfer(numberOfBytes);
+    }
+
+    @Override
+    protected int getBufferCapacityForTransfer(long numberOfBytes) {
+        return bufferCapacity > 0 ? bufferCapacity : super.getBufferCapacityForTransfer(numberOfBytes);
+    }
+
+    @Override
+    protected AdaptiveBufferSizer newAdaptiveBufferSizer(long numberOfBytes) {
+        return bufferCapacity > 0 ? null : super.newAdaptiveBufferSizer(numberOfBytes);
+    }
+
+    @Override
+    protected void openConnectionInternal() {}
+
+    @Override
+    protected void closeConnection() {}
+
+    @Override
+    public void get(String resourceName, File destination) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean getIfNewer(String resourceName, File destination, long timestamp) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void put(File source, String destination) {
+        throw new UnsupportedOperationException();
+    }
+}
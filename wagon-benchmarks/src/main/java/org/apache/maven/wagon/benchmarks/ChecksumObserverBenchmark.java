@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.wagon.benchmarks;
+
+import java.lang.reflect.Proxy;
+import java.security.NoSuchAlgorithmException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.wagon.Wagon;
+import org.apache.maven.wagon.events.TransferEvent;
+import org.apache.maven.wagon.observers.ChecksumObserver;
+import org.apache.maven.wagon.resource.Resource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Digesting the progress of a transfer with {@link ChecksumObserver}: the throughput in bytes per second is the
+ * number of operations per second times the chunk size.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChecksumObserverBenchmark {
+    @Param({"MD5", "SHA-1", "SHA-256", "SHA-512"})
+    private String algorithm;
+
+    @Param({"4096", "65536"})
+    private int chunkSize;
+
+    private byte[] buffer;
+
+    private TransferEvent transferEvent;
+
+    private ChecksumObserver observer;
+
+    @Setup
+    public void setUp() throws NoSuchAlgorithmException {
+        buffer = new byte[chunkSize];
+        new Random(0L).nextBytes(buffer);
+
+        // only used as the source of the event
+        Wagon wagon = (Wagon) Proxy.newProxyInstance(
+                getClass().getClassLoader(), new Class<?>[] {Wagon.class}, (proxy, method, args) -> null);
+        transferEvent = new TransferEvent(
+                wagon, new Resource("benchmark"), TransferEvent.TRANSFER_PROGRESS, TransferEvent.REQUEST_GET);
+
+        observer = new ChecksumObserver(algorithm);
+        observer.transferStarted(transferEvent);
+    }
+
+    @Benchmark
+    public void transferProgress() {
+        observer.transferProgress(transferEvent, buffer, chunkSize);
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.wagon.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.wagon.PathUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Parsing of repository URLs by {@link PathUtils}, done for every repository and some resources.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PathUtilsBenchmark {
+    @Param({
+        "https://repo.maven.apache.org/maven2",
+        "http://user:password@[::1]:8080/nexus/content/groups/public/",
+        "scp://host.example.com:2222/var/www/repository",
+        "dav:https://host.example.com/repository",
+        "file:///C:/Users/user/.m2/repository"
+    })
+    private String url;
+
+    @Benchmark
+    public String protocol() {
+        return PathUtils.protocol(url);
+    }
+
+    @Benchmark
+    public String host() {
+        return PathUtils.host(url);
+    }
+
+    @Benchmark
+    public int port() {
+        return PathUtils.port(url);
+    }
+
+    @Benchmark
+    public String basedir() {
+        return PathUtils.basedir(url);
+    }
+
+    @Benchmark
+    public String user() {
+        return PathUtils.user(url);
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.wagon.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.maven.wagon.events.TransferEvent;
+import org.apache.maven.wagon.events.TransferListener;
+
+/**
+ * The listener registry of <code>TransferEventSupport</code> before it became copy-on-write: an
+ * <code>ArrayList</code> guarded by the object monitor. Kept as the baseline of {@link TransferEventSupportBenchmark}.
+ */
+final class SynchronizedTransferEventSupport {
+    private final List<TransferListener> listeners = new ArrayList<>();
+
+    synchronized void addTransferListener(TransferListener listener) {
+        if (listener != null) {
+            listeners.add(listener);
+        }
+    }
+
+    synchronized void fireTransferProgress(TransferEvent transferEvent, byte[] buffer, int length) {
+        for (TransferListener listener : listeners) {
+            listener.transferProgress(transferEvent, buffer, length);
+        }
+    }
+}
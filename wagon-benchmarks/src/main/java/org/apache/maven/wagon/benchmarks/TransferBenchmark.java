@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.wagon.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.wagon.events.TransferEvent;
+import org.apache.maven.wagon.observers.AbstractTransferListener;
+import org.apache.maven.wagon.resource.Resource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * The stream transfer loop of <code>AbstractWagon</code>, from memory to nowhere, so that only the copy and the
+ * progress notifications are measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransferBenchmark {
+    /**
+     * The capacity of the transfer buffer, <code>0</code> to size it from the content length as usual.
+     */
+    @Param({"0", "4096", "65536", "1048576"})
+    private int bufferSize;
+
+    @Param({"1024", "1048576", "16777216"})
+    private int contentLength;
+
+    @Param({"0", "1"})
+    private int listeners;
+
+    private byte[] content;
+
+    private BenchmarkWagon wagon;
+
+    private OutputStream output;
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        content = new byte[contentLength];
+        new Random(0L).nextBytes(content);
+
+        wagon = new BenchmarkWagon(bufferSize);
+        for (int i = 0; i < listeners; i++) {
+            wagon.addTransferListener(new AbstractTransferListener() {
+                @Override
+                public void transferProgress(TransferEvent transferEvent, byte[] buffer, int length) {
+                    blackhole.consume(length);
+                }
+            });
+        }
+
+        output = new OutputStream() {
+            @Override
+            public void write(int b) {
+                blackhole.consume(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                blackhole.consume(len);
+            }
+        };
+    }
+
+    @Benchmark
+    public void transfer() throws IOException {
+        Resource resource = new Resource("benchmark");
+        resource.setContentLength(contentLength);
+        wagon.transfer(resource, new ByteArrayInputStream(content), output);
+    }
+}
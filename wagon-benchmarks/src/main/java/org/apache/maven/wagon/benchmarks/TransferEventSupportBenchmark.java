@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.wagon.benchmarks;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.wagon.Wagon;
+import org.apache.maven.wagon.events.TransferEvent;
+import org.apache.maven.wagon.events.TransferEventSupport;
+import org.apache.maven.wagon.events.TransferListener;
+import org.apache.maven.wagon.observers.AbstractTransferListener;
+import org.apache.maven.wagon.resource.Resource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Progress dispatch of {@link TransferEventSupport} by concurrent transfers sharing the same listeners, compared with
+ * the former synchronized implementation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransferEventSupportBenchmark {
+    @Param({"synchronized", "copy-on-write"})
+    private String implementation;
+
+    @Param({"0", "1", "8"})
+    private int listeners;
+
+    private final byte[] buffer = new byte[4096];
+
+    private TransferEvent transferEvent;
+
+    private SynchronizedTransferEventSupport synchronizedSupport;
+
+    private TransferEventSupport copyOnWriteSupport;
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        // only used as the source of the event
+        Wagon wagon = (Wagon) Proxy.newProxyInstance(
+                getClass().getClassLoader(), new Class<?>[] {Wagon.class}, (proxy, method, args) -> null);
+        transferEvent = new TransferEvent(
+                wagon, new Resource("benchmark"), TransferEvent.TRANSFER_PROGRESS, TransferEvent.REQUEST_GET);
+
+        synchronizedSupport = new SynchronizedTransferEventSupport();
+        copyOnWriteSupport = new TransferEventSupport();
+        for (int i = 0; i < listeners; i++) {
+            TransferListener listener = new AbstractTransferListener() {
+                @Override
+                public void transferProgress(TransferEvent transferEvent, byte[] buffer, int length) {
+                    blackhole.consume(length);
+                }
+            };
+            synchronizedSupport.addTransferListener(listener);
+            copyOnWriteSupport.addTransferListener(listener);
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void fireProgress1Thread() {
+        fireProgress();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void fireProgress4Threads() {
+        fireProgress();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public void fireProgress16Threads() {
+        fireProgress();
+    }
+
+    private void fireProgress() {
+        if ("synchronized".equals(implementation)) {
+            synchronizedSupport.fireTransferProgress(transferEvent, buffer, buffer.length);
+        } else {
+            copyOnWriteSupport.fireTransferProgress(transferEvent, buffer, buffer.length);
+        }
+    }
+}
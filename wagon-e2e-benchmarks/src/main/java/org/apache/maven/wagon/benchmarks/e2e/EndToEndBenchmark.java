@@ -0,0 +1,182 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.wagon.benchmarks.e2e;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.apache.maven.wagon.StreamingWagon;
+import org.apache.maven.wagon.WagonException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.infra.ThreadParams;
+
+/**
+ * Downloads and uploads through every provider against its embedded server on the loopback interface. Each
+ * benchmark thread holds its own connected wagon, so the number of threads is the transfer concurrency; run through
+ * {@link EndToEndRunner} to cover several concurrency levels and record machine-readable results.
+ * <p>
+ * The throughput mode gives the operations per second, the bytes per second being that times <code>size</code>,
+ * and the sample time mode the latency percentiles. Every thread uploads to a resource of its own, so the large
+ * sizes need <code>size * threads</code> of disk behind the repository; combinations over the
+ * <code>wagon.benchmark.maxBytes</code> system property, 4 GiB by default, fail their setup and are skipped.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EndToEndBenchmark {
+    static final String MAX_BYTES_PROPERTY = "wagon.benchmark.maxBytes";
+
+    private static final long DEFAULT_MAX_BYTES = 4L * 1024 * 1024 * 1024;
+
+    private static final String SOURCE = "get/artifact.bin";
+
+    /**
+     * The repository and its server, shared by the benchmark threads.
+     */
+    @State(Scope.Benchmark)
+    public static class Server {
+        @Param({"http", "http-lightweight", "webdav", "scp", "sftp", "ftp", "file"})
+        private String provider;
+
+        @Param({"1024", "1048576", "67108864", "1073741824"})
+        private long size;
+
+        private File basedir;
+
+        private RepositoryFixture fixture;
+
+        @Setup
+        public void setUp(BenchmarkParams params) throws Exception {
+            long maxBytes = Long.getLong(MAX_BYTES_PROPERTY, DEFAULT_MAX_BYTES);
+            // the source of the downloads, plus an upload and its temporary copy per thread
+            if (size > maxBytes / (1 + 2L * params.getThreads())) {
+                throw new IllegalStateException("Skipping " + size + " bytes with " + params.getThreads()
+                        + " threads, over the " + maxBytes + " bytes of -D" + MAX_BYTES_PROPERTY);
+            }
+
+            basedir = Files.createTempDirectory("wagon-e2e-").toFile();
+            File source = new File(basedir, SOURCE);
+            source.getParentFile().mkdirs();
+            try (InputStream in = new PatternInputStream(size)) {
+                Files.copy(in, source.toPath());
+            }
+            // providers racing to create the same parent directory fail, which is not what is measured here
+            for (int i = 0; i < params.getThreads(); i++) {
+                Files.createDirectories(basedir.toPath().resolve(getDestination(i)).getParent());
+            }
+
+            fixture = RepositoryFixture.forProvider(provider);
+            fixture.start(basedir);
+        }
+
+        @TearDown
+        public void tearDown() throws Exception {
+            try {
+                if (fixture != null) {
+                    fixture.stop();
+                }
+            } finally {
+                if (basedir != null) {
+                    try (Stream<Path> paths = Files.walk(basedir.toPath())) {
+                        for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                            Files.delete(path);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * The connected wagon of one benchmark thread.
+     */
+    @State(Scope.Thread)
+    public static class Worker {
+        private StreamingWagon wagon;
+
+        private String destination;
+
+        private long size;
+
+        @Setup
+        public void setUp(Server server, ThreadParams threadParams) throws WagonException {
+            size = server.size;
+            destination = getDestination(threadParams.getThreadIndex());
+
+            RepositoryFixture fixture = server.fixture;
+            wagon = fixture.newWagon();
+            wagon.connect(fixture.getRepository(), fixture.getAuthenticationInfo());
+        }
+
+        @TearDown
+        public void tearDown() throws WagonException {
+            if (wagon != null) {
+                wagon.disconnect();
+            }
+        }
+    }
+
+    private static String getDestination(int thread) {
+        return "put/" + thread + "/artifact.bin";
+    }
+
+    @Benchmark
+    public void get(Worker worker, Blackhole blackhole) throws WagonException {
+        worker.wagon.getToStream(SOURCE, new OutputStream() {
+            @Override
+            public void write(int b) {
+                blackhole.consume(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                blackhole.consume(len);
+            }
+        });
+    }
+
+    @Benchmark
+    public void put(Worker worker) throws WagonException, IOException {
+        try (InputStream in = new PatternInputStream(worker.size)) {
+            worker.wagon.putFromStream(in, worker.destination, worker.size, System.currentTimeMillis());
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.wagon.benchmarks.e2e;
+
+import java.io.File;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs {@link EndToEndBenchmark} once per concurrency level, with the allocation rate profiler, writing the results
+ * of each run as JSON. Any JMH command line option is accepted and applies to every run, for example
+ * <code>-p provider=http,file -p size=1048576</code>.
+ * <ul>
+ * <li><code>wagon.benchmark.threads</code>: the comma separated concurrency levels, <code>1,4,16,64</code> by
+ * default</li>
+ * <li><code>wagon.benchmark.results</code>: the directory of the <code>threads-N.json</code> results,
+ * <code>target/e2e-results</code> by default</li>
+ * <li><code>wagon.benchmark.maxBytes</code>: passed on to the benchmark forks</li>
+ * </ul>
+ */
+public final class EndToEndRunner {
+    private EndToEndRunner() {}
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        File results = new File(System.getProperty("wagon.benchmark.results", "target/e2e-results"));
+        results.mkdirs();
+
+        for (String level : System.getProperty("wagon.benchmark.threads", "1,4,16,64").split(",")) {
+            int threads = Integer.parseInt(level.trim());
+            ChainedOptionsBuilder options = new OptionsBuilder()
+                    .parent(commandLine)
+                    .threads(threads)
+                    .addProfiler(GCProfiler.class)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result(new File(results, "threads-" + threads + ".json").getPath());
+            if (commandLine.getIncludes().isEmpty()) {
+                options.include(EndToEndBenchmark.class.getName());
+            }
+            String maxBytes = System.getProperty(EndToEndBenchmark.MAX_BYTES_PROPERTY);
+            if (maxBytes != null) {
+                options.jvmArgsAppend("-D" + EndToEndBenchmark.MAX_BYTES_PROPERTY + "=" + maxBytes);
+            }
+            new Runner(options.build()).run();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.wagon.benchmarks.e2e;
+
+import java.io.File;
+
+import org.apache.maven.wagon.StreamingWagon;
+import org.apache.maven.wagon.authentication.AuthenticationInfo;
+import org.apache.maven.wagon.providers.file.FileWagon;
+import org.apache.maven.wagon.repository.Repository;
+
+/**
+ * The local file system, as the baseline the network providers are compared to.
+ */
+class FileRepositoryFixture implements RepositoryFixture {
+    private Repository repository;
+
+    @Override
+    public void start(File basedir) {
+        repository = new Repository("benchmark", basedir.toURI().toString());
+    }
+
+    @Override
+    public void stop() {}
+
+    @Override
+    public Repository getRepository() {
+        return repository;
+    }
+
+    @Override
+    public AuthenticationInfo getAuthenticationInfo() {
+        return null;
+    }
+
+    @Override
+    public StreamingWagon newWagon() {
+        return new FileWagon();
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.wagon.benchmarks.e2e;
+
+import java.io.File;
+import java.util.Collections;
+
+import org.apache.ftpserver.ConnectionConfigFactory;
+import org.apache.ftpserver.FtpServer;
+import org.apache.ftpserver.FtpServerFactory;
+import org.apache.ftpserver.listener.Listener;
+import org.apache.ftpserver.listener.ListenerFactory;
+import org.apache.ftpserver.usermanager.PropertiesUserManagerFactory;
+import org.apache.ftpserver.usermanager.impl.BaseUser;
+import org.apache.ftpserver.usermanager.impl.WritePermission;
+import org.apache.maven.wagon.StreamingWagon;
+import org.apache.maven.wagon.authentication.AuthenticationInfo;
+import org.apache.maven.wagon.providers.ftp.FtpWagon;
+import org.apache.maven.wagon.repository.Repository;
+
+/**
+ * An embedded Apache FtpServer, set up as in the <code>wagon-ftp</code> tests.
+ */
+class FtpRepositoryFixture implements RepositoryFixture {
+    private static final String USER = "admin";
+
+    private static final int MAX_LOGINS = 256;
+
+    private FtpServer server;
+
+    private Repository repository;
+
+    @Override
+    public void start(File basedir) throws Exception {
+        ListenerFactory listenerFactory = new ListenerFactory();
+        listenerFactory.setServerAddress("localhost");
+        listenerFactory.setPort(0);
+        Listener listener = listenerFactory.createListener();
+
+        BaseUser user = new BaseUser();
+        user.setName(USER);
+        user.setPassword(USER);
+        user.setAuthorities(Collections.singletonList(new WritePermission()));
+        user.setHomeDirectory(basedir.getAbsolutePath());
+        // the default of 300 seconds drops the idle connections of the workers between iterations
+        user.setMaxIdleTime(0);
+
+        FtpServerFactory serverFactory = new FtpServerFactory();
+        serverFactory.addListener("default", listener);
+        serverFactory.setUserManager(new PropertiesUserManagerFactory().createUserManager());
+        serverFactory.getUserManager().save(user);
+        // the default limit of 10 logins would not let 64 workers in
+        ConnectionConfigFactory connectionConfigFactory = new ConnectionConfigFactory();
+        connectionConfigFactory.setMaxLogins(MAX_LOGINS);
+        serverFactory.setConnectionConfig(connectionConfigFactory.createConnectionConfig());
+
+        server = serverFactory.createServer();
+        server.start();
+
+        repository = new Repository("benchmark", "ftp://localhost:" + listener.getPort());
+    }
+
+    @Override
+    public void stop() {
+        if (server != null) {
+            server.stop();
+        }
+    }
+
+    @Override
+    public Repository getRepository() {
+        return repository;
+    }
+
+    @Override
+    public AuthenticationInfo getAuthenticationInfo() {
+        AuthenticationInfo authenticationInfo = new AuthenticationInfo();
+        authenticationInfo.setUserName(USER);
+        authenticationInfo.setPassword(USER);
+        return authenticationInfo;
+    }
+
+    @Override
+    public StreamingWagon newWagon() {
+        return new FtpWagon();
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.wagon.benchmarks.e2e;
+
+import java.io.File;
+
+import org.apache.maven.wagon.StreamingWagon;
+import org.apache.maven.wagon.authentication.AuthenticationInfo;
+import org.apache.maven.wagon.providers.http.HttpWagon;
+import org.apache.maven.wagon.providers.http.LightweightHttpWagon;
+import org.apache.maven.wagon.providers.http.LightweightHttpWagonAuthenticator;
+import org.apache.maven.wagon.providers.webdav.WebDavWagon;
+import org.apache.maven.wagon.repository.Repository;
+import org.apache.maven.wagon.tck.http.fixture.ServerFixture;
+
+/**
+ * The Jetty server of the HTTP TCK, with a {@link RepositoryServlet} mounted on <code>/repo</code>, for the
+ * HttpClient, lightweight and WebDAV providers.
+ */
+class HttpRepositoryFixture implements RepositoryFixture {
+    private final String provider;
+
+    private ServerFixture server;
+
+    private Repository repository;
+
+    HttpRepositoryFixture(String provider) {
+        this.provider = provider;
+    }
+
+    @Override
+    public void start(File basedir) throws Exception {
+        server = new ServerFixture(false);
+        server.addServlet("/repo/*", new RepositoryServlet(basedir));
+        server.start();
+
+        String url = "http://localhost:" + server.getHttpPort() + "/repo";
+        repository = new Repository("benchmark", "webdav".equals(provider) ? "dav:" + url : url);
+    }
+
+    @Override
+    public void stop() throws Exception {
+        if (server != null) {
+            server.stop();
+        }
+    }
+
+    @Override
+    public Repository getRepository() {
+        return repository;
+    }
+
+    @Override
+    public AuthenticationInfo getAuthenticationInfo() {
+        return null;
+    }
+
+    @Override
+    public StreamingWagon newWagon() {
+        switch (provider) {
+            case "http-lightweight":
+                LightweightHttpWagon wagon = new LightweightHttpWagon();
+                wagon.setAuthenticator(new LightweightHttpWagonAuthenticator());
+                return wagon;
+            case "webdav":
+                return new WebDavWagon();
+            default:
+                return new HttpWagon();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.wagon.benchmarks.e2e;
+
+import java.io.InputStream;
+import java.util.Random;
+
+/**
+ * Content of any length generated from a repeated block of random bytes, so that uploads neither read a source
+ * from disk nor compress well on the wire.
+ */
+class PatternInputStream extends InputStream {
+    private static final byte[] PATTERN = new byte[64 * 1024 + 1];
+
+    static {
+        new Random(0L).nextBytes(PATTERN);
+    }
+
+    private final long length;
+
+    private long position;
+
+    PatternInputStream(long length) {
+        this.length = length;
+    }
+
+    @Override
+    public int read() {
+        if (position >= length) {
+            return -1;
+        }
+        return PATTERN[(int) (position++ % PATTERN.length)] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+        if (len == 0) {
+            return 0;
+        }
+        if (position >= length) {
+            return -1;
+        }
+        int offset = (int) (position % PATTERN.length);
+        int n = (int) Math.min(Math.min(len, PATTERN.length - offset), length - position);
+        System.arraycopy(PATTERN, offset, b, off, n);
+        position += n;
+        return n;
+    }
+
+    @Override
+    public int available() {
+        return (int) Math.min(Integer.MAX_VALUE, length - position);
+    }
+}
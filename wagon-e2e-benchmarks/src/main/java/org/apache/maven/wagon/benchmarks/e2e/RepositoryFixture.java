@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.wagon.benchmarks.e2e;
+
+import java.io.File;
+
+import org.apache.maven.wagon.StreamingWagon;
+import org.apache.maven.wagon.authentication.AuthenticationInfo;
+import org.apache.maven.wagon.repository.Repository;
+
+/**
+ * An embedded server on the loopback interface exposing a directory as a repository to one provider.
+ */
+interface RepositoryFixture {
+    /**
+     * Starts serving the given directory.
+     */
+    void start(File basedir) throws Exception;
+
+    void stop() throws Exception;
+
+    Repository getRepository();
+
+    /**
+     * @return the credentials the server accepts, <code>null</code> when it does not authenticate
+     */
+    AuthenticationInfo getAuthenticationInfo();
+
+    /**
+     * @return a new, not yet connected wagon for the repository
+     */
+    StreamingWagon newWagon();
+
+    /**
+     * @param provider one of <code>http</code>, <code>http-lightweight</code>, <code>webdav</code>, <code>scp</code>,
+     *            <code>sftp</code>, <code>ftp</code> or <code>file</code>
+     */
+    static RepositoryFixture forProvider(String provider) {
+        switch (provider) {
+            case "http":
+            case "http-lightweight":
+            case "webdav":
+                return new HttpRepositoryFixture(provider);
+            case "scp":
+            case "sftp":
+                return new SshRepositoryFixture(provider);
+            case "ftp":
+                return new FtpRepositoryFixture();
+            case "file":
+                return new FileRepositoryFixture();
+            default:
+                throw new IllegalArgumentException("Unknown provider: " + provider);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.wagon.benchmarks.e2e;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * A minimal repository over HTTP: <code>GET</code>, <code>HEAD</code> and <code>PUT</code> of files, and the
+ * <code>MKCOL</code> the WebDAV provider creates the parent collections with.
+ */
+class RepositoryServlet extends HttpServlet {
+    private static final long serialVersionUID = 1L;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final File basedir;
+
+    RepositoryServlet(File basedir) {
+        this.basedir = basedir;
+    }
+
+    @Override
+    protected void service(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+        if ("MKCOL".equals(req.getMethod())) {
+            doMkcol(req, resp);
+        } else {
+            super.service(req, resp);
+        }
+    }
+
+    @Override
+    protected void doHead(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        File file = getFile(req);
+        if (!file.isFile()) {
+            resp.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        resp.setContentLengthLong(file.length());
+        resp.setDateHeader("Last-Modified", file.lastModified());
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        File file = getFile(req);
+        if (!file.isFile()) {
+            resp.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        resp.setContentType("application/octet-stream");
+        resp.setContentLengthLong(file.length());
+        resp.setDateHeader("Last-Modified", file.lastModified());
+        try (InputStream in = Files.newInputStream(file.toPath())) {
+            copy(in, resp.getOutputStream());
+        }
+    }
+
+    @Override
+    protected void doPut(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        File file = getFile(req);
+        File parent = file.getParentFile();
+        if (!parent.isDirectory() && !parent.mkdirs()) {
+            resp.sendError(HttpServletResponse.SC_CONFLICT);
+            return;
+        }
+        // concurrent readers of the previous version keep seeing it whole
+        File temp = File.createTempFile(file.getName(), ".put", parent);
+        try {
+            try (InputStream in = req.getInputStream();
+                    OutputStream out = Files.newOutputStream(temp.toPath())) {
+                copy(in, out);
+            }
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp.toPath());
+        }
+        resp.setStatus(HttpServletResponse.SC_CREATED);
+    }
+
+    private void doMkcol(HttpServletRequest req, HttpServletResponse resp) {
+        File directory = getFile(req);
+        if (directory.exists()) {
+            resp.setStatus(HttpServletResponse.SC_METHOD_NOT_ALLOWED);
+        } else if (directory.mkdirs()) {
+            resp.setStatus(HttpServletResponse.SC_CREATED);
+        } else {
+            resp.setStatus(HttpServletResponse.SC_CONFLICT);
+        }
+    }
+
+    private File getFile(HttpServletRequest req) {
+        String path = req.getPathInfo();
+        return path == null ? basedir : new File(basedir, path);
+    }
+
+    private static void copy(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        for (int n = in.read(buffer); n != -1; n = in.read(buffer)) {
+            out.write(buffer, 0, n);
+        }
+    }
+}
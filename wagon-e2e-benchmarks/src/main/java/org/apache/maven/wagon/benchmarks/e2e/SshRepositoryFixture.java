@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.wagon.benchmarks.e2e;
+
+import java.io.File;
+import java.util.Collections;
+
+import org.apache.maven.wagon.StreamingWagon;
+import org.apache.maven.wagon.authentication.AuthenticationInfo;
+import org.apache.maven.wagon.providers.ssh.SshServerEmbedded;
+import org.apache.maven.wagon.providers.ssh.TestData;
+import org.apache.maven.wagon.providers.ssh.jsch.AbstractJschWagon;
+import org.apache.maven.wagon.providers.ssh.jsch.ScpWagon;
+import org.apache.maven.wagon.providers.ssh.jsch.SftpWagon;
+import org.apache.maven.wagon.providers.ssh.knownhost.KnownHostEntry;
+import org.apache.maven.wagon.providers.ssh.knownhost.KnownHostsProvider;
+import org.apache.maven.wagon.repository.Repository;
+
+/**
+ * The embedded Apache MINA SSHD of the <code>wagon-ssh</code> tests, serving the native file system over scp and
+ * sftp.
+ */
+class SshRepositoryFixture implements RepositoryFixture {
+    private final String protocol;
+
+    private SshServerEmbedded server;
+
+    private Repository repository;
+
+    SshRepositoryFixture(String protocol) {
+        this.protocol = protocol;
+    }
+
+    @Override
+    public void start(File basedir) throws Exception {
+        server = new SshServerEmbedded(protocol, Collections.singletonList("ssh-keys/id_rsa"), false);
+        int port = server.start();
+
+        repository = new Repository("benchmark", protocol + "://localhost:" + port + basedir.getAbsolutePath());
+    }
+
+    @Override
+    public void stop() throws Exception {
+        if (server != null) {
+            server.stop();
+        }
+    }
+
+    @Override
+    public Repository getRepository() {
+        return repository;
+    }
+
+    @Override
+    public AuthenticationInfo getAuthenticationInfo() {
+        AuthenticationInfo authenticationInfo = new AuthenticationInfo();
+        authenticationInfo.setUserName(TestData.getUserName());
+        authenticationInfo.setPassword(TestData.getUserPassword());
+        return authenticationInfo;
+    }
+
+    @Override
+    public StreamingWagon newWagon() {
+        AbstractJschWagon wagon = "sftp".equals(protocol) ? new SftpWagon() : new ScpWagon();
+        wagon.setInteractive(false);
+        wagon.setKnownHostsProvider(new KnownHostsProvider() {
+            @Override
+            public void storeKnownHosts(String contents) {}
+
+            @Override
+            public void addKnownHost(KnownHostEntry knownHost) {}
+
+            @Override
+            public void setHostKeyChecking(String hostKeyChecking) {}
+
+            @Override
+            public String getHostKeyChecking() {
+                return "no";
+            }
+
+            @Override
+            public String getContents() {
+                return null;
+            }
+        });
+        return wagon;
+    }
+}
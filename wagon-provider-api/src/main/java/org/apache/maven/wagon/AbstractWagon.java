@@ -21,25 +21,45 @@
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
 import java.nio.Buffer;
 import java.nio.ByteBuffer;
 import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.channels.ReadableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 import org.apache.maven.wagon.authentication.AuthenticationException;
 import org.apache.maven.wagon.authentication.AuthenticationInfo;
 import org.apache.maven.wagon.authorization.AuthorizationException;
+import org.apache.maven.wagon.bandwidth.BandwidthLimits;
+import org.apache.maven.wagon.bandwidth.TokenBucket;
+import org.apache.maven.wagon.cache.EntityTagStore;
+import org.apache.maven.wagon.cache.NegativeCache;
+import org.apache.maven.wagon.cache.SidecarEntityTagStore;
+import org.apache.maven.wagon.events.ProgressBackPressure;
 import org.apache.maven.wagon.events.SessionEvent;
 import org.apache.maven.wagon.events.SessionEventSupport;
 import org.apache.maven.wagon.events.SessionListener;
 import org.apache.maven.wagon.events.TransferEvent;
 import org.apache.maven.wagon.events.TransferEventSupport;
 import org.apache.maven.wagon.events.TransferListener;
+import org.apache.maven.wagon.jfr.WagonEvent;
+import org.apache.maven.wagon.jfr.WagonEvents;
 import org.apache.maven.wagon.proxy.ProxyInfo;
 import org.apache.maven.wagon.proxy.ProxyInfoProvider;
 import org.apache.maven.wagon.proxy.ProxyUtils;
@@ -55,7 +75,7 @@
  *
  * @author <a href="michal.maczka@dimatics.com">Michal Maczka</a>
  */
-public abstract class AbstractWagon implements Wagon {
+public abstract class AbstractWagon implements BatchWagon, AsyncWagon {
     protected static final int DEFAULT_BUFFER_SIZE = 4 * 1024;
     protected static final int MAXIMUM_BUFFER_SIZE = 512 * 1024;
 
@@ -104,6 +124,96 @@ public abstract class AbstractWagon implements Wagon {
 
     private RepositoryPermissions permissionsOverride;
 
+    /**
+     * Maximum number of items of a batch transfer running at the same time, if the provider
+     * {@link #supportsConcurrentTransfers() supports it}.
+     *
+     * @since 4.0.0
+     */
+    private int maxConcurrentTransfers = Integer.getInteger("maven.wagon.batch.maxConcurrentTransfers", 4);
+
+    /**
+     * Executor running the asynchronous operations, the shared default one if <code>null</code>.
+     *
+     * @since 4.0.0
+     */
+    private Executor asyncExecutor;
+
+    /**
+     * Pool the transfer buffers are leased from, the shared one if <code>null</code>.
+     *
+     * @since 4.0.0
+     */
+    private TransferBufferPool transferBufferPool;
+
+    /**
+     * Whether the progress of the transfers is notified on another thread while the next chunk is transferred.
+     *
+     * @since 4.0.0
+     */
+    private boolean overlappedProgress = Boolean.getBoolean("maven.wagon.transfer.overlappedProgress");
+
+    /**
+     * Whether downloads are written to a temporary file which is then atomically moved to the destination.
+     *
+     * @since 4.0.0
+     */
+    private boolean atomicGet = Boolean.getBoolean("maven.wagon.get.atomic");
+
+    /**
+     * Whether the temporary file of an {@link #atomicGet atomic} download is given the length of the resource up
+     * front.
+     *
+     * @since 4.0.0
+     */
+    private boolean preallocateGet = Boolean.getBoolean("maven.wagon.get.preallocate");
+
+    /**
+     * Whether interrupted downloads are kept to be resumed by the next download of the same resource.
+     *
+     * @since 4.0.0
+     */
+    private boolean resumableGet = Boolean.getBoolean("maven.wagon.get.resumable");
+
+    /**
+     * Resources recently found missing, not probed again.
+     *
+     * @since 4.0.0
+     */
+    private NegativeCache negativeCache = NegativeCache.getShared();
+
+    /**
+     * Entity tags of the downloaded resources, sent by conditional downloads.
+     *
+     * @since 4.0.0
+     */
+    private EntityTagStore entityTagStore =
+            Boolean.getBoolean("maven.wagon.get.entityTags") ? new SidecarEntityTagStore() : null;
+
+    /**
+     * Scheduler admitting the batch and asynchronous transfers, <code>null</code> to start them at once.
+     *
+     * @since 4.0.0
+     */
+    private TransferScheduler transferScheduler =
+            Boolean.getBoolean("maven.wagon.transfer.scheduled") ? TransferScheduler.getShared() : null;
+
+    /**
+     * Last asynchronous operation submitted, used to run the operations of providers which do not
+     * {@link #supportsConcurrentTransfers() support concurrent transfers} one after the other.
+     */
+    private CompletableFuture<?> asyncTail = CompletableFuture.completedFuture(null);
+
+    /**
+     * Bandwidth limit of the repository this wagon is connected to, <code>null</code> if unlimited.
+     */
+    private TokenBucket bandwidthLimit;
+
+    /**
+     * Flight recorder event of the get or put the current thread is running, if a recording wants it.
+     */
+    private final ThreadLocal<FlightTransfer> flightTransfer = new ThreadLocal<>();
+
     // ----------------------------------------------------------------------
     // Accessors
     // ----------------------------------------------------------------------
@@ -125,6 +235,20 @@ public AuthenticationInfo getAuthenticationInfo() {
     // Connection
     // ----------------------------------------------------------------------
 
+    /**
+     * Binds this connected wagon to the repository and proxies of a new lease from a {@link WagonPool}, which are
+     * equal to those it was connected with, so that it does not keep using the objects of its first lease.
+     */
+    void rebind(Repository repository, ProxyInfoProvider proxyInfoProvider) {
+        if (permissionsOverride != null) {
+            repository.setPermissions(permissionsOverride);
+        }
+
+        this.repository = repository;
+
+        this.proxyInfoProvider = proxyInfoProvider;
+    }
+
     @Deprecated
     @Override
     public void openConnection() throws ConnectionException, AuthenticationException {
@@ -205,27 +329,45 @@ public void connect(
 
         this.proxyInfoProvider = proxyInfoProvider;
 
+        this.bandwidthLimit = BandwidthLimits.forRepository(repository);
+
+        WagonEvent event = WagonEvents.connect();
+        event.begin();
+
         fireSessionOpening();
 
-        openConnection();
+        try {
+            openConnection();
+        } catch (ConnectionException | AuthenticationException e) {
+            commitFlightEvent(event, null, 0L, e);
+            throw e;
+        }
 
         fireSessionOpened();
+
+        commitFlightEvent(event, null, 0L, null);
     }
 
     protected abstract void openConnectionInternal() throws ConnectionException, AuthenticationException;
 
     @Override
     public void disconnect() throws ConnectionException {
+        WagonEvent event = WagonEvents.disconnect();
+        event.begin();
+
         fireSessionDisconnecting();
 
         try {
             closeConnection();
         } catch (ConnectionException e) {
             fireSessionError(e);
+            commitFlightEvent(event, null, 0L, e);
             throw e;
         }
 
         fireSessionDisconnected();
+
+        commitFlightEvent(event, null, 0L, null);
     }
 
     protected abstract void closeConnection() throws ConnectionException;
@@ -284,15 +426,76 @@ protected void getTransfer(Resource resource, File destination, InputStream inpu
 
         fireGetStarted(resource, destination);
 
-        try (OutputStream output = new LazyFileOutputStream(destination)) {
-            getTransfer(resource, output, input, closeInput, maxSize);
+        // in atomic mode, the destination only ever appears complete to concurrent readers
+        File target = atomicGet ? getTemporaryFile(destination) : destination;
+        try {
+            long preallocatedLength = atomicGet && preallocateGet ? resource.getContentLength() : 0L;
+            try (OutputStream output = new LazyFileOutputStream(target, preallocatedLength)) {
+                getTransfer(resource, output, input, closeInput, maxSize);
+            }
+            if (target != destination && target.exists()) {
+                moveAtomically(target, destination);
+            }
         } catch (final IOException e) {
-            if (destination.exists()) {
-                boolean deleted = destination.delete();
+            deleteQuietly(target);
 
-                if (!deleted) {
-                    destination.deleteOnExit();
-                }
+            fireTransferError(resource, e, TransferEvent.REQUEST_GET);
+
+            String msg = "GET request of: " + resource.getName() + " from " + repository.getName() + " failed";
+
+            throw new TransferFailedException(msg, e);
+        } catch (TransferFailedException e) {
+            deleteQuietly(target);
+            throw e;
+        }
+
+        fireGetCompleted(resource, destination);
+    }
+
+    /**
+     * Downloads a resource to the {@link PartialDownload#getFile() partial file} of the destination, appending to
+     * the data already there if the provider {@link PartialDownload#isResumed() resumed} it, then moves it into
+     * place once complete. If the transfer fails, the partial data and its validators are kept for the next attempt
+     * to resume from.
+     *
+     * @param resource        the resource to download
+     * @param destination     the file to download to
+     * @param input           the stream of the resource, starting after the partial data if it is resumed
+     * @param partialDownload the partial download of the destination
+     * @throws TransferFailedException if the transfer failed
+     * @since 4.0.0
+     */
+    protected void getTransfer(Resource resource, File destination, InputStream input, PartialDownload partialDownload)
+            throws TransferFailedException {
+        fireTransferDebug("attempting to create parent directories for destination: " + destination.getName());
+        createParentDirectories(destination);
+
+        fireGetStarted(resource, destination);
+
+        File target = partialDownload.getFile();
+        boolean resumed = partialDownload.isResumed();
+        try {
+            if (resumed) {
+                fireTransferDebug("resuming download of " + resource.getName() + " after "
+                        + partialDownload.getLength() + " bytes");
+                // listeners such as checksum observers need to see the whole content
+                fireTransferProgress(resource, target, partialDownload.getLength());
+            }
+            partialDownload.save();
+
+            try (OutputStream output = new FileOutputStream(target, resumed)) {
+                getTransfer(resource, output, input, true, Long.MAX_VALUE);
+            }
+
+            moveAtomically(target, destination);
+            partialDownload.complete();
+        } catch (IOException e) {
+            partialDownload.discard();
+
+            try {
+                input.close();
+            } catch (IOException ignore) {
+                // the transfer failure prevails
             }
 
             fireTransferError(resource, e, TransferEvent.REQUEST_GET);
@@ -300,18 +503,80 @@ protected void getTransfer(Resource resource, File destination, InputStream inpu
             String msg = "GET request of: " + resource.getName() + " from " + repository.getName() + " failed";
 
             throw new TransferFailedException(msg, e);
-        } catch (TransferFailedException e) {
-            if (destination.exists()) {
-                boolean deleted = destination.delete();
+        }
 
-                if (!deleted) {
-                    destination.deleteOnExit();
+        fireGetCompleted(resource, destination);
+    }
+
+    /**
+     * Notifies the progress of the given bytes of a local file, as if they had just been transferred.
+     */
+    private void fireTransferProgress(Resource resource, File file, long length) throws IOException {
+        if (!transferEventSupport.hasTransferListeners()) {
+            return;
+        }
+
+        TransferEvent transferEvent =
+                new TransferEvent(this, resource, TransferEvent.TRANSFER_PROGRESS, TransferEvent.REQUEST_GET);
+        transferEvent.setTimestamp(System.currentTimeMillis());
+
+        TransferBufferPool bufferPool = getTransferBufferPool();
+        ByteBuffer buffer = bufferPool.acquire(getBufferCapacityForTransfer(length));
+        try (InputStream input = new FileInputStream(file)) {
+            long remaining = length;
+            while (remaining > 0L) {
+                int read = input.read(buffer.array(), 0, (int) min(buffer.capacity(), remaining));
+                if (read == -1) {
+                    throw new IOException("Partial download " + file + " is shorter than " + length + " bytes");
                 }
+                fireTransferProgress(transferEvent, buffer.array(), read);
+                remaining -= read;
             }
-            throw e;
+        } finally {
+            bufferPool.release(buffer);
         }
+    }
 
-        fireGetCompleted(resource, destination);
+    /**
+     * @param destination the file to download to
+     * @return a new file next to the destination, to download to before {@link #moveAtomically(File, File) moving}
+     *         it into place
+     * @since 4.0.0
+     */
+    protected static File getTemporaryFile(File destination) {
+        return new File(destination.getParentFile(), destination.getName() + "." + UUID.randomUUID() + ".tmp");
+    }
+
+    /**
+     * Moves a downloaded file into place, so that concurrent readers of the destination never see it partially
+     * written where the file system supports it.
+     *
+     * @param source      the downloaded file
+     * @param destination the file to replace with it
+     * @throws IOException if the file could not be moved
+     * @since 4.0.0
+     */
+    protected static void moveAtomically(File source, File destination) throws IOException {
+        try {
+            Files.move(
+                    source.toPath(),
+                    destination.toPath(),
+                    StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            // e.g. the temporary file ended up on another file store, the best we can do is a plain move
+            Files.move(source.toPath(), destination.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void deleteQuietly(File file) {
+        if (file.exists()) {
+            boolean deleted = file.delete();
+
+            if (!deleted) {
+                file.deleteOnExit();
+            }
+        }
     }
 
     @Deprecated
@@ -325,9 +590,11 @@ protected void getTransfer(
             Resource resource, OutputStream output, InputStream input, boolean closeInput, long maxSize)
             throws TransferFailedException {
         try {
-            transfer(resource, input, output, TransferEvent.REQUEST_GET, maxSize);
+            try (TransferScheduler.Permit permit = admitTransfer(resource, TransferEvent.REQUEST_GET)) {
+                transfer(resource, input, output, TransferEvent.REQUEST_GET, maxSize);
 
-            finishGetTransfer(resource, input, output);
+                finishGetTransfer(resource, input, output);
+            }
         } catch (IOException e) {
             fireTransferError(resource, e, TransferEvent.REQUEST_GET);
 
@@ -390,16 +657,18 @@ protected void transfer(Resource resource, File source, OutputStream output, boo
     protected void putTransfer(Resource resource, InputStream input, OutputStream output, boolean closeOutput)
             throws TransferFailedException, AuthorizationException, ResourceDoesNotExistException {
         try {
-            transfer(
-                    resource,
-                    input,
-                    output,
-                    TransferEvent.REQUEST_PUT,
-                    resource.getContentLength() == WagonConstants.UNKNOWN_LENGTH
-                            ? Long.MAX_VALUE
-                            : resource.getContentLength());
-
-            finishPutTransfer(resource, input, output);
+            try (TransferScheduler.Permit permit = admitTransfer(resource, TransferEvent.REQUEST_PUT)) {
+                transfer(
+                        resource,
+                        input,
+                        output,
+                        TransferEvent.REQUEST_PUT,
+                        resource.getContentLength() == WagonConstants.UNKNOWN_LENGTH
+                                ? Long.MAX_VALUE
+                                : resource.getContentLength());
+
+                finishPutTransfer(resource, input, output);
+            }
 
             if (closeOutput) {
                 output.close();
@@ -476,10 +745,48 @@ protected void transfer(Resource resource, InputStream input, OutputStream outpu
      * @param maxSize     size of the buffer
      * @throws IOException
      */
-    @SuppressWarnings("RedundantCast")
     protected void transfer(Resource resource, InputStream input, OutputStream output, int requestType, long maxSize)
             throws IOException {
-        ByteBuffer buffer = ByteBuffer.allocate(getBufferCapacityForTransfer(resource.getContentLength()));
+        if (input instanceof FileInputStream && isFileChannelCapable(output)) {
+            FileChannel in = ((FileInputStream) input).getChannel();
+            // only regular files have a meaningful size, anything else (e.g. a pipe) goes through the buffer
+            if (in.size() > in.position()) {
+                transfer(resource, in, output, requestType, maxSize);
+                return;
+            }
+        }
+
+        TransferBufferPool bufferPool = getTransferBufferPool();
+        int capacity = getBufferCapacityForTransfer(resource.getContentLength());
+        TransferBufferPool.Lease lease = bufferPool.lease(capacity);
+        ByteBuffer spare = null;
+        ProgressPipeline pipeline = null;
+        try {
+            if (overlappedProgress && transferEventSupport.hasTransferListeners()) {
+                spare = bufferPool.acquire(capacity);
+                pipeline = new ProgressPipeline(this, WagonExecutors.Progress.INSTANCE, spare);
+            }
+            transfer(resource, input, output, requestType, maxSize, lease, pipeline);
+        } finally {
+            if (pipeline != null) {
+                pipeline.close();
+            }
+            bufferPool.release(spare);
+            lease.close();
+        }
+    }
+
+    @SuppressWarnings("RedundantCast")
+    private void transfer(
+            Resource resource,
+            InputStream input,
+            OutputStream output,
+            int requestType,
+            long maxSize,
+            TransferBufferPool.Lease lease,
+            ProgressPipeline pipeline)
+            throws IOException {
+        ByteBuffer buffer = lease.buffer();
         int halfBufferCapacity = buffer.capacity() / 2;
 
         TransferEvent transferEvent = new TransferEvent(this, resource, TransferEvent.TRANSFER_PROGRESS, requestType);
@@ -487,16 +794,26 @@ protected void transfer(Resource resource, InputStream input, OutputStream outpu
 
         ReadableByteChannel in = Channels.newChannel(input);
 
+        // the pipeline alternates two buffers of the same capacity, which is kept
+        AdaptiveBufferSizer sizer = pipeline == null ? newAdaptiveBufferSizer(resource.getContentLength()) : null;
+        int reads = 0;
+        long chunkStart = System.nanoTime();
+
         long remaining = maxSize;
         while (remaining > 0L) {
             int read = in.read(buffer);
+            reads++;
 
             if (read == -1) {
                 // EOF, but some data has not been written yet.
                 if (((Buffer) buffer).position() != 0) {
                     ((Buffer) buffer).flip();
-                    fireTransferProgress(transferEvent, buffer.array(), ((Buffer) buffer).limit());
-                    output.write(buffer.array(), 0, ((Buffer) buffer).limit());
+                    int length = ((Buffer) buffer).limit();
+                    ByteBuffer next = fireTransferProgress(transferEvent, buffer, length, pipeline);
+                    throttle(length);
+                    output.write(buffer.array(), 0, length);
+                    transferred(length);
+                    buffer = next;
                     ((Buffer) buffer).clear();
                 }
 
@@ -510,14 +827,152 @@ protected void transfer(Resource resource, InputStream input, OutputStream outpu
             }
 
             ((Buffer) buffer).flip();
-            fireTransferProgress(transferEvent, buffer.array(), ((Buffer) buffer).limit());
-            output.write(buffer.array(), 0, ((Buffer) buffer).limit());
-            remaining -= ((Buffer) buffer).limit();
+            int length = ((Buffer) buffer).limit();
+            long chunkNanos = System.nanoTime() - chunkStart;
+            ByteBuffer next = fireTransferProgress(transferEvent, buffer, length, pipeline);
+            throttle(length);
+            output.write(buffer.array(), 0, length);
+            transferred(length);
+            remaining -= length;
+            buffer = next;
             ((Buffer) buffer).clear();
+
+            if (sizer != null) {
+                int capacity = sizer.update(length, reads, chunkNanos);
+                if (capacity != buffer.capacity()) {
+                    buffer = lease.resize(capacity);
+                    halfBufferCapacity = buffer.capacity() / 2;
+                }
+            }
+            reads = 0;
+            chunkStart = System.nanoTime();
+        }
+        if (pipeline != null) {
+            pipeline.await();
         }
         output.flush();
     }
 
+    /**
+     * Notifies the progress of a chunk, on another thread if there is a pipeline.
+     *
+     * @return the buffer to read the next chunk into
+     */
+    private ByteBuffer fireTransferProgress(
+            TransferEvent transferEvent, ByteBuffer buffer, int length, ProgressPipeline pipeline) {
+        if (pipeline != null) {
+            return pipeline.submit(transferEvent, buffer, length);
+        }
+        fireTransferProgress(transferEvent, buffer.array(), length);
+        return buffer;
+    }
+
+    private static boolean isFileChannelCapable(OutputStream output) {
+        return output instanceof FileOutputStream || output instanceof LazyFileOutputStream;
+    }
+
+    private static FileChannel getFileChannel(OutputStream output) throws IOException {
+        if (output instanceof LazyFileOutputStream) {
+            return ((LazyFileOutputStream) output).openChannel();
+        }
+        return ((FileOutputStream) output).getChannel();
+    }
+
+    /**
+     * Write from a file to a file stream: the bytes are copied by the kernel with
+     * {@link FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)}, chunk by chunk. Progress is
+     * still notified for every chunk, but the chunk is only read into user space when there are listeners to receive
+     * it.
+     */
+    private void transfer(Resource resource, FileChannel in, OutputStream output, int requestType, long maxSize)
+            throws IOException {
+        TransferEvent transferEvent = new TransferEvent(this, resource, TransferEvent.TRANSFER_PROGRESS, requestType);
+        transferEvent.setTimestamp(System.currentTimeMillis());
+
+        int capacity = getBufferCapacityForTransfer(resource.getContentLength());
+        boolean notify = transferEventSupport.hasTransferListeners();
+
+        // the chunk is only read into a buffer to be handed to the listeners which need its content
+        TransferBufferPool bufferPool = getTransferBufferPool();
+        ByteBuffer buffer = notify && transferEventSupport.needsProgressContent() ? bufferPool.acquire(capacity) : null;
+        ByteBuffer spare = null;
+        ProgressPipeline pipeline = null;
+        try {
+            if (buffer != null && overlappedProgress) {
+                spare = bufferPool.acquire(capacity);
+                pipeline = new ProgressPipeline(this, WagonExecutors.Progress.INSTANCE, spare);
+            }
+            transfer(transferEvent, in, getFileChannel(output), maxSize, capacity, buffer, pipeline);
+        } finally {
+            if (pipeline != null) {
+                pipeline.close();
+            }
+            bufferPool.release(spare);
+            bufferPool.release(buffer);
+        }
+        output.flush();
+    }
+
+    @SuppressWarnings("RedundantCast")
+    private void transfer(
+            TransferEvent transferEvent,
+            FileChannel in,
+            FileChannel out,
+            long maxSize,
+            int capacity,
+            ByteBuffer buffer,
+            ProgressPipeline pipeline)
+            throws IOException {
+        boolean notify = transferEventSupport.hasTransferListeners();
+        long position = in.position();
+        long remaining = min(maxSize, in.size() - position);
+        while (remaining > 0L) {
+            int chunk = (int) min(capacity, remaining);
+
+            if (buffer != null) {
+                ((Buffer) buffer).clear();
+                ((Buffer) buffer).limit(chunk);
+                while (buffer.hasRemaining()) {
+                    if (in.read(buffer, position + ((Buffer) buffer).position()) == -1) {
+                        break;
+                    }
+                }
+                chunk = ((Buffer) buffer).position();
+                if (chunk == 0) {
+                    break;
+                }
+                // the buffer is only read by the listeners, the copy itself is done from the file
+                buffer = fireTransferProgress(transferEvent, buffer, chunk, pipeline);
+            }
+
+            throttle(chunk);
+            long written = 0L;
+            while (written < chunk) {
+                long n = in.transferTo(position + written, chunk - written, out);
+                if (n <= 0L) {
+                    // the source was truncated while being copied
+                    break;
+                }
+                written += n;
+            }
+            if (written == 0L) {
+                break;
+            }
+            transferred(written);
+            if (notify && buffer == null) {
+                fireTransferProgress(transferEvent, null, (int) written);
+            }
+
+            position += written;
+            remaining -= written;
+        }
+        if (pipeline != null) {
+            pipeline.await();
+        }
+
+        in.position(position);
+    }
+
     /**
      * Provides a buffer size for efficiently transferring the given amount of bytes such that
      * it is not fragmented into too many chunks. For larger files larger buffers are provided such that downstream
@@ -528,6 +983,7 @@ protected void transfer(Resource resource, InputStream input, OutputStream outpu
      *
      * @param numberOfBytes can be 0 or less, in which case a default buffer size is used.
      * @return a byte buffer suitable for transferring the given amount of bytes without too many chunks.
+     * @see #newAdaptiveBufferSizer(long)
      */
     protected int getBufferCapacityForTransfer(long numberOfBytes) {
         if (numberOfBytes <= 0L) {
@@ -542,6 +998,26 @@ protected int getBufferCapacityForTransfer(long numberOfBytes) {
         return min(MAXIMUM_BUFFER_SIZE, max(DEFAULT_BUFFER_SIZE, (int) potentialBufferSize));
     }
 
+    /**
+     * Provides the sizer adapting the buffer of a transfer to its throughput, in place of the static
+     * {@link #getBufferCapacityForTransfer(long) sizing} from the content length. By default only the transfers of
+     * unknown length are adapted, starting from {@link #DEFAULT_BUFFER_SIZE} up to {@link #MAXIMUM_BUFFER_SIZE}.
+     *
+     * @param numberOfBytes the content length of the transfer, 0 or less if unknown
+     * @return a new sizer for the transfer, <code>null</code> to keep the static size
+     * @since 4.0.0
+     */
+    protected AdaptiveBufferSizer newAdaptiveBufferSizer(long numberOfBytes) {
+        if (numberOfBytes > 0L) {
+            return null;
+        }
+        return new AdaptiveBufferSizer(
+                DEFAULT_BUFFER_SIZE,
+                DEFAULT_BUFFER_SIZE,
+                MAXIMUM_BUFFER_SIZE,
+                AdaptiveBufferSizer.DEFAULT_TARGET_NANOS);
+    }
+
     // ----------------------------------------------------------------------
     //
     // ----------------------------------------------------------------------
@@ -551,6 +1027,8 @@ protected void fireTransferProgress(TransferEvent transferEvent, byte[] buffer,
     }
 
     protected void fireGetCompleted(Resource resource, File localFile) {
+        commitTransferFlightEvent(resource, WagonEvents.SUCCESS);
+
         long timestamp = System.currentTimeMillis();
 
         TransferEvent transferEvent =
@@ -577,6 +1055,8 @@ protected void fireGetStarted(Resource resource, File localFile) {
     }
 
     protected void fireGetInitiated(Resource resource, File localFile) {
+        beginTransferFlightEvent(WagonEvents.get());
+
         long timestamp = System.currentTimeMillis();
 
         TransferEvent transferEvent =
@@ -590,6 +1070,8 @@ protected void fireGetInitiated(Resource resource, File localFile) {
     }
 
     protected void firePutInitiated(Resource resource, File localFile) {
+        beginTransferFlightEvent(WagonEvents.put());
+
         long timestamp = System.currentTimeMillis();
 
         TransferEvent transferEvent =
@@ -603,6 +1085,12 @@ protected void firePutInitiated(Resource resource, File localFile) {
     }
 
     protected void firePutCompleted(Resource resource, File localFile) {
+        if (negativeCache != null && repository != null) {
+            negativeCache.invalidate(repository.getUrl(), resource.getName());
+        }
+
+        commitTransferFlightEvent(resource, WagonEvents.SUCCESS);
+
         long timestamp = System.currentTimeMillis();
 
         TransferEvent transferEvent =
@@ -747,10 +1235,115 @@ public void removeSessionListener(SessionListener listener) {
     }
 
     protected void fireTransferError(Resource resource, Exception e, int requestType) {
+        commitTransferFlightEvent(resource, WagonEvents.outcome(e));
+
         TransferEvent transferEvent = new TransferEvent(this, resource, e, requestType);
         transferEventSupport.fireTransferError(transferEvent);
     }
 
+    /**
+     * Records a JDK Flight Recorder event of an operation on the repository of this wagon, if a recording wants it.
+     *
+     * @param event the event, begun when the operation was
+     * @param resourceName the resource of the operation, if any
+     * @param bytes the bytes transferred by the operation
+     * @param failure the failure of the operation, <code>null</code> if it succeeded
+     * @since 4.0.0
+     */
+    protected void commitFlightEvent(WagonEvent event, String resourceName, long bytes, Throwable failure) {
+        if (event.shouldCommit()) {
+            event.commit(
+                    repository != null ? repository.getUrl() : null,
+                    resourceName,
+                    bytes,
+                    WagonEvents.outcome(failure));
+        }
+    }
+
+    /**
+     * Waits for the bandwidth of a chunk about to be transferred, taking it from the bucket of the repository, if
+     * its parameters limit it, and then from the bucket shared by all the transfers, if any. Called by the transfer
+     * loops before each chunk; providers writing or reading the content themselves call it the same way.
+     *
+     * @param length the bytes of the chunk
+     * @throws InterruptedIOException if the thread is interrupted while waiting
+     * @see BandwidthLimits
+     * @since 4.0.0
+     */
+    protected void throttle(int length) throws InterruptedIOException {
+        TokenBucket repositoryLimit = bandwidthLimit;
+        if (repositoryLimit != null) {
+            repositoryLimit.acquire(length);
+        }
+        TokenBucket globalLimit = BandwidthLimits.getGlobal();
+        if (globalLimit != null) {
+            globalLimit.acquire(length);
+        }
+    }
+
+    /**
+     * Counts bytes of the get or put the current thread is running as moved to or from the repository, for its
+     * flight recorder event. Called by the transfer loops once a chunk is written; providers moving the content
+     * themselves call it the same way, from the thread which initiated the transfer.
+     *
+     * @param length the bytes moved
+     * @since 4.0.0
+     */
+    protected void transferred(long length) {
+        FlightTransfer transfer = flightTransfer.get();
+        if (transfer != null) {
+            transfer.bytes += length;
+        }
+    }
+
+    /**
+     * Ends a conditional get which found the resource up to date, and therefore did not transfer it.
+     *
+     * @param resource the resource found up to date
+     * @since 4.0.0
+     */
+    protected void resourceNotModified(Resource resource) {
+        commitTransferFlightEvent(resource, WagonEvents.NOT_MODIFIED);
+
+        TransferEvent transferEvent =
+                new TransferEvent(this, resource, TransferEvent.TRANSFER_NOT_MODIFIED, TransferEvent.REQUEST_GET);
+
+        transferEvent.setTimestamp(System.currentTimeMillis());
+
+        transferEventSupport.fireTransferNotModified(transferEvent);
+    }
+
+    private void beginTransferFlightEvent(WagonEvent event) {
+        if (event.isEnabled()) {
+            event.begin();
+            flightTransfer.set(new FlightTransfer(event));
+        }
+    }
+
+    private void commitTransferFlightEvent(Resource resource, String outcome) {
+        FlightTransfer transfer = flightTransfer.get();
+        if (transfer != null) {
+            flightTransfer.remove();
+            if (transfer.event.shouldCommit()) {
+                transfer.event.commit(
+                        repository != null ? repository.getUrl() : null, resource.getName(), transfer.bytes, outcome);
+            }
+        }
+    }
+
+    /**
+     * The flight recorder event of a get or put, with the bytes it moved so far.
+     */
+    private static final class FlightTransfer {
+        private final WagonEvent event;
+
+        private long bytes;
+
+        FlightTransfer(WagonEvent event) {
+            this.event = event;
+        }
+    }
+
     public SessionEventSupport getSessionEventSupport() {
         return sessionEventSupport;
     }
@@ -837,6 +1430,519 @@ public boolean resourceExists(String resourceName) throws TransferFailedExceptio
         throw new UnsupportedOperationException("The wagon you are using has not implemented resourceExists()");
     }
 
+    // ----------------------------------------------------------------------
+    // Batch transfers
+    // ----------------------------------------------------------------------
+
+    @Override
+    public List<TransferResult> getAll(List<TransferRequest> requests) {
+        return transferAll(requests, TransferEvent.REQUEST_GET);
+    }
+
+    @Override
+    public List<TransferResult> putAll(List<TransferRequest> requests) {
+        return transferAll(requests, TransferEvent.REQUEST_PUT);
+    }
+
+    /**
+     * Whether {@link #get(String, File)} and {@link #put(File, String)} may be invoked from several threads at the
+     * same time on this instance. Batch transfers of providers returning <code>false</code> run sequentially.
+     *
+     * @return <code>false</code> by default
+     * @since 4.0.0
+     */
+    protected boolean supportsConcurrentTransfers() {
+        return false;
+    }
+
+    private List<TransferResult> transferAll(List<TransferRequest> requests, int requestType) {
+        List<Callable<TransferResult>> transfers = new ArrayList<>(requests.size());
+        List<Integer> order = new ArrayList<>(requests.size());
+        for (TransferRequest request : requests) {
+            transfers.add(() -> transferOne(request, requestType));
+            order.add(order.size());
+        }
+        if (transferScheduler != null) {
+            // the most urgent first
+            order.sort(Comparator.comparing(
+                    i -> TransferScheduler.Priority.forResource(requests.get(i).getResourceName())));
+        }
+        int concurrency = supportsConcurrentTransfers() ? min(maxConcurrentTransfers, requests.size()) : 1;
+        return WagonExecutors.invokeAll(transfers, order, concurrency);
+    }
+
+    private TransferResult transferOne(TransferRequest request, int requestType) {
+        try {
+            TransferScheduler.runAdmitted(acquireTransferPermit(request.getResourceName()), () -> {
+                if (requestType == TransferEvent.REQUEST_GET) {
+                    get(request.getResourceName(), request.getFile());
+                } else {
+                    put(request.getFile(), request.getResourceName());
+                }
+                return null;
+            });
+            return new TransferResult(request, null);
+        } catch (WagonException e) {
+            return new TransferResult(request, e);
+        }
+    }
+
+    /**
+     * @return the maximum number of items of a batch transfer running at the same time
+     * @since 4.0.0
+     */
+    public int getMaxConcurrentTransfers() {
+        return maxConcurrentTransfers;
+    }
+
+    /**
+     * @param maxConcurrentTransfers the maximum number of items of a batch transfer running at the same time
+     * @since 4.0.0
+     */
+    public void setMaxConcurrentTransfers(int maxConcurrentTransfers) {
+        this.maxConcurrentTransfers = maxConcurrentTransfers;
+    }
+
+    /**
+     * @return the scheduler admitting the transfers, <code>null</code> if they start at once
+     * @since 4.0.0
+     */
+    public TransferScheduler getTransferScheduler() {
+        return transferScheduler;
+    }
+
+    /**
+     * @param transferScheduler the scheduler admitting the transfers, usually shared with the other wagons, or
+     *                          <code>null</code> to start them at once. Defaults to the
+     *                          {@link TransferScheduler#getShared() shared scheduler} if the
+     *                          <code>maven.wagon.transfer.scheduled</code> system property is <code>true</code>
+     * @since 4.0.0
+     */
+    public void setTransferScheduler(TransferScheduler transferScheduler) {
+        this.transferScheduler = transferScheduler;
+    }
+
+    /**
+     * Waits for the {@link #getTransferScheduler() scheduler} to admit a transfer from or to the repository of this
+     * wagon, with the priority of its resource.
+     *
+     * @param resourceName the resource to transfer
+     * @return the permit to close once the transfer is done, <code>null</code> if there is no scheduler or if the
+     *         transfer is part of a batch or asynchronous transfer already admitted
+     * @throws TransferFailedException if the thread is interrupted while waiting
+     * @since 4.0.0
+     */
+    protected TransferScheduler.Permit acquireTransferPermit(String resourceName) throws TransferFailedException {
+        TransferScheduler scheduler = transferScheduler;
+        if (scheduler == null || TransferScheduler.isAdmitted()) {
+            return null;
+        }
+        try {
+            return scheduler.acquire(getRepository(), TransferScheduler.Priority.forResource(resourceName));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TransferFailedException("Interrupted while waiting to transfer " + resourceName, e);
+        }
+    }
+
+    /**
+     * Waits for the {@link #getTransferScheduler() scheduler} to admit a transfer which already notified its
+     * initiation, as the providers do right before moving its content.
+     *
+     * @param resource    the resource to transfer
+     * @param requestType {@link TransferEvent#REQUEST_GET} or {@link TransferEvent#REQUEST_PUT}
+     * @return the permit to close once the transfer is done, see {@link #acquireTransferPermit(String)}
+     * @throws TransferFailedException if the thread is interrupted while waiting, the listeners being notified
+     * @since 4.0.0
+     */
+    protected TransferScheduler.Permit admitTransfer(Resource resource, int requestType)
+            throws TransferFailedException {
+        try {
+            return acquireTransferPermit(resource.getName());
+        } catch (TransferFailedException e) {
+            fireTransferError(resource, e, requestType);
+            throw e;
+        }
+    }
+
+    // ----------------------------------------------------------------------
+    // Asynchronous operations
+    // ----------------------------------------------------------------------
+
+    @Override
+    public CompletableFuture<Void> getAsync(String resourceName, File destination) {
+        return executeAdmittedAsync(
+                resourceName,
+                () -> {
+                    get(resourceName, destination);
+                    return null;
+                },
+                true);
+    }
+
+    @Override
+    public CompletableFuture<Void> putAsync(File source, String destination) {
+        return executeAdmittedAsync(
+                destination,
+                () -> {
+                    put(source, destination);
+                    return null;
+                },
+                true);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> resourceExistsAsync(String resourceName) {
+        return executeAsync(() -> resourceExists(resourceName), true);
+    }
+
+    @Override
+    public CompletableFuture<List<String>> getFileListAsync(String destinationDirectory) {
+        return executeAsync(() -> getFileList(destinationDirectory), true);
+    }
+
+    /**
+     * A blocking wagon operation run by {@link #executeAsync(AsyncOperation, boolean)}.
+     *
+     * @param <T> the type of the result
+     * @since 4.0.0
+     */
+    @FunctionalInterface
+    protected interface AsyncOperation<T> {
+        T execute() throws WagonException;
+    }
+
+    /**
+     * Runs a blocking operation on the {@link #getAsyncExecutor() asynchronous executor}. Unless the provider
+     * {@link #supportsConcurrentTransfers() supports concurrent transfers}, exclusive operations of this instance run
+     * one after the other, in submission order. Providers may pass <code>exclusive = false</code> for operations that
+     * do not touch any per-transfer state, or override the public asynchronous methods altogether to use
+     * non-blocking I/O.
+     *
+     * @param operation the operation to run
+     * @param exclusive whether the operation uses the state of this instance
+     * @param <T> the type of the result
+     * @return a future completed with the result of the operation, or exceptionally with its exception
+     * @since 4.0.0
+     */
+    protected <T> CompletableFuture<T> executeAsync(AsyncOperation<T> operation, boolean exclusive) {
+        Executor executor = getAsyncExecutor();
+        if (!exclusive || supportsConcurrentTransfers()) {
+            return CompletableFuture.supplyAsync(() -> executeOperation(operation), executor);
+        }
+
+        synchronized (this) {
+            CompletableFuture<T> future =
+                    asyncTail.handleAsync((result, error) -> executeOperation(operation), executor);
+            asyncTail = future;
+            return future;
+        }
+    }
+
+    /**
+     * Runs a transfer like {@link #executeAsync(AsyncOperation, boolean)} once the
+     * {@link #getTransferScheduler() scheduler} admitted it. The calling thread waits for the permit, so that the
+     * transfers waiting for their turn do not hold the threads of the executor.
+     *
+     * @param resourceName the resource to transfer
+     * @param operation    the transfer to run
+     * @param exclusive    whether the transfer uses the state of this instance
+     * @param <T> the type of the result
+     * @return a future completed with the result of the transfer, or exceptionally with its exception
+     * @since 4.0.0
+     */
+    protected <T> CompletableFuture<T> executeAdmittedAsync(
+            String resourceName, AsyncOperation<T> operation, boolean exclusive) {
+        TransferScheduler.Permit permit;
+        try {
+            permit = acquireTransferPermit(resourceName);
+        } catch (TransferFailedException e) {
+            CompletableFuture<T> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            return failed;
+        }
+        if (permit == null) {
+            return executeAsync(operation, exclusive);
+        }
+        try {
+            CompletableFuture<T> future = executeAsync(() -> TransferScheduler.runAdmitted(permit, operation), exclusive);
+            // given back even if the transfer never ran, closing it again has no effect
+            future.whenComplete((result, error) -> permit.close());
+            return future;
+        } catch (RuntimeException e) {
+            permit.close();
+            throw e;
+        }
+    }
+
+    private static <T> T executeOperation(AsyncOperation<T> operation) {
+        try {
+            return operation.execute();
+        } catch (WagonException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    /**
+     * @return the executor running the asynchronous operations of this instance
+     * @since 4.0.0
+     */
+    public Executor getAsyncExecutor() {
+        return asyncExecutor != null ? asyncExecutor : WagonExecutors.Async.INSTANCE;
+    }
+
+    /**
+     * @param asyncExecutor the executor running the asynchronous operations of this instance, or <code>null</code>
+     *                      to use the executor shared by all wagons
+     * @since 4.0.0
+     */
+    public void setAsyncExecutor(Executor asyncExecutor) {
+        this.asyncExecutor = asyncExecutor;
+    }
+
+    /**
+     * @return the pool the transfer buffers of this instance are leased from
+     * @since 4.0.0
+     */
+    public TransferBufferPool getTransferBufferPool() {
+        return transferBufferPool != null ? transferBufferPool : TransferBufferPool.getSharedPool();
+    }
+
+    /**
+     * @param transferBufferPool the pool the transfer buffers of this instance are leased from, or <code>null</code>
+     *                           to use the pool shared by all wagons
+     * @since 4.0.0
+     */
+    public void setTransferBufferPool(TransferBufferPool transferBufferPool) {
+        this.transferBufferPool = transferBufferPool;
+    }
+
+    /**
+     * @return <code>true</code> if the progress of the transfers is notified on another thread while the next chunk
+     *         is transferred
+     * @since 4.0.0
+     */
+    public boolean isOverlappedProgress() {
+        return overlappedProgress;
+    }
+
+    /**
+     * Notifies the progress of the transfers of this instance on another thread while the next chunk is read and
+     * written, so that listeners doing heavy work on the content, such as computing checksums, overlap with the I/O.
+     * A second transfer buffer is used for that, and the notifications still happen one chunk at a time, in order,
+     * and are all done before the transfer completes. Disabled by default, unless the
+     * <code>maven.wagon.transfer.overlappedProgress</code> system property is <code>true</code>.
+     *
+     * @param overlappedProgress <code>true</code> to notify the progress on another thread
+     * @since 4.0.0
+     */
+    public void setOverlappedProgress(boolean overlappedProgress) {
+        this.overlappedProgress = overlappedProgress;
+    }
+
+    /**
+     * @return <code>true</code> if downloads are written to a temporary file which is then atomically moved to the
+     *         destination
+     * @since 4.0.0
+     */
+    public boolean isAtomicGet() {
+        return atomicGet;
+    }
+
+    /**
+     * Writes the downloads of this instance to a temporary file next to the destination, then moves it into place
+     * with {@link StandardCopyOption#ATOMIC_MOVE}, so that concurrent readers of the destination, e.g. other builds
+     * sharing a local repository, never see a partially written file. Disabled by default, unless the
+     * <code>maven.wagon.get.atomic</code> system property is <code>true</code>.
+     *
+     * @param atomicGet <code>true</code> to download to a temporary file first
+     * @since 4.0.0
+     */
+    public void setAtomicGet(boolean atomicGet) {
+        this.atomicGet = atomicGet;
+    }
+
+    /**
+     * @return <code>true</code> if the temporary file of an atomic download is given the length of the resource up
+     *         front
+     * @since 4.0.0
+     */
+    public boolean isPreallocateGet() {
+        return preallocateGet;
+    }
+
+    /**
+     * Gives the temporary file of an {@link #setAtomicGet(boolean) atomic} download the content length of the
+     * resource, when known, before it is written, so that the file system can reserve the space at once rather than
+     * growing the file with every write. Disabled by default, unless the <code>maven.wagon.get.preallocate</code>
+     * system property is <code>true</code>.
+     *
+     * @param preallocateGet <code>true</code> to preallocate the temporary file of atomic downloads
+     * @since 4.0.0
+     */
+    public void setPreallocateGet(boolean preallocateGet) {
+        this.preallocateGet = preallocateGet;
+    }
+
+    /**
+     * @return <code>true</code> if interrupted downloads are kept to be resumed by the next download of the same
+     *         resource
+     * @since 4.0.0
+     */
+    public boolean isResumableGet() {
+        return resumableGet;
+    }
+
+    /**
+     * Keeps the data of interrupted downloads in a {@link PartialDownload partial file} next to the destination, so
+     * that the next download of the same resource to the same destination only requests the missing bytes, provided
+     * the remote resource did not change in between and the provider supports it. Downloads are then always written
+     * to the partial file and moved into place once complete. Disabled by default, unless the
+     * <code>maven.wagon.get.resumable</code> system property is <code>true</code>.
+     *
+     * @param resumableGet <code>true</code> to keep interrupted downloads to resume them
+     * @since 4.0.0
+     */
+    public void setResumableGet(boolean resumableGet) {
+        this.resumableGet = resumableGet;
+    }
+
+    /**
+     * @return the cache of the resources recently found missing, or <code>null</code> if they are not remembered
+     * @since 4.0.0
+     */
+    public NegativeCache getNegativeCache() {
+        return negativeCache;
+    }
+
+    /**
+     * Sets the cache of the resources recently found missing: providers do not probe them again, and report them
+     * missing right away. Defaults to the {@link NegativeCache#getShared() cache shared} by the wagons of this JVM,
+     * which is disabled unless configured.
+     *
+     * @param negativeCache the cache of the resources recently found missing, or <code>null</code> not to remember
+     *                      them
+     * @since 4.0.0
+     */
+    public void setNegativeCache(NegativeCache negativeCache) {
+        this.negativeCache = negativeCache;
+    }
+
+    /**
+     * @return the store of the entity tags of the downloaded resources, or <code>null</code> if they are not kept
+     * @since 4.0.0
+     */
+    public EntityTagStore getEntityTagStore() {
+        return entityTagStore;
+    }
+
+    /**
+     * Sets where the entity tags of the downloaded resources are kept. Providers supporting them then only download
+     * a resource again with {@link #getIfNewer(String, File, long)} if its entity tag changed, which is more reliable
+     * than its modification time. Disabled by default, unless the <code>maven.wagon.get.entityTags</code> system
+     * property is <code>true</code>, in which case they are kept next to the downloaded files.
+     *
+     * @param entityTagStore the store of the entity tags, or <code>null</code> not to keep them
+     * @since 4.0.0
+     */
+    public void setEntityTagStore(EntityTagStore entityTagStore) {
+        this.entityTagStore = entityTagStore;
+    }
+
+    /**
+     * @param resourceName the name of the resource
+     * @param destination  the local copy of the resource
+     * @return the entity tag of the local copy of the resource, or <code>null</code> if unknown
+     * @since 4.0.0
+     */
+    protected String getEntityTag(String resourceName, File destination) {
+        if (entityTagStore == null || repository == null) {
+            return null;
+        }
+        try {
+            return entityTagStore.getEntityTag(getResourceUrl(resourceName), destination);
+        } catch (IOException e) {
+            fireTransferDebug("cannot read the entity tag of " + destination + ": " + e);
+            return null;
+        }
+    }
+
+    /**
+     * Records the entity tag of a resource just downloaded.
+     *
+     * @param resourceName the name of the resource
+     * @param destination  the local copy of the resource
+     * @param entityTag    the entity tag of the downloaded content, <code>null</code> if unknown
+     * @since 4.0.0
+     */
+    protected void setEntityTag(String resourceName, File destination, String entityTag) {
+        if (entityTagStore == null || repository == null) {
+            return;
+        }
+        try {
+            entityTagStore.setEntityTag(getResourceUrl(resourceName), destination, entityTag);
+        } catch (IOException e) {
+            fireTransferDebug("cannot store the entity tag of " + destination + ": " + e);
+        }
+    }
+
+    private String getResourceUrl(String resourceName) {
+        String url = repository.getUrl();
+        String name = resourceName.startsWith("/") ? resourceName.substring(1) : resourceName;
+        return url.endsWith("/") ? url + name : url + "/" + name;
+    }
+
+    /**
+     * @param resourceName the name of the resource
+     * @return <code>true</code> if the resource was recently found missing in the repository
+     * @since 4.0.0
+     */
+    protected boolean isKnownMissing(String resourceName) {
+        return negativeCache != null
+                && repository != null
+                && negativeCache.isMissing(repository.getUrl(), resourceName);
+    }
+
+    /**
+     * Remembers that a resource was found missing in the repository.
+     *
+     * @param resourceName the name of the resource
+     * @since 4.0.0
+     */
+    protected void resourceMissing(String resourceName) {
+        if (negativeCache != null && repository != null) {
+            negativeCache.missing(repository.getUrl(), resourceName);
+        }
+    }
+
+    /**
+     * Sets how often the {@link org.apache.maven.wagon.events.CoalescedProgressListener}s of this instance are
+     * notified of the progress.
+     *
+     * @param intervalMillis the maximum time between two notifications, <code>0</code> or less for no limit
+     * @param byteThreshold  the maximum number of bytes per notification, <code>0</code> or less for no limit; when
+     *                       both are unlimited, every chunk is notified
+     * @see TransferEventSupport#setProgressCoalescing(long, long)
+     * @since 4.0.0
+     */
+    public void setProgressCoalescing(long intervalMillis, long byteThreshold) {
+        transferEventSupport.setProgressCoalescing(intervalMillis, byteThreshold);
+    }
+
+    /**
+     * Dispatches the progress events of this instance from a dedicated thread, so that slow listeners do not hold up
+     * the transfers.
+     *
+     * @param queueCapacity how many progress events can wait for the listeners, <code>0</code> or less to notify the
+     *                      listeners from the transferring thread again
+     * @param backPressure  what to do with progress events when the queue is full
+     * @see TransferEventSupport#setAsynchronousProgress(int, ProgressBackPressure)
+     * @since 4.0.0
+     */
+    public void setAsynchronousProgress(int queueCapacity, ProgressBackPressure backPressure) {
+        transferEventSupport.setAsynchronousProgress(queueCapacity, backPressure);
+    }
+
     protected ProxyInfo getProxyInfo(String protocol, String host) {
         if (proxyInfoProvider != null) {
             ProxyInfo proxyInfo = proxyInfoProvider.getProxyInfo(protocol);
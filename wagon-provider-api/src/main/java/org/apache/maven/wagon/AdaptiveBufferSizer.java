@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.wagon;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sizes the buffer of a transfer of unknown length from the transfer itself: the capacity doubles while the source
+ * fills a buffer twice as large within the target interval, or fills the whole buffer in a single read, and halves
+ * when it fills less than a quarter of it within the interval. The capacity stays a power of two between the
+ * minimum and the maximum, so that every capacity is a size class of the {@link TransferBufferPool}.
+ * <p>
+ * A sizer follows a single transfer and is not thread safe.
+ *
+ * @see AbstractWagon#newAdaptiveBufferSizer(long)
+ * @since 4.0.0
+ */
+public class AdaptiveBufferSizer {
+    /**
+     * The default time to fill a buffer in: long enough for the overhead of a chunk (the progress notifications, the
+     * write) to be negligible, short enough for the progress to be notified smoothly.
+     */
+    public static final long DEFAULT_TARGET_NANOS = TimeUnit.MILLISECONDS.toNanos(50L);
+
+    private final int minimum;
+
+    private final int maximum;
+
+    private final long targetNanos;
+
+    private int capacity;
+
+    /**
+     * @param initial     the capacity to start from
+     * @param minimum     the smallest capacity
+     * @param maximum     the largest capacity
+     * @param targetNanos the time to fill a buffer in
+     */
+    public AdaptiveBufferSizer(int initial, int minimum, int maximum, long targetNanos) {
+        if (minimum <= 0 || minimum > maximum) {
+            throw new IllegalArgumentException("Invalid capacity range: " + minimum + "-" + maximum);
+        }
+        this.minimum = minimum;
+        this.maximum = maximum;
+        this.targetNanos = targetNanos;
+        this.capacity = Math.min(maximum, Math.max(minimum, initial));
+    }
+
+    /**
+     * @return the capacity of the buffer to read the next chunk into
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Adapts the capacity to a chunk just read.
+     *
+     * @param bytes the bytes of the chunk
+     * @param reads the reads the chunk took
+     * @param nanos the time the reads took
+     * @return the capacity of the buffer to read the next chunk into
+     */
+    public int update(int bytes, int reads, long nanos) {
+        // the bytes the source would deliver within the target interval at the rate of this chunk
+        long rateCapacity = nanos > 0L ? bytes * targetNanos / nanos : Long.MAX_VALUE;
+        boolean sourceAhead = reads == 1 && bytes >= capacity;
+        if (capacity < maximum && (rateCapacity >= 2L * capacity || sourceAhead)) {
+            capacity = Math.min(maximum, capacity * 2);
+        } else if (capacity > minimum && rateCapacity < capacity / 4) {
+            capacity = Math.max(minimum, capacity / 2);
+        }
+        return capacity;
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.wagon;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Asynchronous variant of the {@link Wagon} operations. Every method returns immediately; the returned future
+ * completes with the result of the matching blocking method, or exceptionally with the {@link WagonException} it
+ * would have thrown.
+ *
+ * @since 4.0.0
+ */
+public interface AsyncWagon extends Wagon {
+    /**
+     * @see Wagon#get(String, File)
+     */
+    CompletableFuture<Void> getAsync(String resourceName, File destination);
+
+    /**
+     * @see Wagon#put(File, String)
+     */
+    CompletableFuture<Void> putAsync(File source, String destination);
+
+    /**
+     * @see Wagon#resourceExists(String)
+     */
+    CompletableFuture<Boolean> resourceExistsAsync(String resourceName);
+
+    /**
+     * @see Wagon#getFileList(String)
+     */
+    CompletableFuture<List<String>> getFileListAsync(String destinationDirectory);
+}
@@ -0,0 +1,47 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.wagon;
+
+import java.util.List;
+
+/**
+ * A {@link Wagon} able to move several resources in a single call. Every item is transferred through the regular
+ * {@link Wagon#get(String, java.io.File)} or {@link Wagon#put(java.io.File, String)} lifecycle, so registered
+ * transfer listeners are notified for each of them, and the outcome of every item is reported separately: a failing
+ * item does not abort the remaining ones.
+ *
+ * @since 4.0.0
+ */
+public interface BatchWagon extends Wagon {
+    /**
+     * Downloads the given resources from the repository.
+     *
+     * @param requests the resources to download, each with its local destination
+     * @return one result per request, in the order of the requests
+     */
+    List<TransferResult> getAll(List<TransferRequest> requests);
+
+    /**
+     * Uploads the given local files to the repository.
+     *
+     * @param requests the files to upload, each with its remote destination
+     * @return one result per request, in the order of the requests
+     */
+    List<TransferResult> putAll(List<TransferRequest> requests);
+}
@@ -31,6 +31,8 @@ public class InputData {
 
     private Resource resource;
 
+    private PartialDownload partialDownload;
+
     public InputStream getInputStream() {
         return inputStream;
     }
@@ -46,4 +48,21 @@ public Resource getResource() {
     public void setResource(Resource resource) {
         this.resource = resource;
     }
+
+    /**
+     * @return the data already downloaded which the provider may resume from, or <code>null</code> if the download
+     *         is not resumable
+     * @since 4.0.0
+     */
+    public PartialDownload getPartialDownload() {
+        return partialDownload;
+    }
+
+    /**
+     * @param partialDownload the data already downloaded which the provider may resume from
+     * @since 4.0.0
+     */
+    public void setPartialDownload(PartialDownload partialDownload) {
+        this.partialDownload = partialDownload;
+    }
 }
@@ -20,10 +20,10 @@
 
 import java.io.File;
 import java.io.FileDescriptor;
-import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.RandomAccessFile;
 import java.nio.channels.FileChannel;
 
 /**
@@ -37,20 +37,46 @@ public class LazyFileOutputStream extends OutputStream {
 
     private final File file;
 
+    private final long preallocatedLength;
+
     private FileOutputStream delegee;
 
+    private RandomAccessFile preallocated;
+
     public LazyFileOutputStream(String filename) {
-        this.file = new File(filename);
+        this(new File(filename));
     }
 
     public LazyFileOutputStream(File file) {
+        this(file, 0L);
+    }
+
+    /**
+     * @param file               the file to write
+     * @param preallocatedLength the length the file is given as soon as it is created, so that the file system can
+     *                           reserve its space at once, <code>0</code> or less to let it grow with the writes. The
+     *                           file is truncated to what was actually written when the stream is closed.
+     * @since 4.0.0
+     */
+    public LazyFileOutputStream(File file, long preallocatedLength) {
         this.file = file;
+        this.preallocatedLength = preallocatedLength;
     }
 
     @Override
     public void close() throws IOException {
         if (delegee != null) {
-            delegee.close();
+            try {
+                if (preallocated != null) {
+                    FileChannel channel = delegee.getChannel();
+                    channel.truncate(channel.position());
+                }
+            } finally {
+                delegee.close();
+                if (preallocated != null) {
+                    preallocated.close();
+                }
+            }
         }
     }
 
@@ -70,6 +96,17 @@ public FileChannel getChannel() {
         return delegee.getChannel();
     }
 
+    /**
+     * Like {@link #getChannel()}, but creates the file first if nothing has been written yet.
+     */
+    FileChannel openChannel() throws IOException {
+        if (delegee == null) {
+            initialize();
+        }
+
+        return delegee.getChannel();
+    }
+
     public FileDescriptor getFD() throws IOException {
         return delegee.getFD();
     }
@@ -121,7 +158,19 @@ public void write(int b) throws IOException {
     /**
      *
      */
-    private void initialize() throws FileNotFoundException {
-        delegee = new FileOutputStream(file);
+    private void initialize() throws IOException {
+        if (preallocatedLength > 0L) {
+            RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+            try {
+                randomAccessFile.setLength(preallocatedLength);
+                delegee = new FileOutputStream(randomAccessFile.getFD());
+            } catch (IOException e) {
+                randomAccessFile.close();
+                throw e;
+            }
+            preallocated = randomAccessFile;
+        } else {
+            delegee = new FileOutputStream(file);
+        }
     }
 }
@@ -0,0 +1,215 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.wagon;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Properties;
+
+/**
+ * Data already downloaded by an interrupted GET, which a later GET of the same resource to the same destination may
+ * resume from instead of starting over. The data is kept in a <code>.part</code> file next to the destination, along
+ * with a small <code>.part.properties</code> sidecar holding the validators of the remote resource it was downloaded
+ * from: its entity tag, last modification time and length.
+ * <p>
+ * Before requesting the resource, a provider which can resume downloads checks whether the remote resource still
+ * matches the validators, e.g. with an <code>If-Range</code> request header or by comparing the remote size and
+ * modification time, and if so only requests the bytes after {@link #getLength()} and calls
+ * {@link #setResumed(boolean)}. In any case, it records the validators of what it is about to download with
+ * {@link #setValidators(String, long, long)}, so that the download can be resumed if it fails.
+ *
+ * @since 4.0.0
+ */
+public final class PartialDownload {
+    private static final String ENTITY_TAG = "entityTag";
+
+    private static final String LAST_MODIFIED = "lastModified";
+
+    private static final String CONTENT_LENGTH = "contentLength";
+
+    private final File file;
+
+    private final File validatorsFile;
+
+    private long length;
+
+    private String entityTag;
+
+    private long lastModified;
+
+    private long contentLength = -1L;
+
+    private boolean resumed;
+
+    private PartialDownload(File destination) {
+        this.file = new File(destination.getParentFile(), destination.getName() + ".part");
+        this.validatorsFile = new File(destination.getParentFile(), destination.getName() + ".part.properties");
+    }
+
+    /**
+     * Loads the partial download of the given destination. When there is none, or its validators are missing or
+     * inconsistent, the partial download is empty and can not be resumed.
+     *
+     * @param destination the file the resource is downloaded to
+     * @return the partial download of the destination, never <code>null</code>
+     */
+    public static PartialDownload of(File destination) {
+        PartialDownload partialDownload = new PartialDownload(destination);
+        partialDownload.load();
+        return partialDownload;
+    }
+
+    private void load() {
+        if (!file.isFile() || !validatorsFile.isFile()) {
+            return;
+        }
+
+        Properties validators = new Properties();
+        try (InputStream input = Files.newInputStream(validatorsFile.toPath())) {
+            validators.load(input);
+            entityTag = validators.getProperty(ENTITY_TAG);
+            lastModified = Long.parseLong(validators.getProperty(LAST_MODIFIED, "0"));
+            contentLength = Long.parseLong(validators.getProperty(CONTENT_LENGTH, "-1"));
+        } catch (IOException | IllegalArgumentException e) {
+            // unreadable validators, the partial data can not be trusted
+            entityTag = null;
+            lastModified = 0L;
+            contentLength = -1L;
+            return;
+        }
+
+        long partialLength = file.length();
+        if ((entityTag != null || lastModified > 0L) && (contentLength < 0L || partialLength < contentLength)) {
+            length = partialLength;
+        }
+    }
+
+    /**
+     * @return the file holding the partial data
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * @return the number of bytes already downloaded which the download may resume from, <code>0</code> if it has
+     *         to start over
+     */
+    public long getLength() {
+        return length;
+    }
+
+    /**
+     * @return the entity tag of the resource the partial data was downloaded from, or <code>null</code>
+     */
+    public String getEntityTag() {
+        return entityTag;
+    }
+
+    /**
+     * @return the last modification time of the resource the partial data was downloaded from, <code>0</code> if
+     *         unknown
+     */
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    /**
+     * @return the length of the resource the partial data was downloaded from, <code>-1</code> if unknown
+     */
+    public long getContentLength() {
+        return contentLength;
+    }
+
+    /**
+     * @return <code>true</code> if the provider continues the partial data rather than downloading the whole resource
+     */
+    public boolean isResumed() {
+        return resumed;
+    }
+
+    /**
+     * @param resumed <code>true</code> if the stream of the provider starts right after the {@link #getLength()}
+     *                bytes already downloaded, <code>false</code> if it holds the whole resource
+     */
+    public void setResumed(boolean resumed) {
+        this.resumed = resumed && length > 0L;
+    }
+
+    /**
+     * Gives up resuming the partial data, e.g. when the provider could not get the missing bytes only: the whole
+     * resource is downloaded again.
+     */
+    public void restart() {
+        length = 0L;
+        resumed = false;
+    }
+
+    /**
+     * Records the validators of the resource being downloaded, so that the download can be resumed later.
+     *
+     * @param entityTag     the entity tag of the resource, or <code>null</code>
+     * @param lastModified  the last modification time of the resource, <code>0</code> if unknown
+     * @param contentLength the length of the whole resource, <code>-1</code> if unknown
+     */
+    public void setValidators(String entityTag, long lastModified, long contentLength) {
+        this.entityTag = entityTag;
+        this.lastModified = lastModified;
+        this.contentLength = contentLength;
+    }
+
+    /**
+     * Saves the validators next to the partial data, or removes them if the resource has none, in which case the
+     * download can not be resumed.
+     */
+    void save() throws IOException {
+        if (entityTag == null && lastModified <= 0L) {
+            Files.deleteIfExists(validatorsFile.toPath());
+            return;
+        }
+
+        Properties validators = new Properties();
+        if (entityTag != null) {
+            validators.setProperty(ENTITY_TAG, entityTag);
+        }
+        validators.setProperty(LAST_MODIFIED, Long.toString(lastModified));
+        validators.setProperty(CONTENT_LENGTH, Long.toString(contentLength));
+        try (OutputStream output = Files.newOutputStream(validatorsFile.toPath())) {
+            validators.store(output, null);
+        }
+    }
+
+    /**
+     * Removes the validators once the partial data has become the complete resource.
+     */
+    void complete() throws IOException {
+        Files.deleteIfExists(validatorsFile.toPath());
+    }
+
+    /**
+     * Removes the partial data and its validators, when they can not be resumed from.
+     */
+    void discard() {
+        file.delete();
+        validatorsFile.delete();
+    }
+}
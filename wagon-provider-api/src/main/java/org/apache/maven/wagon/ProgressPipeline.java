@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.wagon;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+import org.apache.maven.wagon.events.TransferEvent;
+
+/**
+ * Notifies the progress of a transfer on another thread while the transfer moves on to its next chunk, so that
+ * listeners doing heavy work, such as computing checksums, overlap with the I/O instead of stalling it.
+ * <p>
+ * The transfer alternates between two buffers: at most one notification is running, and it only reads the buffer
+ * which the transfer is not filling. The notifications of a transfer run one after the other, never concurrently, and
+ * all of them are done when {@link #await()} returns.
+ */
+final class ProgressPipeline {
+    private final AbstractWagon wagon;
+
+    private final Executor executor;
+
+    private ByteBuffer spare;
+
+    private CompletableFuture<Void> running;
+
+    ProgressPipeline(AbstractWagon wagon, Executor executor, ByteBuffer spare) {
+        this.wagon = wagon;
+        this.executor = executor;
+        this.spare = spare;
+    }
+
+    /**
+     * Waits for the previous notification, then starts notifying the given chunk. The buffer may still be read, but
+     * must not be modified before the next call to this method or to {@link #await()}.
+     *
+     * @return the buffer to fill with the next chunk, which no notification is reading anymore
+     */
+    ByteBuffer submit(TransferEvent transferEvent, ByteBuffer buffer, int length) {
+        await();
+        ByteBuffer next = spare;
+        spare = buffer;
+        byte[] content = buffer.array();
+        running =
+                CompletableFuture.runAsync(() -> wagon.fireTransferProgress(transferEvent, content, length), executor);
+        return next;
+    }
+
+    /**
+     * Waits for the last notification, and throws the failure of a listener if there was one.
+     */
+    void await() {
+        CompletableFuture<Void> previous = running;
+        if (previous == null) {
+            return;
+        }
+        running = null;
+        try {
+            previous.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Waits for the last notification without reporting its failure, when the transfer itself failed.
+     */
+    void close() {
+        try {
+            await();
+        } catch (RuntimeException e) {
+            // the failure of the transfer prevails
+        }
+    }
+}
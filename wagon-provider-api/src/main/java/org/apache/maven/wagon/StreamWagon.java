@@ -22,6 +22,7 @@
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.concurrent.CompletableFuture;
 
 import org.apache.maven.wagon.authorization.AuthorizationException;
 import org.apache.maven.wagon.events.TransferEvent;
@@ -33,7 +34,7 @@
  * @author <a href="mailto:michal@codehaus.org">Michal Maczka</a>
  *
  */
-public abstract class StreamWagon extends AbstractWagon implements StreamingWagon {
+public abstract class StreamWagon extends AbstractWagon implements StreamingWagon, AsyncStreamingWagon {
     // ----------------------------------------------------------------------
     //
     // ----------------------------------------------------------------------
@@ -76,16 +77,31 @@ public boolean getIfNewer(String resourceName, File destination, long timestamp)
 
         resource.setLastModified(timestamp);
 
-        InputStream is = getInputStream(resource);
+        // the provider only returns the content if it does not match, when it supports entity tags
+        String entityTag = timestamp > 0 ? getEntityTag(resourceName, destination) : null;
+        resource.setEntityTag(entityTag);
+
+        PartialDownload partialDownload = isResumableGet() ? PartialDownload.of(destination) : null;
+
+        InputStream is = getInputStream(resource, partialDownload);
+
+        boolean changed = entityTag != null && is != null && !entityTag.equals(resource.getEntityTag());
 
         // always get if timestamp is 0 (ie, target doesn't exist), otherwise only if older than the remote file
-        if (timestamp == 0 || timestamp < resource.getLastModified()) {
+        if (timestamp == 0 || timestamp < resource.getLastModified() || changed) {
             retValue = true;
 
             checkInputStream(is, resource);
 
-            getTransfer(resource, destination, is);
+            if (partialDownload != null) {
+                getTransfer(resource, destination, is, partialDownload);
+            } else {
+                getTransfer(resource, destination, is);
+            }
+
+            setEntityTag(resourceName, destination, resource.getEntityTag());
         } else {
+            resourceNotModified(resource);
             try {
                 if (is != null) {
                     is.close();
@@ -100,13 +116,41 @@ public boolean getIfNewer(String resourceName, File destination, long timestamp)
 
     protected InputStream getInputStream(Resource resource)
             throws TransferFailedException, ResourceDoesNotExistException, AuthorizationException {
+        return getInputStream(resource, null);
+    }
+
+    /**
+     * @param resource        the resource to get
+     * @param partialDownload the data already downloaded which the provider may resume from, or <code>null</code>
+     * @return the stream of the resource, starting after the partial data if the provider
+     *         {@link PartialDownload#isResumed() resumed} it
+     * @since 4.0.0
+     */
+    protected InputStream getInputStream(Resource resource, PartialDownload partialDownload)
+            throws TransferFailedException, ResourceDoesNotExistException, AuthorizationException {
         InputData inputData = new InputData();
 
         inputData.setResource(resource);
 
+        inputData.setPartialDownload(partialDownload);
+
+        if (isKnownMissing(resource.getName())) {
+            // not remembered again, so that the entry expires even if the resource keeps being requested
+            ResourceDoesNotExistException e = new ResourceDoesNotExistException(
+                    "Resource " + resource.getName() + " was recently found missing in " + getRepository().getUrl());
+            fireTransferError(resource, e, TransferEvent.REQUEST_GET);
+            cleanupGetTransfer(resource);
+            throw e;
+        }
+
         try {
             fillInputData(inputData);
-        } catch (TransferFailedException | ResourceDoesNotExistException | AuthorizationException e) {
+        } catch (ResourceDoesNotExistException e) {
+            resourceMissing(resource.getName());
+            fireTransferError(resource, e, TransferEvent.REQUEST_GET);
+            cleanupGetTransfer(resource);
+            throw e;
+        } catch (TransferFailedException | AuthorizationException e) {
             fireTransferError(resource, e, TransferEvent.REQUEST_GET);
             cleanupGetTransfer(resource);
             throw e;
@@ -190,6 +234,7 @@ public boolean getIfNewerToStream(String resourceName, OutputStream stream, long
 
             fireGetCompleted(resource, null);
         } else {
+            resourceNotModified(resource);
             try {
                 if (is != null) {
                     is.close();
@@ -233,6 +278,29 @@ public void putFromStream(InputStream stream, String destination, long contentLe
         putFromStream(stream, resource);
     }
 
+    @Override
+    public CompletableFuture<Void> getToStreamAsync(String resourceName, OutputStream stream) {
+        return executeAdmittedAsync(
+                resourceName,
+                () -> {
+                    getToStream(resourceName, stream);
+                    return null;
+                },
+                true);
+    }
+
+    @Override
+    public CompletableFuture<Void> putFromStreamAsync(
+            InputStream stream, String destination, long contentLength, long lastModified) {
+        return executeAdmittedAsync(
+                destination,
+                () -> {
+                    putFromStream(stream, destination, contentLength, lastModified);
+                    return null;
+                },
+                true);
+    }
+
     protected void putFromStream(InputStream stream, Resource resource)
             throws TransferFailedException, AuthorizationException, ResourceDoesNotExistException {
         OutputStream os = getOutputStream(resource);
@@ -0,0 +1,215 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.wagon;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded pool of transfer buffers, shared by the wagons so that concurrent transfers do not each allocate (and
+ * throw away) a buffer of up to {@link #MAXIMUM_CAPACITY} bytes.
+ * <p>
+ * Buffers are pooled in power-of-two size classes from {@link #MINIMUM_CAPACITY} to {@link #MAXIMUM_CAPACITY}, which
+ * covers every capacity returned by {@link AbstractWagon#getBufferCapacityForTransfer(long)}. A leased buffer always
+ * has exactly the requested capacity, position 0 and an array offset of 0, so that it can be used like a freshly
+ * allocated one. Requests outside of the pooled range are served by a plain allocation.
+ * <p>
+ * The shared instance keeps at most <code>maven.wagon.bufferPool.maxBuffersPerSize</code> (default 8) idle buffers
+ * per size class, and can be disabled with <code>maven.wagon.bufferPool.enabled=false</code>. It hands out heap
+ * buffers, as the transfers hand their backing array to the listeners and streams.
+ *
+ * @since 4.0.0
+ */
+public class TransferBufferPool {
+    public static final int MINIMUM_CAPACITY = 4 * 1024;
+
+    public static final int MAXIMUM_CAPACITY = 512 * 1024;
+
+    private static final int SIZE_CLASSES =
+            Integer.numberOfTrailingZeros(MAXIMUM_CAPACITY) - Integer.numberOfTrailingZeros(MINIMUM_CAPACITY) + 1;
+
+    private static final TransferBufferPool SHARED = new TransferBufferPool(
+            Boolean.parseBoolean(System.getProperty("maven.wagon.bufferPool.enabled", "true"))
+                    ? Integer.getInteger("maven.wagon.bufferPool.maxBuffersPerSize", 8)
+                    : 0);
+
+    private final BlockingQueue<ByteBuffer>[] pools;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder discards = new LongAdder();
+
+    /**
+     * @param maxBuffersPerSize how many idle buffers to keep for each size class, 0 disables pooling
+     */
+    @SuppressWarnings("unchecked")
+    public TransferBufferPool(int maxBuffersPerSize) {
+        this.pools = new BlockingQueue[maxBuffersPerSize > 0 ? SIZE_CLASSES : 0];
+        for (int i = 0; i < pools.length; i++) {
+            pools[i] = new ArrayBlockingQueue<>(maxBuffersPerSize);
+        }
+    }
+
+    /**
+     * @return the pool shared by all wagons
+     */
+    public static TransferBufferPool getSharedPool() {
+        return SHARED;
+    }
+
+    /**
+     * Leases a buffer, which should be given back with {@link #release(ByteBuffer)} once the transfer is over.
+     *
+     * @param capacity the capacity of the buffer
+     * @return a cleared buffer of exactly <code>capacity</code> bytes
+     */
+    public ByteBuffer acquire(int capacity) {
+        int sizeClass = sizeClass(capacity);
+        if (sizeClass < 0) {
+            misses.increment();
+            return ByteBuffer.allocate(capacity);
+        }
+
+        ByteBuffer pooled = pools[sizeClass].poll();
+        if (pooled != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+            pooled = ByteBuffer.allocate(MINIMUM_CAPACITY << sizeClass);
+        }
+
+        ((Buffer) pooled).clear();
+        ((Buffer) pooled).limit(capacity);
+        return pooled.slice();
+    }
+
+    /**
+     * Leases a buffer which may be swapped for one of another capacity during the transfer, see {@link Lease}.
+     *
+     * @param capacity the initial capacity of the buffer
+     * @return the lease, to be closed once the transfer is over
+     */
+    public Lease lease(int capacity) {
+        return new Lease(this, acquire(capacity));
+    }
+
+    /**
+     * Gives a buffer obtained from {@link #acquire(int)} back to the pool. The buffer must not be used afterwards.
+     *
+     * @param buffer the buffer, <code>null</code> is ignored
+     */
+    public void release(ByteBuffer buffer) {
+        if (buffer == null || pools.length == 0 || !buffer.hasArray()) {
+            return;
+        }
+
+        ByteBuffer pooled = ByteBuffer.wrap(buffer.array());
+        int capacity = pooled.capacity();
+        int sizeClass = sizeClass(capacity);
+        if (sizeClass < 0 || capacity != MINIMUM_CAPACITY << sizeClass || !pools[sizeClass].offer(pooled)) {
+            discards.increment();
+        }
+    }
+
+    /**
+     * @return how many leases were served by a pooled buffer
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return how many leases needed a new allocation
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return how many released buffers were dropped because their size class was full
+     */
+    public long getDiscards() {
+        return discards.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "TransferBufferPool[hits=" + getHits() + ", misses=" + getMisses() + ", discards=" + getDiscards()
+                + "]";
+    }
+
+    private int sizeClass(int capacity) {
+        if (pools.length == 0 || capacity <= 0 || capacity > MAXIMUM_CAPACITY) {
+            return -1;
+        }
+        int rounded = capacity <= MINIMUM_CAPACITY ? MINIMUM_CAPACITY : Integer.highestOneBit(capacity - 1) << 1;
+        return Integer.numberOfTrailingZeros(rounded) - Integer.numberOfTrailingZeros(MINIMUM_CAPACITY);
+    }
+
+    /**
+     * The buffer currently leased by a transfer which resizes it. Keeping it in one place, rather than in variables
+     * of the transfer loop and of its caller, gives back each buffer exactly once, whenever the transfer fails.
+     */
+    public static final class Lease implements AutoCloseable {
+        private final TransferBufferPool pool;
+
+        private ByteBuffer buffer;
+
+        private Lease(TransferBufferPool pool, ByteBuffer buffer) {
+            this.pool = pool;
+            this.buffer = buffer;
+        }
+
+        /**
+         * @return the leased buffer
+         */
+        public ByteBuffer buffer() {
+            return buffer;
+        }
+
+        /**
+         * Swaps the leased buffer for one of another capacity. The previous buffer must not be used afterwards.
+         *
+         * @param capacity the capacity of the new buffer
+         * @return the new leased buffer, cleared
+         */
+        public ByteBuffer resize(int capacity) {
+            ByteBuffer released = buffer;
+            buffer = null;
+            pool.release(released);
+            buffer = pool.acquire(capacity);
+            return buffer;
+        }
+
+        /**
+         * Gives the leased buffer back to the pool, if not done already.
+         */
+        @Override
+        public void close() {
+            ByteBuffer released = buffer;
+            buffer = null;
+            pool.release(released);
+        }
+    }
+}
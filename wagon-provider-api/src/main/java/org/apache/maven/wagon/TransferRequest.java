@@ -0,0 +1,59 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.wagon;
+
+import java.io.File;
+
+/**
+ * A single item of a {@link BatchWagon} transfer: a resource in the repository and the local file it is downloaded
+ * to or uploaded from.
+ *
+ * @since 4.0.0
+ */
+public class TransferRequest {
+    private final String resourceName;
+
+    private final File file;
+
+    public TransferRequest(String resourceName, File file) {
+        if (resourceName == null) {
+            throw new NullPointerException("resourceName cannot be null");
+        }
+
+        if (file == null) {
+            throw new NullPointerException("file cannot be null");
+        }
+
+        this.resourceName = resourceName;
+        this.file = file;
+    }
+
+    public String getResourceName() {
+        return resourceName;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    @Override
+    public String toString() {
+        return resourceName + " <-> " + file;
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.wagon;
+
+/**
+ * The outcome of one {@link TransferRequest} of a {@link BatchWagon} transfer.
+ *
+ * @since 4.0.0
+ */
+public class TransferResult {
+    private final TransferRequest request;
+
+    private final WagonException exception;
+
+    public TransferResult(TransferRequest request, WagonException exception) {
+        this.request = request;
+        this.exception = exception;
+    }
+
+    public TransferRequest getRequest() {
+        return request;
+    }
+
+    /**
+     * @return the failure of the transfer, or <code>null</code> if it succeeded
+     */
+    public WagonException getException() {
+        return exception;
+    }
+
+    public boolean isSuccessful() {
+        return exception == null;
+    }
+
+    @Override
+    public String toString() {
+        return request + (exception == null ? " [OK]" : " [" + exception.getMessage() + "]");
+    }
+}
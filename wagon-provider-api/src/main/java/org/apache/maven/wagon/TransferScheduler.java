@@ -0,0 +1,303 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.wagon;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+import org.apache.maven.wagon.repository.Repository;
+
+/**
+ * Admits the transfers of the wagons sharing it so that no more than a given number run at the same time against
+ * the same host, and against the same repository. The transfers waiting for their turn are admitted by
+ * {@link Priority priority}, then in arrival order, so that the metadata and POMs on the critical path of a
+ * resolution do not wait behind bulk downloads, e.g. in the lease queue of a connection manager.
+ * <p>
+ * A transfer {@link #acquire(Repository, Priority) acquires} a permit before starting and
+ * {@link Permit#close() closes} it once done. The host limit defaults to the
+ * <code>maven.wagon.httpconnectionManager.maxPerRoute</code> system property, 20 by default, so that the transfers
+ * admitted by the scheduler never wait for a pooled HTTP connection.
+ *
+ * @see AbstractWagon#setTransferScheduler(TransferScheduler)
+ * @since 4.0.0
+ */
+public class TransferScheduler {
+    /**
+     * The priority classes of the transfers, from the most urgent.
+     */
+    public enum Priority {
+        /**
+         * Repository metadata, read to resolve versions before anything else.
+         */
+        METADATA,
+
+        /**
+         * POMs, read to resolve the dependencies of a project before their artifacts.
+         */
+        DESCRIPTOR,
+
+        /**
+         * Everything else, e.g. the artifacts themselves.
+         */
+        BULK;
+
+        /**
+         * @param resourceName the name of the resource transferred
+         * @return the priority of the resource, or of the resource checksummed or signed by it
+         */
+        public static Priority forResource(String resourceName) {
+            String name = resourceName.toLowerCase(Locale.ROOT);
+            for (String suffix : SIDECAR_SUFFIXES) {
+                if (name.endsWith(suffix)) {
+                    name = name.substring(0, name.length() - suffix.length());
+                    break;
+                }
+            }
+            int slash = name.lastIndexOf('/');
+            if (name.startsWith("maven-metadata", slash + 1)) {
+                return METADATA;
+            }
+            return name.endsWith(".pom") ? DESCRIPTOR : BULK;
+        }
+    }
+
+    private static final String[] SIDECAR_SUFFIXES = {".md5", ".sha1", ".sha256", ".sha512", ".asc"};
+
+    private static final int DEFAULT_MAX_PER_HOST =
+            Integer.parseInt(System.getProperty("maven.wagon.httpconnectionManager.maxPerRoute", "20"));
+
+    private static final TransferScheduler SHARED = new TransferScheduler();
+
+    /**
+     * The permit of the batch or asynchronous transfer running in this thread, whose inner transfers are admitted
+     * along with it.
+     */
+    private static final ThreadLocal<Permit> ADMITTED = new ThreadLocal<>();
+
+    private int maxPerHost = Integer.getInteger("maven.wagon.scheduler.maxPerHost", DEFAULT_MAX_PER_HOST);
+
+    private int maxPerRepository = Integer.getInteger("maven.wagon.scheduler.maxPerRepository", DEFAULT_MAX_PER_HOST);
+
+    private final NavigableSet<Permit> waiting = new TreeSet<>(
+            Comparator.comparing((Permit permit) -> permit.priority).thenComparingLong(permit -> permit.arrival));
+
+    private final Map<String, Integer> inFlightPerHost = new HashMap<>();
+
+    private final Map<String, Integer> inFlightPerRepository = new HashMap<>();
+
+    private long arrivals;
+
+    /**
+     * Returns the scheduler shared by the wagons of this JVM, used by the wagons when the
+     * <code>maven.wagon.transfer.scheduled</code> system property is <code>true</code>.
+     *
+     * @return the scheduler shared by the wagons of this JVM
+     */
+    public static TransferScheduler getShared() {
+        return SHARED;
+    }
+
+    /**
+     * @return the maximum number of transfers running at the same time against the same host
+     */
+    public synchronized int getMaxPerHost() {
+        return maxPerHost;
+    }
+
+    /**
+     * @param maxPerHost the maximum number of transfers running at the same time against the same host, that is the
+     *                   same protocol, host name and port. Defaults to the
+     *                   <code>maven.wagon.scheduler.maxPerHost</code> system property, or to the
+     *                   <code>maven.wagon.httpconnectionManager.maxPerRoute</code> one
+     */
+    public synchronized void setMaxPerHost(int maxPerHost) {
+        this.maxPerHost = maxPerHost;
+        admit();
+    }
+
+    /**
+     * @return the maximum number of transfers running at the same time against the same repository
+     */
+    public synchronized int getMaxPerRepository() {
+        return maxPerRepository;
+    }
+
+    /**
+     * @param maxPerRepository the maximum number of transfers running at the same time against the same repository
+     *                         URL. Defaults to the <code>maven.wagon.scheduler.maxPerRepository</code> system
+     *                         property, or to the host limit
+     */
+    public synchronized void setMaxPerRepository(int maxPerRepository) {
+        this.maxPerRepository = maxPerRepository;
+        admit();
+    }
+
+    /**
+     * Waits for the turn of a transfer.
+     *
+     * @param repository the repository of the transfer
+     * @param priority   the priority of the transfer
+     * @return the permit of the transfer, to close once done
+     * @throws InterruptedException if the thread is interrupted while waiting, the transfer is then not admitted
+     */
+    public synchronized Permit acquire(Repository repository, Priority priority) throws InterruptedException {
+        Permit permit = new Permit(
+                this,
+                repository.getProtocol() + "://" + repository.getHost() + ":" + repository.getPort(),
+                repository.getUrl(),
+                priority,
+                arrivals++);
+        waiting.add(permit);
+        admit();
+        try {
+            while (!permit.admitted) {
+                wait();
+            }
+        } catch (InterruptedException e) {
+            if (!permit.admitted) {
+                waiting.remove(permit);
+                throw e;
+            }
+            // admitted meanwhile, the interruption is left to the transfer
+            Thread.currentThread().interrupt();
+        }
+        return permit;
+    }
+
+    /**
+     * @return <code>true</code> if this thread runs a transfer already admitted, which does not wait again
+     */
+    static boolean isAdmitted() {
+        return ADMITTED.get() != null;
+    }
+
+    /**
+     * Runs a transfer admitted by a permit, which the transfers it runs in this thread share, then closes the permit.
+     */
+    static <T> T runAdmitted(Permit permit, AbstractWagon.AsyncOperation<T> operation) throws WagonException {
+        if (permit == null) {
+            return operation.execute();
+        }
+        ADMITTED.set(permit);
+        try (Permit admitted = permit) {
+            return operation.execute();
+        } finally {
+            ADMITTED.remove();
+        }
+    }
+
+    /**
+     * @return the number of transfers waiting for their turn
+     */
+    public synchronized int getWaitingCount() {
+        return waiting.size();
+    }
+
+    /**
+     * @return the number of transfers admitted and not done yet
+     */
+    public synchronized int getInFlightCount() {
+        int count = 0;
+        for (int inFlight : inFlightPerHost.values()) {
+            count += inFlight;
+        }
+        return count;
+    }
+
+    private synchronized void release(Permit permit) {
+        decrement(inFlightPerHost, permit.host);
+        decrement(inFlightPerRepository, permit.repository);
+        admit();
+    }
+
+    /**
+     * Admits the waiting transfers, the most urgent first, skipping those whose host or repository is busy.
+     */
+    private void admit() {
+        boolean admitted = false;
+        for (Iterator<Permit> iterator = waiting.iterator(); iterator.hasNext(); ) {
+            Permit permit = iterator.next();
+            if (inFlightPerHost.getOrDefault(permit.host, 0) < maxPerHost
+                    && inFlightPerRepository.getOrDefault(permit.repository, 0) < maxPerRepository) {
+                inFlightPerHost.merge(permit.host, 1, Integer::sum);
+                inFlightPerRepository.merge(permit.repository, 1, Integer::sum);
+                iterator.remove();
+                permit.admitted = true;
+                admitted = true;
+            }
+        }
+        if (admitted) {
+            notifyAll();
+        }
+    }
+
+    private static void decrement(Map<String, Integer> inFlight, String key) {
+        inFlight.computeIfPresent(key, (k, count) -> count > 1 ? count - 1 : null);
+    }
+
+    /**
+     * The turn of a transfer, given back by {@link #close()}.
+     */
+    public static final class Permit implements AutoCloseable {
+        private final TransferScheduler scheduler;
+
+        private final String host;
+
+        private final String repository;
+
+        private final Priority priority;
+
+        private final long arrival;
+
+        private boolean admitted;
+
+        private boolean closed;
+
+        private Permit(TransferScheduler scheduler, String host, String repository, Priority priority, long arrival) {
+            this.scheduler = scheduler;
+            this.host = host;
+            this.repository = repository;
+            this.priority = priority;
+            this.arrival = arrival;
+        }
+
+        public Priority getPriority() {
+            return priority;
+        }
+
+        /**
+         * Ends the transfer, letting the next one start. Closing the permit again has no effect.
+         */
+        @Override
+        public void close() {
+            synchronized (scheduler) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                scheduler.release(this);
+            }
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.wagon;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static java.lang.Math.max;
+
+/**
+ * The executors of the wagons. Their threads are daemons, so they never keep a JVM alive.
+ */
+final class WagonExecutors {
+    private WagonExecutors() {}
+
+    /**
+     * Bounded executor shared by all wagons which have not been given their own. Its threads time out when idle.
+     */
+    static final class Async {
+        private static final int THREADS = Integer.getInteger(
+                "maven.wagon.async.threads", max(4, Runtime.getRuntime().availableProcessors() * 2));
+
+        static final ThreadPoolExecutor INSTANCE = new ThreadPoolExecutor(
+                THREADS,
+                THREADS,
+                60L,
+                TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                new WagonThreadFactory("wagon-async-"));
+
+        static {
+            INSTANCE.allowCoreThreadTimeOut(true);
+        }
+    }
+
+    /**
+     * Executor notifying the progress of the {@link AbstractWagon#setOverlappedProgress(boolean) overlapped}
+     * transfers. It is separate from the {@link Async} one so that asynchronous transfers never wait for their own
+     * progress notifications behind other transfers.
+     */
+    static final class Progress {
+        static final ExecutorService INSTANCE =
+                Executors.newCachedThreadPool(new WagonThreadFactory("wagon-progress-"));
+    }
+
+    /**
+     * Runs the items of a batch transfer, on threads of their own if more than one may run at the same time.
+     *
+     * @param tasks       the items
+     * @param order       the indexes of the items in the order to start them
+     * @param concurrency the maximum number of items running at the same time
+     * @return the results of the items, in the order of the items
+     */
+    static <T> List<T> invokeAll(List<Callable<T>> tasks, List<Integer> order, int concurrency) {
+        List<T> results = new ArrayList<>(Collections.nCopies(tasks.size(), null));
+        ExecutorService executor = concurrency > 1
+                ? Executors.newFixedThreadPool(concurrency, new WagonThreadFactory("wagon-batch-"))
+                : null;
+        try {
+            List<Future<T>> futures = new ArrayList<>(Collections.nCopies(tasks.size(), null));
+            for (int i : order) {
+                if (executor != null) {
+                    futures.set(i, executor.submit(tasks.get(i)));
+                } else {
+                    results.set(i, tasks.get(i).call());
+                }
+            }
+            if (executor != null) {
+                for (int i = 0; i < futures.size(); i++) {
+                    results.set(i, futures.get(i).get());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for batch transfer", e);
+        } catch (ExecutionException e) {
+            throw propagate(e.getCause());
+        } catch (Exception e) {
+            throw propagate(e);
+        } finally {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+        }
+        return results;
+    }
+
+    private static RuntimeException propagate(Throwable failure) {
+        if (failure instanceof RuntimeException) {
+            return (RuntimeException) failure;
+        }
+        return new IllegalStateException(failure);
+    }
+}
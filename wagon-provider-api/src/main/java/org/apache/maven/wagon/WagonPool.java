@@ -0,0 +1,464 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.wagon;
+
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.wagon.authentication.AuthenticationException;
+import org.apache.maven.wagon.authentication.AuthenticationInfo;
+import org.apache.maven.wagon.proxy.ProxyInfo;
+import org.apache.maven.wagon.proxy.ProxyInfoProvider;
+import org.apache.maven.wagon.repository.Repository;
+
+/**
+ * Pool of connected wagons, so that transferring a few resources at a time does not cost a connection, e.g. a
+ * TCP and TLS or SSH handshake and the authentication, each time.
+ * <p>
+ * Wagons are pooled by repository, that is by repository id, URL, parameters and mirrors, by authentication and by
+ * proxy. A wagon is {@link #lease(Repository, AuthenticationInfo, ProxyInfoProvider) leased}, used as if it had just
+ * been connected, then
+ * {@link #release(Wagon) released} instead of being disconnected, or {@link #invalidate(Wagon) invalidated} if it
+ * failed in a way that makes its connection unusable. Wagons idle for longer than the idle timeout are disconnected.
+ * <p>
+ * The session listeners of a reused {@link AbstractWagon} are notified as if it were connected when leased, and
+ * disconnected when released, whereas its connection is only actually opened once and closed once. A reused
+ * {@link AbstractWagon} is also given the repository of the new lease, whereas other wagons keep the equal one they
+ * were connected to.
+ *
+ * @since 4.0.0
+ */
+public class WagonPool implements Closeable {
+    /**
+     * Creates the wagons of the pool, with their listeners.
+     */
+    public interface WagonFactory {
+        /**
+         * @param repository the repository to connect the wagon to
+         * @return a new wagon, not connected yet
+         */
+        Wagon newWagon(Repository repository) throws ConnectionException;
+    }
+
+    /**
+     * Checks that an idle wagon is still usable before leasing it again.
+     */
+    public interface HealthCheck {
+        /**
+         * @param wagon the connected wagon
+         * @return <code>false</code> to disconnect the wagon and lease a new one instead
+         */
+        boolean isHealthy(Wagon wagon);
+    }
+
+    private final WagonFactory factory;
+
+    private int maxPerKey = Integer.getInteger("maven.wagon.pool.maxPerKey", 4);
+
+    private long idleTimeout = TimeUnit.SECONDS.toMillis(Long.getLong("maven.wagon.pool.idleTimeoutSeconds", 60L));
+
+    private HealthCheck healthCheck = wagon -> true;
+
+    private final Map<Key, Slot> slots = new HashMap<>();
+
+    private final Map<Wagon, Key> leased = new IdentityHashMap<>();
+
+    private boolean closed;
+
+    /**
+     * @param factory creates the wagons of the pool
+     */
+    public WagonPool(WagonFactory factory) {
+        this.factory = factory;
+    }
+
+    /**
+     * @return the maximum number of wagons connected to the same repository with the same authentication
+     */
+    public synchronized int getMaxPerKey() {
+        return maxPerKey;
+    }
+
+    /**
+     * @param maxPerKey the maximum number of wagons connected to the same repository with the same authentication,
+     *                  leased or idle; further leases wait for a wagon to be released. Defaults to the
+     *                  <code>maven.wagon.pool.maxPerKey</code> system property, or 4
+     */
+    public synchronized void setMaxPerKey(int maxPerKey) {
+        this.maxPerKey = maxPerKey;
+        notifyAll();
+    }
+
+    /**
+     * @return how long a wagon stays connected while idle, in milliseconds
+     */
+    public synchronized long getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    /**
+     * @param idleTimeout how long a wagon stays connected while idle, in milliseconds. Defaults to the
+     *                    <code>maven.wagon.pool.idleTimeoutSeconds</code> system property, or 60 seconds
+     */
+    public synchronized void setIdleTimeout(long idleTimeout) {
+        this.idleTimeout = idleTimeout;
+    }
+
+    /**
+     * @param healthCheck checks the idle wagons before leasing them again; by default they are deemed healthy
+     */
+    public synchronized void setHealthCheck(HealthCheck healthCheck) {
+        this.healthCheck = healthCheck;
+    }
+
+    /**
+     * Leases a wagon connected to a repository without proxy, reusing an idle one if possible. Waits for a wagon to
+     * be released if the maximum number of wagons for this repository and authentication is reached.
+     *
+     * @param repository         the repository to connect to
+     * @param authenticationInfo the authentication, or <code>null</code> for none
+     * @return the connected wagon, to {@link #release(Wagon) release} once done
+     */
+    public Wagon lease(Repository repository, AuthenticationInfo authenticationInfo)
+            throws ConnectionException, AuthenticationException {
+        return lease(repository, authenticationInfo, null);
+    }
+
+    /**
+     * Leases a wagon connected to a repository, reusing an idle one if possible. Waits for a wagon to be released
+     * if the maximum number of wagons for this repository, authentication and proxy is reached.
+     *
+     * @param repository         the repository to connect to
+     * @param authenticationInfo the authentication, or <code>null</code> for none
+     * @param proxyInfoProvider  the proxies, or <code>null</code> for none
+     * @return the connected wagon, to {@link #release(Wagon) release} once done
+     */
+    public Wagon lease(
+            Repository repository, AuthenticationInfo authenticationInfo, ProxyInfoProvider proxyInfoProvider)
+            throws ConnectionException, AuthenticationException {
+        Key key = new Key(repository, authenticationInfo, proxyInfoProvider);
+        List<Wagon> expired = new ArrayList<>();
+        Wagon wagon = null;
+        HealthCheck check;
+        synchronized (this) {
+            removeExpired(expired);
+            while (wagon == null) {
+                if (closed) {
+                    throw new ConnectionException("The wagon pool is closed");
+                }
+                // looked up again after waiting, the empty slots being removed
+                Slot slot = slots.computeIfAbsent(key, k -> new Slot());
+                Idle idle = slot.idle.pollLast();
+                if (idle != null) {
+                    wagon = idle.wagon;
+                } else if (slot.count < maxPerKey) {
+                    slot.count++;
+                    break;
+                } else {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new ConnectionException("Interrupted waiting for a wagon of " + repository.getUrl(), e);
+                    }
+                }
+            }
+            check = healthCheck;
+        }
+        closeAll(expired);
+
+        if (wagon != null) {
+            if (isHealthy(check, wagon)) {
+                synchronized (this) {
+                    leased.put(wagon, key);
+                }
+                if (wagon instanceof AbstractWagon) {
+                    ((AbstractWagon) wagon).rebind(repository, proxyInfoProvider);
+                    ((AbstractWagon) wagon).fireSessionOpening();
+                    ((AbstractWagon) wagon).fireSessionOpened();
+                }
+                return wagon;
+            }
+            // its slot is reused by the new wagon
+            close(wagon);
+        }
+
+        try {
+            wagon = factory.newWagon(repository);
+            wagon.connect(repository, authenticationInfo, proxyInfoProvider);
+        } catch (ConnectionException | AuthenticationException | RuntimeException e) {
+            synchronized (this) {
+                slots.get(key).count--;
+                notifyAll();
+            }
+            throw e;
+        }
+        synchronized (this) {
+            leased.put(wagon, key);
+        }
+        return wagon;
+    }
+
+    /**
+     * Gives back a leased wagon, for another lease to reuse its connection.
+     *
+     * @param wagon the leased wagon
+     */
+    public void release(Wagon wagon) {
+        Key key;
+        synchronized (this) {
+            key = leased.remove(wagon);
+        }
+        if (key == null) {
+            throw new IllegalArgumentException("The wagon was not leased from this pool");
+        }
+
+        if (wagon instanceof AbstractWagon) {
+            ((AbstractWagon) wagon).fireSessionDisconnecting();
+            ((AbstractWagon) wagon).fireSessionDisconnected();
+        }
+
+        synchronized (this) {
+            if (!closed) {
+                slots.get(key).idle.addLast(new Idle(wagon, System.currentTimeMillis()));
+                notifyAll();
+                return;
+            }
+            slots.get(key).count--;
+        }
+        close(wagon);
+    }
+
+    /**
+     * Disconnects a leased wagon which must not be reused, e.g. because its connection failed.
+     *
+     * @param wagon the leased wagon
+     */
+    public void invalidate(Wagon wagon) {
+        synchronized (this) {
+            Key key = leased.remove(wagon);
+            if (key == null) {
+                throw new IllegalArgumentException("The wagon was not leased from this pool");
+            }
+            slots.get(key).count--;
+            notifyAll();
+        }
+
+        try {
+            wagon.disconnect();
+        } catch (ConnectionException e) {
+            // unusable anyway
+        }
+    }
+
+    /**
+     * Disconnects the wagons idle for longer than the idle timeout. Also done by every lease.
+     */
+    public void evictIdle() {
+        List<Wagon> expired = new ArrayList<>();
+        synchronized (this) {
+            removeExpired(expired);
+        }
+        closeAll(expired);
+    }
+
+    /**
+     * Disconnects the idle wagons, and the leased ones once released.
+     */
+    @Override
+    public void close() {
+        List<Wagon> idle = new ArrayList<>();
+        synchronized (this) {
+            closed = true;
+            for (Slot slot : slots.values()) {
+                for (Idle i : slot.idle) {
+                    idle.add(i.wagon);
+                }
+                slot.count -= slot.idle.size();
+                slot.idle.clear();
+            }
+            notifyAll();
+        }
+        closeAll(idle);
+    }
+
+    /**
+     * @return the number of idle wagons
+     */
+    public synchronized int getIdleCount() {
+        int count = 0;
+        for (Slot slot : slots.values()) {
+            count += slot.idle.size();
+        }
+        return count;
+    }
+
+    /**
+     * @return the number of leased wagons
+     */
+    public synchronized int getLeasedCount() {
+        return leased.size();
+    }
+
+    private void removeExpired(List<Wagon> expired) {
+        long now = System.currentTimeMillis();
+        for (Iterator<Slot> slotIterator = slots.values().iterator(); slotIterator.hasNext(); ) {
+            Slot slot = slotIterator.next();
+            // the least recently released come first
+            while (!slot.idle.isEmpty() && now - slot.idle.peekFirst().since >= idleTimeout) {
+                expired.add(slot.idle.pollFirst().wagon);
+                slot.count--;
+            }
+            if (slot.count == 0) {
+                slotIterator.remove();
+            }
+        }
+        if (!expired.isEmpty()) {
+            notifyAll();
+        }
+    }
+
+    private static boolean isHealthy(HealthCheck check, Wagon wagon) {
+        try {
+            return check.isHealthy(wagon);
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    private static void closeAll(List<Wagon> wagons) {
+        for (Wagon wagon : wagons) {
+            close(wagon);
+        }
+    }
+
+    /**
+     * Closes the connection of an idle wagon, whose listeners were already notified of the end of their session.
+     */
+    private static void close(Wagon wagon) {
+        try {
+            if (wagon instanceof AbstractWagon) {
+                ((AbstractWagon) wagon).closeConnection();
+            } else {
+                wagon.disconnect();
+            }
+        } catch (ConnectionException | RuntimeException e) {
+            // being discarded anyway
+        }
+    }
+
+    private static final class Slot {
+        private final Deque<Idle> idle = new ArrayDeque<>();
+
+        /**
+         * Wagons connected or connecting, leased or idle.
+         */
+        private int count;
+    }
+
+    private static final class Idle {
+        private final Wagon wagon;
+
+        private final long since;
+
+        private Idle(Wagon wagon, long since) {
+            this.wagon = wagon;
+            this.since = since;
+        }
+    }
+
+    private static final class Key {
+        private final String id;
+
+        private final String url;
+
+        private final String userName;
+
+        private final String password;
+
+        private final String privateKey;
+
+        private final String passphrase;
+
+        private final Map<Object, Object> parameters;
+
+        private final List<String> mirrorUrls;
+
+        private final List<Object> proxy;
+
+        private Key(Repository repository, AuthenticationInfo authenticationInfo, ProxyInfoProvider proxyInfoProvider) {
+            this.id = repository.getId();
+            this.url = repository.getUrl();
+            this.parameters = new HashMap<>(repository.getParameters());
+            this.mirrorUrls = new ArrayList<>(repository.getMirrorUrls());
+            ProxyInfo proxyInfo =
+                    proxyInfoProvider != null ? proxyInfoProvider.getProxyInfo(repository.getProtocol()) : null;
+            this.proxy = proxyInfo != null
+                    ? Arrays.asList(
+                            proxyInfo.getType(),
+                            proxyInfo.getHost(),
+                            proxyInfo.getPort(),
+                            proxyInfo.getNonProxyHosts(),
+                            proxyInfo.getUserName(),
+                            proxyInfo.getPassword(),
+                            proxyInfo.getNtlmHost(),
+                            proxyInfo.getNtlmDomain())
+                    : null;
+            this.userName = authenticationInfo != null ? authenticationInfo.getUserName() : null;
+            this.password = authenticationInfo != null ? authenticationInfo.getPassword() : null;
+            this.privateKey = authenticationInfo != null ? authenticationInfo.getPrivateKey() : null;
+            this.passphrase = authenticationInfo != null ? authenticationInfo.getPassphrase() : null;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return Objects.equals(id, other.id)
+                    && Objects.equals(url, other.url)
+                    && Objects.equals(userName, other.userName)
+                    && Objects.equals(password, other.password)
+                    && Objects.equals(privateKey, other.privateKey)
+                    && Objects.equals(passphrase, other.passphrase)
+                    && parameters.equals(other.parameters)
+                    && mirrorUrls.equals(other.mirrorUrls)
+                    && Objects.equals(proxy, other.proxy);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(id, url, userName, password, privateKey, passphrase, parameters, mirrorUrls, proxy);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.wagon.bandwidth;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.maven.wagon.repository.Repository;
+
+/**
+ * The {@link TokenBucket token buckets} the transfers of the wagons of this JVM take their bandwidth from: one per
+ * repository, configured by the parameters of the repository, and one shared by all the transfers, configured by
+ * system properties.
+ * <table>
+ * <caption>Configuration</caption>
+ * <tr><th>Repository parameter</th><th>System property</th><th>Meaning</th></tr>
+ * <tr><td><code>bandwidthLimit</code></td><td><code>maven.wagon.bandwidth.limit</code></td>
+ * <td>bytes per second, unlimited if not positive</td></tr>
+ * <tr><td><code>bandwidthBurst</code></td><td><code>maven.wagon.bandwidth.burst</code></td>
+ * <td>bytes transferred at once after an idle time, one second of bandwidth by default</td></tr>
+ * <tr><td><code>bandwidthFairShare</code></td><td><code>maven.wagon.bandwidth.fairShare</code></td>
+ * <td>whether the chunks are taken in quanta so that small transfers are not starved by a large one</td></tr>
+ * </table>
+ * The wagons connected to repositories of the same URL share a bucket.
+ *
+ * @since 4.0.0
+ */
+public final class BandwidthLimits {
+    public static final String LIMIT = "bandwidthLimit";
+
+    public static final String BURST = "bandwidthBurst";
+
+    public static final String FAIR_SHARE = "bandwidthFairShare";
+
+    private static final ConcurrentMap<String, TokenBucket> REPOSITORIES = new ConcurrentHashMap<>();
+
+    private static volatile TokenBucket global = create(
+            System.getProperty("maven.wagon.bandwidth.limit"),
+            System.getProperty("maven.wagon.bandwidth.burst"),
+            System.getProperty("maven.wagon.bandwidth.fairShare"));
+
+    private BandwidthLimits() {}
+
+    /**
+     * @return the bucket shared by all the transfers, <code>null</code> if their bandwidth is unlimited
+     */
+    public static TokenBucket getGlobal() {
+        return global;
+    }
+
+    /**
+     * @param bucket the bucket shared by all the transfers from now on, <code>null</code> for no limit
+     */
+    public static void setGlobal(TokenBucket bucket) {
+        global = bucket;
+    }
+
+    /**
+     * @param repository the repository
+     * @return the bucket of the repository, <code>null</code> if its parameters do not limit its bandwidth
+     */
+    public static TokenBucket forRepository(Repository repository) {
+        TokenBucket configured = create(
+                repository.getParameter(LIMIT), repository.getParameter(BURST), repository.getParameter(FAIR_SHARE));
+        String url = repository.getUrl();
+        if (configured == null) {
+            REPOSITORIES.remove(url);
+            return null;
+        }
+        // a bucket is only replaced when the configuration changes, the transfers using it keep their debt
+        return REPOSITORIES.compute(url, (key, bucket) -> isConfiguredAs(bucket, configured) ? bucket : configured);
+    }
+
+    private static boolean isConfiguredAs(TokenBucket bucket, TokenBucket configured) {
+        return bucket != null
+                && bucket.getBytesPerSecond() == configured.getBytesPerSecond()
+                && bucket.getBurst() == configured.getBurst()
+                && bucket.isFairShare() == configured.isFairShare();
+    }
+
+    private static TokenBucket create(String limit, String burst, String fairShare) {
+        long bytesPerSecond = limit != null ? Long.parseLong(limit.trim()) : 0L;
+        if (bytesPerSecond <= 0L) {
+            return null;
+        }
+        return new TokenBucket(
+                bytesPerSecond,
+                burst != null ? Long.parseLong(burst.trim()) : bytesPerSecond,
+                Boolean.parseBoolean(Objects.toString(fairShare, "false").trim()));
+    }
+}
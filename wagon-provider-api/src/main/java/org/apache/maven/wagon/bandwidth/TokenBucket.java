@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.wagon.bandwidth;
+
+import java.io.InterruptedIOException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Limits the bandwidth of the transfers sharing it: each chunk transferred takes as many tokens as it has bytes,
+ * the tokens coming back at the given rate up to the burst size. A transfer running out of tokens reserves the
+ * ones it lacks and sleeps until they are due, so the transfers waiting on the bucket are served in turn.
+ * <p>
+ * In fair share mode the chunks are taken in quanta of {@value #FAIR_SHARE_QUANTUM} bytes, each reserved in turn
+ * with the other transfers, so that a large upload with a large buffer takes its share of the bandwidth without
+ * making the small transfers wait for its whole chunks.
+ *
+ * @since 4.0.0
+ */
+public final class TokenBucket {
+    /**
+     * The bytes reserved at once in fair share mode.
+     */
+    public static final int FAIR_SHARE_QUANTUM = 16 * 1024;
+
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1L);
+
+    private final long bytesPerSecond;
+
+    private final long burst;
+
+    private final boolean fairShare;
+
+    private final LongSupplier nanoClock;
+
+    private double tokens;
+
+    private long refilled;
+
+    /**
+     * @param bytesPerSecond the rate the tokens come back at
+     * @param burst          the most tokens kept, that is the bytes transferred at once after an idle time
+     * @param fairShare      whether the chunks are taken in quanta reserved in turn with the other transfers
+     */
+    public TokenBucket(long bytesPerSecond, long burst, boolean fairShare) {
+        this(bytesPerSecond, burst, fairShare, System::nanoTime);
+    }
+
+    TokenBucket(long bytesPerSecond, long burst, boolean fairShare, LongSupplier nanoClock) {
+        if (bytesPerSecond <= 0L) {
+            throw new IllegalArgumentException("bytesPerSecond must be positive: " + bytesPerSecond);
+        }
+        if (burst < 0L) {
+            throw new IllegalArgumentException("burst cannot be negative: " + burst);
+        }
+        this.bytesPerSecond = bytesPerSecond;
+        this.burst = burst;
+        this.fairShare = fairShare;
+        this.nanoClock = nanoClock;
+        this.tokens = burst;
+        this.refilled = nanoClock.getAsLong();
+    }
+
+    public long getBytesPerSecond() {
+        return bytesPerSecond;
+    }
+
+    public long getBurst() {
+        return burst;
+    }
+
+    public boolean isFairShare() {
+        return fairShare;
+    }
+
+    /**
+     * Takes the tokens of the given bytes, waiting for them if the bucket runs out.
+     *
+     * @param bytes the bytes about to be transferred
+     * @throws InterruptedIOException if the thread is interrupted while waiting
+     */
+    public void acquire(long bytes) throws InterruptedIOException {
+        long quantum = fairShare ? FAIR_SHARE_QUANTUM : bytes;
+        for (long remaining = bytes; remaining > 0L; remaining -= quantum) {
+            long wait = reserve(Math.min(quantum, remaining));
+            if (wait > 0L) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(wait);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for bandwidth");
+                }
+            }
+        }
+    }
+
+    /**
+     * Takes the tokens of the given bytes, going into debt if the bucket runs out.
+     *
+     * @return how long to wait for the debt to be paid back, in nanoseconds
+     */
+    synchronized long reserve(long bytes) {
+        long now = nanoClock.getAsLong();
+        tokens = Math.min(burst, tokens + (now - refilled) * bytesPerSecond / NANOS_PER_SECOND);
+        refilled = now;
+        tokens -= bytes;
+        return tokens < 0.0 ? (long) Math.ceil(-tokens * NANOS_PER_SECOND / bytesPerSecond) : 0L;
+    }
+
+    @Override
+    public String toString() {
+        return "TokenBucket[bytesPerSecond=" + bytesPerSecond + ", burst=" + burst + ", fairShare=" + fairShare
+                + "]";
+    }
+}
@@ -0,0 +1,545 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.wagon.cache;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.apache.maven.wagon.AbstractWagon;
+import org.apache.maven.wagon.ConnectionException;
+import org.apache.maven.wagon.ResourceDoesNotExistException;
+import org.apache.maven.wagon.TransferFailedException;
+import org.apache.maven.wagon.Wagon;
+import org.apache.maven.wagon.authentication.AuthenticationException;
+import org.apache.maven.wagon.authentication.AuthenticationInfo;
+import org.apache.maven.wagon.authorization.AuthorizationException;
+import org.apache.maven.wagon.events.SessionListener;
+import org.apache.maven.wagon.events.TransferEvent;
+import org.apache.maven.wagon.events.TransferEventSupport;
+import org.apache.maven.wagon.events.TransferListener;
+import org.apache.maven.wagon.observers.AbstractTransferListener;
+import org.apache.maven.wagon.proxy.ProxyInfo;
+import org.apache.maven.wagon.proxy.ProxyInfoProvider;
+import org.apache.maven.wagon.repository.Repository;
+import org.apache.maven.wagon.resource.Resource;
+
+/**
+ * Wagon serving the resources downloaded by another wagon from a {@link WagonCache}, which can be shared by the
+ * wagons of several processes, e.g. by the builds running on the same host.
+ * <p>
+ * Resources are cached by URL. Released artifacts do not change, so they are served from the cache as long as it
+ * holds them. Mutable resources, see {@link #isMutable(String)}, are served from the cache for a limited time only,
+ * then validated against their last modification time with {@link Wagon#getIfNewer(String, File, long)}, and against
+ * their entity tag too when the wrapped wagon is an {@link AbstractWagon}. Uploads evict the uploaded resources from
+ * the cache. A resource which cannot be read from the cache is downloaded instead.
+ * <p>
+ * The transfer listeners are notified of the resources served from the cache as if they had been downloaded,
+ * including the progress of their whole content, so that checksum observers keep working.
+ *
+ * @since 4.0.0
+ */
+public class CachingWagon implements Wagon {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Wagon wagon;
+
+    private final WagonCache cache;
+
+    private final TransferEventSupport transferEventSupport = new TransferEventSupport();
+
+    private long mutableTtl = TimeUnit.SECONDS.toMillis(Long.getLong("maven.wagon.cache.ttlSeconds", 1800L));
+
+    /**
+     * @param wagon the wagon downloading the resources which are not cached
+     * @param cache the cache of the resources
+     */
+    public CachingWagon(Wagon wagon, WagonCache cache) {
+        this.wagon = wagon;
+        this.cache = cache;
+    }
+
+    /**
+     * @return how long mutable resources are served from the cache before being validated, in milliseconds
+     */
+    public long getMutableTtl() {
+        return mutableTtl;
+    }
+
+    /**
+     * @param mutableTtl how long mutable resources are served from the cache before being validated, in
+     *                   milliseconds; defaults to the <code>maven.wagon.cache.ttlSeconds</code> system property, or
+     *                   30 minutes
+     */
+    public void setMutableTtl(long mutableTtl) {
+        this.mutableTtl = mutableTtl;
+    }
+
+    /**
+     * Tells whether the content of a resource may change over time, in which case it is only served from the cache
+     * for {@link #getMutableTtl()}. This is the case of the repository metadata and of the snapshots.
+     *
+     * @param resourceName the name of the resource
+     * @return <code>true</code> if the content of the resource may change
+     */
+    protected boolean isMutable(String resourceName) {
+        return resourceName.contains("maven-metadata") || resourceName.contains("-SNAPSHOT");
+    }
+
+    @Override
+    public void get(String resourceName, File destination)
+            throws TransferFailedException, ResourceDoesNotExistException, AuthorizationException {
+        getIfNewer(resourceName, destination, 0L);
+    }
+
+    @Override
+    public boolean getIfNewer(String resourceName, File destination, long timestamp)
+            throws TransferFailedException, ResourceDoesNotExistException, AuthorizationException {
+        String key = getKey(resourceName);
+        WagonCache.Entry entry = lookup(key);
+
+        if (entry != null && !isFresh(resourceName, entry)) {
+            if (!canValidate(entry)) {
+                entry = null;
+            } else {
+                Validators validators = new Validators();
+                wagon.addTransferListener(validators);
+                try {
+                    if (getIfChanged(resourceName, destination, entry)) {
+                        store(key, destination, validators);
+                        return true;
+                    }
+                } finally {
+                    wagon.removeTransferListener(validators);
+                }
+                entry = validated(key, entry);
+            }
+        }
+
+        if (entry != null) {
+            if (timestamp == 0L || entry.getLastModified() > timestamp) {
+                if (deliver(resourceName, entry, destination)) {
+                    return true;
+                }
+                // the repository still has it
+                evict(resourceName);
+            } else if (entry.getLastModified() > 0L) {
+                // not newer than the given timestamp
+                return false;
+            }
+        }
+
+        Validators validators = new Validators();
+        wagon.addTransferListener(validators);
+        try {
+            boolean retrieved = wagon.getIfNewer(resourceName, destination, timestamp);
+            if (retrieved) {
+                store(key, destination, validators);
+            }
+            return retrieved;
+        } finally {
+            wagon.removeTransferListener(validators);
+        }
+    }
+
+    private boolean canValidate(WagonCache.Entry entry) {
+        return entry.getLastModified() > 0L || entry.getEntityTag() != null && wagon instanceof AbstractWagon;
+    }
+
+    /**
+     * Gets a resource only if it changed since it was cached, which the wrapped wagon tells by the entity tag of the
+     * cached resource when it is an {@link AbstractWagon}, as it does for the entity tags of its own downloads.
+     */
+    private boolean getIfChanged(String resourceName, File destination, WagonCache.Entry entry)
+            throws TransferFailedException, ResourceDoesNotExistException, AuthorizationException {
+        // the entity tag is only sent along with a timestamp
+        long timestamp = Math.max(entry.getLastModified(), 1L);
+        if (entry.getEntityTag() == null || !(wagon instanceof AbstractWagon)) {
+            return wagon.getIfNewer(resourceName, destination, timestamp);
+        }
+
+        AbstractWagon abstractWagon = (AbstractWagon) wagon;
+        EntityTagStore entityTagStore = abstractWagon.getEntityTagStore();
+        abstractWagon.setEntityTagStore(new CachedEntityTag(entry.getEntityTag(), entityTagStore));
+        try {
+            return wagon.getIfNewer(resourceName, destination, timestamp);
+        } finally {
+            abstractWagon.setEntityTagStore(entityTagStore);
+        }
+    }
+
+    @Override
+    public void put(File source, String destination)
+            throws TransferFailedException, ResourceDoesNotExistException, AuthorizationException {
+        try {
+            wagon.put(source, destination);
+        } finally {
+            evict(destination);
+        }
+    }
+
+    @Override
+    public void putDirectory(File sourceDirectory, String destinationDirectory)
+            throws TransferFailedException, ResourceDoesNotExistException, AuthorizationException {
+        try {
+            wagon.putDirectory(sourceDirectory, destinationDirectory);
+        } finally {
+            Path source = sourceDirectory.toPath();
+            String prefix = destinationDirectory.isEmpty() || destinationDirectory.endsWith("/")
+                    ? destinationDirectory
+                    : destinationDirectory + "/";
+            try (Stream<Path> files = Files.walk(source)) {
+                files.filter(Files::isRegularFile)
+                        .forEach(file -> evict(
+                                prefix + source.relativize(file).toString().replace(File.separatorChar, '/')));
+            } catch (IOException e) {
+                transferEventSupport.fireDebug("cannot evict " + destinationDirectory + " from the cache: " + e);
+            }
+        }
+    }
+
+    @Override
+    public boolean resourceExists(String resourceName) throws TransferFailedException, AuthorizationException {
+        WagonCache.Entry entry = lookup(getKey(resourceName));
+        return entry != null && isFresh(resourceName, entry) || wagon.resourceExists(resourceName);
+    }
+
+    private boolean isFresh(String resourceName, WagonCache.Entry entry) {
+        return !isMutable(resourceName) || System.currentTimeMillis() - entry.getFetched() < mutableTtl;
+    }
+
+    private String getKey(String resourceName) {
+        String url = wagon.getRepository().getUrl();
+        return url.endsWith("/") ? url + resourceName : url + "/" + resourceName;
+    }
+
+    // the cache only ever saves transfers, its failures are never those of the transfers
+
+    private WagonCache.Entry lookup(String key) {
+        try {
+            return cache.get(key);
+        } catch (IOException e) {
+            transferEventSupport.fireDebug("cannot read " + key + " from the cache: " + e);
+            return null;
+        }
+    }
+
+    private WagonCache.Entry validated(String key, WagonCache.Entry entry) {
+        try {
+            return cache.validated(key, entry);
+        } catch (IOException e) {
+            transferEventSupport.fireDebug("cannot update " + key + " in the cache: " + e);
+            return entry;
+        }
+    }
+
+    private void store(String key, File file, Validators validators) {
+        if (!file.isFile()) {
+            return;
+        }
+        try {
+            cache.put(key, file.toPath(), validators.lastModified, validators.entityTag);
+        } catch (IOException e) {
+            transferEventSupport.fireDebug("cannot store " + key + " in the cache: " + e);
+        }
+    }
+
+    private void evict(String resourceName) {
+        String key = getKey(resourceName);
+        try {
+            cache.remove(key);
+        } catch (IOException e) {
+            transferEventSupport.fireDebug("cannot evict " + key + " from the cache: " + e);
+        }
+    }
+
+    /**
+     * Copies a cached resource to its destination, notifying the listeners as if it were downloaded. The copy is
+     * written aside and moved into place, so that a failed copy does not leave a truncated destination.
+     *
+     * @return <code>false</code> if the cached content could not be read, the destination being left untouched
+     */
+    private boolean deliver(String resourceName, WagonCache.Entry entry, File destination)
+            throws TransferFailedException {
+        InputStream input;
+        Resource resource = new Resource(resourceName);
+        resource.setLastModified(entry.getLastModified());
+        try {
+            // the content may have been evicted since it was looked up, possibly by another process
+            resource.setContentLength(Files.size(entry.getContent()));
+            input = Files.newInputStream(entry.getContent());
+        } catch (IOException e) {
+            transferEventSupport.fireDebug("cannot read " + resourceName + " from the cache: " + e);
+            return false;
+        }
+
+        transferEventSupport.fireTransferInitiated(newEvent(resource, TransferEvent.TRANSFER_INITIATED, destination));
+        Path temporary = null;
+        boolean reading = false;
+        try {
+            transferEventSupport.fireTransferStarted(newEvent(resource, TransferEvent.TRANSFER_STARTED, destination));
+
+            Path target = destination.getAbsoluteFile().toPath();
+            Files.createDirectories(target.getParent());
+            temporary = Files.createTempFile(target.getParent(), destination.getName(), ".tmp");
+            TransferEvent progress = newEvent(resource, TransferEvent.TRANSFER_PROGRESS, destination);
+            boolean notify = transferEventSupport.hasTransferListeners();
+            byte[] buffer = new byte[BUFFER_SIZE];
+            try (OutputStream output = Files.newOutputStream(temporary)) {
+                while (true) {
+                    reading = true;
+                    int read = input.read(buffer);
+                    reading = false;
+                    if (read == -1) {
+                        break;
+                    }
+                    if (notify) {
+                        transferEventSupport.fireTransferProgress(progress, buffer, read);
+                    }
+                    output.write(buffer, 0, read);
+                }
+            }
+            move(temporary, target);
+        } catch (IOException e) {
+            deleteTemporary(temporary);
+            TransferEvent error = new TransferEvent(this, resource, e, TransferEvent.REQUEST_GET);
+            error.setLocalFile(destination);
+            transferEventSupport.fireTransferError(error);
+            if (reading) {
+                transferEventSupport.fireDebug("cannot read " + resourceName + " from the cache: " + e);
+                return false;
+            }
+            throw new TransferFailedException("Failure copying " + resourceName + " from the cache", e);
+        } finally {
+            try {
+                input.close();
+            } catch (IOException e) {
+                transferEventSupport.fireDebug("cannot close " + entry.getContent() + ": " + e);
+            }
+        }
+
+        transferEventSupport.fireTransferCompleted(newEvent(resource, TransferEvent.TRANSFER_COMPLETED, destination));
+        return true;
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private void deleteTemporary(Path temporary) {
+        if (temporary != null) {
+            try {
+                Files.deleteIfExists(temporary);
+            } catch (IOException e) {
+                transferEventSupport.fireDebug("cannot delete " + temporary + ": " + e);
+            }
+        }
+    }
+
+    private TransferEvent newEvent(Resource resource, int eventType, File destination) {
+        TransferEvent transferEvent = new TransferEvent(this, resource, eventType, TransferEvent.REQUEST_GET);
+        transferEvent.setTimestamp(System.currentTimeMillis());
+        transferEvent.setLocalFile(destination);
+        return transferEvent;
+    }
+
+    /**
+     * Records the last modification time and the entity tag of the resource downloaded by the wrapped wagon.
+     */
+    private static final class Validators extends AbstractTransferListener {
+        private long lastModified;
+
+        private String entityTag;
+
+        @Override
+        public void transferCompleted(TransferEvent transferEvent) {
+            lastModified = transferEvent.getResource().getLastModified();
+            entityTag = transferEvent.getResource().getEntityTag();
+        }
+    }
+
+    /**
+     * Tells the wrapped wagon the entity tag of the cached resource being validated, whatever its destination, and
+     * lets its own store record the entity tag of what it downloads.
+     */
+    private static final class CachedEntityTag implements EntityTagStore {
+        private final String entityTag;
+
+        private final EntityTagStore entityTagStore;
+
+        private CachedEntityTag(String entityTag, EntityTagStore entityTagStore) {
+            this.entityTag = entityTag;
+            this.entityTagStore = entityTagStore;
+        }
+
+        @Override
+        public String getEntityTag(String url, File file) {
+            return entityTag;
+        }
+
+        @Override
+        public void setEntityTag(String url, File file, String entityTag) throws IOException {
+            if (entityTagStore != null) {
+                entityTagStore.setEntityTag(url, file, entityTag);
+            }
+        }
+    }
+
+    // ----------------------------------------------------------------------
+    // Delegation
+    // ----------------------------------------------------------------------
+
+    @Override
+    public List<String> getFileList(String destinationDirectory)
+            throws TransferFailedException, ResourceDoesNotExistException, AuthorizationException {
+        return wagon.getFileList(destinationDirectory);
+    }
+
+    @Override
+    public boolean supportsDirectoryCopy() {
+        return wagon.supportsDirectoryCopy();
+    }
+
+    @Override
+    public Repository getRepository() {
+        return wagon.getRepository();
+    }
+
+    @Override
+    public void connect(Repository source) throws ConnectionException, AuthenticationException {
+        wagon.connect(source);
+    }
+
+    @Override
+    public void connect(Repository source, ProxyInfo proxyInfo) throws ConnectionException, AuthenticationException {
+        wagon.connect(source, proxyInfo);
+    }
+
+    @Override
+    public void connect(Repository source, ProxyInfoProvider proxyInfoProvider)
+            throws ConnectionException, AuthenticationException {
+        wagon.connect(source, proxyInfoProvider);
+    }
+
+    @Override
+    public void connect(Repository source, AuthenticationInfo authenticationInfo)
+            throws ConnectionException, AuthenticationException {
+        wagon.connect(source, authenticationInfo);
+    }
+
+    @Override
+    public void connect(Repository source, AuthenticationInfo authenticationInfo, ProxyInfo proxyInfo)
+            throws ConnectionException, AuthenticationException {
+        wagon.connect(source, authenticationInfo, proxyInfo);
+    }
+
+    @Override
+    public void connect(Repository source, AuthenticationInfo authenticationInfo, ProxyInfoProvider proxyInfoProvider)
+            throws ConnectionException, AuthenticationException {
+        wagon.connect(source, authenticationInfo, proxyInfoProvider);
+    }
+
+    @Override
+    @Deprecated
+    public void openConnection() throws ConnectionException, AuthenticationException {
+        wagon.openConnection();
+    }
+
+    @Override
+    public void disconnect() throws ConnectionException {
+        wagon.disconnect();
+    }
+
+    @Override
+    public void setTimeout(int timeoutValue) {
+        wagon.setTimeout(timeoutValue);
+    }
+
+    @Override
+    public int getTimeout() {
+        return wagon.getTimeout();
+    }
+
+    @Override
+    public void setReadTimeout(int timeoutValue) {
+        wagon.setReadTimeout(timeoutValue);
+    }
+
+    @Override
+    public int getReadTimeout() {
+        return wagon.getReadTimeout();
+    }
+
+    @Override
+    public void addSessionListener(SessionListener listener) {
+        wagon.addSessionListener(listener);
+    }
+
+    @Override
+    public void removeSessionListener(SessionListener listener) {
+        wagon.removeSessionListener(listener);
+    }
+
+    @Override
+    public boolean hasSessionListener(SessionListener listener) {
+        return wagon.hasSessionListener(listener);
+    }
+
+    /**
+     * Adds a listener notified both of the downloads of the wrapped wagon and of the resources served from the cache.
+     */
+    @Override
+    public void addTransferListener(TransferListener listener) {
+        wagon.addTransferListener(listener);
+        transferEventSupport.addTransferListener(listener);
+    }
+
+    @Override
+    public void removeTransferListener(TransferListener listener) {
+        wagon.removeTransferListener(listener);
+        transferEventSupport.removeTransferListener(listener);
+    }
+
+    @Override
+    public boolean hasTransferListener(TransferListener listener) {
+        return transferEventSupport.hasTransferListener(listener);
+    }
+
+    @Override
+    public boolean isInteractive() {
+        return wagon.isInteractive();
+    }
+
+    @Override
+    public void setInteractive(boolean interactive) {
+        wagon.setInteractive(interactive);
+    }
+}
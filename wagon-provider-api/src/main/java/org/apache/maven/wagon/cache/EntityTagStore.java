@@ -0,0 +1,47 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.wagon.cache;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Remembers the entity tags of the downloaded resources, so that the next conditional downloads of the same
+ * resources only get them if they changed, even when their modification time is coarse or unknown.
+ *
+ * @since 4.0.0
+ */
+public interface EntityTagStore {
+    /**
+     * @param url  the URL of the resource
+     * @param file the local copy of the resource
+     * @return the entity tag of the content of the local copy, or <code>null</code> if unknown or if the local copy
+     *         changed since it was downloaded
+     */
+    String getEntityTag(String url, File file) throws IOException;
+
+    /**
+     * Records the entity tag of a resource just downloaded.
+     *
+     * @param url       the URL of the resource
+     * @param file      the local copy of the resource
+     * @param entityTag the entity tag of the downloaded content, or <code>null</code> to forget it
+     */
+    void setEntityTag(String url, File file, String entityTag) throws IOException;
+}
@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.wagon.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Remembers for a limited time the resources found missing, so that probing them again, e.g. while resolving a
+ * dependency against several repositories, does not cost a round trip each time.
+ * <p>
+ * Resources are keyed by repository URL and resource name. The oldest resources are forgotten first once the cache
+ * is full. A resource is forgotten as soon as it is uploaded through a wagon using the same cache.
+ *
+ * @since 4.0.0
+ */
+public final class NegativeCache {
+    private static final NegativeCache SHARED = new NegativeCache(
+            TimeUnit.SECONDS.toMillis(Long.getLong("maven.wagon.negativeCache.ttlSeconds", 0L)),
+            Integer.getInteger("maven.wagon.negativeCache.maxEntries", 10000));
+
+    private final long ttl;
+
+    private final Map<String, Long> expirations;
+
+    /**
+     * @param ttl        how long a missing resource is remembered, in milliseconds
+     * @param maxEntries the maximum number of resources remembered
+     */
+    public NegativeCache(long ttl, final int maxEntries) {
+        this.ttl = ttl;
+        this.expirations = new LinkedHashMap<String, Long>() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Returns the cache shared by the wagons of this JVM. It is disabled unless the
+     * <code>maven.wagon.negativeCache.ttlSeconds</code> system property is positive; the
+     * <code>maven.wagon.negativeCache.maxEntries</code> system property bounds it, 10000 resources by default.
+     *
+     * @return the cache shared by the wagons of this JVM
+     */
+    public static NegativeCache getShared() {
+        return SHARED;
+    }
+
+    /**
+     * @return <code>true</code> if missing resources are remembered at all
+     */
+    public boolean isEnabled() {
+        return ttl > 0L;
+    }
+
+    /**
+     * @param repositoryUrl the URL of the repository
+     * @param resourceName  the name of the resource
+     * @return <code>true</code> if the resource was recently found missing
+     */
+    public boolean isMissing(String repositoryUrl, String resourceName) {
+        if (!isEnabled()) {
+            return false;
+        }
+        String key = getKey(repositoryUrl, resourceName);
+        synchronized (expirations) {
+            Long expiration = expirations.get(key);
+            if (expiration == null) {
+                return false;
+            }
+            if (expiration - System.currentTimeMillis() <= 0L) {
+                expirations.remove(key);
+                return false;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Remembers that a resource is missing.
+     *
+     * @param repositoryUrl the URL of the repository
+     * @param resourceName  the name of the resource
+     */
+    public void missing(String repositoryUrl, String resourceName) {
+        if (!isEnabled()) {
+            return;
+        }
+        String key = getKey(repositoryUrl, resourceName);
+        long expiration = System.currentTimeMillis() + ttl;
+        synchronized (expirations) {
+            // re-inserted to be forgotten last
+            expirations.remove(key);
+            expirations.put(key, expiration);
+        }
+    }
+
+    /**
+     * Forgets that a resource is missing, e.g. because it was uploaded.
+     *
+     * @param repositoryUrl the URL of the repository
+     * @param resourceName  the name of the resource
+     */
+    public void invalidate(String repositoryUrl, String resourceName) {
+        if (!isEnabled()) {
+            return;
+        }
+        String key = getKey(repositoryUrl, resourceName);
+        synchronized (expirations) {
+            expirations.remove(key);
+        }
+    }
+
+    /**
+     * Forgets all the missing resources.
+     */
+    public void clear() {
+        synchronized (expirations) {
+            expirations.clear();
+        }
+    }
+
+    private static String getKey(String repositoryUrl, String resourceName) {
+        String name = resourceName.startsWith("/") ? resourceName.substring(1) : resourceName;
+        return repositoryUrl.endsWith("/") ? repositoryUrl + name : repositoryUrl + "/" + name;
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.wagon.cache;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+import java.util.UUID;
+
+/**
+ * Stores the entity tag of a downloaded file next to it, in a <code>.etag</code> file which also records the length
+ * and the modification time of the file to ignore the entity tag once the file is modified.
+ *
+ * @since 4.0.0
+ */
+public class SidecarEntityTagStore implements EntityTagStore {
+    private static final String SUFFIX = ".etag";
+
+    private static final String URL = "url";
+
+    private static final String ENTITY_TAG = "entityTag";
+
+    private static final String LENGTH = "length";
+
+    private static final String LAST_MODIFIED = "lastModified";
+
+    @Override
+    public String getEntityTag(String url, File file) throws IOException {
+        Properties sidecar = new Properties();
+        try (InputStream input = Files.newInputStream(getSidecar(file))) {
+            sidecar.load(input);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+
+        if (!url.equals(sidecar.getProperty(URL))
+                || !Long.toString(file.length()).equals(sidecar.getProperty(LENGTH))
+                || !Long.toString(file.lastModified()).equals(sidecar.getProperty(LAST_MODIFIED))) {
+            return null;
+        }
+        return sidecar.getProperty(ENTITY_TAG);
+    }
+
+    @Override
+    public void setEntityTag(String url, File file, String entityTag) throws IOException {
+        Path path = getSidecar(file);
+        if (entityTag == null || !file.isFile()) {
+            Files.deleteIfExists(path);
+            return;
+        }
+
+        Properties sidecar = new Properties();
+        sidecar.setProperty(URL, url);
+        sidecar.setProperty(ENTITY_TAG, entityTag);
+        sidecar.setProperty(LENGTH, Long.toString(file.length()));
+        sidecar.setProperty(LAST_MODIFIED, Long.toString(file.lastModified()));
+
+        Path temporary = path.resolveSibling(path.getFileName() + "." + UUID.randomUUID() + ".tmp");
+        try {
+            try (OutputStream output = Files.newOutputStream(temporary)) {
+                sidecar.store(output, null);
+            }
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private static Path getSidecar(File file) {
+        return new File(file.getPath() + SUFFIX).toPath();
+    }
+}
@@ -0,0 +1,384 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.wagon.cache;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Disk-backed, content-addressed store of downloaded resources, which several {@link CachingWagon}s, even in
+ * different processes, can share.
+ * <p>
+ * The content of each resource is stored once under its SHA-256 digest in <code>content/</code>, and an index entry
+ * in <code>index/</code> maps the URL of the resource to its digest, along with its last modification time and entity
+ * tag on the remote side and when it was last fetched. Every file is written aside and atomically moved into place, so
+ * concurrent users never see a partial one. When the content exceeds the maximum size, the least recently used
+ * content is evicted, the recency being the modification time of its file, which is updated on every hit.
+ *
+ * @since 4.0.0
+ */
+public final class WagonCache {
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+
+    private static final String KEY = "key";
+
+    private static final String DIGEST = "digest";
+
+    private static final String LAST_MODIFIED = "lastModified";
+
+    private static final String ENTITY_TAG = "entityTag";
+
+    private static final String FETCHED = "fetched";
+
+    private final Path contentDirectory;
+
+    private final Path indexDirectory;
+
+    private final long maxSize;
+
+    /**
+     * estimation of the size of the content, <code>-1</code> until first computed
+     */
+    private final AtomicLong size = new AtomicLong(-1L);
+
+    /**
+     * @param directory the directory of the cache, created if needed
+     * @param maxSize   the size the content is evicted down to when it grows beyond, <code>0</code> or less for no
+     *                  limit
+     */
+    public WagonCache(Path directory, long maxSize) {
+        this.contentDirectory = directory.resolve("content");
+        this.indexDirectory = directory.resolve("index");
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * A cached resource.
+     */
+    public static final class Entry {
+        private final String digest;
+
+        private final Path content;
+
+        private final long lastModified;
+
+        private final String entityTag;
+
+        private final long fetched;
+
+        Entry(String digest, Path content, long lastModified, String entityTag, long fetched) {
+            this.digest = digest;
+            this.content = content;
+            this.lastModified = lastModified;
+            this.entityTag = entityTag;
+            this.fetched = fetched;
+        }
+
+        /**
+         * @return the SHA-256 digest of the content, in hexadecimal
+         */
+        public String getDigest() {
+            return digest;
+        }
+
+        /**
+         * @return the file holding the content, which must not be modified
+         */
+        public Path getContent() {
+            return content;
+        }
+
+        /**
+         * @return the last modification time of the resource on the remote side, <code>0</code> if unknown
+         */
+        public long getLastModified() {
+            return lastModified;
+        }
+
+        /**
+         * @return the entity tag of the resource on the remote side, <code>null</code> if unknown
+         */
+        public String getEntityTag() {
+            return entityTag;
+        }
+
+        /**
+         * @return when the resource was last fetched or validated against the remote side
+         */
+        public long getFetched() {
+            return fetched;
+        }
+    }
+
+    /**
+     * @param key the URL of the resource
+     * @return the cached resource, or <code>null</code> if it is not cached or its content was evicted
+     */
+    public Entry get(String key) throws IOException {
+        Properties index = new Properties();
+        try (InputStream input = Files.newInputStream(getIndexFile(key))) {
+            index.load(input);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+
+        String digest = index.getProperty(DIGEST);
+        if (!key.equals(index.getProperty(KEY)) || digest == null) {
+            return null;
+        }
+        Path content = getContentFile(digest);
+        try {
+            // the least recently used content is evicted first
+            Files.setLastModifiedTime(content, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+        try {
+            return new Entry(
+                    digest,
+                    content,
+                    Long.parseLong(index.getProperty(LAST_MODIFIED, "0")),
+                    index.getProperty(ENTITY_TAG),
+                    Long.parseLong(index.getProperty(FETCHED, "0")));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Stores a copy of a downloaded file.
+     *
+     * @param key          the URL of the resource
+     * @param file         the downloaded content of the resource
+     * @param lastModified the last modification time of the resource on the remote side, <code>0</code> if unknown
+     * @param entityTag    the entity tag of the resource on the remote side, <code>null</code> if unknown
+     * @return the cached resource
+     */
+    public Entry put(String key, Path file, long lastModified, String entityTag) throws IOException {
+        Files.createDirectories(contentDirectory);
+        Path temporary = contentDirectory.resolve(UUID.randomUUID() + ".tmp");
+        MessageDigest digester = newDigester();
+        try {
+            try (OutputStream output = new DigestOutputStream(Files.newOutputStream(temporary), digester)) {
+                Files.copy(file, output);
+            }
+            String digest = toHex(digester.digest());
+            Path content = getContentFile(digest);
+            Files.createDirectories(content.getParent());
+            long length = Files.size(temporary);
+            if (move(temporary, content)) {
+                grow(length);
+            }
+
+            return update(key, digest, lastModified, entityTag);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Records that a cached resource was validated against the remote side, and is therefore fresh again.
+     *
+     * @param key   the URL of the resource
+     * @param entry the cached resource
+     * @return the validated resource
+     */
+    public Entry validated(String key, Entry entry) throws IOException {
+        return update(key, entry.getDigest(), entry.getLastModified(), entry.getEntityTag());
+    }
+
+    /**
+     * Forgets a resource, e.g. because it was uploaded. Its content is only removed by the eviction.
+     *
+     * @param key the URL of the resource
+     */
+    public void remove(String key) throws IOException {
+        Files.deleteIfExists(getIndexFile(key));
+    }
+
+    private Entry update(String key, String digest, long lastModified, String entityTag) throws IOException {
+        long fetched = System.currentTimeMillis();
+        Properties index = new Properties();
+        index.setProperty(KEY, key);
+        index.setProperty(DIGEST, digest);
+        index.setProperty(LAST_MODIFIED, Long.toString(lastModified));
+        if (entityTag != null) {
+            index.setProperty(ENTITY_TAG, entityTag);
+        }
+        index.setProperty(FETCHED, Long.toString(fetched));
+
+        Path indexFile = getIndexFile(key);
+        Files.createDirectories(indexFile.getParent());
+        Path temporary = indexFile.resolveSibling(UUID.randomUUID() + ".tmp");
+        try {
+            try (OutputStream output = Files.newOutputStream(temporary)) {
+                index.store(output, null);
+            }
+            Files.move(temporary, indexFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+        return new Entry(digest, getContentFile(digest), lastModified, entityTag, fetched);
+    }
+
+    /**
+     * @return <code>true</code> if the content was added, <code>false</code> if it was already there
+     */
+    private static boolean move(Path source, Path target) throws IOException {
+        if (Files.exists(target)) {
+            return false;
+        }
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            // stored concurrently, the content is the same
+            return false;
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return true;
+    }
+
+    private void grow(long length) throws IOException {
+        if (maxSize <= 0L) {
+            return;
+        }
+        long current = size.get() < 0L ? size.updateAndGet(s -> s < 0L ? computeSize() : s) : size.addAndGet(length);
+        if (current > maxSize) {
+            evict();
+        }
+    }
+
+    /**
+     * Removes the least recently used content until the content fits in the maximum size.
+     */
+    public synchronized void evict() throws IOException {
+        if (maxSize <= 0L || !Files.isDirectory(contentDirectory)) {
+            return;
+        }
+
+        // other processes may share the cache, hence the actual content is listed
+        List<ContentFile> files = new ArrayList<>();
+        long total = 0L;
+        try (Stream<Path> paths = Files.walk(contentDirectory, 2)) {
+            for (Path path : (Iterable<Path>) paths::iterator) {
+                if (path.getFileName().toString().endsWith(".tmp")) {
+                    continue;
+                }
+                BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                if (attributes.isRegularFile()) {
+                    files.add(new ContentFile(path, attributes));
+                    total += attributes.size();
+                }
+            }
+        }
+
+        files.sort(Comparator.comparing(file -> file.lastUsed));
+        for (ContentFile file : files) {
+            if (total <= maxSize) {
+                break;
+            }
+            if (Files.deleteIfExists(file.path)) {
+                total -= file.size;
+            }
+        }
+        size.set(total);
+    }
+
+    private long computeSize() {
+        long total = 0L;
+        if (Files.isDirectory(contentDirectory)) {
+            try (DirectoryStream<Path> prefixes = Files.newDirectoryStream(contentDirectory)) {
+                for (Path prefix : prefixes) {
+                    if (Files.isDirectory(prefix)) {
+                        try (DirectoryStream<Path> files = Files.newDirectoryStream(prefix)) {
+                            for (Path file : files) {
+                                total += Files.size(file);
+                            }
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                // evicting will list the content again
+            }
+        }
+        return total;
+    }
+
+    private Path getContentFile(String digest) {
+        return contentDirectory.resolve(digest.substring(0, 2)).resolve(digest);
+    }
+
+    private Path getIndexFile(String key) {
+        String digest = toHex(newDigester().digest(key.getBytes(StandardCharsets.UTF_8)));
+        return indexDirectory.resolve(digest.substring(0, 2)).resolve(digest + ".properties");
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    private static MessageDigest newDigester() {
+        try {
+            return MessageDigest.getInstance(DIGEST_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            // every JVM supports SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class ContentFile {
+        private final Path path;
+
+        private final FileTime lastUsed;
+
+        private final long size;
+
+        ContentFile(Path path, BasicFileAttributes attributes) {
+            this.path = path;
+            this.lastUsed = attributes.lastModifiedTime();
+            this.size = attributes.size();
+        }
+    }
+}
@@ -0,0 +1,291 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.wagon.events;
+
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hands the progress events of a {@link TransferEventSupport} over to a dedicated thread through a bounded queue, so
+ * that slow listeners do not hold up the transfer.
+ * <p>
+ * The buffer of every event is copied, as the transfer reuses it as soon as the event has been fired. Listener
+ * failures can not be thrown back to the transfer thread as it happens: the first one is kept and thrown by the next
+ * {@link #await()}.
+ * <p>
+ * Events carrying content are never dropped, as their listeners (e.g. checksum observers) need every byte: with
+ * {@link ProgressBackPressure#DROP} they wait for the queue like with {@link ProgressBackPressure#BLOCK}. With
+ * {@link ProgressBackPressure#COALESCE} their content is merged up to {@link #MAX_COALESCED_BYTES} only.
+ */
+final class AsyncProgressDispatcher {
+    /**
+     * Largest content {@link ProgressBackPressure#COALESCE} merges the chunks of a transfer into, beyond which the
+     * transfer waits for the listeners, so that a slow listener does not pile a large download up on the heap.
+     */
+    static final int MAX_COALESCED_BYTES = 1024 * 1024;
+
+    private final BlockingQueue<Progress> queue;
+
+    private final ProgressBackPressure backPressure;
+
+    private final ThreadPoolExecutor executor;
+
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    /**
+     * Events enqueued and not yet delivered, used to skip {@link #await()} when there is nothing to wait for.
+     */
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final LongAdder dropped = new LongAdder();
+
+    /**
+     * Progress which did not fit in the queue and which further events of the same transfer are merged into, only
+     * with {@link ProgressBackPressure#COALESCE}.
+     */
+    private Progress pending;
+
+    private volatile RuntimeException failure;
+
+    private volatile Thread consumer;
+
+    AsyncProgressDispatcher(int capacity, ProgressBackPressure backPressure) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.backPressure = backPressure;
+        this.executor = new ThreadPoolExecutor(1, 1, 30L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread thread = new Thread(r, "wagon-transfer-progress");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    ProgressBackPressure getBackPressure() {
+        return backPressure;
+    }
+
+    int getCapacity() {
+        return queue.size() + queue.remainingCapacity();
+    }
+
+    long getDropped() {
+        return dropped.sum();
+    }
+
+    void dispatch(TransferListener[] listeners, TransferEvent transferEvent, byte[] buffer, int length) {
+        byte[] copy = buffer != null ? Arrays.copyOf(buffer, length) : null;
+        Progress progress = new Progress(listeners, transferEvent, copy, length);
+
+        switch (backPressure) {
+            case DROP:
+                inFlight.incrementAndGet();
+                if (copy != null) {
+                    // the listeners need the content, they hold up the transfer rather than miss some of it
+                    put(progress);
+                } else if (!queue.offer(progress)) {
+                    inFlight.decrementAndGet();
+                    dropped.increment();
+                }
+                break;
+            case COALESCE:
+                coalesce(progress);
+                break;
+            default:
+                inFlight.incrementAndGet();
+                put(progress);
+        }
+        schedule();
+    }
+
+    private synchronized void coalesce(Progress progress) {
+        if (pending != null) {
+            if (queue.offer(pending)) {
+                pending = null;
+            } else if (pending.canMerge(progress)) {
+                pending.merge(progress);
+                return;
+            } else {
+                put(pending);
+                pending = null;
+            }
+        }
+
+        inFlight.incrementAndGet();
+        if (!queue.offer(progress)) {
+            pending = progress;
+        }
+    }
+
+    /**
+     * Waits until every progress event fired so far has been delivered, and throws the first listener failure if
+     * there was one.
+     */
+    void await() {
+        if (Thread.currentThread() == consumer) {
+            // a listener firing events itself
+            return;
+        }
+
+        synchronized (this) {
+            if (pending != null) {
+                put(pending);
+                pending = null;
+            }
+        }
+
+        if (inFlight.get() > 0) {
+            CountDownLatch latch = new CountDownLatch(1);
+            if (put(new Progress(latch))) {
+                try {
+                    latch.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        RuntimeException e = failure;
+        if (e != null) {
+            failure = null;
+            throw e;
+        }
+    }
+
+    /**
+     * Delivers the remaining events and lets the thread go.
+     */
+    void shutdown() {
+        await();
+        executor.shutdown();
+    }
+
+    private boolean put(Progress progress) {
+        try {
+            if (!queue.offer(progress)) {
+                // make sure the queue is being consumed before waiting for it
+                schedule();
+                queue.put(progress);
+            }
+            schedule();
+            return true;
+        } catch (InterruptedException e) {
+            if (progress.barrier == null) {
+                inFlight.decrementAndGet();
+            }
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void schedule() {
+        if (!queue.isEmpty() && draining.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        consumer = Thread.currentThread();
+        try {
+            do {
+                Progress progress;
+                while ((progress = queue.poll()) != null) {
+                    deliver(progress);
+                }
+                draining.set(false);
+            } while (!queue.isEmpty() && draining.compareAndSet(false, true));
+        } finally {
+            consumer = null;
+        }
+    }
+
+    private void deliver(Progress progress) {
+        if (progress.barrier != null) {
+            progress.barrier.countDown();
+            return;
+        }
+
+        try {
+            for (TransferListener listener : progress.listeners) {
+                listener.transferProgress(progress.transferEvent, progress.buffer, progress.length);
+            }
+        } catch (RuntimeException e) {
+            if (failure == null) {
+                failure = e;
+            }
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private static final class Progress {
+        private final TransferListener[] listeners;
+
+        private final TransferEvent transferEvent;
+
+        private final CountDownLatch barrier;
+
+        private byte[] buffer;
+
+        private int length;
+
+        Progress(TransferListener[] listeners, TransferEvent transferEvent, byte[] buffer, int length) {
+            this.listeners = listeners;
+            this.transferEvent = transferEvent;
+            this.buffer = buffer;
+            this.length = length;
+            this.barrier = null;
+        }
+
+        Progress(CountDownLatch barrier) {
+            this.listeners = null;
+            this.transferEvent = null;
+            this.barrier = barrier;
+        }
+
+        boolean canMerge(Progress progress) {
+            if (transferEvent != progress.transferEvent || listeners != progress.listeners) {
+                return false;
+            }
+            if (buffer == null) {
+                return progress.buffer == null && (long) length + progress.length <= Integer.MAX_VALUE;
+            }
+            return progress.buffer != null && (long) length + progress.length <= MAX_COALESCED_BYTES;
+        }
+
+        void merge(Progress progress) {
+            if (buffer != null) {
+                if (length + progress.length > buffer.length) {
+                    buffer = Arrays.copyOf(
+                            buffer,
+                            Math.min(Math.max(buffer.length * 2, length + progress.length), MAX_COALESCED_BYTES));
+                }
+                System.arraycopy(progress.buffer, 0, buffer, length, progress.length);
+            }
+            length += progress.length;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.wagon.events;
+
+/**
+ * Marker of the transfer listeners which only need to know how much has been transferred, such as progress bars or
+ * metrics, and not the transferred bytes themselves.
+ * <p>
+ * Such a listener is notified of the progress at most once per coalescing period (see
+ * {@link TransferEventSupport#setProgressCoalescing(long, long)}) rather than for every chunk:
+ * {@link #transferProgress(TransferEvent, byte[], int)} is then called with a <code>null</code> buffer and the number
+ * of bytes transferred since the previous notification. The remaining progress is always notified before
+ * {@link #transferCompleted(TransferEvent)} or {@link #transferError(TransferEvent)}. When coalescing is disabled the
+ * listener receives every chunk, like any other listener.
+ *
+ * @since 4.0.0
+ */
+public interface CoalescedProgressListener extends TransferListener {}
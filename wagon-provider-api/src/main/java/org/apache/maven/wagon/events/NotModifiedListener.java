@@ -0,0 +1,33 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.wagon.events;
+
+/**
+ * A transfer listener which also needs to know of the conditional gets which found the resource up to date. Such a
+ * get is {@link #transferInitiated(TransferEvent) initiated}, but neither started, completed nor failed: it ends with
+ * {@link #transferNotModified(TransferEvent)} instead.
+ *
+ * @since 4.0.0
+ */
+public interface NotModifiedListener extends TransferListener {
+    /**
+     * @param transferEvent the event of the get, of type {@link TransferEvent#TRANSFER_NOT_MODIFIED}
+     */
+    void transferNotModified(TransferEvent transferEvent);
+}
@@ -0,0 +1,48 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.wagon.events;
+
+/**
+ * What an asynchronous {@link TransferEventSupport} does with a progress event when the listeners fall behind and its
+ * queue is full.
+ *
+ * @see TransferEventSupport#setAsynchronousProgress(int, ProgressBackPressure)
+ * @since 4.0.0
+ */
+public enum ProgressBackPressure {
+    /**
+     * Wait until the listeners have caught up, so that the transfer runs at most as fast as its listeners. Every
+     * byte is still notified.
+     */
+    BLOCK,
+
+    /**
+     * Merge the progress events of the same transfer which do not fit in the queue into a single, larger event. Every
+     * byte is still notified, but in fewer and larger chunks. The content merged into an event is bounded: once it
+     * reaches 1 MiB, the transfer waits for the listeners as with {@link #BLOCK}.
+     */
+    COALESCE,
+
+    /**
+     * Discard the progress events which do not fit in the queue. This only applies to the events of the
+     * {@link CoalescedProgressListener}s, which merely display or measure the progress: the events carrying content
+     * for the other listeners (e.g. a checksum computed by a listener) wait for the queue as with {@link #BLOCK}.
+     */
+    DROP
+}
@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.wagon.events;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ObjIntConsumer;
+
+import org.apache.maven.wagon.resource.Resource;
+
+/**
+ * Aggregates the progress of the transfers for the {@link CoalescedProgressListener}s. The progress pending for a
+ * transfer is kept by transfer, i.e. by resource and request type, as its progress events may be fired from different
+ * threads one after the other.
+ */
+final class ProgressCoalescer {
+    private final long intervalNanos;
+
+    private final long byteThreshold;
+
+    /**
+     * progress not notified yet of the transfers, to be flushed at their end
+     */
+    private final ConcurrentMap<Transfer, Pending> pending = new ConcurrentHashMap<>();
+
+    ProgressCoalescer(long intervalMillis, long byteThreshold) {
+        this.intervalNanos = intervalMillis > 0L ? TimeUnit.MILLISECONDS.toNanos(intervalMillis) : 0L;
+        this.byteThreshold = byteThreshold;
+    }
+
+    /**
+     * Adds the progress of a transfer, and hands the aggregated progress to the sink once the period is over.
+     */
+    void add(TransferEvent transferEvent, int length, ObjIntConsumer<TransferEvent> sink) {
+        // progress due, computed atomically and notified outside of the map
+        long[] due = new long[2];
+        pending.compute(new Transfer(transferEvent), (transfer, current) -> {
+            long now = intervalNanos > 0L ? System.nanoTime() : 0L;
+            if (current == null) {
+                current = new Pending(now);
+            } else if (current.bytes + length > Integer.MAX_VALUE) {
+                due[0] = current.bytes;
+                current.bytes = 0L;
+            }
+            current.transferEvent = transferEvent;
+            current.bytes += length;
+
+            if ((byteThreshold > 0L && current.bytes >= byteThreshold)
+                    || (intervalNanos > 0L && now - current.lastNotification >= intervalNanos)) {
+                // the next period starts with the next progress
+                due[1] = current.bytes;
+                return null;
+            }
+            return current;
+        });
+        notify(transferEvent, due[0], sink);
+        notify(transferEvent, due[1], sink);
+    }
+
+    /**
+     * Hands the progress still pending for the transfer of the given event to the sink, at the end of the transfer.
+     */
+    void flush(TransferEvent transferEvent, ObjIntConsumer<TransferEvent> sink) {
+        Pending current = pending.remove(new Transfer(transferEvent));
+        if (current != null) {
+            notify(current.transferEvent, current.bytes, sink);
+        }
+    }
+
+    private static void notify(TransferEvent transferEvent, long bytes, ObjIntConsumer<TransferEvent> sink) {
+        if (bytes > 0L) {
+            sink.accept(transferEvent, (int) bytes);
+        }
+    }
+
+    /**
+     * Identifies a transfer: the same resource, compared by identity, transferred in the same direction.
+     */
+    private static final class Transfer {
+        private final Resource resource;
+
+        private final int requestType;
+
+        Transfer(TransferEvent transferEvent) {
+            this.resource = transferEvent.getResource();
+            this.requestType = transferEvent.getRequestType();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Transfer)) {
+                return false;
+            }
+            Transfer other = (Transfer) obj;
+            return resource == other.resource && requestType == other.requestType;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(resource) + requestType;
+        }
+    }
+
+    /**
+     * Progress of a transfer, only accessed within the {@link #pending} map operations.
+     */
+    private static final class Pending {
+        private final long lastNotification;
+
+        private TransferEvent transferEvent;
+
+        private long bytes;
+
+        Pending(long lastNotification) {
+            this.lastNotification = lastNotification;
+        }
+    }
+}
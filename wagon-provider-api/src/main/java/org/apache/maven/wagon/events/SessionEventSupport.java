@@ -18,8 +18,7 @@
  */
 package org.apache.maven.wagon.events;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 
 /**
  * The class allows registration and deregistration of session listeners
@@ -28,10 +27,13 @@
  *
  */
 public final class SessionEventSupport {
+    private static final SessionListener[] NO_LISTENERS = new SessionListener[0];
+
     /**
-     * registered listeners
+     * registered listeners: the array is never modified but replaced, so that events are dispatched without locking
+     * nor allocating
      */
-    private final List<SessionListener> listeners = new ArrayList<>();
+    private volatile SessionListener[] listeners = NO_LISTENERS;
 
     /**
      * Adds the listener to the collection of listeners
@@ -44,9 +46,12 @@ public final class SessionEventSupport {
      * @see #removeSessionListener(SessionListener)
      * @see TransferListener
      */
-    public void addSessionListener(final SessionListener listener) {
+    public synchronized void addSessionListener(final SessionListener listener) {
         if (listener != null) {
-            listeners.add(listener);
+            SessionListener[] current = listeners;
+            SessionListener[] updated = Arrays.copyOf(current, current.length + 1);
+            updated[current.length] = listener;
+            listeners = updated;
         }
     }
 
@@ -61,8 +66,17 @@ public void addSessionListener(final SessionListener listener) {
      * @param listener the session listener
      * @see #addSessionListener(org.apache.maven.wagon.events.SessionListener)
      */
-    public void removeSessionListener(final SessionListener listener) {
-        listeners.remove(listener);
+    public synchronized void removeSessionListener(final SessionListener listener) {
+        SessionListener[] current = listeners;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i].equals(listener)) {
+                SessionListener[] updated = new SessionListener[current.length - 1];
+                System.arraycopy(current, 0, updated, 0, i);
+                System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+                listeners = updated;
+                return;
+            }
+        }
     }
 
     /**
@@ -78,7 +92,12 @@ public void removeSessionListener(final SessionListener listener) {
      * @see #addSessionListener(org.apache.maven.wagon.events.SessionListener)
      */
     public boolean hasSessionListener(final SessionListener listener) {
-        return listeners.contains(listener);
+        for (SessionListener registered : listeners) {
+            if (registered.equals(listener)) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
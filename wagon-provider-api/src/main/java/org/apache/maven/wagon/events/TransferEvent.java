@@ -67,6 +67,13 @@ public class TransferEvent extends WagonEvent {
      */
     public static final int REQUEST_PUT = 6;
 
+    /**
+     * A conditional transfer found the resource up to date, and therefore did not transfer it.
+     *
+     * @since 4.0.0
+     */
+    public static final int TRANSFER_NOT_MODIFIED = 7;
+
     private Resource resource;
 
     private int eventType;
@@ -155,6 +162,7 @@ public void setEventType(final int eventType) {
             case TRANSFER_COMPLETED:
             case TRANSFER_PROGRESS:
             case TRANSFER_ERROR:
+            case TRANSFER_NOT_MODIFIED:
                 break;
             default:
                 throw new IllegalArgumentException("Illegal event type: " + eventType);
@@ -219,6 +227,9 @@ public String toString() {
             case TRANSFER_STARTED:
                 sb.append("STARTED");
                 break;
+            case TRANSFER_NOT_MODIFIED:
+                sb.append("NOT_MODIFIED");
+                break;
             default:
                 sb.append(this.getEventType());
                 break;
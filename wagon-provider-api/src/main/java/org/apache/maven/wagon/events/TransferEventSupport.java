@@ -18,22 +18,130 @@
  */
 package org.apache.maven.wagon.events;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
+import java.util.function.ObjIntConsumer;
 
 /**
  * The class allows registration and removal of event listeners of type
  * TransferListener and dispatch of those events to those listeners
+ * <p>
+ * Listeners can be added and removed at any time. An event is dispatched without locking to the listeners registered
+ * when it is fired, so a listener shared by concurrent transfers may be called by several threads at once.
+ * <p>
+ * Listeners which only display or measure the progress can implement {@link CoalescedProgressListener} to be
+ * notified of it less often, see {@link #setProgressCoalescing(long, long)}.
+ * <p>
+ * Progress events can optionally be dispatched asynchronously, see
+ * {@link #setAsynchronousProgress(int, ProgressBackPressure)}. The other events are always dispatched by the calling
+ * thread, once all the progress fired before them has been delivered.
  *
  * @author <a href="michal.maczka@dimatics.com">Michal Maczka</a>
  *
  */
 public final class TransferEventSupport {
 
+    private static final TransferListener[] NO_LISTENERS = new TransferListener[0];
+
+    /**
+     * registered listeners: the array is never modified but replaced, so that events are dispatched without locking
+     * nor allocating
+     */
+    private volatile TransferListener[] listeners = NO_LISTENERS;
+
+    /**
+     * registered listeners which receive every chunk of progress
+     */
+    private volatile TransferListener[] chunkListeners = NO_LISTENERS;
+
+    /**
+     * registered {@link CoalescedProgressListener}s
+     */
+    private volatile TransferListener[] coalescedListeners = NO_LISTENERS;
+
+    /**
+     * aggregator of the progress for the {@link CoalescedProgressListener}s, <code>null</code> when they receive every
+     * chunk
+     */
+    private volatile ProgressCoalescer progressCoalescer;
+
+    private final ObjIntConsumer<TransferEvent> coalescedProgressSink = this::fireCoalescedProgress;
+
     /**
-     * registered listeners
+     * dispatcher of the progress events, <code>null</code> when they are dispatched synchronously
      */
-    private final List<TransferListener> listeners = new ArrayList<>();
+    private volatile AsyncProgressDispatcher progressDispatcher;
+
+    /**
+     * Creates an instance dispatching progress asynchronously if the
+     * <code>maven.wagon.progress.queueCapacity</code> system property is positive, with the back-pressure policy
+     * given by <code>maven.wagon.progress.backPressure</code> (<code>BLOCK</code> by default).
+     * <p>
+     * The progress notified to the {@link CoalescedProgressListener}s is aggregated over
+     * <code>maven.wagon.progress.coalesceMillis</code> milliseconds (100 by default) or
+     * <code>maven.wagon.progress.coalesceBytes</code> bytes (no limit by default).
+     */
+    public TransferEventSupport() {
+        setProgressCoalescing(
+                Long.getLong("maven.wagon.progress.coalesceMillis", 100L),
+                Long.getLong("maven.wagon.progress.coalesceBytes", 0L));
+
+        int capacity = Integer.getInteger("maven.wagon.progress.queueCapacity", 0);
+        if (capacity > 0) {
+            setAsynchronousProgress(
+                    capacity,
+                    ProgressBackPressure.valueOf(System.getProperty("maven.wagon.progress.backPressure", "BLOCK")));
+        }
+    }
+
+    /**
+     * Sets how the progress is aggregated for the {@link CoalescedProgressListener}s: they are notified once either
+     * limit is reached, and at the end of the transfer. This should be set before the transfers start, as the progress
+     * pending when it changes is not notified.
+     *
+     * @param intervalMillis the maximum time between two notifications, <code>0</code> or less for no limit
+     * @param byteThreshold  the maximum number of bytes per notification, <code>0</code> or less for no limit; when
+     *                       both are unlimited, every chunk is notified
+     * @since 4.0.0
+     */
+    public synchronized void setProgressCoalescing(long intervalMillis, long byteThreshold) {
+        progressCoalescer = intervalMillis > 0L || byteThreshold > 0L
+                ? new ProgressCoalescer(intervalMillis, byteThreshold)
+                : null;
+    }
+
+    /**
+     * Dispatches the progress events from a dedicated thread rather than from the transferring thread, through a
+     * bounded queue. The events which were queued so far are delivered before the mode changes.
+     *
+     * @param queueCapacity how many progress events can wait for the listeners, <code>0</code> or less to go back to
+     *                      synchronous dispatch
+     * @param backPressure  what to do with progress events when the queue is full
+     * @since 4.0.0
+     */
+    public synchronized void setAsynchronousProgress(int queueCapacity, ProgressBackPressure backPressure) {
+        AsyncProgressDispatcher dispatcher = progressDispatcher;
+        progressDispatcher = queueCapacity > 0 ? new AsyncProgressDispatcher(queueCapacity, backPressure) : null;
+        if (dispatcher != null) {
+            dispatcher.shutdown();
+        }
+    }
+
+    /**
+     * @return <code>true</code> if progress events are dispatched from a dedicated thread
+     * @since 4.0.0
+     */
+    public boolean isAsynchronousProgress() {
+        return progressDispatcher != null;
+    }
+
+    /**
+     * @return how many progress events were discarded with {@link ProgressBackPressure#DROP}
+     * @since 4.0.0
+     */
+    public long getDroppedProgressEvents() {
+        AsyncProgressDispatcher dispatcher = progressDispatcher;
+        return dispatcher != null ? dispatcher.getDropped() : 0L;
+    }
 
     /**
      * Adds the listener to the collection of listeners
@@ -48,7 +156,10 @@ public final class TransferEventSupport {
      */
     public synchronized void addTransferListener(final TransferListener listener) {
         if (listener != null) {
-            listeners.add(listener);
+            TransferListener[] current = listeners;
+            TransferListener[] updated = Arrays.copyOf(current, current.length + 1);
+            updated[current.length] = listener;
+            setListeners(updated);
         }
     }
 
@@ -64,7 +175,39 @@ public synchronized void addTransferListener(final TransferListener listener) {
      * @see #addTransferListener(TransferListener)
      */
     public synchronized void removeTransferListener(final TransferListener listener) {
-        listeners.remove(listener);
+        TransferListener[] current = listeners;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i].equals(listener)) {
+                TransferListener[] updated = new TransferListener[current.length - 1];
+                System.arraycopy(current, 0, updated, 0, i);
+                System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+                setListeners(updated);
+                return;
+            }
+        }
+    }
+
+    private void setListeners(TransferListener[] updated) {
+        int coalesced = 0;
+        for (TransferListener listener : updated) {
+            if (listener instanceof CoalescedProgressListener) {
+                coalesced++;
+            }
+        }
+        TransferListener[] chunk = new TransferListener[updated.length - coalesced];
+        TransferListener[] aggregated = new TransferListener[coalesced];
+        int c = 0;
+        int a = 0;
+        for (TransferListener listener : updated) {
+            if (listener instanceof CoalescedProgressListener) {
+                aggregated[a++] = listener;
+            } else {
+                chunk[c++] = listener;
+            }
+        }
+        chunkListeners = chunk;
+        coalescedListeners = aggregated;
+        listeners = updated;
     }
 
     /**
@@ -79,8 +222,34 @@ public synchronized void removeTransferListener(final TransferListener listener)
      * @see org.apache.maven.wagon.events.TransferEvent
      * @see #addTransferListener(TransferListener)
      */
-    public synchronized boolean hasTransferListener(final TransferListener listener) {
-        return listeners.contains(listener);
+    public boolean hasTransferListener(final TransferListener listener) {
+        for (TransferListener registered : listeners) {
+            if (registered.equals(listener)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns whether any transfer listener is registered.
+     *
+     * @return <code>true</code> if at least one listener would be notified of a transfer event
+     * @since 4.0.0
+     */
+    public boolean hasTransferListeners() {
+        return listeners.length > 0;
+    }
+
+    /**
+     * Returns whether a listener needs the content of the progress events: when only
+     * {@link CoalescedProgressListener}s are notified of the progress, they only need its length.
+     *
+     * @return <code>true</code> if {@link #fireTransferProgress(TransferEvent, byte[], int)} needs the buffer
+     * @since 4.0.0
+     */
+    public boolean needsProgressContent() {
+        return progressCoalescer == null ? listeners.length > 0 : chunkListeners.length > 0;
     }
 
     /**
@@ -90,7 +259,8 @@ public synchronized boolean hasTransferListener(final TransferListener listener)
      *
      * @param transferEvent the TransferEvent which will be dispatched to listeners
      */
-    public synchronized void fireTransferStarted(final TransferEvent transferEvent) {
+    public void fireTransferStarted(final TransferEvent transferEvent) {
+        awaitProgress();
         for (TransferListener listener : listeners) {
             listener.transferStarted(transferEvent);
         }
@@ -105,12 +275,60 @@ public synchronized void fireTransferStarted(final TransferEvent transferEvent)
      * @param buffer        the buffer containing the additional content
      * @param length        the length of the content in the buffer
      */
-    public synchronized void fireTransferProgress(final TransferEvent transferEvent, byte[] buffer, int length) {
-        for (TransferListener listener : listeners) {
+    public void fireTransferProgress(final TransferEvent transferEvent, byte[] buffer, int length) {
+        ProgressCoalescer coalescer = progressCoalescer;
+        if (coalescer == null) {
+            dispatchProgress(listeners, transferEvent, buffer, length);
+            return;
+        }
+
+        dispatchProgress(chunkListeners, transferEvent, buffer, length);
+        if (coalescedListeners.length > 0) {
+            coalescer.add(transferEvent, length, coalescedProgressSink);
+        }
+    }
+
+    private void fireCoalescedProgress(TransferEvent transferEvent, int length) {
+        dispatchProgress(coalescedListeners, transferEvent, null, length);
+    }
+
+    private void dispatchProgress(TransferListener[] targets, TransferEvent transferEvent, byte[] buffer, int length) {
+        if (targets.length == 0) {
+            return;
+        }
+
+        AsyncProgressDispatcher dispatcher = progressDispatcher;
+        if (dispatcher != null) {
+            dispatcher.dispatch(targets, transferEvent, buffer, length);
+            return;
+        }
+
+        for (TransferListener listener : targets) {
             listener.transferProgress(transferEvent, buffer, length);
         }
     }
 
+    /**
+     * Notifies the progress aggregated for the {@link CoalescedProgressListener}s which is still pending for a
+     * transfer, at its end.
+     */
+    private void flushCoalescedProgress(TransferEvent transferEvent) {
+        ProgressCoalescer coalescer = progressCoalescer;
+        if (coalescer != null) {
+            coalescer.flush(transferEvent, coalescedProgressSink);
+        }
+    }
+
+    /**
+     * Waits for the progress events fired so far to be delivered, so that the other events keep their ordering.
+     */
+    private void awaitProgress() {
+        AsyncProgressDispatcher dispatcher = progressDispatcher;
+        if (dispatcher != null) {
+            dispatcher.await();
+        }
+    }
+
     /**
      * Dispatches the given <code>TransferEvent</code>
      * to all registered listeners (calls method {@link TransferListener#transferCompleted(TransferEvent)} on all of
@@ -118,7 +336,9 @@ public synchronized void fireTransferProgress(final TransferEvent transferEvent,
      *
      * @param transferEvent the TransferEvent which will be dispatched to listeners
      */
-    public synchronized void fireTransferCompleted(final TransferEvent transferEvent) {
+    public void fireTransferCompleted(final TransferEvent transferEvent) {
+        flushCoalescedProgress(transferEvent);
+        awaitProgress();
         for (TransferListener listener : listeners) {
             listener.transferCompleted(transferEvent);
         }
@@ -132,19 +352,39 @@ public synchronized void fireTransferCompleted(final TransferEvent transferEvent
      *
      * @param transferEvent the TransferEvent which will be dispatched to listeners
      */
-    public synchronized void fireTransferError(final TransferEvent transferEvent) {
+    public void fireTransferError(final TransferEvent transferEvent) {
+        flushCoalescedProgress(transferEvent);
+        awaitProgress();
         for (TransferListener listener : listeners) {
             listener.transferError(transferEvent);
         }
     }
 
+    /**
+     * Dispatches the given <code>TransferEvent</code> to the registered {@link NotModifiedListener}s (calls method
+     * {@link NotModifiedListener#transferNotModified(TransferEvent)} on all of them). The Event should be of type
+     * {@link TransferEvent#TRANSFER_NOT_MODIFIED}.
+     *
+     * @param transferEvent the TransferEvent which will be dispatched to listeners
+     * @since 4.0.0
+     */
+    public void fireTransferNotModified(final TransferEvent transferEvent) {
+        awaitProgress();
+        for (TransferListener listener : listeners) {
+            if (listener instanceof NotModifiedListener) {
+                ((NotModifiedListener) listener).transferNotModified(transferEvent);
+            }
+        }
+    }
+
     /**
      * Dispatches the given debug message
      * to all registered listeners (calls method {@link TransferListener#debug(String)} on all of them.
      *
      * @param message the debug message which will be dispatched to listeners
      */
-    public synchronized void fireDebug(final String message) {
+    public void fireDebug(final String message) {
+        awaitProgress();
 
         for (TransferListener listener : listeners) {
             listener.debug(message);
@@ -158,7 +398,8 @@ public synchronized void fireDebug(final String message) {
      *
      * @param transferEvent the TransferEvent which will be dispatched to listeners
      */
-    public synchronized void fireTransferInitiated(final TransferEvent transferEvent) {
+    public void fireTransferInitiated(final TransferEvent transferEvent) {
+        awaitProgress();
         for (TransferListener listener : listeners) {
             listener.transferInitiated(transferEvent);
         }
@@ -0,0 +1,59 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.wagon.jfr;
+
+/**
+ * A JDK Flight Recorder event of a remote operation, created by {@link WagonEvents}. Each carries the repository,
+ * the resource, the bytes transferred, the outcome and, as any JFR event, the duration and the stack trace of the
+ * operation.
+ * <p>
+ * This is the Java 8 class, whose events are never recorded. The <code>wagon-provider-api</code> JAR is a
+ * multi-release JAR whose Java 11 version of the class extends <code>jdk.jfr.Event</code> instead, with the same
+ * methods.
+ *
+ * @since 4.0.0
+ */
+public class WagonEvent {
+    WagonEvent() {}
+
+    public final void begin() {}
+
+    public final void end() {}
+
+    public final void commit() {}
+
+    /**
+     * @return whether a recording enables the type of this event, always <code>false</code> before Java 11
+     */
+    public final boolean isEnabled() {
+        return false;
+    }
+
+    public final boolean shouldCommit() {
+        return false;
+    }
+
+    /**
+     * Records the event, unless no recording wants it.
+     *
+     * @param outcome {@link WagonEvents#SUCCESS}, {@link WagonEvents#NOT_MODIFIED} or the failure, see
+     *                {@link WagonEvents#outcome(Throwable)}
+     */
+    public void commit(String repository, String resource, long bytes, String outcome) {}
+}
@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.wagon.jfr;
+
+/**
+ * Creates the JDK Flight Recorder events of the remote operations: connecting, disconnecting, getting, putting,
+ * retrying, backing off and opening an SSH channel. An operation is recorded as follows:
+ *
+ * <pre>
+ * WagonEvent event = WagonEvents.get();
+ * event.begin();
+ * // the remote call
+ * event.commit(repositoryUrl, resourceName, bytes, WagonEvents.outcome(failure));
+ * </pre>
+ *
+ * This is the Java 8 class, which hands out a single event that is never recorded; see {@link WagonEvent}.
+ *
+ * @since 4.0.0
+ */
+public final class WagonEvents {
+    /**
+     * The outcome of an operation that did not fail.
+     */
+    public static final String SUCCESS = "success";
+
+    /**
+     * The outcome of a conditional get which found the resource up to date, and did not transfer it.
+     */
+    public static final String NOT_MODIFIED = "notModified";
+
+    private static final WagonEvent DISABLED = new WagonEvent();
+
+    private WagonEvents() {}
+
+    public static WagonEvent connect() {
+        return DISABLED;
+    }
+
+    public static WagonEvent disconnect() {
+        return DISABLED;
+    }
+
+    public static WagonEvent get() {
+        return DISABLED;
+    }
+
+    public static WagonEvent put() {
+        return DISABLED;
+    }
+
+    /**
+     * @return an event of a request sent again after an I/O error or a 503, committed without beginning it
+     */
+    public static WagonEvent retry() {
+        return DISABLED;
+    }
+
+    /**
+     * @return an event of the wait before retrying a request the server turned down as too many
+     */
+    public static WagonEvent backoff() {
+        return DISABLED;
+    }
+
+    public static WagonEvent channelOpen() {
+        return DISABLED;
+    }
+
+    /**
+     * @param failure the failure of the operation, <code>null</code> if it succeeded
+     * @return {@link #SUCCESS} or the simple name of the class of the failure
+     */
+    public static String outcome(Throwable failure) {
+        return failure == null ? SUCCESS : failure.getClass().getSimpleName();
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.wagon.metrics;
+
+/**
+ * Latencies recorded by a {@link LatencyHistogram}, in microseconds.
+ *
+ * @since 4.0.0
+ */
+public final class LatencySnapshot {
+    private final long[] counts;
+
+    private final long count;
+
+    private final long total;
+
+    private final long max;
+
+    LatencySnapshot(long[] counts, long total, long max) {
+        this.counts = counts;
+        long sum = 0L;
+        for (long c : counts) {
+            sum += c;
+        }
+        this.count = sum;
+        this.total = total;
+        this.max = max;
+    }
+
+    /**
+     * @return the number of latencies recorded
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return the mean latency, <code>0</code> if none was recorded
+     */
+    public long getMeanMicros() {
+        return count > 0L ? total / count : 0L;
+    }
+
+    /**
+     * @return the highest latency recorded
+     */
+    public long getMaxMicros() {
+        return max;
+    }
+
+    public long getP50Micros() {
+        return getPercentileMicros(50.0);
+    }
+
+    public long getP90Micros() {
+        return getPercentileMicros(90.0);
+    }
+
+    public long getP99Micros() {
+        return getPercentileMicros(99.0);
+    }
+
+    /**
+     * @param percentile the percentage of the latencies to cover, between <code>0</code> and <code>100</code>
+     * @return the latency which this percentage of the recorded latencies do not exceed, within the precision of
+     *         the histogram; <code>0</code> if none was recorded
+     */
+    public long getPercentileMicros(double percentile) {
+        if (count == 0L) {
+            return 0L;
+        }
+        long rank = Math.max(1L, (long) Math.ceil(count * Math.min(100.0, Math.max(0.0, percentile)) / 100.0));
+        long seen = 0L;
+        for (int bucket = 0; bucket < counts.length; bucket++) {
+            seen += counts[bucket];
+            if (seen >= rank) {
+                return Math.min(LatencyHistogram.highestValueOf(bucket), max);
+            }
+        }
+        return max;
+    }
+
+    @Override
+    public String toString() {
+        return "count=" + count + ", mean=" + getMeanMicros() + "us, p50=" + getP50Micros() + "us, p90="
+                + getP90Micros() + "us, p99=" + getP99Micros() + "us, max=" + max + "us";
+    }
+}
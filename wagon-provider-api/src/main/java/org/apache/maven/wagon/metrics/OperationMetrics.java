@@ -0,0 +1,59 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.wagon.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live metrics of the downloads or of the uploads of a repository.
+ */
+final class OperationMetrics {
+    final String repository;
+
+    final String operation;
+
+    final LongAdder transfers = new LongAdder();
+
+    final LongAdder errors = new LongAdder();
+
+    final LongAdder notModified = new LongAdder();
+
+    final LongAdder bytes = new LongAdder();
+
+    final LongAdder durationNanos = new LongAdder();
+
+    final LatencyHistogram timeToFirstByte = new LatencyHistogram();
+
+    final LatencyHistogram duration = new LatencyHistogram();
+
+    OperationMetrics(String repository, String operation) {
+        this.repository = repository;
+        this.operation = operation;
+    }
+
+    void reset() {
+        transfers.reset();
+        errors.reset();
+        notModified.reset();
+        bytes.reset();
+        durationNanos.reset();
+        timeToFirstByte.reset();
+        duration.reset();
+    }
+}
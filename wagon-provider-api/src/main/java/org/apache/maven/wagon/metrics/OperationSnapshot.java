@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.wagon.metrics;
+
+/**
+ * Metrics of the downloads or of the uploads of a repository.
+ *
+ * @since 4.0.0
+ */
+public final class OperationSnapshot {
+    private final String repository;
+
+    private final String operation;
+
+    private final long transfers;
+
+    private final long errors;
+
+    private final long notModified;
+
+    private final long bytes;
+
+    private final long durationNanos;
+
+    private final LatencySnapshot timeToFirstByte;
+
+    private final LatencySnapshot duration;
+
+    OperationSnapshot(OperationMetrics metrics) {
+        this.repository = metrics.repository;
+        this.operation = metrics.operation;
+        this.transfers = metrics.transfers.sum();
+        this.errors = metrics.errors.sum();
+        this.notModified = metrics.notModified.sum();
+        this.bytes = metrics.bytes.sum();
+        this.durationNanos = metrics.durationNanos.sum();
+        this.timeToFirstByte = metrics.timeToFirstByte.snapshot();
+        this.duration = metrics.duration.snapshot();
+    }
+
+    /**
+     * @return the URL of the repository
+     */
+    public String getRepository() {
+        return repository;
+    }
+
+    /**
+     * @return <code>GET</code> or <code>PUT</code>
+     */
+    public String getOperation() {
+        return operation;
+    }
+
+    /**
+     * @return the number of transfers completed
+     */
+    public long getTransfers() {
+        return transfers;
+    }
+
+    /**
+     * @return the number of transfers failed
+     */
+    public long getErrors() {
+        return errors;
+    }
+
+    /**
+     * @return the number of conditional gets which found the resource up to date, and did not transfer it
+     */
+    public long getNotModified() {
+        return notModified;
+    }
+
+    /**
+     * @return the number of bytes transferred, including by the failed transfers
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * @return the mean throughput of the transfers, in bytes per second of transfer; the transfers running
+     *         concurrently add up
+     */
+    public long getBytesPerSecond() {
+        return durationNanos > 0L ? (long) (bytes * 1e9 / durationNanos) : 0L;
+    }
+
+    /**
+     * @return the latencies between the initiation of the transfers and their start, i.e. their first byte
+     */
+    public LatencySnapshot getTimeToFirstByte() {
+        return timeToFirstByte;
+    }
+
+    /**
+     * @return the durations of the completed transfers
+     */
+    public LatencySnapshot getDuration() {
+        return duration;
+    }
+
+    @Override
+    public String toString() {
+        return operation + " " + repository + ": transfers=" + transfers + ", errors=" + errors + ", notModified="
+                + notModified + ", bytes=" + bytes
+                + ", throughput=" + getBytesPerSecond() + "B/s, time to first byte [" + timeToFirstByte
+                + "], duration [" + duration + "]";
+    }
+}
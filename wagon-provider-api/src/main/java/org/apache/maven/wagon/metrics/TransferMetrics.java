@@ -0,0 +1,339 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.wagon.metrics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.maven.wagon.Wagon;
+import org.apache.maven.wagon.events.CoalescedProgressListener;
+import org.apache.maven.wagon.events.NotModifiedListener;
+import org.apache.maven.wagon.events.SessionEvent;
+import org.apache.maven.wagon.events.SessionListener;
+import org.apache.maven.wagon.events.TransferEvent;
+import org.apache.maven.wagon.resource.Resource;
+
+/**
+ * Aggregates the metrics of the transfers of any number of wagons, which it listens to: per repository and per
+ * operation, the number of transfers, of errors, of up-to-date conditional gets and of bytes, the throughput, and
+ * histograms of the time to first byte and of the duration of the transfers. Recording is lock-free, to be shared by
+ * wagons transferring concurrently.
+ * <p>
+ * The time to first byte is measured up to the {@link #transferStarted(TransferEvent) start} of the transfers, which
+ * the providers notify once the remote side answered, so that it does not depend on the coalescing of the progress.
+ * <p>
+ * The metrics can be read with {@link #getOperations()}, or through JMX once {@link #registerMBean(String)
+ * registered}.
+ *
+ * @since 4.0.0
+ */
+public class TransferMetrics
+        implements CoalescedProgressListener, NotModifiedListener, SessionListener, TransferMetricsMXBean {
+    private static final String UNKNOWN_REPOSITORY = "unknown";
+
+    private final ConcurrentMap<String, OperationMetrics> operations = new ConcurrentHashMap<>();
+
+    /**
+     * Transfers in progress, by resource: the wagons notify the events of a transfer with the same resource.
+     */
+    private final ConcurrentMap<TransferKey, Transfer> transfers = new ConcurrentHashMap<>();
+
+    private final LongAdder sessionsOpened = new LongAdder();
+
+    private final LongAdder connectionsRefused = new LongAdder();
+
+    private final LongAdder sessionErrors = new LongAdder();
+
+    private ObjectName objectName;
+
+    /**
+     * Adds these metrics to the listeners of a wagon.
+     *
+     * @param wagon the wagon to measure the transfers of
+     */
+    public void attach(Wagon wagon) {
+        wagon.addTransferListener(this);
+        wagon.addSessionListener(this);
+    }
+
+    /**
+     * Removes these metrics from the listeners of a wagon.
+     *
+     * @param wagon the wagon not to measure the transfers of anymore
+     */
+    public void detach(Wagon wagon) {
+        wagon.removeTransferListener(this);
+        wagon.removeSessionListener(this);
+    }
+
+    /**
+     * Registers these metrics in the platform MBean server as
+     * <code>org.apache.maven.wagon:type=TransferMetrics,name=&lt;name&gt;</code>.
+     *
+     * @param name the name distinguishing these metrics from others
+     * @return the name of the MBean
+     */
+    public synchronized ObjectName registerMBean(String name) throws JMException {
+        ObjectName mbeanName =
+                new ObjectName("org.apache.maven.wagon:type=TransferMetrics,name=" + ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, mbeanName);
+        objectName = mbeanName;
+        return mbeanName;
+    }
+
+    /**
+     * Unregisters these metrics from the platform MBean server, if registered.
+     */
+    public synchronized void unregisterMBean() throws JMException {
+        if (objectName != null) {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+            objectName = null;
+        }
+    }
+
+    @Override
+    public List<OperationSnapshot> getOperations() {
+        List<OperationSnapshot> snapshots = new ArrayList<>();
+        for (OperationMetrics metrics : operations.values()) {
+            snapshots.add(new OperationSnapshot(metrics));
+        }
+        snapshots.sort((a, b) -> {
+            int order = a.getRepository().compareTo(b.getRepository());
+            return order != 0 ? order : a.getOperation().compareTo(b.getOperation());
+        });
+        return snapshots;
+    }
+
+    /**
+     * @param repositoryUrl the URL of the repository
+     * @param requestType   {@link TransferEvent#REQUEST_GET} or {@link TransferEvent#REQUEST_PUT}
+     * @return the metrics of the operation, or <code>null</code> if it was never done
+     */
+    public OperationSnapshot getOperation(String repositoryUrl, int requestType) {
+        OperationMetrics metrics = operations.get(getKey(repositoryUrl, getOperation(requestType)));
+        return metrics != null ? new OperationSnapshot(metrics) : null;
+    }
+
+    @Override
+    public long getSessionsOpened() {
+        return sessionsOpened.sum();
+    }
+
+    @Override
+    public long getConnectionsRefused() {
+        return connectionsRefused.sum();
+    }
+
+    @Override
+    public long getSessionErrors() {
+        return sessionErrors.sum();
+    }
+
+    @Override
+    public void reset() {
+        for (OperationMetrics metrics : operations.values()) {
+            metrics.reset();
+        }
+        sessionsOpened.reset();
+        connectionsRefused.reset();
+        sessionErrors.reset();
+    }
+
+    // ----------------------------------------------------------------------
+    // TransferListener
+    // ----------------------------------------------------------------------
+
+    @Override
+    public void transferInitiated(TransferEvent transferEvent) {
+        transfers.put(new TransferKey(transferEvent.getResource()), new Transfer(getMetrics(transferEvent)));
+    }
+
+    @Override
+    public void transferStarted(TransferEvent transferEvent) {
+        // the progress may be coalesced, and notified well after the first byte, so it cannot measure it
+        Transfer transfer = transfers.get(new TransferKey(transferEvent.getResource()));
+        if (transfer != null && !transfer.started) {
+            transfer.started = true;
+            transfer.metrics.timeToFirstByte.record(transfer.elapsedMicros());
+        }
+    }
+
+    @Override
+    public void transferProgress(TransferEvent transferEvent, byte[] buffer, int length) {
+        Transfer transfer = transfers.get(new TransferKey(transferEvent.getResource()));
+        OperationMetrics metrics = transfer != null ? transfer.metrics : getMetrics(transferEvent);
+        metrics.bytes.add(length);
+    }
+
+    @Override
+    public void transferCompleted(TransferEvent transferEvent) {
+        Transfer transfer = transfers.remove(new TransferKey(transferEvent.getResource()));
+        OperationMetrics metrics = transfer != null ? transfer.metrics : getMetrics(transferEvent);
+        metrics.transfers.increment();
+        if (transfer != null) {
+            long elapsed = transfer.elapsedMicros();
+            if (!transfer.started) {
+                // not notified by the provider
+                metrics.timeToFirstByte.record(elapsed);
+            }
+            metrics.duration.record(elapsed);
+            metrics.durationNanos.add(System.nanoTime() - transfer.initiated);
+        }
+    }
+
+    @Override
+    public void transferError(TransferEvent transferEvent) {
+        Transfer transfer = transfers.remove(new TransferKey(transferEvent.getResource()));
+        OperationMetrics metrics = transfer != null ? transfer.metrics : getMetrics(transferEvent);
+        metrics.errors.increment();
+        if (transfer != null) {
+            metrics.durationNanos.add(System.nanoTime() - transfer.initiated);
+        }
+    }
+
+    @Override
+    public void transferNotModified(TransferEvent transferEvent) {
+        Transfer transfer = transfers.remove(new TransferKey(transferEvent.getResource()));
+        OperationMetrics metrics = transfer != null ? transfer.metrics : getMetrics(transferEvent);
+        metrics.notModified.increment();
+    }
+
+    /**
+     * @return the number of transfers initiated which have not ended yet
+     */
+    int getTransfersInProgress() {
+        return transfers.size();
+    }
+
+    @Override
+    public void debug(String message) {
+        // not measured
+    }
+
+    // ----------------------------------------------------------------------
+    // SessionListener
+    // ----------------------------------------------------------------------
+
+    @Override
+    public void sessionOpening(SessionEvent sessionEvent) {
+        // not measured
+    }
+
+    @Override
+    public void sessionOpened(SessionEvent sessionEvent) {
+        sessionsOpened.increment();
+    }
+
+    @Override
+    public void sessionDisconnecting(SessionEvent sessionEvent) {
+        // not measured
+    }
+
+    @Override
+    public void sessionDisconnected(SessionEvent sessionEvent) {
+        // not measured
+    }
+
+    @Override
+    public void sessionConnectionRefused(SessionEvent sessionEvent) {
+        connectionsRefused.increment();
+    }
+
+    @Override
+    public void sessionLoggedIn(SessionEvent sessionEvent) {
+        // not measured
+    }
+
+    @Override
+    public void sessionLoggedOff(SessionEvent sessionEvent) {
+        // not measured
+    }
+
+    @Override
+    public void sessionError(SessionEvent sessionEvent) {
+        sessionErrors.increment();
+    }
+
+    private OperationMetrics getMetrics(TransferEvent transferEvent) {
+        Wagon wagon = transferEvent.getWagon();
+        String repository = wagon != null && wagon.getRepository() != null
+                ? wagon.getRepository().getUrl()
+                : UNKNOWN_REPOSITORY;
+        String operation = getOperation(transferEvent.getRequestType());
+        return operations.computeIfAbsent(
+                getKey(repository, operation), key -> new OperationMetrics(repository, operation));
+    }
+
+    private static String getOperation(int requestType) {
+        return requestType == TransferEvent.REQUEST_PUT ? "PUT" : "GET";
+    }
+
+    private static String getKey(String repository, String operation) {
+        return operation + " " + repository;
+    }
+
+    private static final class Transfer {
+        private final OperationMetrics metrics;
+
+        private final long initiated = System.nanoTime();
+
+        private volatile boolean started;
+
+        private Transfer(OperationMetrics metrics) {
+            this.metrics = metrics;
+        }
+
+        private long elapsedMicros() {
+            return TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - initiated);
+        }
+    }
+
+    /**
+     * Identifies a transfer by its resource instance, whose equality may change while it is transferred.
+     */
+    private static final class TransferKey {
+        private final Resource resource;
+
+        private TransferKey(Resource resource) {
+            this.resource = resource;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof TransferKey && ((TransferKey) obj).resource == resource;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(resource);
+        }
+    }
+}
@@ -31,6 +31,8 @@
  *
  */
 public class ChecksumObserver implements TransferListener {
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
     private MessageDigest digester = null;
 
     private String actualChecksum;
@@ -40,7 +42,7 @@ public ChecksumObserver() throws NoSuchAlgorithmException {
     }
 
     /**
-     * @param algorithm One of the algorithms supported by JDK: MD5, MD2 or SHA-1
+     * @param algorithm One of the algorithms supported by JDK, such as MD5, SHA-1, SHA-256 or SHA-512
      */
     public ChecksumObserver(String algorithm) throws NoSuchAlgorithmException {
         digester = MessageDigest.getInstance(algorithm);
@@ -96,31 +98,25 @@ public String getActualChecksum() {
     }
 
     /**
-     * Encodes a 128 bit or 160-bit byte array into a String.
+     * Encodes a digest into a lower case hexadecimal String.
      *
      * @param binaryData Array containing the digest
-     * @return Encoded hex string, or null if encoding failed
+     * @return Encoded hex string
      */
-    @SuppressWarnings("checkstyle:magicnumber")
     protected String encode(byte[] binaryData) {
+        return toHex(binaryData);
+    }
 
-        if (binaryData.length != 16 && binaryData.length != 20) {
-            int bitLength = binaryData.length * 8;
-            throw new IllegalArgumentException("Unrecognised length for binary data: " + bitLength + " bits");
-        }
-
-        StringBuilder retValue = new StringBuilder();
-
-        for (byte b : binaryData) {
-            String t = Integer.toHexString(b & 0xff);
-
-            if (t.length() == 1) {
-                retValue.append('0').append(t);
-            } else {
-                retValue.append(t);
-            }
+    /**
+     * Encodes bytes into a lower case hexadecimal String, without intermediate objects.
+     */
+    @SuppressWarnings("checkstyle:magicnumber")
+    static String toHex(byte[] binaryData) {
+        char[] hex = new char[binaryData.length * 2];
+        for (int i = 0; i < binaryData.length; i++) {
+            hex[2 * i] = HEX_DIGITS[(binaryData[i] >> 4) & 0x0f];
+            hex[2 * i + 1] = HEX_DIGITS[binaryData[i] & 0x0f];
         }
-
-        return retValue.toString().trim();
+        return new String(hex);
     }
 }
@@ -0,0 +1,211 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.wagon.observers;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.apache.maven.wagon.events.TransferEvent;
+import org.apache.maven.wagon.events.TransferListener;
+
+/**
+ * TransferListener which computes several checksums on the fly in a single pass, e.g. to produce the
+ * <code>.md5</code>, <code>.sha1</code>, <code>.sha256</code> and <code>.sha512</code> files of a resource without
+ * registering (and notifying) one {@link ChecksumObserver} per algorithm.
+ * <p>
+ * Given an executor, every chunk is hashed by all the algorithms at the same time, each on its own thread: the chunk is
+ * only read while the listener waits for them, as the transfer reuses it afterwards. This only pays off for large
+ * chunks and slow algorithms.
+ *
+ * @since 4.0.0
+ */
+public class MultiChecksumObserver implements TransferListener {
+    private final String[] algorithms;
+
+    private final MessageDigest[] digesters;
+
+    private final Executor executor;
+
+    private final DigestTask[] tasks;
+
+    private Map<String, String> actualChecksums;
+
+    /**
+     * @param algorithms algorithms supported by the JDK, such as MD5, SHA-1, SHA-256 or SHA-512
+     */
+    public MultiChecksumObserver(String... algorithms) throws NoSuchAlgorithmException {
+        this(null, algorithms);
+    }
+
+    /**
+     * @param executor   runs the algorithms in parallel, or <code>null</code> to run them one after the other on the
+     *                   transferring thread
+     * @param algorithms algorithms supported by the JDK, such as MD5, SHA-1, SHA-256 or SHA-512
+     */
+    public MultiChecksumObserver(Executor executor, String... algorithms) throws NoSuchAlgorithmException {
+        if (algorithms.length == 0) {
+            throw new IllegalArgumentException("at least one algorithm is required");
+        }
+        this.algorithms = algorithms.clone();
+        this.digesters = new MessageDigest[algorithms.length];
+        for (int i = 0; i < algorithms.length; i++) {
+            digesters[i] = MessageDigest.getInstance(algorithms[i]);
+        }
+
+        this.executor = algorithms.length > 1 ? executor : null;
+        this.tasks = new DigestTask[this.executor != null ? digesters.length : 0];
+        for (int i = 0; i < tasks.length; i++) {
+            tasks[i] = new DigestTask(digesters[i]);
+        }
+    }
+
+    @Override
+    public void transferInitiated(TransferEvent transferEvent) {
+        // This space left intentionally blank
+    }
+
+    @Override
+    public void transferStarted(TransferEvent transferEvent) {
+        actualChecksums = null;
+
+        reset();
+    }
+
+    @Override
+    public void transferProgress(TransferEvent transferEvent, byte[] buffer, int length) {
+        if (executor == null) {
+            for (MessageDigest digester : digesters) {
+                digester.update(buffer, 0, length);
+            }
+            return;
+        }
+
+        // the first algorithm runs on this thread while the others run on the executor
+        CountDownLatch done = new CountDownLatch(tasks.length - 1);
+        for (int i = 1; i < tasks.length; i++) {
+            DigestTask task = tasks[i];
+            task.prepare(buffer, length, done);
+            try {
+                executor.execute(task);
+            } catch (RejectedExecutionException e) {
+                task.run();
+            }
+        }
+        digesters[0].update(buffer, 0, length);
+
+        boolean interrupted = false;
+        while (true) {
+            try {
+                done.await();
+                break;
+            } catch (InterruptedException e) {
+                // the chunk must not be handed back to the transfer while it is being read
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void transferCompleted(TransferEvent transferEvent) {
+        Map<String, String> checksums = new LinkedHashMap<>();
+        for (int i = 0; i < digesters.length; i++) {
+            checksums.put(algorithms[i], ChecksumObserver.toHex(digesters[i].digest()));
+        }
+        actualChecksums = Collections.unmodifiableMap(checksums);
+    }
+
+    @Override
+    public void transferError(TransferEvent transferEvent) {
+        reset();
+
+        actualChecksums = null;
+    }
+
+    @Override
+    public void debug(String message) {
+        // left intentionally blank
+    }
+
+    /**
+     * Returns the checksums computed during the last completed transfer.
+     *
+     * @return the checksums in hexadecimal by algorithm, in the order the algorithms were given, or <code>null</code>
+     *         if no transfer completed
+     */
+    public Map<String, String> getActualChecksums() {
+        return actualChecksums;
+    }
+
+    /**
+     * @param algorithm one of the algorithms of this observer
+     * @return the checksum computed during the last completed transfer, or <code>null</code>
+     */
+    public String getActualChecksum(String algorithm) {
+        return actualChecksums != null ? actualChecksums.get(algorithm) : null;
+    }
+
+    private void reset() {
+        for (MessageDigest digester : digesters) {
+            digester.reset();
+        }
+    }
+
+    /**
+     * Updates one digest with the current chunk. Its fields are written before the task is handed to the executor,
+     * and read back by the transferring thread after the latch, which both publish them safely.
+     */
+    private static final class DigestTask implements Runnable {
+        private final MessageDigest digester;
+
+        private byte[] buffer;
+
+        private int length;
+
+        private CountDownLatch done;
+
+        DigestTask(MessageDigest digester) {
+            this.digester = digester;
+        }
+
+        void prepare(byte[] buffer, int length, CountDownLatch done) {
+            this.buffer = buffer;
+            this.length = length;
+            this.done = done;
+        }
+
+        @Override
+        public void run() {
+            try {
+                digester.update(buffer, 0, length);
+            } finally {
+                buffer = null;
+                done.countDown();
+            }
+        }
+    }
+}
@@ -19,6 +19,9 @@
 package org.apache.maven.wagon.repository;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Properties;
 
 import org.apache.maven.wagon.PathUtils;
@@ -57,6 +60,11 @@ public class Repository implements Serializable {
      */
     private Properties parameters = new Properties();
 
+    /**
+     * URLs of mirrors serving the same content as the repository, in order of preference.
+     */
+    private List<String> mirrorUrls = new ArrayList<>();
+
     // Username/password are sometimes encoded in the URL
     private String username = null;
 
@@ -239,6 +247,33 @@ public void setParameters(Properties parameters) {
         this.parameters = parameters;
     }
 
+    /**
+     * @return the properties influencing the behaviour of the wagons
+     * @since 4.0.0
+     */
+    public Properties getParameters() {
+        return parameters;
+    }
+
+    /**
+     * @return the URLs of the mirrors serving the same content as this repository, in order of preference
+     * @since 4.0.0
+     */
+    public List<String> getMirrorUrls() {
+        return Collections.unmodifiableList(mirrorUrls);
+    }
+
+    /**
+     * Sets the mirrors serving the same content as this repository, which the providers supporting it may read
+     * from instead, e.g. when this repository is slow or unavailable. Uploads always go to this repository.
+     *
+     * @param mirrorUrls the URLs of the mirrors, in order of preference
+     * @since 4.0.0
+     */
+    public void setMirrorUrls(List<String> mirrorUrls) {
+        this.mirrorUrls = new ArrayList<>(mirrorUrls);
+    }
+
     @Override
     public int hashCode() {
         final int prime = 31;
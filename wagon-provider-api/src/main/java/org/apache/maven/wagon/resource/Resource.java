@@ -37,6 +37,8 @@ public class Resource {
 
     private long contentLength = WagonConstants.UNKNOWN_LENGTH;
 
+    private String entityTag;
+
     public Resource() {}
 
     public Resource(String name) {
@@ -74,6 +76,25 @@ public void setContentLength(long contentLength) {
         this.contentLength = contentLength;
     }
 
+    /**
+     * Returns the entity tag of the resource: before a download, the one of the local copy, which providers
+     * supporting it send to only get the resource if it changed; after it, the one of the downloaded content.
+     *
+     * @return the opaque validator of the content of the resource, <code>null</code> if unknown
+     * @since 4.0.0
+     */
+    public String getEntityTag() {
+        return entityTag;
+    }
+
+    /**
+     * @param entityTag the opaque validator of the content of the resource, <code>null</code> if unknown
+     * @since 4.0.0
+     */
+    public void setEntityTag(String entityTag) {
+        this.entityTag = entityTag;
+    }
+
     @Override
     public String toString() {
         return name;
@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.wagon.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+
+/**
+ * A JDK Flight Recorder event of a remote operation, created by {@link WagonEvents}. Each carries the repository,
+ * the resource, the bytes transferred, the outcome and, as any JFR event, the duration and the stack trace of the
+ * operation.
+ * <p>
+ * This is the Java 11 version of the class, from the multi-release <code>wagon-provider-api</code> JAR. The events
+ * are enabled by default, so any recording, for example one started with <code>-XX:StartFlightRecording</code>,
+ * shows the remote operations of a build next to its GC and thread data.
+ *
+ * @since 4.0.0
+ */
+@Category({"Maven", "Wagon"})
+public abstract class WagonEvent extends Event {
+    // JFR leaves the private fields of a superclass out of the event types
+    @Label("Repository")
+    String repository;
+
+    @Label("Resource")
+    String resource;
+
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+
+    @Label("Outcome")
+    @Description("success, notModified, or the simple name of the exception the operation failed with")
+    String outcome;
+
+    // the event types are created by WagonEvents: JFR cannot instrument an event class referring to its subclasses
+    WagonEvent() {}
+
+    /**
+     * Records the event, unless no recording wants it.
+     *
+     * @param outcome {@link WagonEvents#SUCCESS}, {@link WagonEvents#NOT_MODIFIED} or the failure, see
+     *                {@link WagonEvents#outcome(Throwable)}
+     */
+    public void commit(String repository, String resource, long bytes, String outcome) {
+        if (shouldCommit()) {
+            this.repository = repository;
+            this.resource = resource;
+            this.bytes = bytes;
+            this.outcome = outcome;
+            commit();
+        }
+    }
+}
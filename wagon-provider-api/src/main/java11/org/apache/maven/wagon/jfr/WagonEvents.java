@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.wagon.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Creates the JDK Flight Recorder events of the remote operations: connecting, disconnecting, getting, putting,
+ * retrying, backing off and opening an SSH channel. An operation is recorded as follows:
+ *
+ * <pre>
+ * WagonEvent event = WagonEvents.get();
+ * event.begin();
+ * // the remote call
+ * event.commit(repositoryUrl, resourceName, bytes, WagonEvents.outcome(failure));
+ * </pre>
+ *
+ * This is the Java 11 version of the class, which hands out an event of its own type for each operation.
+ *
+ * @since 4.0.0
+ */
+public final class WagonEvents {
+    /**
+     * The outcome of an operation that did not fail.
+     */
+    public static final String SUCCESS = "success";
+
+    /**
+     * The outcome of a conditional get which found the resource up to date, and did not transfer it.
+     */
+    public static final String NOT_MODIFIED = "notModified";
+
+    private WagonEvents() {}
+
+    public static WagonEvent connect() {
+        return new Connect();
+    }
+
+    public static WagonEvent disconnect() {
+        return new Disconnect();
+    }
+
+    public static WagonEvent get() {
+        return new Get();
+    }
+
+    public static WagonEvent put() {
+        return new Put();
+    }
+
+    /**
+     * @return an event of a request sent again after an I/O error or a 503, committed without beginning it
+     */
+    public static WagonEvent retry() {
+        return new Retry();
+    }
+
+    /**
+     * @return an event of the wait before retrying a request the server turned down as too many
+     */
+    public static WagonEvent backoff() {
+        return new Backoff();
+    }
+
+    public static WagonEvent channelOpen() {
+        return new ChannelOpen();
+    }
+
+    /**
+     * @param failure the failure of the operation, <code>null</code> if it succeeded
+     * @return {@link #SUCCESS} or the simple name of the class of the failure
+     */
+    public static String outcome(Throwable failure) {
+        return failure == null ? SUCCESS : failure.getClass().getSimpleName();
+    }
+
+    @Name("org.apache.maven.wagon.Connect")
+    @Label("Wagon Connect")
+    static final class Connect extends WagonEvent {}
+
+    @Name("org.apache.maven.wagon.Disconnect")
+    @Label("Wagon Disconnect")
+    static final class Disconnect extends WagonEvent {}
+
+    @Name("org.apache.maven.wagon.Get")
+    @Label("Wagon Get")
+    static final class Get extends WagonEvent {}
+
+    @Name("org.apache.maven.wagon.Put")
+    @Label("Wagon Put")
+    static final class Put extends WagonEvent {}
+
+    @Name("org.apache.maven.wagon.Retry")
+    @Label("Wagon Retry")
+    @Description("A request sent again by the HTTP client after an I/O error or a 503")
+    static final class Retry extends WagonEvent {}
+
+    @Name("org.apache.maven.wagon.Backoff")
+    @Label("Wagon Backoff")
+    @Description("The wait before retrying a request answered with 429 Too Many Requests")
+    static final class Backoff extends WagonEvent {}
+
+    @Name("org.apache.maven.wagon.ChannelOpen")
+    @Label("Wagon SSH Channel Open")
+    static final class ChannelOpen extends WagonEvent {}
+}
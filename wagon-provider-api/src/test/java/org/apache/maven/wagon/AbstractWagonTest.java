@@ -18,16 +18,30 @@
  */
 package org.apache.maven.wagon;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 
 import org.apache.maven.wagon.authentication.AuthenticationException;
 import org.apache.maven.wagon.authentication.AuthenticationInfo;
+import org.apache.maven.wagon.events.CoalescedProgressListener;
 import org.apache.maven.wagon.events.SessionEvent;
 import org.apache.maven.wagon.events.SessionListener;
 import org.apache.maven.wagon.events.TransferEvent;
 import org.apache.maven.wagon.events.TransferListener;
+import org.apache.maven.wagon.observers.AbstractTransferListener;
 import org.apache.maven.wagon.proxy.ProxyInfo;
 import org.apache.maven.wagon.proxy.ProxyInfoProvider;
 import org.apache.maven.wagon.repository.Repository;
@@ -36,8 +50,10 @@
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -80,7 +96,7 @@ public void put(File source, String destination) {}
 
     private File destination;
 
-    private File source;
+    private File batchDirectory;
 
     private String artifact;
 
@@ -93,7 +109,7 @@ void setUp() {
         String basedir = System.getProperty("basedir");
 
         destination = new File(basedir, "target/folder/subfolder");
-        source = new File(basedir, "pom.xml");
+        batchDirectory = new File(basedir, "target/batch");
         wagon = new WagonMock();
         sessionListener = mock(SessionListener.class);
         wagon.addSessionListener(sessionListener);
@@ -119,6 +135,42 @@ void calculationOfTransferBufferSize() {
         assertEquals(4096 * 128, wagon.getBufferCapacityForTransfer(1024L * 1024 * 1024 * 100));
     }
 
+    @Test
+    void failedTransferGivesResizedBufferBackOnce() throws Exception {
+        TransferBufferPool pool = new TransferBufferPool(8);
+        wagon.setTransferBufferPool(pool);
+
+        // of unknown length, the content fills the first buffer in one read and gets a buffer twice as large
+        byte[] content = new byte[64 * 1024];
+        OutputStream output = new OutputStream() {
+            private int writes;
+
+            @Override
+            public void write(int b) throws IOException {
+                write(new byte[] {(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                if (++writes > 1) {
+                    throw new IOException("connection reset");
+                }
+            }
+        };
+        assertThrows(
+                IOException.class,
+                () -> wagon.transfer(
+                        new Resource("unknown"), new ByteArrayInputStream(content), output, TransferEvent.REQUEST_GET));
+
+        // each buffer is pooled once: two leases of the first size class do not share an array
+        ByteBuffer first = pool.acquire(AbstractWagon.DEFAULT_BUFFER_SIZE);
+        ByteBuffer second = pool.acquire(AbstractWagon.DEFAULT_BUFFER_SIZE);
+        assertNotSame(first.array(), second.array());
+        // and the resized buffer is not leaked
+        pool.acquire(2 * AbstractWagon.DEFAULT_BUFFER_SIZE);
+        assertEquals(2, pool.getHits());
+    }
+
     @Test
     void sessionListenerRegistration() {
         assertTrue(wagon.hasSessionListener(sessionListener));
@@ -335,10 +387,61 @@ void getError() {
         verify(transferListener).transferError(any(TransferEvent.class));
     }
 
+    @Test
+    void atomicGet() throws Exception {
+        File directory = new File(batchDirectory, "atomic");
+        File target = new File(directory, "artifact");
+        directory.mkdirs();
+        Files.write(target.toPath(), "previous".getBytes());
+
+        wagon.setAtomicGet(true);
+        int[] progress = new int[1];
+        wagon.addTransferListener(new AbstractTransferListener() {
+            @Override
+            public void transferProgress(TransferEvent transferEvent, byte[] buffer, int length) {
+                try {
+                    // a concurrent reader keeps seeing the previous content until the download is complete
+                    assertEquals("previous", new String(Files.readAllBytes(target.toPath())));
+                    progress[0]++;
+                } catch (IOException e) {
+                    fail(e);
+                }
+            }
+        });
+        wagon.connect(new Repository("fake", "http://fake"));
+        wagon.get(artifact, target);
+
+        assertTrue(progress[0] > 0);
+        assertEquals(1024 * 4 * 5, target.length());
+        assertArrayEquals(new String[] {"artifact"}, directory.list());
+    }
+
+    @Test
+    void atomicGetError() throws Exception {
+        File directory = new File(batchDirectory, "atomic-error");
+        File target = new File(directory, "artifact");
+        directory.mkdirs();
+        Files.write(target.toPath(), "previous".getBytes());
+
+        WagonMock wagon = new WagonMock(true);
+        wagon.setAtomicGet(true);
+        wagon.connect(new Repository("fake", "http://fake"));
+
+        assertThrows(TransferFailedException.class, () -> wagon.get(artifact, target));
+
+        assertEquals("previous", new String(Files.readAllBytes(target.toPath())));
+        assertArrayEquals(new String[] {"artifact"}, directory.list());
+    }
+
     @Test
     void putTransferEvents() throws Exception {
         wagon.fireTransferDebug("deploy debug message");
 
+        // smaller than a buffer, for a single progress event
+        File source = new File(batchDirectory, "put-source");
+        batchDirectory.mkdirs();
+        Files.write(source.toPath(), new byte[1024]);
+
         Repository repository = new Repository("fake", "http://fake");
         wagon.connect(repository);
         wagon.put(source, artifact);
@@ -350,6 +453,254 @@ void putTransferEvents() throws Exception {
         verify(transferListener).debug("deploy debug message");
     }
 
+    @Test
+    void batchGetReportsEveryItem() throws Exception {
+        Repository repository = new Repository("fake", "http://fake");
+        WagonMock wagon = new WagonMock(true);
+        wagon.addTransferListener(transferListener);
+        wagon.connect(repository);
+
+        List<TransferResult> results = wagon.getAll(Arrays.asList(
+                new TransferRequest("a", new File(batchDirectory, "a")),
+                new TransferRequest("b", new File(batchDirectory, "b"))));
+
+        assertEquals(2, results.size());
+        assertEquals("a", results.get(0).getRequest().getResourceName());
+        assertEquals("b", results.get(1).getRequest().getResourceName());
+        for (TransferResult result : results) {
+            assertFalse(result.isSuccessful());
+            assertTrue(result.getException() instanceof TransferFailedException);
+        }
+        verify(transferListener, times(2)).transferError(any(TransferEvent.class));
+    }
+
+    @Test
+    void batchGetRunsConcurrently() throws Exception {
+        Repository repository = new Repository("fake", "http://fake");
+        WagonMock wagon = new WagonMock() {
+            @Override
+            protected boolean supportsConcurrentTransfers() {
+                return true;
+            }
+        };
+        wagon.addTransferListener(transferListener);
+        wagon.connect(repository);
+
+        List<TransferRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            requests.add(new TransferRequest("resource-" + i, new File(batchDirectory, "resource-" + i)));
+        }
+
+        List<TransferResult> results = wagon.getAll(requests);
+
+        assertEquals(requests.size(), results.size());
+        for (int i = 0; i < requests.size(); i++) {
+            assertTrue(results.get(i).isSuccessful());
+            assertEquals(requests.get(i), results.get(i).getRequest());
+            assertEquals(1024 * 4 * 5, requests.get(i).getFile().length());
+        }
+        verify(transferListener, times(8)).transferStarted(any(TransferEvent.class));
+        verify(transferListener, times(8)).transferCompleted(any(TransferEvent.class));
+    }
+
+    @Test
+    void asyncGet() throws Exception {
+        Repository repository = new Repository("fake", "http://fake");
+        wagon.connect(repository);
+
+        File file = new File(batchDirectory, "async");
+        CompletableFuture<Void> future = wagon.getAsync("async", file);
+        future.get();
+
+        assertEquals(1024 * 4 * 5, file.length());
+        verify(transferListener).transferCompleted(any(TransferEvent.class));
+    }
+
+    @Test
+    void asyncGetError() throws Exception {
+        Repository repository = new Repository("fake", "http://fake");
+        WagonMock wagon = new WagonMock(true);
+        wagon.connect(repository);
+
+        CompletableFuture<Void> failed = wagon.getAsync("async-error", new File(batchDirectory, "async-error"));
+        CompletableFuture<List<String>> next = wagon.getFileListAsync("");
+
+        ExecutionException e = assertThrows(ExecutionException.class, failed::get);
+        assertTrue(e.getCause() instanceof TransferFailedException);
+
+        // a failed operation does not prevent the next ones from running
+        assertTrue(next.get().isEmpty());
+    }
+
+    @Test
+    void fileToFileTransfer() throws Exception {
+        byte[] content = new byte[300 * 1024 + 17];
+        new Random(0L).nextBytes(content);
+        File sourceFile = new File(batchDirectory, "channel-source");
+        File targetFile = new File(batchDirectory, "channel-target");
+        batchDirectory.mkdirs();
+        Files.write(sourceFile.toPath(), content);
+
+        ByteArrayOutputStream notified = new ByteArrayOutputStream();
+        wagon.addTransferListener(new AbstractTransferListener() {
+            @Override
+            public void transferProgress(TransferEvent transferEvent, byte[] buffer, int length) {
+                notified.write(buffer, 0, length);
+            }
+        });
+
+        Resource resource = new Resource("channel");
+        resource.setContentLength(content.length);
+        try (FileInputStream input = new FileInputStream(sourceFile);
+                LazyFileOutputStream output = new LazyFileOutputStream(targetFile)) {
+            wagon.transfer(resource, input, output, TransferEvent.REQUEST_GET, Long.MAX_VALUE);
+        }
+
+        assertArrayEquals(content, Files.readAllBytes(targetFile.toPath()));
+        assertArrayEquals(content, notified.toByteArray());
+    }
+
+    @Test
+    void fileToFileTransferWithCoalescedListener() throws Exception {
+        byte[] content = new byte[300 * 1024 + 17];
+        File sourceFile = new File(batchDirectory, "channel-source-coalesced");
+        File targetFile = new File(batchDirectory, "channel-target-coalesced");
+        batchDirectory.mkdirs();
+        Files.write(sourceFile.toPath(), content);
+
+        wagon.removeTransferListener(transferListener);
+        long[] notified = new long[1];
+        wagon.addTransferListener(new CoalescingListener(notified));
+
+        Resource resource = new Resource("channel");
+        resource.setContentLength(content.length);
+        try (FileInputStream input = new FileInputStream(sourceFile);
+                LazyFileOutputStream output = new LazyFileOutputStream(targetFile)) {
+            wagon.transfer(resource, input, output, TransferEvent.REQUEST_GET, Long.MAX_VALUE);
+        }
+        wagon.fireGetCompleted(resource, targetFile);
+
+        assertEquals(content.length, targetFile.length());
+        assertEquals(content.length, notified[0]);
+    }
+
+    @Test
+    void fileToFileTransferHonoursMaxSize() throws Exception {
+        byte[] content = new byte[64 * 1024];
+        new Random(1L).nextBytes(content);
+        File sourceFile = new File(batchDirectory, "channel-source-max");
+        File targetFile = new File(batchDirectory, "channel-target-max");
+        batchDirectory.mkdirs();
+        Files.write(sourceFile.toPath(), content);
+
+        wagon.removeTransferListener(transferListener);
+
+        try (FileInputStream input = new FileInputStream(sourceFile);
+                LazyFileOutputStream output = new LazyFileOutputStream(targetFile)) {
+            wagon.transfer(new Resource("channel"), input, output, TransferEvent.REQUEST_GET, 1000L);
+        }
+
+        assertEquals(1000L, targetFile.length());
+    }
+
+    @Test
+    void overlappedProgress() throws Exception {
+        byte[] content = new byte[300 * 1024 + 17];
+        new Random(2L).nextBytes(content);
+
+        wagon.setOverlappedProgress(true);
+        ByteArrayOutputStream notified = new ByteArrayOutputStream();
+        List<Thread> threads = new ArrayList<>();
+        wagon.addTransferListener(new AbstractTransferListener() {
+            @Override
+            public void transferProgress(TransferEvent transferEvent, byte[] buffer, int length) {
+                notified.write(buffer, 0, length);
+                threads.add(Thread.currentThread());
+            }
+        });
+
+        Resource resource = new Resource("overlapped");
+        resource.setContentLength(content.length);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        wagon.transfer(resource, new ByteArrayInputStream(content), output, TransferEvent.REQUEST_GET);
+
+        assertArrayEquals(content, output.toByteArray());
+        assertArrayEquals(content, notified.toByteArray());
+        assertFalse(threads.contains(Thread.currentThread()));
+    }
+
+    @Test
+    void overlappedProgressFileToFile() throws Exception {
+        byte[] content = new byte[300 * 1024 + 17];
+        new Random(3L).nextBytes(content);
+        File sourceFile = new File(batchDirectory, "channel-source-overlapped");
+        File targetFile = new File(batchDirectory, "channel-target-overlapped");
+        batchDirectory.mkdirs();
+        Files.write(sourceFile.toPath(), content);
+
+        wagon.setOverlappedProgress(true);
+        ByteArrayOutputStream notified = new ByteArrayOutputStream();
+        wagon.addTransferListener(new AbstractTransferListener() {
+            @Override
+            public void transferProgress(TransferEvent transferEvent, byte[] buffer, int length) {
+                notified.write(buffer, 0, length);
+            }
+        });
+
+        Resource resource = new Resource("channel");
+        resource.setContentLength(content.length);
+        try (FileInputStream input = new FileInputStream(sourceFile);
+                LazyFileOutputStream output = new LazyFileOutputStream(targetFile)) {
+            wagon.transfer(resource, input, output, TransferEvent.REQUEST_GET, Long.MAX_VALUE);
+        }
+
+        assertArrayEquals(content, Files.readAllBytes(targetFile.toPath()));
+        assertArrayEquals(content, notified.toByteArray());
+    }
+
+    @Test
+    void overlappedProgressFailure() {
+        wagon.setOverlappedProgress(true);
+        wagon.addTransferListener(new AbstractTransferListener() {
+            @Override
+            public void transferProgress(TransferEvent transferEvent, byte[] buffer, int length) {
+                throw new IllegalStateException("listener failure");
+            }
+        });
+
+        Resource resource = new Resource("overlapped");
+        ByteArrayInputStream input = new ByteArrayInputStream(new byte[1024]);
+        IllegalStateException e = assertThrows(
+                IllegalStateException.class,
+                () -> wagon.transfer(
+                        resource, input, new ByteArrayOutputStream(), TransferEvent.REQUEST_GET, Long.MAX_VALUE));
+        assertEquals("listener failure", e.getMessage());
+    }
+
+    @Test
+    void unknownLengthTransferAdaptsItsBuffer() throws Exception {
+        byte[] content = new byte[4 * 1024 * 1024 + 17];
+        new Random(4L).nextBytes(content);
+
+        ByteArrayOutputStream notified = new ByteArrayOutputStream();
+        int[] largestChunk = new int[1];
+        wagon.addTransferListener(new AbstractTransferListener() {
+            @Override
+            public void transferProgress(TransferEvent transferEvent, byte[] buffer, int length) {
+                notified.write(buffer, 0, length);
+                largestChunk[0] = Math.max(largestChunk[0], length);
+            }
+        });
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        wagon.transfer(
+                new Resource("unknown"), new ByteArrayInputStream(content), output, TransferEvent.REQUEST_GET);
+
+        assertArrayEquals(content, output.toByteArray());
+        assertArrayEquals(content, notified.toByteArray());
+        assertTrue(largestChunk[0] > AbstractWagon.DEFAULT_BUFFER_SIZE, "largest chunk " + largestChunk[0]);
+    }
+
     @Test
     void streamShutdown() {
         InputStreamMock inputStream = new InputStreamMock();
@@ -437,4 +788,19 @@ void postProcessListeners() throws Exception {
 
         tempFile.delete();
     }
+
+    private static final class CoalescingListener extends AbstractTransferListener
+            implements CoalescedProgressListener {
+        private final long[] notified;
+
+        CoalescingListener(long[] notified) {
+            this.notified = notified;
+        }
+
+        @Override
+        public void transferProgress(TransferEvent transferEvent, byte[] buffer, int length) {
+            assertNull(buffer);
+            notified[0] += length;
+        }
+    }
 }
@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.wagon;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AdaptiveBufferSizerTest {
+
+    private static final long MILLISECOND = TimeUnit.MILLISECONDS.toNanos(1L);
+
+    @Test
+    void fastSourcesGrowTheBufferUpToTheMaximum() {
+        AdaptiveBufferSizer sizer = new AdaptiveBufferSizer(4096, 4096, 16384, 50L * MILLISECOND);
+
+        assertEquals(8192, sizer.update(4096, 3, MILLISECOND));
+        assertEquals(16384, sizer.update(8192, 3, MILLISECOND));
+        assertEquals(16384, sizer.update(16384, 3, MILLISECOND));
+    }
+
+    @Test
+    void sourcesFillingTheBufferInOneReadGrowIt() {
+        AdaptiveBufferSizer sizer = new AdaptiveBufferSizer(4096, 4096, 16384, 50L * MILLISECOND);
+
+        assertEquals(8192, sizer.update(4096, 1, 40L * MILLISECOND));
+    }
+
+    @Test
+    void slowSourcesShrinkTheBufferDownToTheMinimum() {
+        AdaptiveBufferSizer sizer = new AdaptiveBufferSizer(16384, 4096, 16384, 50L * MILLISECOND);
+
+        assertEquals(8192, sizer.update(8192, 4, 200L * MILLISECOND));
+        assertEquals(4096, sizer.update(4096, 4, 200L * MILLISECOND));
+        assertEquals(4096, sizer.update(2048, 4, 200L * MILLISECOND));
+    }
+
+    @Test
+    void steadySourcesKeepTheBuffer() {
+        AdaptiveBufferSizer sizer = new AdaptiveBufferSizer(8192, 4096, 16384, 50L * MILLISECOND);
+
+        assertEquals(8192, sizer.update(8192, 2, 50L * MILLISECOND));
+        assertEquals(8192, sizer.update(4096, 2, 50L * MILLISECOND));
+    }
+
+    @Test
+    void invalidRangeIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveBufferSizer(4096, 8192, 4096, MILLISECOND));
+    }
+}
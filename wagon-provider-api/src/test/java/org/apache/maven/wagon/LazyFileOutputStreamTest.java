@@ -19,6 +19,7 @@
 package org.apache.maven.wagon;
 
 import java.io.File;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 
@@ -56,4 +57,27 @@ void fileCreation() throws Exception {
 
         assertEquals(expected, new String(Files.readAllBytes(file.toPath())));
     }
+
+    @Test
+    void preallocatedFileIsTruncatedToWrittenLength() throws Exception {
+        File file = File.createTempFile("LazyFileOutputStreamTest", null);
+
+        file.delete();
+
+        LazyFileOutputStream stream = new LazyFileOutputStream(file, 1024L);
+
+        assertFalse(file.exists());
+
+        stream.write("mic".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(1024L, file.length());
+
+        stream.getChannel().write(ByteBuffer.wrap("hal".getBytes(StandardCharsets.UTF_8)));
+
+        stream.close();
+
+        assertEquals("michal", new String(Files.readAllBytes(file.toPath())));
+
+        file.delete();
+    }
 }
@@ -24,18 +24,23 @@
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.SequenceInputStream;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.text.SimpleDateFormat;
+import java.util.Random;
 
 import org.apache.maven.wagon.authentication.AuthenticationException;
 import org.apache.maven.wagon.authorization.AuthorizationException;
+import org.apache.maven.wagon.cache.NegativeCache;
 import org.apache.maven.wagon.events.TransferEvent;
 import org.apache.maven.wagon.events.TransferListener;
+import org.apache.maven.wagon.observers.AbstractTransferListener;
 import org.apache.maven.wagon.repository.Repository;
 import org.apache.maven.wagon.resource.Resource;
 import org.junit.jupiter.api.Test;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -310,6 +315,187 @@ public void fillInputData(InputData inputData) {
         }
     }
 
+    @Test
+    void resumableGet() throws Exception {
+        final byte[] content = new byte[10000];
+        new Random(0L).nextBytes(content);
+        final int failAfter = 5000;
+        final long lastModified = 1200000000000L;
+        StreamWagon wagon = new TestWagon() {
+            private boolean failed;
+
+            @Override
+            public void fillInputData(InputData inputData) {
+                PartialDownload partialDownload = inputData.getPartialDownload();
+                InputStream input;
+                if (!failed) {
+                    failed = true;
+                    input = new SequenceInputStream(new ByteArrayInputStream(content, 0, failAfter), new InputStream() {
+                        @Override
+                        public int read() throws IOException {
+                            throw new IOException("connection reset");
+                        }
+                    });
+                } else {
+                    // what was written before the failure, the bytes still buffered are lost
+                    int offset = (int) partialDownload.getLength();
+                    assertTrue(offset > 0 && offset <= failAfter);
+                    assertEquals("\"v1\"", partialDownload.getEntityTag());
+                    partialDownload.setResumed(true);
+                    input = new ByteArrayInputStream(content, offset, content.length - offset);
+                }
+                partialDownload.setValidators("\"v1\"", lastModified, content.length);
+                inputData.setInputStream(input);
+                inputData.getResource().setLastModified(lastModified);
+                inputData.getResource().setContentLength(content.length);
+            }
+        };
+        wagon.setResumableGet(true);
+        ByteArrayOutputStream notified = new ByteArrayOutputStream();
+        wagon.addTransferListener(new AbstractTransferListener() {
+            @Override
+            public void transferProgress(TransferEvent transferEvent, byte[] buffer, int length) {
+                notified.write(buffer, 0, length);
+            }
+        });
+
+        File directory = Files.createTempDirectory("wagon").toFile();
+        File destination = new File(directory, "resource");
+
+        wagon.connect(repository);
+        try {
+            assertThrows(TransferFailedException.class, () -> wagon.get("resource", destination));
+            assertFalse(destination.exists());
+            assertTrue(new File(directory, "resource.part").length() > 0L);
+
+            notified.reset();
+            wagon.get("resource", destination);
+
+            assertArrayEquals(content, Files.readAllBytes(destination.toPath()));
+            // the listeners are notified of the whole content, including what had been downloaded before
+            assertArrayEquals(content, notified.toByteArray());
+            assertArrayEquals(new String[] {"resource"}, directory.list());
+        } finally {
+            wagon.disconnect();
+            destination.delete();
+            directory.delete();
+        }
+    }
+
+    @Test
+    void resumableGetRestartsWhenResourceChanged() throws Exception {
+        final String content = "the content to return";
+        StreamWagon wagon = new TestWagon() {
+            @Override
+            public void fillInputData(InputData inputData) {
+                PartialDownload partialDownload = inputData.getPartialDownload();
+                assertEquals("\"v1\"", partialDownload.getEntityTag());
+                // the remote resource is now "v2": the partial data is stale
+                partialDownload.restart();
+                partialDownload.setValidators("\"v2\"", 0L, content.length());
+                inputData.setInputStream(new ByteArrayInputStream(content.getBytes()));
+            }
+        };
+        wagon.setResumableGet(true);
+
+        File directory = Files.createTempDirectory("wagon").toFile();
+        File destination = new File(directory, "resource");
+        Files.write(new File(directory, "resource.part").toPath(), "stale".getBytes());
+        Files.write(
+                new File(directory, "resource.part.properties").toPath(),
+                "entityTag=\"v1\"\ncontentLength=100\n".getBytes());
+
+        wagon.connect(repository);
+        try {
+            wagon.get("resource", destination);
+
+            assertEquals(content, new String(Files.readAllBytes(destination.toPath())));
+            assertArrayEquals(new String[] {"resource"}, directory.list());
+        } finally {
+            wagon.disconnect();
+            destination.delete();
+            directory.delete();
+        }
+    }
+
+    @Test
+    void missingResourceIsNotRequestedAgainUntilPut() throws Exception {
+        final int[] requests = new int[1];
+        final boolean[] exists = new boolean[1];
+        TestWagon wagon = new TestWagon() {
+            @Override
+            public void fillInputData(InputData inputData) throws ResourceDoesNotExistException {
+                requests[0]++;
+                if (!exists[0]) {
+                    throw new ResourceDoesNotExistException("missing");
+                }
+                inputData.setInputStream(new ByteArrayInputStream("content".getBytes()));
+            }
+
+            @Override
+            public void fillOutputData(OutputData outputData) {
+                outputData.setOutputStream(new ByteArrayOutputStream());
+            }
+        };
+        wagon.setNegativeCache(new NegativeCache(60000L, 10));
+
+        wagon.connect(repository);
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            assertThrows(ResourceDoesNotExistException.class, () -> wagon.getToStream("resource", out));
+            assertThrows(ResourceDoesNotExistException.class, () -> wagon.getToStream("resource", out));
+            assertEquals(1, requests[0]);
+
+            exists[0] = true;
+            wagon.putFromStream(new ByteArrayInputStream("content".getBytes()), "resource");
+            wagon.getToStream("resource", out);
+            assertEquals(2, requests[0]);
+            assertEquals("content", out.toString());
+        } finally {
+            wagon.disconnect();
+        }
+    }
+
+    @Test
+    void missingResourceExpiresWhilePolled() throws Exception {
+        final int[] requests = new int[1];
+        final boolean[] exists = new boolean[1];
+        TestWagon wagon = new TestWagon() {
+            @Override
+            public void fillInputData(InputData inputData) throws ResourceDoesNotExistException {
+                requests[0]++;
+                if (!exists[0]) {
+                    throw new ResourceDoesNotExistException("missing");
+                }
+                inputData.setInputStream(new ByteArrayInputStream("content".getBytes()));
+            }
+        };
+        wagon.setNegativeCache(new NegativeCache(300L, 10));
+
+        wagon.connect(repository);
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            assertThrows(ResourceDoesNotExistException.class, () -> wagon.getToStream("resource", out));
+            assertEquals(1, requests[0]);
+
+            // deployed elsewhere, e.g. by another build, while the resource keeps being polled within the TTL
+            exists[0] = true;
+            long deadline = System.currentTimeMillis() + 10000L;
+            while (requests[0] == 1 && System.currentTimeMillis() < deadline) {
+                try {
+                    wagon.getToStream("resource", out);
+                } catch (ResourceDoesNotExistException e) {
+                    Thread.sleep(50L);
+                }
+            }
+
+            assertEquals(2, requests[0]);
+            assertEquals("content", out.toString());
+        } finally {
+            wagon.disconnect();
+        }
+    }
+
     @Test
     void getIfNewerToStreamWithNewerResource() throws Exception {
         long resourceTime = System.currentTimeMillis();
@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.wagon;
+
+import java.nio.ByteBuffer;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class TransferBufferPoolTest {
+    @Test
+    void leasedBufferHasRequestedCapacity() {
+        TransferBufferPool pool = new TransferBufferPool(2);
+
+        ByteBuffer buffer = pool.acquire(12 * 1024);
+
+        assertEquals(12 * 1024, buffer.capacity());
+        assertEquals(0, buffer.position());
+        assertEquals(0, buffer.arrayOffset());
+        assertEquals(16 * 1024, buffer.array().length);
+    }
+
+    @Test
+    void releasedBufferIsReused() {
+        TransferBufferPool pool = new TransferBufferPool(2);
+
+        ByteBuffer first = pool.acquire(12 * 1024);
+        pool.release(first);
+        ByteBuffer second = pool.acquire(16 * 1024);
+
+        assertSame(first.array(), second.array());
+        assertEquals(1, pool.getHits());
+        assertEquals(1, pool.getMisses());
+    }
+
+    @Test
+    void sizeClassesAreBounded() {
+        TransferBufferPool pool = new TransferBufferPool(1);
+
+        ByteBuffer first = pool.acquire(4096);
+        ByteBuffer second = pool.acquire(4096);
+        pool.release(first);
+        pool.release(second);
+
+        assertEquals(1, pool.getDiscards());
+    }
+
+    @Test
+    void oversizedRequestsAreNotPooled() {
+        TransferBufferPool pool = new TransferBufferPool(1);
+
+        ByteBuffer buffer = pool.acquire(TransferBufferPool.MAXIMUM_CAPACITY + 1);
+        pool.release(buffer);
+        pool.acquire(TransferBufferPool.MAXIMUM_CAPACITY + 1);
+
+        assertEquals(0, pool.getHits());
+        assertEquals(2, pool.getMisses());
+    }
+
+    @Test
+    void leaseGivesEachBufferBackOnce() {
+        TransferBufferPool pool = new TransferBufferPool(2);
+
+        TransferBufferPool.Lease lease = pool.lease(4096);
+        ByteBuffer first = lease.buffer();
+        ByteBuffer resized = lease.resize(8192);
+        assertEquals(8192, resized.capacity());
+        assertSame(resized, lease.buffer());
+        lease.close();
+        lease.close();
+
+        assertSame(first.array(), pool.acquire(4096).array());
+        assertSame(resized.array(), pool.acquire(8192).array());
+        // closing twice did not pool the buffer twice
+        pool.acquire(4096);
+        assertEquals(2, pool.getHits());
+        assertEquals(3, pool.getMisses());
+    }
+
+    @Test
+    void disabledPool() {
+        TransferBufferPool pool = new TransferBufferPool(0);
+
+        pool.release(pool.acquire(4096));
+        pool.acquire(4096);
+
+        assertEquals(0, pool.getHits());
+        assertEquals(2, pool.getMisses());
+    }
+}
@@ -0,0 +1,304 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.wagon;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.wagon.TransferScheduler.Permit;
+import org.apache.maven.wagon.TransferScheduler.Priority;
+import org.apache.maven.wagon.repository.Repository;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TransferSchedulerTest {
+
+    private final Repository central = new Repository("central", "https://repo.example.org/central");
+
+    private final Repository snapshots = new Repository("snapshots", "https://repo.example.org/snapshots");
+
+    @Test
+    void resourcesAreClassifiedByPriority() {
+        assertEquals(Priority.METADATA, Priority.forResource("org/example/a/maven-metadata.xml"));
+        assertEquals(Priority.METADATA, Priority.forResource("org/example/a/maven-metadata-central.xml.sha1"));
+        assertEquals(Priority.DESCRIPTOR, Priority.forResource("org/example/a/1.0/a-1.0.pom"));
+        assertEquals(Priority.DESCRIPTOR, Priority.forResource("org/example/a/1.0/a-1.0.POM.asc"));
+        assertEquals(Priority.BULK, Priority.forResource("org/example/a/1.0/a-1.0.jar"));
+        assertEquals(Priority.BULK, Priority.forResource("org/example/a/1.0/a-1.0.jar.sha256"));
+    }
+
+    @Test
+    void waitingTransfersAreAdmittedByPriorityThenArrival() throws Exception {
+        TransferScheduler scheduler = new TransferScheduler();
+        scheduler.setMaxPerHost(1);
+        ExecutorService executor = Executors.newCachedThreadPool();
+
+        Permit running = scheduler.acquire(central, Priority.BULK);
+        List<String> admitted = Collections.synchronizedList(new ArrayList<>());
+        List<CompletableFuture<Void>> waiters = new ArrayList<>();
+        waiters.add(acquireAndRecord(scheduler, central, Priority.BULK, "jar", admitted, executor));
+        awaitWaiting(scheduler, 1);
+        waiters.add(acquireAndRecord(scheduler, snapshots, Priority.DESCRIPTOR, "pom", admitted, executor));
+        awaitWaiting(scheduler, 2);
+        waiters.add(acquireAndRecord(scheduler, central, Priority.METADATA, "metadata", admitted, executor));
+        awaitWaiting(scheduler, 3);
+        waiters.add(acquireAndRecord(scheduler, central, Priority.DESCRIPTOR, "pom2", admitted, executor));
+        awaitWaiting(scheduler, 4);
+
+        running.close();
+        for (CompletableFuture<Void> waiter : waiters) {
+            waiter.get(10L, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertEquals(Arrays.asList("metadata", "pom", "pom2", "jar"), admitted);
+        assertEquals(0, scheduler.getInFlightCount());
+    }
+
+    @Test
+    void repositoryLimitDoesNotHoldBackOtherRepositoriesOfTheHost() throws Exception {
+        TransferScheduler scheduler = new TransferScheduler();
+        scheduler.setMaxPerHost(2);
+        scheduler.setMaxPerRepository(1);
+
+        try (Permit first = scheduler.acquire(central, Priority.BULK)) {
+            CompletableFuture<Permit> second = CompletableFuture.supplyAsync(() -> acquire(scheduler, central));
+            awaitWaiting(scheduler, 1);
+
+            try (Permit other = scheduler.acquire(snapshots, Priority.BULK)) {
+                assertEquals(2, scheduler.getInFlightCount());
+                assertFalse(second.isDone());
+            }
+            assertFalse(second.isDone());
+
+            first.close();
+            second.get(10L, TimeUnit.SECONDS).close();
+        }
+        assertEquals(0, scheduler.getInFlightCount());
+    }
+
+    @Test
+    void interruptedTransfersGiveUpTheirTurn() throws Exception {
+        TransferScheduler scheduler = new TransferScheduler();
+        scheduler.setMaxPerHost(1);
+
+        try (Permit running = scheduler.acquire(central, Priority.BULK)) {
+            Thread.currentThread().interrupt();
+            assertThrows(InterruptedException.class, () -> scheduler.acquire(central, Priority.METADATA));
+            assertEquals(0, scheduler.getWaitingCount());
+        }
+        assertEquals(0, scheduler.getInFlightCount());
+    }
+
+    @Test
+    void batchTransfersAreScheduled() throws Exception {
+        TransferScheduler scheduler = new TransferScheduler();
+        scheduler.setMaxPerHost(1);
+        List<String> transferred = Collections.synchronizedList(new ArrayList<>());
+        WagonMock wagon = new WagonMock() {
+            @Override
+            public void get(String resourceName, File destination) {
+                assertEquals(1, scheduler.getInFlightCount());
+                transferred.add(resourceName);
+            }
+
+            @Override
+            protected boolean supportsConcurrentTransfers() {
+                return true;
+            }
+        };
+        wagon.setTransferScheduler(scheduler);
+        wagon.connect(central);
+
+        List<TransferRequest> requests = Arrays.asList(
+                new TransferRequest("a/1.0/a-1.0.jar", new File("a.jar")),
+                new TransferRequest("a/1.0/a-1.0.pom", new File("a.pom")));
+        List<TransferResult> results = wagon.getAll(requests);
+
+        assertEquals(2, transferred.size());
+        assertEquals(2, results.size());
+        assertEquals(requests.get(0), results.get(0).getRequest());
+        assertTrue(results.get(1).isSuccessful());
+        assertEquals(0, scheduler.getInFlightCount());
+    }
+
+    @Test
+    void asyncStreamTransfersAreScheduled() throws Exception {
+        TransferScheduler scheduler = new TransferScheduler();
+        List<String> transferred = Collections.synchronizedList(new ArrayList<>());
+        WagonMock wagon = new WagonMock() {
+            @Override
+            public void getToStream(String resourceName, OutputStream stream) {
+                assertEquals(1, scheduler.getInFlightCount());
+                transferred.add(resourceName);
+            }
+
+            @Override
+            public void putFromStream(InputStream stream, String destination, long contentLength, long lastModified) {
+                assertEquals(1, scheduler.getInFlightCount());
+                transferred.add(destination);
+            }
+        };
+        wagon.setTransferScheduler(scheduler);
+        wagon.connect(central);
+
+        wagon.getToStreamAsync("a/1.0/a-1.0.pom", new ByteArrayOutputStream()).get(10L, TimeUnit.SECONDS);
+        wagon.putFromStreamAsync(new ByteArrayInputStream(new byte[0]), "a/1.0/a-1.0.jar", 0L, 0L)
+                .get(10L, TimeUnit.SECONDS);
+
+        assertEquals(Arrays.asList("a/1.0/a-1.0.pom", "a/1.0/a-1.0.jar"), transferred);
+        assertEquals(0, scheduler.getInFlightCount());
+    }
+
+    @Test
+    void synchronousTransfersAreScheduled() throws Exception {
+        TransferScheduler scheduler = new TransferScheduler();
+        scheduler.setMaxPerHost(1);
+        WagonMock wagon = new WagonMock();
+        wagon.setTransferScheduler(scheduler);
+        wagon.connect(central);
+        File destination = File.createTempFile("wagon", ".jar");
+        destination.deleteOnExit();
+
+        CompletableFuture<Void> get;
+        try (Permit running = scheduler.acquire(central, Priority.BULK)) {
+            get = CompletableFuture.runAsync(() -> {
+                try {
+                    wagon.get("a/1.0/a-1.0.jar", destination);
+                } catch (WagonException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            awaitWaiting(scheduler, 1);
+            assertFalse(get.isDone());
+        }
+        get.get(10L, TimeUnit.SECONDS);
+
+        assertEquals(20480L, destination.length());
+        assertEquals(0, scheduler.getInFlightCount());
+    }
+
+    @Test
+    void batchItemsAreAdmittedOnce() throws Exception {
+        TransferScheduler scheduler = new TransferScheduler();
+        scheduler.setMaxPerHost(1);
+        WagonMock wagon = new WagonMock() {
+            @Override
+            protected boolean supportsConcurrentTransfers() {
+                return true;
+            }
+        };
+        wagon.setTransferScheduler(scheduler);
+        wagon.connect(central);
+        File a = File.createTempFile("wagon", ".jar");
+        a.deleteOnExit();
+        File b = File.createTempFile("wagon", ".pom");
+        b.deleteOnExit();
+
+        // the gets of the items do not wait for the turn the items already hold
+        List<TransferResult> results = CompletableFuture.supplyAsync(() -> wagon.getAll(Arrays.asList(
+                        new TransferRequest("a/1.0/a-1.0.jar", a), new TransferRequest("a/1.0/a-1.0.pom", b))))
+                .get(10L, TimeUnit.SECONDS);
+
+        assertTrue(results.get(0).isSuccessful());
+        assertTrue(results.get(1).isSuccessful());
+        assertEquals(0, scheduler.getInFlightCount());
+    }
+
+    @Test
+    void asyncTransfersDoNotHoldAThreadWhileWaiting() throws Exception {
+        TransferScheduler scheduler = new TransferScheduler();
+        scheduler.setMaxPerHost(1);
+        ThreadPoolExecutor executor =
+                new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
+        WagonMock wagon = new WagonMock();
+        wagon.setTransferScheduler(scheduler);
+        wagon.setAsyncExecutor(executor);
+        wagon.connect(central);
+        File destination = File.createTempFile("wagon", ".jar");
+        destination.deleteOnExit();
+
+        CompletableFuture<CompletableFuture<Void>> get;
+        try (Permit running = scheduler.acquire(central, Priority.BULK)) {
+            get = CompletableFuture.supplyAsync(() -> wagon.getAsync("a/1.0/a-1.0.jar", destination));
+            awaitWaiting(scheduler, 1);
+
+            // the executor is free for the transfers already admitted
+            assertEquals(0, executor.getActiveCount());
+            assertTrue(executor.getQueue().isEmpty());
+            assertFalse(wagon.resourceExistsAsync("a/1.0/a-1.0.jar").get(10L, TimeUnit.SECONDS));
+        }
+        get.get(10L, TimeUnit.SECONDS).get(10L, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        assertEquals(20480L, destination.length());
+        assertEquals(0, scheduler.getInFlightCount());
+    }
+
+    private static CompletableFuture<Void> acquireAndRecord(
+            TransferScheduler scheduler,
+            Repository repository,
+            Priority priority,
+            String name,
+            List<String> admitted,
+            ExecutorService executor) {
+        return CompletableFuture.runAsync(
+                () -> {
+                    try (Permit permit = scheduler.acquire(repository, priority)) {
+                        admitted.add(name);
+                    } catch (InterruptedException e) {
+                        throw new IllegalStateException(e);
+                    }
+                },
+                executor);
+    }
+
+    private static Permit acquire(TransferScheduler scheduler, Repository repository) {
+        try {
+            return scheduler.acquire(repository, Priority.BULK);
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void awaitWaiting(TransferScheduler scheduler, int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10L);
+        while (scheduler.getWaitingCount() < count && System.nanoTime() < deadline) {
+            Thread.sleep(1L);
+        }
+        assertEquals(count, scheduler.getWaitingCount());
+    }
+}
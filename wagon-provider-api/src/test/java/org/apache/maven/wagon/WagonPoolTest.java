@@ -0,0 +1,221 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.wagon;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import org.apache.maven.wagon.authentication.AuthenticationInfo;
+import org.apache.maven.wagon.events.SessionListener;
+import org.apache.maven.wagon.proxy.ProxyInfo;
+import org.apache.maven.wagon.repository.Repository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class WagonPoolTest {
+    private final Repository repository = new Repository("id", "http://localhost/repo");
+
+    private final List<CountingWagon> wagons = new ArrayList<>();
+
+    private final SessionListener listener = mock(SessionListener.class);
+
+    private WagonPool pool;
+
+    private class CountingWagon extends WagonMock {
+        private int opened;
+
+        private int closed;
+
+        @Override
+        public void openConnectionInternal() {
+            opened++;
+        }
+
+        @Override
+        public void closeConnection() {
+            closed++;
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        pool = new WagonPool(repository -> {
+            CountingWagon wagon = new CountingWagon();
+            wagon.addSessionListener(listener);
+            wagons.add(wagon);
+            return wagon;
+        });
+    }
+
+    @Test
+    void releasedWagonIsReused() throws Exception {
+        Wagon first = pool.lease(repository, null);
+        pool.release(first);
+        Wagon second = pool.lease(repository, null);
+        pool.release(second);
+
+        assertSame(first, second);
+        assertEquals(1, wagons.size());
+        assertEquals(1, wagons.get(0).opened);
+        assertEquals(0, wagons.get(0).closed);
+        // as if connected and disconnected twice
+        verify(listener, times(2)).sessionOpened(any());
+        verify(listener, times(2)).sessionDisconnected(any());
+    }
+
+    @Test
+    void wagonsArePooledByAuthentication() throws Exception {
+        AuthenticationInfo authenticationInfo = new AuthenticationInfo();
+        authenticationInfo.setUserName("user");
+
+        Wagon anonymous = pool.lease(repository, null);
+        pool.release(anonymous);
+        Wagon authenticated = pool.lease(repository, authenticationInfo);
+
+        assertNotSame(anonymous, authenticated);
+        assertEquals(1, pool.getIdleCount());
+        assertEquals(1, pool.getLeasedCount());
+    }
+
+    @Test
+    void reusedWagonIsGivenTheNewRepository() throws Exception {
+        Wagon first = pool.lease(repository, null);
+        pool.release(first);
+        Repository equal = new Repository("id", "http://localhost/repo");
+
+        Wagon second = pool.lease(equal, null);
+
+        assertSame(first, second);
+        assertSame(equal, second.getRepository());
+    }
+
+    @Test
+    void wagonsArePooledByRepositoryParameters() throws Exception {
+        Wagon first = pool.lease(repository, null);
+        pool.release(first);
+        Repository other = new Repository("id", "http://localhost/repo");
+        Properties parameters = new Properties();
+        parameters.setProperty("httpHeaders", "X-Test: true");
+        other.setParameters(parameters);
+
+        Wagon second = pool.lease(other, null);
+
+        assertNotSame(first, second);
+        assertSame(other, second.getRepository());
+    }
+
+    @Test
+    void wagonsArePooledByProxy() throws Exception {
+        ProxyInfo proxyInfo = new ProxyInfo();
+        proxyInfo.setType("http");
+        proxyInfo.setHost("proxy");
+        proxyInfo.setPort(3128);
+
+        Wagon direct = pool.lease(repository, null);
+        pool.release(direct);
+        Wagon proxied = pool.lease(repository, null, protocol -> proxyInfo);
+        pool.release(proxied);
+        Wagon reused = pool.lease(repository, null, protocol -> proxyInfo);
+
+        assertNotSame(direct, proxied);
+        assertSame(proxied, reused);
+        assertSame(proxyInfo, ((WagonMock) proxied).getProxyInfo());
+    }
+
+    @Test
+    void idleWagonsAreEvicted() throws Exception {
+        pool.setIdleTimeout(0L);
+        pool.release(pool.lease(repository, null));
+
+        pool.evictIdle();
+
+        assertEquals(0, pool.getIdleCount());
+        assertEquals(1, wagons.get(0).closed);
+        // the session already ended when released
+        verify(listener, times(1)).sessionDisconnected(any());
+    }
+
+    @Test
+    void unhealthyWagonIsReplaced() throws Exception {
+        pool.setHealthCheck(wagon -> false);
+        Wagon first = pool.lease(repository, null);
+        pool.release(first);
+
+        Wagon second = pool.lease(repository, null);
+
+        assertNotSame(first, second);
+        assertEquals(1, wagons.get(0).closed);
+    }
+
+    @Test
+    void invalidatedWagonIsDisconnected() throws Exception {
+        pool.setMaxPerKey(1);
+        Wagon first = pool.lease(repository, null);
+        pool.invalidate(first);
+
+        Wagon second = pool.lease(repository, null);
+
+        assertNotSame(first, second);
+        assertEquals(1, wagons.get(0).closed);
+        assertThrows(IllegalArgumentException.class, () -> pool.release(first));
+    }
+
+    @Test
+    void leaseWaitsForARelease() throws Exception {
+        pool.setMaxPerKey(1);
+        Wagon first = pool.lease(repository, null);
+
+        Thread releaser = new Thread(() -> {
+            try {
+                Thread.sleep(100L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            pool.release(first);
+        });
+        releaser.start();
+        Wagon second = pool.lease(repository, null);
+        releaser.join();
+
+        assertSame(first, second);
+    }
+
+    @Test
+    void closeDisconnectsIdleAndReleasedWagons() throws Exception {
+        Wagon leased = pool.lease(repository, null);
+        pool.release(pool.lease(repository, null));
+
+        pool.close();
+        assertEquals(1, wagons.stream().mapToInt(wagon -> wagon.closed).sum());
+        pool.release(leased);
+
+        assertEquals(2, wagons.stream().mapToInt(wagon -> wagon.closed).sum());
+        assertThrows(ConnectionException.class, () -> pool.lease(repository, null));
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.wagon.bandwidth;
+
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.maven.wagon.repository.Repository;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1L);
+
+    @Test
+    void burstIsServedAtOnceAndTheRestAtTheRate() {
+        AtomicLong clock = new AtomicLong();
+        TokenBucket bucket = new TokenBucket(1000L, 500L, false, clock::get);
+
+        assertEquals(0L, bucket.reserve(500L));
+        assertEquals(SECOND / 2, bucket.reserve(500L));
+        assertEquals(SECOND, bucket.reserve(500L));
+
+        clock.addAndGet(SECOND);
+        assertEquals(SECOND / 4, bucket.reserve(250L));
+    }
+
+    @Test
+    void idleTimeRefillsUpToTheBurst() {
+        AtomicLong clock = new AtomicLong();
+        TokenBucket bucket = new TokenBucket(1000L, 500L, false, clock::get);
+
+        bucket.reserve(500L);
+        clock.addAndGet(10L * SECOND);
+
+        assertEquals(0L, bucket.reserve(500L));
+        assertEquals(SECOND / 1000, bucket.reserve(1L));
+    }
+
+    @Test
+    void acquireWaitsForTheRate() throws Exception {
+        TokenBucket bucket = new TokenBucket(100_000L, 0L, true);
+
+        long start = System.nanoTime();
+        bucket.acquire(20_000L);
+        long elapsed = System.nanoTime() - start;
+
+        assertTrue(elapsed >= TimeUnit.MILLISECONDS.toNanos(190L), "elapsed " + elapsed);
+    }
+
+    @Test
+    void fairShareLetsSmallTransfersThroughALargeOne() throws Exception {
+        TokenBucket bucket = new TokenBucket(1024L * 1024L, 0L, true);
+
+        Thread large = new Thread(() -> {
+            try {
+                bucket.acquire(1024L * 1024L);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        large.start();
+        Thread.sleep(50L);
+
+        // without fair share the small transfer would wait for the whole second of the large one
+        long start = System.nanoTime();
+        bucket.acquire(1024L);
+        long elapsed = System.nanoTime() - start;
+        large.join();
+
+        assertTrue(elapsed < TimeUnit.MILLISECONDS.toNanos(500L), "elapsed " + elapsed);
+    }
+
+    @Test
+    void repositoriesShareTheirBucketUntilItsParametersChange() {
+        Repository repository = new Repository("id", "http://localhost/repo");
+        assertNull(BandwidthLimits.forRepository(repository));
+
+        Properties parameters = new Properties();
+        parameters.setProperty(BandwidthLimits.LIMIT, "1000");
+        repository.setParameters(parameters);
+        TokenBucket bucket = BandwidthLimits.forRepository(repository);
+        assertEquals(1000L, bucket.getBytesPerSecond());
+        assertEquals(1000L, bucket.getBurst());
+
+        Repository same = new Repository("same", "http://localhost/repo");
+        same.setParameters(parameters);
+        assertSame(bucket, BandwidthLimits.forRepository(same));
+
+        parameters.setProperty(BandwidthLimits.FAIR_SHARE, "true");
+        TokenBucket fair = BandwidthLimits.forRepository(repository);
+        assertNotSame(bucket, fair);
+        assertTrue(fair.isFairShare());
+    }
+}
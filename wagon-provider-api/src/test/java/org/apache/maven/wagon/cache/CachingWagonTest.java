@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.wagon.cache;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.apache.maven.wagon.InputData;
+import org.apache.maven.wagon.WagonMock;
+import org.apache.maven.wagon.resource.Resource;
+import org.apache.maven.wagon.events.TransferEvent;
+import org.apache.maven.wagon.observers.AbstractTransferListener;
+import org.apache.maven.wagon.repository.Repository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CachingWagonTest {
+    private static final String ENTITY_TAG = "\"1\"";
+
+    private final AtomicInteger downloads = new AtomicInteger();
+
+    private final AtomicInteger served = new AtomicInteger();
+
+    private Path directory;
+
+    private CachingWagon wagon;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        directory = Files.createTempDirectory("wagon-cache");
+        WagonMock delegate = new WagonMock() {
+            @Override
+            public void fillInputData(InputData inputData) {
+                downloads.incrementAndGet();
+                Resource resource = inputData.getResource();
+                if (ENTITY_TAG.equals(resource.getEntityTag())) {
+                    // not modified
+                    return;
+                }
+                resource.setEntityTag(ENTITY_TAG);
+                served.incrementAndGet();
+                super.fillInputData(inputData);
+            }
+        };
+        wagon = new CachingWagon(delegate, new WagonCache(directory.resolve("cache"), 0L));
+        wagon.connect(new Repository("id", "http://localhost/repo/"));
+    }
+
+    @Test
+    void releasesAreServedFromTheCache() throws Exception {
+        File first = directory.resolve("first.jar").toFile();
+        File second = directory.resolve("second.jar").toFile();
+
+        wagon.get("org/a/1.0/a-1.0.jar", first);
+        wagon.get("org/a/1.0/a-1.0.jar", second);
+
+        assertEquals(1, downloads.get());
+        assertEquals(20480L, second.length());
+    }
+
+    @Test
+    void listenersAreNotifiedOfCachedResources() throws Exception {
+        wagon.get("org/a/1.0/a-1.0.jar", directory.resolve("first.jar").toFile());
+
+        AtomicInteger progress = new AtomicInteger();
+        AtomicInteger completed = new AtomicInteger();
+        wagon.addTransferListener(new AbstractTransferListener() {
+            @Override
+            public void transferProgress(TransferEvent transferEvent, byte[] buffer, int length) {
+                progress.addAndGet(length);
+            }
+
+            @Override
+            public void transferCompleted(TransferEvent transferEvent) {
+                completed.incrementAndGet();
+            }
+        });
+        wagon.get("org/a/1.0/a-1.0.jar", directory.resolve("second.jar").toFile());
+
+        assertEquals(1, downloads.get());
+        assertEquals(20480, progress.get());
+        assertEquals(1, completed.get());
+    }
+
+    @Test
+    void expiredMetadataIsDownloadedAgain() throws Exception {
+        wagon.setMutableTtl(0L);
+
+        wagon.get("org/a/maven-metadata.xml", directory.resolve("first.xml").toFile());
+        wagon.get("org/a/maven-metadata.xml", directory.resolve("second.xml").toFile());
+
+        assertEquals(2, downloads.get());
+    }
+
+    @Test
+    void expiredMetadataIsValidatedByItsEntityTag() throws Exception {
+        wagon.setMutableTtl(0L);
+
+        wagon.get("org/a/maven-metadata.xml", directory.resolve("first.xml").toFile());
+        File second = directory.resolve("second.xml").toFile();
+        wagon.get("org/a/maven-metadata.xml", second);
+
+        assertEquals(2, downloads.get());
+        assertEquals(1, served.get());
+        assertEquals(20480L, second.length());
+    }
+
+    @Test
+    void unreadableCachedResourcesAreDownloadedAgain() throws Exception {
+        wagon.get("org/a/1.0/a-1.0.jar", directory.resolve("first.jar").toFile());
+        try (Stream<Path> files = Files.walk(directory.resolve("cache/content"))) {
+            for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator) {
+                // still found by the lookup, but failing once read
+                Files.delete(file);
+                Files.createDirectory(file);
+            }
+        }
+
+        File second = directory.resolve("second.jar").toFile();
+        wagon.get("org/a/1.0/a-1.0.jar", second);
+
+        assertEquals(2, downloads.get());
+        assertEquals(20480L, second.length());
+    }
+
+    @Test
+    void uploadsEvictTheCachedResource() throws Exception {
+        File file = directory.resolve("a.jar").toFile();
+        wagon.get("org/a/1.0/a-1.0.jar", file);
+        assertTrue(wagon.resourceExists("org/a/1.0/a-1.0.jar"));
+
+        wagon.put(file, "org/a/1.0/a-1.0.jar");
+        wagon.get("org/a/1.0/a-1.0.jar", file);
+
+        assertEquals(2, downloads.get());
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.wagon.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NegativeCacheTest {
+
+    @Test
+    void missingResourcesAreRememberedUntilInvalidated() {
+        NegativeCache cache = new NegativeCache(60000L, 10);
+
+        assertFalse(cache.isMissing("http://repo", "a.jar"));
+        cache.missing("http://repo/", "a.jar");
+        assertTrue(cache.isMissing("http://repo", "a.jar"));
+        assertTrue(cache.isMissing("http://repo/", "/a.jar"));
+        assertFalse(cache.isMissing("http://other", "a.jar"));
+
+        cache.invalidate("http://repo", "a.jar");
+        assertFalse(cache.isMissing("http://repo", "a.jar"));
+    }
+
+    @Test
+    void missingResourcesExpire() throws Exception {
+        NegativeCache cache = new NegativeCache(1L, 10);
+
+        cache.missing("http://repo", "a.jar");
+        Thread.sleep(10L);
+
+        assertFalse(cache.isMissing("http://repo", "a.jar"));
+    }
+
+    @Test
+    void oldestResourcesAreForgottenFirst() {
+        NegativeCache cache = new NegativeCache(60000L, 2);
+
+        cache.missing("http://repo", "a.jar");
+        cache.missing("http://repo", "b.jar");
+        cache.missing("http://repo", "c.jar");
+
+        assertFalse(cache.isMissing("http://repo", "a.jar"));
+        assertTrue(cache.isMissing("http://repo", "b.jar"));
+        assertTrue(cache.isMissing("http://repo", "c.jar"));
+    }
+
+    @Test
+    void disabledWithoutTtl() {
+        NegativeCache cache = new NegativeCache(0L, 10);
+
+        cache.missing("http://repo", "a.jar");
+
+        assertFalse(cache.isEnabled());
+        assertFalse(cache.isMissing("http://repo", "a.jar"));
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.wagon.cache;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class SidecarEntityTagStoreTest {
+    private final SidecarEntityTagStore store = new SidecarEntityTagStore();
+
+    @Test
+    void entityTagIsKeptNextToTheFile() throws Exception {
+        File file = File.createTempFile("wagon", ".xml");
+        Files.write(file.toPath(), "content".getBytes());
+
+        assertNull(store.getEntityTag("http://repo/a.xml", file));
+        store.setEntityTag("http://repo/a.xml", file, "\"v1\"");
+
+        assertEquals("\"v1\"", store.getEntityTag("http://repo/a.xml", file));
+        assertNull(store.getEntityTag("http://other/a.xml", file));
+
+        store.setEntityTag("http://repo/a.xml", file, null);
+        assertNull(store.getEntityTag("http://repo/a.xml", file));
+        assertFalse(new File(file.getPath() + ".etag").exists());
+        file.delete();
+    }
+
+    @Test
+    void entityTagIsIgnoredOnceTheFileIsModified() throws Exception {
+        File file = File.createTempFile("wagon", ".xml");
+        Files.write(file.toPath(), "content".getBytes());
+        store.setEntityTag("http://repo/a.xml", file, "\"v1\"");
+
+        Files.write(file.toPath(), "modified content".getBytes());
+
+        assertNull(store.getEntityTag("http://repo/a.xml", file));
+        new File(file.getPath() + ".etag").delete();
+        file.delete();
+    }
+}
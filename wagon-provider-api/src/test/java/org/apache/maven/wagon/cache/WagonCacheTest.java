@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.wagon.cache;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class WagonCacheTest {
+
+    @Test
+    void putAndGet() throws Exception {
+        Path directory = Files.createTempDirectory("wagon-cache");
+        WagonCache cache = new WagonCache(directory.resolve("cache"), 0L);
+        Path file = Files.write(directory.resolve("file"), "content".getBytes());
+
+        assertNull(cache.get("http://repo/a"));
+        cache.put("http://repo/a", file, 1000L, null);
+        cache.put("http://repo/b", file, 2000L, null);
+
+        WagonCache.Entry a = cache.get("http://repo/a");
+        WagonCache.Entry b = cache.get("http://repo/b");
+        assertNotNull(a);
+        assertEquals(1000L, a.getLastModified());
+        assertEquals(2000L, b.getLastModified());
+        // same content, stored once
+        assertEquals(a.getContent(), b.getContent());
+        assertArrayEquals("content".getBytes(), Files.readAllBytes(a.getContent()));
+
+        cache.remove("http://repo/a");
+        assertNull(cache.get("http://repo/a"));
+        assertNotNull(cache.get("http://repo/b"));
+    }
+
+    @Test
+    void leastRecentlyUsedContentIsEvicted() throws Exception {
+        Path directory = Files.createTempDirectory("wagon-cache");
+        WagonCache cache = new WagonCache(directory.resolve("cache"), 2500L);
+
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < 2; i++) {
+            Path file = Files.write(directory.resolve("file" + i), filled(1000, i));
+            WagonCache.Entry entry = cache.put("http://repo/" + i, file, 0L, null);
+            Files.setLastModifiedTime(entry.getContent(), FileTime.fromMillis(now - 60000L + i));
+        }
+        // 0 is used again, 1 becomes the least recently used
+        assertNotNull(cache.get("http://repo/0"));
+
+        Path file = Files.write(directory.resolve("file2"), filled(1000, 2));
+        cache.put("http://repo/2", file, 0L, null);
+
+        assertNotNull(cache.get("http://repo/0"));
+        assertNull(cache.get("http://repo/1"));
+        assertNotNull(cache.get("http://repo/2"));
+    }
+
+    private static byte[] filled(int length, int value) {
+        byte[] bytes = new byte[length];
+        Arrays.fill(bytes, (byte) value);
+        return bytes;
+    }
+}
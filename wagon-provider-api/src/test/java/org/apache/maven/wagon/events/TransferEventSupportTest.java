@@ -18,15 +18,27 @@
  */
 package org.apache.maven.wagon.events;
 
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
 import org.apache.maven.wagon.Wagon;
 import org.apache.maven.wagon.resource.Resource;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 
 /**
  * @author <a href="michal.maczka@dimatics.com">Michal Maczka</a>
@@ -138,7 +150,283 @@ void fireDebug() {
         verify(mock2).debug("mm");
     }
 
+    @Test
+    void listenerRemovedWhileNotified() {
+        TransferListener mock1 = mock(TransferListener.class);
+        TransferListener mock2 = mock(TransferListener.class);
+        TransferEvent event = getEvent(wagon);
+        doAnswer(invocation -> {
+                    eventSupport.removeTransferListener(mock1);
+                    return null;
+                })
+                .when(mock1)
+                .transferCompleted(event);
+        eventSupport.addTransferListener(mock1);
+        eventSupport.addTransferListener(mock2);
+
+        eventSupport.fireTransferCompleted(event);
+
+        verify(mock2).transferCompleted(event);
+        assertFalse(eventSupport.hasTransferListener(mock1));
+        assertTrue(eventSupport.hasTransferListener(mock2));
+    }
+
+    @Test
+    void coalescedProgress() {
+        eventSupport.setProgressCoalescing(0L, 100L);
+        TransferListener chunkListener = mock(TransferListener.class);
+        eventSupport.addTransferListener(chunkListener);
+        CoalescedProgressListener coalescedListener = mock(CoalescedProgressListener.class);
+        eventSupport.addTransferListener(coalescedListener);
+
+        TransferEvent event = getEvent(wagon);
+        byte[] buffer = new byte[30];
+        for (int i = 0; i < 10; i++) {
+            eventSupport.fireTransferProgress(event, buffer, buffer.length);
+        }
+
+        verify(chunkListener, times(10)).transferProgress(event, buffer, 30);
+        verify(coalescedListener, times(2)).transferProgress(event, null, 120);
+        verifyNoMoreInteractions(coalescedListener);
+
+        eventSupport.fireTransferCompleted(event);
+
+        verify(coalescedListener).transferProgress(event, null, 60);
+        verify(coalescedListener).transferCompleted(event);
+        assertTrue(eventSupport.needsProgressContent());
+    }
+
+    @Test
+    void coalescedProgressIsKeptPerTransfer() {
+        eventSupport.setProgressCoalescing(0L, 100L);
+        CoalescedProgressListener coalescedListener = mock(CoalescedProgressListener.class);
+        eventSupport.addTransferListener(coalescedListener);
+
+        Resource resource = new Resource("first");
+        TransferEvent first = getProgressEvent(resource);
+        TransferEvent other = getProgressEvent(new Resource("other"));
+        // a later event of the same transfer, e.g. fired by the progress thread of an overlapped transfer
+        TransferEvent again = getProgressEvent(resource);
+        byte[] buffer = new byte[60];
+        eventSupport.fireTransferProgress(first, buffer, buffer.length);
+        eventSupport.fireTransferProgress(other, buffer, buffer.length);
+        eventSupport.fireTransferProgress(again, buffer, buffer.length);
+
+        verify(coalescedListener).transferProgress(again, null, 120);
+        verifyNoMoreInteractions(coalescedListener);
+
+        TransferEvent completed =
+                new TransferEvent(wagon, resource, TransferEvent.TRANSFER_COMPLETED, TransferEvent.REQUEST_GET);
+        eventSupport.fireTransferCompleted(completed);
+        verify(coalescedListener).transferCompleted(completed);
+        verifyNoMoreInteractions(coalescedListener);
+    }
+
+    @Test
+    void coalescingDisabled() {
+        eventSupport.setProgressCoalescing(0L, 0L);
+        CoalescedProgressListener coalescedListener = mock(CoalescedProgressListener.class);
+        eventSupport.addTransferListener(coalescedListener);
+
+        TransferEvent event = getEvent(wagon);
+        byte[] buffer = new byte[30];
+        eventSupport.fireTransferProgress(event, buffer, buffer.length);
+
+        verify(coalescedListener).transferProgress(event, buffer, 30);
+        assertTrue(eventSupport.needsProgressContent());
+    }
+
+    @Test
+    void progressContentNotNeededByCoalescedListeners() {
+        eventSupport.addTransferListener(mock(CoalescedProgressListener.class));
+
+        assertTrue(eventSupport.hasTransferListeners());
+        assertFalse(eventSupport.needsProgressContent());
+    }
+
+    @Test
+    void asynchronousProgressKeepsOrdering() {
+        eventSupport.setAsynchronousProgress(4, ProgressBackPressure.BLOCK);
+        RecordingListener listener = new RecordingListener(null);
+        eventSupport.addTransferListener(listener);
+
+        TransferEvent event = getEvent(wagon);
+        byte[] buffer = new byte[1];
+        for (int i = 0; i < 100; i++) {
+            buffer[0] = (byte) i;
+            eventSupport.fireTransferProgress(event, buffer, 1);
+        }
+        eventSupport.fireTransferCompleted(event);
+
+        assertEquals(101, listener.calls.size());
+        assertEquals("completed", listener.calls.get(100));
+        byte[] expected = new byte[100];
+        for (int i = 0; i < expected.length; i++) {
+            expected[i] = (byte) i;
+        }
+        assertArrayEquals(expected, listener.content.toByteArray());
+        assertNotEquals(Thread.currentThread(), listener.progressThread);
+    }
+
+    @Test
+    void asynchronousProgressCoalesces() throws InterruptedException {
+        eventSupport.setAsynchronousProgress(1, ProgressBackPressure.COALESCE);
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingListener listener = new RecordingListener(release);
+        eventSupport.addTransferListener(listener);
+
+        TransferEvent event = getEvent(wagon);
+        byte[] buffer = "content".getBytes();
+        for (int i = 0; i < 10; i++) {
+            eventSupport.fireTransferProgress(event, buffer, buffer.length);
+        }
+        release.countDown();
+        eventSupport.fireTransferCompleted(event);
+
+        assertEquals(10 * buffer.length, listener.content.size());
+        assertTrue(listener.calls.size() < 11, "progress should have been coalesced: " + listener.calls);
+        assertEquals("completed", listener.calls.get(listener.calls.size() - 1));
+    }
+
+    @Test
+    void asynchronousProgressCoalescesBoundedContent() throws InterruptedException {
+        eventSupport.setAsynchronousProgress(1, ProgressBackPressure.COALESCE);
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingListener listener = new RecordingListener(release);
+        eventSupport.addTransferListener(listener);
+
+        TransferEvent event = getEvent(wagon);
+        byte[] buffer = new byte[64 * 1024];
+        Thread releaser = releaseLater(release);
+        for (int i = 0; i < 40; i++) {
+            eventSupport.fireTransferProgress(event, buffer, buffer.length);
+        }
+        eventSupport.fireTransferCompleted(event);
+        releaser.join();
+
+        assertEquals(40 * buffer.length, listener.content.size());
+        assertTrue(
+                listener.largestProgress <= AsyncProgressDispatcher.MAX_COALESCED_BYTES,
+                "largest progress " + listener.largestProgress);
+    }
+
+    @Test
+    void asynchronousProgressNeverDropsContent() throws InterruptedException {
+        eventSupport.setAsynchronousProgress(1, ProgressBackPressure.DROP);
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingListener listener = new RecordingListener(release);
+        eventSupport.addTransferListener(listener);
+
+        TransferEvent event = getEvent(wagon);
+        byte[] buffer = "content".getBytes();
+        Thread releaser = releaseLater(release);
+        for (int i = 0; i < 10; i++) {
+            eventSupport.fireTransferProgress(event, buffer, buffer.length);
+        }
+        eventSupport.fireTransferCompleted(event);
+        releaser.join();
+
+        assertEquals(0L, eventSupport.getDroppedProgressEvents());
+        assertEquals(10 * buffer.length, listener.content.size());
+    }
+
+    @Test
+    void asynchronousProgressDrops() {
+        eventSupport.setProgressCoalescing(0L, 1L);
+        eventSupport.setAsynchronousProgress(1, ProgressBackPressure.DROP);
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingListener listener = new CoalescedRecordingListener(release);
+        eventSupport.addTransferListener(listener);
+
+        TransferEvent event = getEvent(wagon);
+        byte[] buffer = "content".getBytes();
+        for (int i = 0; i < 10; i++) {
+            eventSupport.fireTransferProgress(event, buffer, buffer.length);
+        }
+        release.countDown();
+        eventSupport.fireTransferCompleted(event);
+
+        assertTrue(eventSupport.getDroppedProgressEvents() > 0);
+        assertEquals(10 - eventSupport.getDroppedProgressEvents(), listener.calls.size() - 1);
+    }
+
+    private static Thread releaseLater(CountDownLatch release) {
+        Thread releaser = new Thread(() -> {
+            try {
+                Thread.sleep(200L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            release.countDown();
+        });
+        releaser.start();
+        return releaser;
+    }
+
+    private static class RecordingListener implements TransferListener {
+        private final CountDownLatch release;
+
+        private final List<String> calls = new ArrayList<>();
+
+        private final ByteArrayOutputStream content = new ByteArrayOutputStream();
+
+        private volatile Thread progressThread;
+
+        private int largestProgress;
+
+        RecordingListener(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void transferProgress(TransferEvent transferEvent, byte[] buffer, int length) {
+            if (release != null) {
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            progressThread = Thread.currentThread();
+            synchronized (this) {
+                calls.add("progress");
+                largestProgress = Math.max(largestProgress, length);
+                if (buffer != null) {
+                    content.write(buffer, 0, length);
+                }
+            }
+        }
+
+        @Override
+        public synchronized void transferCompleted(TransferEvent transferEvent) {
+            calls.add("completed");
+        }
+
+        @Override
+        public void transferInitiated(TransferEvent transferEvent) {}
+
+        @Override
+        public void transferStarted(TransferEvent transferEvent) {}
+
+        @Override
+        public void transferError(TransferEvent transferEvent) {}
+
+        @Override
+        public void debug(String message) {}
+    }
+
     private TransferEvent getEvent(Wagon wagon) {
         return new TransferEvent(wagon, new Resource(), TransferEvent.TRANSFER_COMPLETED, TransferEvent.REQUEST_GET);
     }
+
+    private TransferEvent getProgressEvent(Resource resource) {
+        return new TransferEvent(wagon, resource, TransferEvent.TRANSFER_PROGRESS, TransferEvent.REQUEST_GET);
+    }
+
+    private static final class CoalescedRecordingListener extends RecordingListener
+            implements CoalescedProgressListener {
+        CoalescedRecordingListener(CountDownLatch release) {
+            super(release);
+        }
+    }
 }
@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.wagon.metrics;
+
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+
+import org.apache.maven.wagon.WagonMock;
+import org.apache.maven.wagon.events.TransferEvent;
+import org.apache.maven.wagon.events.TransferEventSupport;
+import org.apache.maven.wagon.repository.Repository;
+import org.apache.maven.wagon.resource.Resource;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TransferMetricsTest {
+    private static final String URL = "http://localhost/repo";
+
+    @Test
+    void transfersAreMeasured() throws Exception {
+        TransferMetrics metrics = new TransferMetrics();
+        WagonMock wagon = new WagonMock();
+        metrics.attach(wagon);
+        wagon.connect(new Repository("id", URL));
+
+        File destination = File.createTempFile("wagon", ".jar");
+        try {
+            wagon.get("a.jar", destination);
+            wagon.get("b.jar", destination);
+        } finally {
+            destination.delete();
+        }
+        WagonMock failing = new WagonMock(true);
+        metrics.attach(failing);
+        failing.connect(new Repository("id", URL));
+        assertThrows(Exception.class, () -> failing.get("c.jar", destination));
+
+        OperationSnapshot get = metrics.getOperation(URL, TransferEvent.REQUEST_GET);
+        assertEquals(2L, get.getTransfers());
+        assertEquals(1L, get.getErrors());
+        // the mock serves 20 KiB
+        assertEquals(2L * 20480L, get.getBytes());
+        assertEquals(2L, get.getDuration().getCount());
+        // the failed transfer started before its stream broke
+        assertEquals(3L, get.getTimeToFirstByte().getCount());
+        assertNull(metrics.getOperation(URL, TransferEvent.REQUEST_PUT));
+        assertEquals(2L, metrics.getSessionsOpened());
+
+        metrics.reset();
+        assertEquals(0L, metrics.getOperation(URL, TransferEvent.REQUEST_GET).getTransfers());
+    }
+
+    @Test
+    void notModifiedGetsAreCountedAndEnded() throws Exception {
+        TransferMetrics metrics = new TransferMetrics();
+        WagonMock wagon = new WagonMock();
+        metrics.attach(wagon);
+        wagon.connect(new Repository("id", URL));
+
+        File destination = File.createTempFile("wagon", ".jar");
+        try {
+            // the mock serves resources without a last modification date, older than the local file
+            assertFalse(wagon.getIfNewer("a.jar", destination, destination.lastModified()));
+        } finally {
+            destination.delete();
+        }
+
+        assertEquals(0, metrics.getTransfersInProgress());
+        OperationSnapshot get = metrics.getOperation(URL, TransferEvent.REQUEST_GET);
+        assertEquals(1L, get.getNotModified());
+        assertEquals(0L, get.getTransfers());
+        assertEquals(0L, get.getErrors());
+    }
+
+    @Test
+    void timeToFirstByteIsNotDelayedByProgressCoalescing() throws Exception {
+        TransferMetrics metrics = new TransferMetrics();
+        WagonMock wagon = new WagonMock();
+        wagon.connect(new Repository("id", URL));
+        TransferEventSupport eventSupport = new TransferEventSupport();
+        eventSupport.setProgressCoalescing(60000L, 0L);
+        eventSupport.addTransferListener(metrics);
+
+        Resource resource = new Resource("a.jar");
+        eventSupport.fireTransferInitiated(newEvent(wagon, resource, TransferEvent.TRANSFER_INITIATED));
+        eventSupport.fireTransferStarted(newEvent(wagon, resource, TransferEvent.TRANSFER_STARTED));
+        eventSupport.fireTransferProgress(newEvent(wagon, resource, TransferEvent.TRANSFER_PROGRESS), new byte[10], 10);
+        Thread.sleep(200L);
+        eventSupport.fireTransferCompleted(newEvent(wagon, resource, TransferEvent.TRANSFER_COMPLETED));
+
+        OperationSnapshot get = metrics.getOperation(URL, TransferEvent.REQUEST_GET);
+        assertEquals(10L, get.getBytes());
+        assertEquals(1L, get.getTimeToFirstByte().getCount());
+        assertTrue(
+                get.getTimeToFirstByte().getMaxMicros() < 200000L,
+                "time to first byte " + get.getTimeToFirstByte().getMaxMicros());
+        assertTrue(get.getDuration().getMaxMicros() >= 200000L);
+    }
+
+    private static TransferEvent newEvent(WagonMock wagon, Resource resource, int eventType) {
+        return new TransferEvent(wagon, resource, eventType, TransferEvent.REQUEST_GET);
+    }
+
+    @Test
+    void metricsAreExposedThroughJmx() throws Exception {
+        TransferMetrics metrics = new TransferMetrics();
+        WagonMock wagon = new WagonMock();
+        metrics.attach(wagon);
+        wagon.connect(new Repository("id", URL));
+        File destination = File.createTempFile("wagon", ".jar");
+        try {
+            wagon.get("a.jar", destination);
+        } finally {
+            destination.delete();
+        }
+
+        ObjectName name = metrics.registerMBean("test");
+        try {
+            CompositeData[] operations = (CompositeData[])
+                    ManagementFactory.getPlatformMBeanServer().getAttribute(name, "Operations");
+            assertEquals(1, operations.length);
+            assertEquals("GET", operations[0].get("operation"));
+            assertEquals(1L, operations[0].get("transfers"));
+            assertEquals(1L, ((CompositeData) operations[0].get("duration")).get("count"));
+        } finally {
+            metrics.unregisterMBean();
+        }
+    }
+}
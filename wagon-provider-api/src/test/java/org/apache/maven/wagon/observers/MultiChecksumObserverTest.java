@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.wagon.observers;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.maven.wagon.Wagon;
+import org.apache.maven.wagon.events.TransferEvent;
+import org.apache.maven.wagon.resource.Resource;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+
+class MultiChecksumObserverTest {
+    private static final String SHA_256 = "6015a3a7eab257d3d87424cb91827d58b7af7a089147ce9b4f8ea3c5fc1ebbd2";
+
+    private static final String SHA_512 = "5b7a408f2427015c4bdcc61ca89646c2d0d31c466da51e07d9ce583faab5bc62"
+            + "ec53eb5acc21d856838d4b38afd2f8e5c5fb1635e05fc3d3b7b61b7199ae7f84";
+
+    private final Wagon wagon = mock(Wagon.class);
+
+    @Test
+    void checksums() throws Exception {
+        MultiChecksumObserver listener = new MultiChecksumObserver("MD5", "SHA-1", "SHA-256", "SHA-512");
+
+        transfer(listener);
+
+        Map<String, String> checksums = listener.getActualChecksums();
+        assertEquals(Arrays.asList("MD5", "SHA-1", "SHA-256", "SHA-512"), Arrays.asList(checksums.keySet().toArray()));
+        assertEquals("bd4a9b642562547754086de2dab26b7d", checksums.get("MD5"));
+        assertEquals("2e5daf0201ddeb068a62d5e08da18657ab2c6be9", checksums.get("SHA-1"));
+        assertEquals(SHA_256, listener.getActualChecksum("SHA-256"));
+        assertEquals(SHA_512, listener.getActualChecksum("SHA-512"));
+    }
+
+    @Test
+    void parallelChecksums() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            MultiChecksumObserver listener = new MultiChecksumObserver(executor, "MD5", "SHA-256", "SHA-512");
+
+            transfer(listener);
+
+            assertEquals("bd4a9b642562547754086de2dab26b7d", listener.getActualChecksum("MD5"));
+            assertEquals(SHA_256, listener.getActualChecksum("SHA-256"));
+            assertEquals(SHA_512, listener.getActualChecksum("SHA-512"));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void noChecksumAfterError() throws Exception {
+        MultiChecksumObserver listener = new MultiChecksumObserver("MD5");
+        Resource resource = new Resource("resource");
+
+        listener.transferStarted(
+                new TransferEvent(wagon, resource, TransferEvent.TRANSFER_STARTED, TransferEvent.REQUEST_GET));
+        listener.transferError(new TransferEvent(wagon, resource, new Exception(), TransferEvent.REQUEST_GET));
+
+        assertNull(listener.getActualChecksums());
+        assertNull(listener.getActualChecksum("MD5"));
+    }
+
+    @Test
+    void sha256WithChecksumObserver() throws Exception {
+        ChecksumObserver listener = new ChecksumObserver("SHA-256");
+        Resource resource = new Resource("resource");
+
+        listener.transferStarted(
+                new TransferEvent(wagon, resource, TransferEvent.TRANSFER_STARTED, TransferEvent.REQUEST_GET));
+        TransferEvent progress =
+                new TransferEvent(wagon, resource, TransferEvent.TRANSFER_PROGRESS, TransferEvent.REQUEST_GET);
+        listener.transferProgress(progress, "checksum\n".getBytes(), 9);
+        listener.transferCompleted(
+                new TransferEvent(wagon, resource, TransferEvent.TRANSFER_COMPLETED, TransferEvent.REQUEST_GET));
+
+        assertEquals(SHA_256, listener.getActualChecksum());
+    }
+
+    private void transfer(MultiChecksumObserver listener) {
+        Resource resource = new Resource("resource");
+
+        listener.transferStarted(
+                new TransferEvent(wagon, resource, TransferEvent.TRANSFER_STARTED, TransferEvent.REQUEST_GET));
+
+        // two chunks, to check the digests are updated rather than restarted
+        TransferEvent progress =
+                new TransferEvent(wagon, resource, TransferEvent.TRANSFER_PROGRESS, TransferEvent.REQUEST_GET);
+        byte[] buffer = "checksum\n".getBytes();
+        listener.transferProgress(progress, buffer, 5);
+        byte[] rest = Arrays.copyOfRange(buffer, 5, buffer.length);
+        listener.transferProgress(progress, rest, rest.length);
+
+        listener.transferCompleted(
+                new TransferEvent(wagon, resource, TransferEvent.TRANSFER_COMPLETED, TransferEvent.REQUEST_GET));
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.wagon.jfr;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.apache.maven.wagon.WagonMock;
+import org.apache.maven.wagon.repository.Repository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Records the events of the multi-release JAR, which only has them on Java 11 and later.
+ */
+class WagonEventsIT {
+    @TempDir
+    Path directory;
+
+    @Test
+    void getsAreRecorded() throws Exception {
+        Path dump = directory.resolve("wagon.jfr");
+        File destination = directory.resolve("artifact").toFile();
+        WagonMock wagon = new WagonMock();
+
+        try (Recording recording = new Recording()) {
+            recording.enable("org.apache.maven.wagon.Get");
+            recording.start();
+
+            wagon.connect(new Repository("test", "http://localhost"));
+            try {
+                wagon.get("artifact", destination);
+                // the resource of the mock was never modified
+                assertFalse(wagon.getIfNewer("artifact", destination, 1));
+            } finally {
+                wagon.disconnect();
+            }
+
+            recording.stop();
+            recording.dump(dump);
+        }
+
+        List<RecordedEvent> gets = RecordingFile.readAllEvents(dump).stream()
+                .filter(event -> event.getEventType().getName().equals("org.apache.maven.wagon.Get"))
+                .collect(Collectors.toList());
+        assertEquals(2, gets.size());
+
+        assertEquals("artifact", gets.get(0).getString("resource"));
+        assertEquals(WagonEvents.SUCCESS, gets.get(0).getString("outcome"));
+        assertEquals(1024 * 4 * 5, gets.get(0).getLong("bytes"));
+
+        assertEquals(WagonEvents.NOT_MODIFIED, gets.get(1).getString("outcome"));
+        assertEquals(0, gets.get(1).getLong("bytes"));
+        assertTrue(Files.size(dump) > 0);
+    }
+}
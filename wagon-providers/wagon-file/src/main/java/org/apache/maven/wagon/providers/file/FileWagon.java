@@ -20,8 +20,6 @@
 
 import javax.inject.Named;
 
-import java.io.BufferedInputStream;
-import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
@@ -64,7 +62,8 @@ public void fillInputData(InputData inputData) throws TransferFailedException, R
         }
 
         try {
-            InputStream in = new BufferedInputStream(new FileInputStream(file));
+            // unbuffered, so that the transfer can hand the copy over to the file channels
+            InputStream in = new FileInputStream(file);
 
             inputData.setInputStream(in);
 
@@ -87,7 +86,7 @@ public void fillOutputData(OutputData outputData) throws TransferFailedException
 
         createParentDirectories(file);
 
-        OutputStream outputStream = new BufferedOutputStream(new LazyFileOutputStream(file));
+        OutputStream outputStream = new LazyFileOutputStream(file);
 
         outputData.setOutputStream(outputStream);
     }
@@ -124,6 +123,11 @@ public boolean supportsDirectoryCopy() {
         return true;
     }
 
+    protected boolean supportsConcurrentTransfers() {
+        // every transfer opens its own streams, only the repository is shared
+        return true;
+    }
+
     public void putDirectory(File sourceDirectory, String destinationDirectory)
             throws TransferFailedException, ResourceDoesNotExistException, AuthorizationException {
         if (getRepository().getBasedir() == null) {
@@ -39,6 +39,7 @@
 import org.apache.maven.wagon.ConnectionException;
 import org.apache.maven.wagon.InputData;
 import org.apache.maven.wagon.OutputData;
+import org.apache.maven.wagon.PartialDownload;
 import org.apache.maven.wagon.PathUtils;
 import org.apache.maven.wagon.ResourceDoesNotExistException;
 import org.apache.maven.wagon.StreamWagon;
@@ -311,6 +312,20 @@ public void fillInputData(InputData inputData) throws TransferFailedException, R
 
             resource.setLastModified(lastModified);
 
+            PartialDownload partialDownload = inputData.getPartialDownload();
+            if (partialDownload != null) {
+                // the partial data is only resumed if the remote file still has the same size and modification time
+                if (partialDownload.getLength() > 0L
+                        && partialDownload.getContentLength() == contentLength
+                        && partialDownload.getLastModified() == lastModified) {
+                    ftp.setRestartOffset(partialDownload.getLength());
+                    partialDownload.setResumed(true);
+                } else {
+                    partialDownload.restart();
+                }
+                partialDownload.setValidators(null, lastModified, contentLength);
+            }
+
             is = ftp.retrieveFileStream(filename);
         } catch (IOException e) {
             throw new TransferFailedException("Error transferring file via FTP", e);
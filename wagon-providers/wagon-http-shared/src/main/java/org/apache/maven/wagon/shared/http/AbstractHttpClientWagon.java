@@ -22,32 +22,41 @@
 import javax.net.ssl.SSLContext;
 
 import java.io.Closeable;
+import java.io.EOFException;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
 import java.io.RandomAccessFile;
 import java.nio.Buffer;
 import java.nio.ByteBuffer;
 import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.charset.StandardCharsets;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
 import java.util.Properties;
-import java.util.TimeZone;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.apache.http.Header;
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpException;
 import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpRequestInterceptor;
 import org.apache.http.HttpStatus;
 import org.apache.http.auth.AuthSchemeProvider;
 import org.apache.http.auth.AuthScope;
@@ -92,16 +101,23 @@
 import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.apache.http.message.BasicHeader;
 import org.apache.http.protocol.HTTP;
+import org.apache.http.protocol.HttpContext;
 import org.apache.http.util.EntityUtils;
+import org.apache.maven.wagon.AdaptiveBufferSizer;
 import org.apache.maven.wagon.InputData;
 import org.apache.maven.wagon.OutputData;
+import org.apache.maven.wagon.PartialDownload;
 import org.apache.maven.wagon.PathUtils;
 import org.apache.maven.wagon.ResourceDoesNotExistException;
 import org.apache.maven.wagon.StreamWagon;
+import org.apache.maven.wagon.TransferBufferPool;
 import org.apache.maven.wagon.TransferFailedException;
+import org.apache.maven.wagon.TransferScheduler;
 import org.apache.maven.wagon.Wagon;
 import org.apache.maven.wagon.authorization.AuthorizationException;
 import org.apache.maven.wagon.events.TransferEvent;
+import org.apache.maven.wagon.jfr.WagonEvent;
+import org.apache.maven.wagon.jfr.WagonEvents;
 import org.apache.maven.wagon.proxy.ProxyInfo;
 import org.apache.maven.wagon.repository.Repository;
 import org.apache.maven.wagon.resource.Resource;
@@ -181,39 +197,71 @@ public void writeTo(final OutputStream output) throws IOException {
 
             try (ReadableByteChannel input = (this.source != null)
                     ? new RandomAccessFile(this.source, "r").getChannel()
-                    : Channels.newChannel(stream)) {
-                ByteBuffer buffer = ByteBuffer.allocate(getBufferCapacityForTransfer(this.length));
-                int halfBufferCapacity = buffer.capacity() / 2;
-
-                long remaining = this.length < 0L ? Long.MAX_VALUE : this.length;
-                while (remaining > 0L) {
-                    int read = input.read(buffer);
-                    if (read == -1) {
-                        // EOF, but some data has not been written yet.
-                        if (((Buffer) buffer).position() != 0) {
-                            ((Buffer) buffer).flip();
-                            fireTransferProgress(transferEvent, buffer.array(), ((Buffer) buffer).limit());
-                            output.write(buffer.array(), 0, ((Buffer) buffer).limit());
-                            ((Buffer) buffer).clear();
-                        }
+                    : Channels.newChannel(stream);
+                TransferBufferPool.Lease lease =
+                        getTransferBufferPool().lease(getBufferCapacityForTransfer(this.length))) {
+                writeTo(output, transferEvent, input, lease);
+            }
+        }
 
-                        break;
+        private void writeTo(
+                OutputStream output,
+                TransferEvent transferEvent,
+                ReadableByteChannel input,
+                TransferBufferPool.Lease lease)
+                throws IOException {
+            ByteBuffer buffer = lease.buffer();
+            int halfBufferCapacity = buffer.capacity() / 2;
+
+            AdaptiveBufferSizer sizer = newAdaptiveBufferSizer(this.length);
+            int reads = 0;
+            long chunkStart = System.nanoTime();
+
+            long remaining = this.length < 0L ? Long.MAX_VALUE : this.length;
+            while (remaining > 0L) {
+                int read = input.read(buffer);
+                reads++;
+                if (read == -1) {
+                    // EOF, but some data has not been written yet.
+                    if (((Buffer) buffer).position() != 0) {
+                        ((Buffer) buffer).flip();
+                        fireTransferProgress(transferEvent, buffer.array(), ((Buffer) buffer).limit());
+                        throttle(((Buffer) buffer).limit());
+                        output.write(buffer.array(), 0, ((Buffer) buffer).limit());
+                        transferred(((Buffer) buffer).limit());
+                        ((Buffer) buffer).clear();
                     }
 
-                    // Prevent minichunking/fragmentation: when less than half the buffer is utilized,
-                    // read some more bytes before writing and firing progress.
-                    if (((Buffer) buffer).position() < halfBufferCapacity) {
-                        continue;
-                    }
+                    break;
+                }
+
+                // Prevent minichunking/fragmentation: when less than half the buffer is utilized,
+                // read some more bytes before writing and firing progress.
+                if (((Buffer) buffer).position() < halfBufferCapacity) {
+                    continue;
+                }
 
-                    ((Buffer) buffer).flip();
-                    fireTransferProgress(transferEvent, buffer.array(), ((Buffer) buffer).limit());
-                    output.write(buffer.array(), 0, ((Buffer) buffer).limit());
-                    remaining -= ((Buffer) buffer).limit();
-                    ((Buffer) buffer).clear();
+                ((Buffer) buffer).flip();
+                int chunk = ((Buffer) buffer).limit();
+                long chunkNanos = System.nanoTime() - chunkStart;
+                fireTransferProgress(transferEvent, buffer.array(), chunk);
+                throttle(chunk);
+                output.write(buffer.array(), 0, chunk);
+                transferred(chunk);
+                remaining -= chunk;
+                ((Buffer) buffer).clear();
+
+                if (sizer != null) {
+                    int capacity = sizer.update(chunk, reads, chunkNanos);
+                    if (capacity != buffer.capacity()) {
+                        buffer = lease.resize(capacity);
+                        halfBufferCapacity = buffer.capacity() / 2;
+                    }
                 }
-                output.flush();
+                reads = 0;
+                chunkStart = System.nanoTime();
             }
+            output.flush();
         }
 
         public boolean isStreaming() {
@@ -221,8 +269,6 @@ public boolean isStreaming() {
         }
     }
 
-    private static final TimeZone GMT_TIME_ZONE = TimeZone.getTimeZone("GMT");
-
     /**
      * use http(s) connection pool mechanism.
      * <b>enabled by default</b>
@@ -307,7 +353,15 @@ public boolean isStreaming() {
             Integer.parseInt(System.getProperty("maven.wagon.httpconnectionManager.maxBackoffSeconds", "180"));
 
     protected int backoff(int wait, String url) throws InterruptedException, TransferFailedException {
-        TimeUnit.SECONDS.sleep(wait);
+        WagonEvent event = WagonEvents.backoff();
+        event.begin();
+        try {
+            TimeUnit.SECONDS.sleep(wait);
+        } catch (InterruptedException e) {
+            commitFlightEvent(event, url, 0L, e);
+            throw e;
+        }
+        commitFlightEvent(event, url, 0L, null);
         int nextWait = wait * 2;
         if (nextWait >= getMaxBackoffWaitSeconds()) {
             throw new TransferFailedException(
@@ -426,6 +480,26 @@ private static HttpRequestRetryHandler createRetryHandler() {
         }
     }
 
+    private static final String ATTEMPTED_URI = AbstractHttpClientWagon.class.getName() + ".attemptedUri";
+
+    /**
+     * Records a flight recorder event each time the client sends a request again, after an I/O error or a 503.
+     */
+    private static void recordRetry(HttpRequest request, HttpContext context) {
+        String uri = request.getRequestLine().getUri();
+        Object attemptedUri = context.getAttribute(ATTEMPTED_URI);
+        context.setAttribute(ATTEMPTED_URI, uri);
+        // a redirect sends another request in the same context, but to another URI
+        if (uri.equals(attemptedUri)) {
+            WagonEvent event = WagonEvents.retry();
+            if (event.shouldCommit()) {
+                HttpHost target = HttpClientContext.adapt(context).getTargetHost();
+                // the failure that made the client retry is not passed on to the interceptors
+                event.commit(target != null ? target.toURI() : null, uri, 0L, null);
+            }
+        }
+    }
+
     /**
      * The type of the serviceUnavailableRetryStrategy, defaults to {@code none}.
      * Values can be {@link default DefaultServiceUnavailableRetryStrategy},
@@ -497,6 +571,29 @@ private static Collection<Class<? extends IOException>> getNonRetryableException
 
     private static CloseableHttpClient httpClient = createClient();
 
+    /**
+     * Threads downloading the segments of the segmented downloads, besides the thread of the download itself.
+     */
+    private static final ExecutorService SEGMENT_EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "wagon-http-segment");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * The percentile of the time to the response headers of a base URL after which its downloads are hedged.
+     */
+    private static final double HEDGING_PERCENTILE = 95.0;
+
+    /**
+     * Threads running the requests of the hedged downloads.
+     */
+    private static final ExecutorService HEDGING_EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "wagon-http-hedging");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     private static CloseableHttpClient createClient() {
         return HttpClientBuilder.create() //
                 .useSystemProperties() //
@@ -506,6 +603,7 @@ private static CloseableHttpClient createClient() {
                 .setServiceUnavailableRetryStrategy(createServiceUnavailableRetryStrategy())
                 .setDefaultAuthSchemeRegistry(createAuthSchemeRegistry())
                 .setRedirectStrategy(new WagonRedirectStrategy())
+                .addInterceptorFirst((HttpRequestInterceptor) AbstractHttpClientWagon::recordRetry)
                 .build();
     }
 
@@ -537,6 +635,39 @@ private static CloseableHttpClient createClient() {
      */
     private BasicAuthScope proxyAuth;
 
+    /**
+     * Length of the resources above which they are downloaded in several byte ranges at once, <code>0</code> or
+     * less to always download with a single request.
+     * <b>disabled by default</b>
+     * @since 4.0.0
+     */
+    private long segmentedDownloadThreshold = Long.getLong("maven.wagon.http.segmentedDownload.threshold", 0L);
+
+    /**
+     * Maximum number of byte ranges of a segmented download requested at once.
+     * <b>4 by default</b>
+     * @since 4.0.0
+     */
+    private int segmentedDownloadSegments = Integer.getInteger("maven.wagon.http.segmentedDownload.segments", 4);
+
+    /**
+     * Whether the current get is to a file, and may be downloaded in segments.
+     */
+    private boolean segmentable;
+
+    /**
+     * The rest of the current get, when the server answered its request with the first segment.
+     */
+    private SegmentedDownload segmentedDownload;
+
+    /**
+     * Delay before a download from a repository with mirrors is hedged on a mirror, while the time to the response
+     * headers of the repository is not known yet, in milliseconds; <code>0</code> or less to disable hedging.
+     * <b>disabled by default</b>
+     * @since 4.0.0
+     */
+    private long hedgingDelay = Long.getLong("maven.wagon.http.hedging.delayMillis", 0L);
+
     public void openConnectionInternal() {
         repository.setUrl(getURL(repository));
 
@@ -637,6 +768,21 @@ public void putFromStream(final InputStream stream, String destination, long con
         put(stream, resource, null);
     }
 
+    /**
+     * PUT requests do not share any per-transfer state of this wagon, so unlike GET requests, which keep track of the
+     * response being streamed, they run concurrently on the pooled connection manager.
+     */
+    @Override
+    public CompletableFuture<Void> putAsync(File source, String destination) {
+        return executeAdmittedAsync(
+                destination,
+                () -> {
+                    put(source, destination);
+                    return null;
+                },
+                false);
+    }
+
     private void put(final InputStream stream, Resource resource, File source)
             throws TransferFailedException, AuthorizationException, ResourceDoesNotExistException {
         put(resource, source, new WagonHttpEntity(stream, resource, this, source));
@@ -669,7 +815,10 @@ private String buildUrl(String resourceName) {
 
     private void put(Resource resource, File source, HttpEntity httpEntity, String url)
             throws TransferFailedException, AuthorizationException, ResourceDoesNotExistException {
-        put(getInitialBackoffSeconds(), resource, source, httpEntity, url);
+        // the request is only sent once admitted, so that it does not wait for a pooled connection
+        try (TransferScheduler.Permit permit = admitTransfer(resource, TransferEvent.REQUEST_PUT)) {
+            put(getInitialBackoffSeconds(), resource, source, httpEntity, url);
+        }
     }
 
     private void put(int wait, Resource resource, File source, HttpEntity httpEntity, String url)
@@ -777,7 +926,181 @@ protected void mkdirs(String dirname) throws HttpException, IOException {
     }
 
     public boolean resourceExists(String resourceName) throws TransferFailedException, AuthorizationException {
-        return resourceExists(getInitialBackoffSeconds(), resourceName);
+        if (isKnownMissing(resourceName)) {
+            return false;
+        }
+        boolean exists = resourceExists(getInitialBackoffSeconds(), resourceName);
+        if (!exists) {
+            resourceMissing(resourceName);
+        }
+        return exists;
+    }
+
+    /**
+     * Downloads large resources in several byte ranges at once when {@link #setSegmentedDownload(long, int) enabled}
+     * and supported by the server, which makes better use of high-latency, high-bandwidth links than a single TCP
+     * stream. The get itself asks for the first range, so that nothing is requested before knowing whether the
+     * resource is large enough; anything else is downloaded as usual.
+     */
+    @Override
+    public boolean getIfNewer(String resourceName, File destination, long timestamp)
+            throws TransferFailedException, ResourceDoesNotExistException, AuthorizationException {
+        segmentable = timestamp == 0L
+                && segmentedDownloadThreshold > 0L
+                && segmentedDownloadSegments > 1
+                && !isResumableGet();
+        try {
+            return super.getIfNewer(resourceName, destination, timestamp);
+        } finally {
+            segmentable = false;
+            segmentedDownload = null;
+        }
+    }
+
+    /**
+     * Downloads the rest of a resource in segments, when the server answered the get with the first range of a
+     * resource larger than the {@link #setSegmentedDownload(long, int) threshold}.
+     */
+    @Override
+    protected void getTransfer(Resource resource, File destination, InputStream input) throws TransferFailedException {
+        SegmentedDownload download = segmentedDownload;
+        segmentedDownload = null;
+        if (download == null) {
+            super.getTransfer(resource, destination, input);
+            return;
+        }
+
+        fireTransferDebug("attempting to create parent directories for destination: " + destination.getName());
+        createParentDirectories(destination);
+
+        fireGetStarted(resource, destination);
+
+        File target = getTemporaryFile(destination);
+        try (TransferScheduler.Permit permit = admitTransfer(resource, TransferEvent.REQUEST_GET)) {
+            try (RandomAccessFile file = new RandomAccessFile(target, "rw");
+                    ReadableByteChannel in = Channels.newChannel(input)) {
+                file.setLength(resource.getContentLength());
+                getSegments(download, file.getChannel(), in);
+            } finally {
+                // the segments are downloaded by several threads, counted for this one
+                transferred(download.transferred.get());
+            }
+            moveAtomically(target, destination);
+        } catch (IOException | HttpException e) {
+            target.delete();
+            fireTransferError(resource, e, TransferEvent.REQUEST_GET);
+            throw new TransferFailedException(formatTransferFailedMessage(download.url, getProxyInfo()), e);
+        } finally {
+            cleanupGetTransfer(resource);
+        }
+
+        fireGetCompleted(resource, destination);
+    }
+
+    /**
+     * Downloads the first segment from the response of the get, while the other segments are downloaded by
+     * requests of their own.
+     */
+    private void getSegments(SegmentedDownload download, FileChannel channel, ReadableByteChannel in)
+            throws IOException, HttpException {
+        List<Future<Void>> segments = new ArrayList<>();
+        boolean done = false;
+        try {
+            for (int segment = 1; segment < download.getSegments(); segment++) {
+                int s = segment;
+                segments.add(SEGMENT_EXECUTOR.submit(() -> {
+                    getSegment(download, channel, s);
+                    return null;
+                }));
+            }
+            readSegment(download, channel, 0, in);
+
+            for (Future<Void> segment : segments) {
+                segment.get();
+            }
+            done = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while downloading " + download.url);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof HttpException) {
+                throw (HttpException) cause;
+            }
+            throw new IOException(cause);
+        } finally {
+            if (!done) {
+                for (Future<Void> segment : segments) {
+                    segment.cancel(true);
+                }
+            }
+        }
+    }
+
+    private void getSegment(SegmentedDownload download, FileChannel channel, int segment)
+            throws IOException, HttpException {
+        long first = download.getFirst(segment);
+        long last = download.getLast(segment);
+        HttpGet getMethod = new HttpGet(download.url);
+        getMethod.addHeader("Range", "bytes=" + first + "-" + last);
+        // fails rather than mixing the content of different versions of the resource
+        getMethod.addHeader("If-Range", download.ifRange);
+
+        try (CloseableHttpResponse response = execute(getMethod)) {
+            int statusCode = response.getStatusLine().getStatusCode();
+            if (statusCode != HttpStatus.SC_PARTIAL_CONTENT || getContentRangeStart(response) != first) {
+                EntityUtils.consumeQuietly(response.getEntity());
+                throw new IOException("Range " + first + "-" + last + " of " + download.url
+                        + " not served, status: " + statusCode);
+            }
+
+            try (ReadableByteChannel in = Channels.newChannel(response.getEntity().getContent())) {
+                readSegment(download, channel, segment, in);
+            }
+        }
+    }
+
+    @SuppressWarnings("RedundantCast")
+    private void readSegment(SegmentedDownload download, FileChannel channel, int segment, ReadableByteChannel in)
+            throws IOException {
+        long first = download.getFirst(segment);
+        long last = download.getLast(segment);
+        TransferBufferPool bufferPool = getTransferBufferPool();
+        ByteBuffer buffer = bufferPool.acquire(getBufferCapacityForTransfer(last - first + 1L));
+        try {
+            long position = first;
+            while (position <= last) {
+                ((Buffer) buffer).clear();
+                ((Buffer) buffer).limit((int) Math.min(buffer.capacity(), last - position + 1L));
+                if (in.read(buffer) == -1) {
+                    throw new EOFException(
+                            "Range " + first + "-" + last + " of " + download.url + " ended at " + position);
+                }
+                ((Buffer) buffer).flip();
+                int n = ((Buffer) buffer).limit();
+                throttle(n);
+                long start = position;
+                while (buffer.hasRemaining()) {
+                    position += channel.write(buffer, position);
+                }
+                download.transferred.addAndGet(n);
+                download.written(channel, segment, start, buffer);
+            }
+        } finally {
+            bufferPool.release(buffer);
+        }
+    }
+
+    /**
+     * HEAD requests do not share any per-transfer state of this wagon, so they run concurrently on the pooled
+     * connection manager.
+     */
+    @Override
+    public CompletableFuture<Boolean> resourceExistsAsync(String resourceName) {
+        return executeAsync(() -> resourceExists(resourceName), false);
     }
 
     private boolean resourceExists(int wait, String resourceName)
@@ -1018,17 +1341,35 @@ private void fillInputData(int wait, InputData inputData)
 
         String url = buildUrl(resource);
         HttpGet getMethod = new HttpGet(url);
-        long timestamp = resource.getLastModified();
-        if (timestamp > 0) {
-            SimpleDateFormat fmt = new SimpleDateFormat("EEE, dd-MMM-yy HH:mm:ss zzz", Locale.US);
-            fmt.setTimeZone(GMT_TIME_ZONE);
-            Header hdr = new BasicHeader("If-Modified-Since", fmt.format(new Date(timestamp)));
-            fireTransferDebug("sending ==> " + hdr + "(" + timestamp + ")");
-            getMethod.addHeader(hdr);
+        addConditionalHeaders(getMethod, resource);
+
+        PartialDownload partialDownload = inputData.getPartialDownload();
+        long offset = partialDownload != null ? partialDownload.getLength() : 0L;
+        if (offset > 0L) {
+            // only get the missing bytes, provided that the resource has not changed since they were downloaded
+            getMethod.addHeader("Range", "bytes=" + offset + "-");
+            getMethod.addHeader(
+                    "If-Range",
+                    partialDownload.getEntityTag() != null
+                            ? partialDownload.getEntityTag()
+                            : DateUtils.formatDate(new Date(partialDownload.getLastModified())));
+        }
+
+        boolean segmented = segmentable && partialDownload == null;
+        if (segmented) {
+            // a resource up to the threshold comes whole, the first range of a larger one tells its length
+            getMethod.addHeader("Range", "bytes=0-" + (segmentedDownloadThreshold - 1L));
         }
 
         try {
-            CloseableHttpResponse response = execute(getMethod);
+            CloseableHttpResponse response;
+            if (hedgingDelay > 0L && !getRepository().getMirrorUrls().isEmpty()) {
+                HedgedRequest winner = executeHedged(getMethod, resource);
+                url = winner.url;
+                response = winner.getResponse();
+            } else {
+                response = execute(getMethod);
+            }
             closeable = response;
 
             fireTransferDebug(formatTransferDebugMessage(
@@ -1038,6 +1379,20 @@ private void fillInputData(int wait, InputData inputData)
                     getProxyInfo()));
             int statusCode = response.getStatusLine().getStatusCode();
 
+            if (offset > 0L
+                    && (statusCode == HttpStatus.SC_PARTIAL_CONTENT
+                            || statusCode == HttpStatus.SC_REQUESTED_RANGE_NOT_SATISFIABLE)) {
+                if (statusCode == HttpStatus.SC_PARTIAL_CONTENT && getContentRangeStart(response) == offset) {
+                    partialDownload.setResumed(true);
+                } else {
+                    EntityUtils.consumeQuietly(response.getEntity());
+                    fireTransferDebug("cannot resume the download of " + url + ", getting it again");
+                    partialDownload.restart();
+                    fillInputData(wait, inputData);
+                    return;
+                }
+            }
+
             switch (statusCode) {
                 case HttpStatus.SC_OK:
                     break;
@@ -1072,6 +1427,13 @@ private void fillInputData(int wait, InputData inputData)
                     fillInputData(backoff(wait, url), inputData);
                     break;
 
+                case HttpStatus.SC_PARTIAL_CONTENT:
+                    if (partialDownload != null && partialDownload.isResumed()
+                            || segmented && getContentRangeStart(response) == 0L) {
+                        break;
+                    }
+                    // fall through, a range we did not ask for
+
                 // add more entries here
                 default:
                     EntityUtils.consumeQuietly(response.getEntity());
@@ -1085,27 +1447,21 @@ private void fillInputData(int wait, InputData inputData)
                     throw e;
             }
 
-            Header contentLengthHeader = response.getFirstHeader("Content-Length");
+            long resumedOffset = partialDownload != null && partialDownload.isResumed() ? offset : 0L;
+            setResourceHeaders(response, resource, resumedOffset);
 
-            if (contentLengthHeader != null) {
-                try {
-                    long contentLength = Long.parseLong(contentLengthHeader.getValue());
-
-                    resource.setContentLength(contentLength);
-                } catch (NumberFormatException e) {
-                    fireTransferDebug(
-                            "error parsing content length header '" + contentLengthHeader.getValue() + "' " + e);
-                }
+            if (partialDownload != null) {
+                setValidators(partialDownload, response, resource);
             }
 
-            Header lastModifiedHeader = response.getFirstHeader("Last-Modified");
-            if (lastModifiedHeader != null) {
-                Date lastModified = DateUtils.parseDate(lastModifiedHeader.getValue());
-                if (lastModified != null) {
-                    resource.setLastModified(lastModified.getTime());
-                    fireTransferDebug(
-                            "last-modified = " + lastModifiedHeader.getValue() + " (" + lastModified.getTime() + ")");
-                }
+            if (segmented
+                    && statusCode == HttpStatus.SC_PARTIAL_CONTENT
+                    && !startSegmentedDownload(response, url, resource)) {
+                EntityUtils.consumeQuietly(response.getEntity());
+                fireTransferDebug("cannot download " + url + " in segments, getting it whole");
+                segmentable = false;
+                fillInputData(wait, inputData);
+                return;
             }
 
             HttpEntity entity = response.getEntity();
@@ -1119,6 +1475,253 @@ private void fillInputData(int wait, InputData inputData)
         }
     }
 
+    /**
+     * Sets the length, last modification and entity tag of a resource from the headers of a response with its
+     * content.
+     *
+     * @param resumedOffset the length of the partial download the response resumed, <code>0</code> if none
+     */
+    private void setResourceHeaders(CloseableHttpResponse response, Resource resource, long resumedOffset) {
+        Header contentLengthHeader = response.getFirstHeader("Content-Length");
+
+        if (contentLengthHeader != null) {
+            try {
+                long contentLength = Long.parseLong(contentLengthHeader.getValue());
+
+                // the length of the whole resource, not of the missing bytes only
+                resource.setContentLength(contentLength + resumedOffset);
+            } catch (NumberFormatException e) {
+                fireTransferDebug("error parsing content length header '" + contentLengthHeader.getValue() + "' " + e);
+            }
+        }
+
+        Header lastModifiedHeader = response.getFirstHeader("Last-Modified");
+        if (lastModifiedHeader != null) {
+            Date lastModified = DateUtils.parseDate(lastModifiedHeader.getValue());
+            if (lastModified != null) {
+                resource.setLastModified(lastModified.getTime());
+                fireTransferDebug(
+                        "last-modified = " + lastModifiedHeader.getValue() + " (" + lastModified.getTime() + ")");
+            }
+        }
+
+        Header entityTagHeader = response.getFirstHeader("ETag");
+        resource.setEntityTag(entityTagHeader != null ? entityTagHeader.getValue() : null);
+    }
+
+    /**
+     * Prepares the download of the rest of a resource, once the get received its first range.
+     *
+     * @return <code>false</code> if the length of the resource is unknown, or if the resource is larger than the
+     *         threshold but has no validator to request the other ranges with
+     */
+    private boolean startSegmentedDownload(CloseableHttpResponse response, String url, Resource resource) {
+        long length = SegmentedDownload.getContentRangeLength(response);
+        String ifRange = SegmentedDownload.getIfRange(response);
+        if (length < 0L || length > segmentedDownloadThreshold && ifRange == null) {
+            return false;
+        }
+
+        resource.setContentLength(length);
+        if (length > segmentedDownloadThreshold) {
+            long[] bounds = SegmentedDownload.split(
+                    length, segmentedDownloadThreshold, Math.min(segmentedDownloadSegments, MAX_CONN_PER_ROUTE));
+            TransferEvent progress =
+                    new TransferEvent(this, resource, TransferEvent.TRANSFER_PROGRESS, TransferEvent.REQUEST_GET);
+            progress.setTimestamp(System.currentTimeMillis());
+            segmentedDownload = new SegmentedDownload(url, ifRange, bounds, progress, getTransferEventSupport());
+        }
+        return true;
+    }
+
+    /**
+     * Gets a resource from the repository or its mirrors, whichever answers first. The base URL with the lowest
+     * {@value #HEDGING_PERCENTILE}th percentile of the time to the response headers is asked first, the repository
+     * until the mirrors are known to be faster. If it has not answered by that percentile, or by the
+     * {@link #getHedgingDelay() hedging delay} while it is not known yet, the next one is asked as well; if it
+     * fails, or answers with an error, the next ones are asked in turn. A mirror missing the resource, or refusing
+     * it, does not speak for the other base URLs, so the resource is only reported missing once all of them said so.
+     * The requests which lost are aborted.
+     *
+     * @param getMethod the request to the repository, whose headers are sent to the mirrors as well
+     * @param resource  the resource
+     * @return the request which answered first without an error, else the failure to report
+     */
+    private HedgedRequest executeHedged(HttpGet getMethod, Resource resource)
+            throws HttpException, IOException, InterruptedException {
+        List<String> baseUrls = new ArrayList<>();
+        baseUrls.add(getRepository().getUrl());
+        baseUrls.addAll(getRepository().getMirrorUrls());
+
+        int fastest = 0;
+        long delay = MirrorLatencies.percentile(baseUrls.get(0), HEDGING_PERCENTILE);
+        for (int i = 1; i < baseUrls.size(); i++) {
+            long percentile = MirrorLatencies.percentile(baseUrls.get(i), HEDGING_PERCENTILE);
+            if (percentile >= 0L && (delay < 0L || percentile < delay)) {
+                fastest = i;
+                delay = percentile;
+            }
+        }
+        baseUrls.add(0, baseUrls.remove(fastest));
+        if (delay < 0L) {
+            delay = TimeUnit.MILLISECONDS.toNanos(hedgingDelay);
+        }
+
+        Header[] headers = getMethod.getAllHeaders();
+        List<HedgedRequest> pending = new ArrayList<>();
+        List<HedgedRequest> failed = new ArrayList<>();
+        HedgedRequest winner = null;
+        try {
+            pending.add(startHedgedRequest(baseUrls.get(0), resource, headers));
+            int next = 1;
+            boolean hedged = false;
+            long hedgeAt = System.nanoTime() + delay;
+            while (winner == null) {
+                long timeout = hedged || next == baseUrls.size() ? Long.MAX_VALUE : hedgeAt - System.nanoTime();
+                HedgedRequest done = awaitAny(pending, timeout);
+                if (done == null) {
+                    fireTransferDebug("no response from " + pending.get(0).url + " yet, asking "
+                            + baseUrls.get(next) + " as well");
+                    hedged = true;
+                    pending.add(startHedgedRequest(baseUrls.get(next++), resource, headers));
+                    continue;
+                }
+                pending.remove(done);
+                if (done.hasAnswered()) {
+                    MirrorLatencies.record(done.baseUrl, done.completed - done.started);
+                    winner = done;
+                } else {
+                    failed.add(done);
+                }
+                if (winner == null && pending.isEmpty()) {
+                    if (next == baseUrls.size()) {
+                        winner = reportedFailure(failed);
+                    } else {
+                        fireTransferDebug(done.url + " failed, asking " + baseUrls.get(next));
+                        hedged = true;
+                        pending.add(startHedgedRequest(baseUrls.get(next++), resource, headers));
+                    }
+                }
+            }
+            return winner;
+        } finally {
+            long now = System.nanoTime();
+            for (HedgedRequest lost : pending) {
+                // slower than that at least
+                MirrorLatencies.record(lost.baseUrl, now - lost.started);
+                lost.abort();
+            }
+            for (HedgedRequest loser : failed) {
+                if (loser != winner) {
+                    loser.abort();
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the failure to report once every base URL failed: the resource is only missing if none of them has it
+     */
+    private static HedgedRequest reportedFailure(List<HedgedRequest> failed) {
+        for (HedgedRequest request : failed) {
+            if (!request.isNotFound()) {
+                return request;
+            }
+        }
+        return failed.get(0);
+    }
+
+    private HedgedRequest startHedgedRequest(String baseUrl, Resource resource, Header[] headers) {
+        HedgedRequest request =
+                new HedgedRequest(baseUrl, EncodingUtil.encodeURLToString(baseUrl, resource.getName()));
+        request.method.setHeaders(headers);
+        request.response = CompletableFuture.supplyAsync(
+                () -> {
+                    try {
+                        return execute(request.method);
+                    } catch (HttpException | IOException e) {
+                        throw new CompletionException(e);
+                    } finally {
+                        request.completed = System.nanoTime();
+                    }
+                },
+                HEDGING_EXECUTOR);
+        return request;
+    }
+
+    /**
+     * @return the first of the pending requests to complete, <code>null</code> if none did within the timeout
+     */
+    private static HedgedRequest awaitAny(List<HedgedRequest> pending, long timeoutNanos)
+            throws InterruptedException {
+        CompletableFuture<?>[] responses = new CompletableFuture<?>[pending.size()];
+        for (int i = 0; i < responses.length; i++) {
+            responses[i] = pending.get(i).response;
+        }
+        try {
+            CompletableFuture.anyOf(responses).get(Math.max(0L, timeoutNanos), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            // one of them failed, it is the one completed
+        } catch (TimeoutException e) {
+            return null;
+        }
+        for (HedgedRequest request : pending) {
+            if (request.response.isDone()) {
+                return request;
+            }
+        }
+        throw new IllegalStateException("No hedged request completed");
+    }
+
+    private void addConditionalHeaders(HttpGet getMethod, Resource resource) {
+        long timestamp = resource.getLastModified();
+        if (timestamp > 0) {
+            Header hdr = new BasicHeader("If-Modified-Since", DateUtils.formatDate(new Date(timestamp)));
+            fireTransferDebug("sending ==> " + hdr + "(" + timestamp + ")");
+            getMethod.addHeader(hdr);
+        }
+        if (resource.getEntityTag() != null) {
+            // takes precedence over If-Modified-Since
+            Header hdr = new BasicHeader("If-None-Match", resource.getEntityTag());
+            fireTransferDebug("sending ==> " + hdr);
+            getMethod.addHeader(hdr);
+        }
+    }
+
+    private static void setValidators(
+            PartialDownload partialDownload, CloseableHttpResponse response, Resource resource) {
+        Header entityTagHeader = response.getFirstHeader("ETag");
+        // If-Range only accepts strong entity tags
+        String entityTag = entityTagHeader != null && !entityTagHeader.getValue().startsWith("W/")
+                ? entityTagHeader.getValue()
+                : null;
+        long lastModified = response.getFirstHeader("Last-Modified") != null ? resource.getLastModified() : 0L;
+        partialDownload.setValidators(entityTag, lastModified, resource.getContentLength());
+    }
+
+    /**
+     * @return the first byte position of the <code>Content-Range</code> of a partial response, <code>-1</code> if
+     *         missing or invalid
+     */
+    private static long getContentRangeStart(CloseableHttpResponse response) {
+        Header contentRange = response.getFirstHeader("Content-Range");
+        if (contentRange == null) {
+            return -1L;
+        }
+
+        // bytes <first>-<last>/<length>
+        String value = contentRange.getValue().trim();
+        int dash = value.indexOf('-');
+        if (!value.startsWith("bytes ") || dash < 0) {
+            return -1L;
+        }
+        try {
+            return Long.parseLong(value.substring("bytes ".length(), dash).trim());
+        } catch (NumberFormatException e) {
+            return -1L;
+        }
+    }
+
     protected void cleanupGetTransfer(Resource resource) {
         if (closeable != null) {
             try {
@@ -1174,4 +1777,133 @@ public void setInitialBackoffSeconds(int initialBackoffSeconds) {
     public static int getMaxBackoffWaitSeconds() {
         return MAX_BACKOFF_WAIT_SECONDS;
     }
+
+    /**
+     * @return the length of the resources above which they are downloaded in several byte ranges at once,
+     *         <code>0</code> or less if disabled
+     * @since 4.0.0
+     */
+    public long getSegmentedDownloadThreshold() {
+        return segmentedDownloadThreshold;
+    }
+
+    /**
+     * @return the maximum number of byte ranges of a segmented download requested at once
+     * @since 4.0.0
+     */
+    public int getSegmentedDownloadSegments() {
+        return segmentedDownloadSegments;
+    }
+
+    /**
+     * Downloads the resources longer than the given threshold in several byte ranges requested at once, over the
+     * pooled connections, and written at their position in a preallocated file. The get asks for the first
+     * <code>threshold</code> bytes, so a smaller resource still comes with a single request, as does any resource
+     * of a server ignoring the range; the rest of a larger one is split into segments, provided that it has a
+     * validator for <code>If-Range</code>. The progress of a segmented download is notified in order, as the
+     * contiguous start of the content grows.
+     *
+     * @param threshold the length of the resources above which they are downloaded in segments, <code>0</code> or
+     *                  less to disable segmented downloads
+     * @param segments  the maximum number of byte ranges requested at once
+     * @since 4.0.0
+     */
+    public void setSegmentedDownload(long threshold, int segments) {
+        this.segmentedDownloadThreshold = threshold;
+        this.segmentedDownloadSegments = segments;
+    }
+
+    /**
+     * @return the delay before a download is hedged on a mirror while the latency of the repository is not known,
+     *         in milliseconds; <code>0</code> or less if disabled
+     * @since 4.0.0
+     */
+    public long getHedgingDelay() {
+        return hedgingDelay;
+    }
+
+    /**
+     * Hedges the downloads from a repository with {@link Repository#getMirrorUrls() mirrors}: a download not
+     * answered within the {@value #HEDGING_PERCENTILE}th percentile of the recent times to the response headers of
+     * the repository is requested from the next mirror as well, the first answer is used and the other request is
+     * aborted. A download failing with an I/O error or an error status, such as a mirror not having the resource
+     * yet, is requested from the next mirror in turn. Once a mirror is known to answer faster than the repository,
+     * it is asked first.
+     *
+     * @param hedgingDelay the delay before hedging while the percentile is not known yet, in milliseconds;
+     *                     <code>0</code> or less to disable hedging and only use the repository. Defaults to the
+     *                     <code>maven.wagon.http.hedging.delayMillis</code> system property
+     * @since 4.0.0
+     */
+    public void setHedgingDelay(long hedgingDelay) {
+        this.hedgingDelay = hedgingDelay;
+    }
+
+    /**
+     * A request of a hedged download, to the repository or to one of its mirrors.
+     */
+    private static final class HedgedRequest {
+        private final String baseUrl;
+
+        private final String url;
+
+        private final HttpGet method;
+
+        private final long started = System.nanoTime();
+
+        private volatile long completed;
+
+        private CompletableFuture<CloseableHttpResponse> response;
+
+        HedgedRequest(String baseUrl, String url) {
+            this.baseUrl = baseUrl;
+            this.url = url;
+            this.method = new HttpGet(url);
+        }
+
+        /**
+         * @return whether the request completed with a response which is not an error, to be used as is
+         */
+        boolean hasAnswered() {
+            return !response.isCompletedExceptionally()
+                    && response.join().getStatusLine().getStatusCode() < HttpStatus.SC_BAD_REQUEST;
+        }
+
+        /**
+         * @return whether the request completed with a response saying that the resource does not exist
+         */
+        boolean isNotFound() {
+            if (response.isCompletedExceptionally()) {
+                return false;
+            }
+            int statusCode = response.join().getStatusLine().getStatusCode();
+            return statusCode == HttpStatus.SC_NOT_FOUND || statusCode == HttpStatus.SC_GONE;
+        }
+
+        CloseableHttpResponse getResponse() throws HttpException, IOException {
+            try {
+                return response.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof HttpException) {
+                    throw (HttpException) e.getCause();
+                }
+                if (e.getCause() instanceof IOException) {
+                    throw (IOException) e.getCause();
+                }
+                throw e;
+            }
+        }
+
+        void abort() {
+            method.abort();
+            // a response received meanwhile is closed along with its connection
+            response.thenAccept(r -> {
+                try {
+                    r.close();
+                } catch (IOException e) {
+                    // being discarded anyway
+                }
+            });
+        }
+    }
 }
@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.wagon.shared.http;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The recent times to the response headers of the repositories and mirrors of the wagons of this JVM, by base URL.
+ * Only the latest {@value #WINDOW} requests of a base URL are kept, so that its percentiles follow its load.
+ */
+final class MirrorLatencies {
+    private static final int WINDOW = 64;
+
+    /**
+     * The requests to a base URL before its percentiles are known.
+     */
+    private static final int MINIMUM_SAMPLES = 8;
+
+    private static final ConcurrentMap<String, Window> WINDOWS = new ConcurrentHashMap<>();
+
+    private MirrorLatencies() {}
+
+    /**
+     * @param baseUrl the base URL requested
+     * @param nanos   the time to the response headers, or the time waited for them before giving up
+     */
+    static void record(String baseUrl, long nanos) {
+        WINDOWS.computeIfAbsent(baseUrl, url -> new Window()).record(nanos);
+    }
+
+    /**
+     * @param baseUrl    the base URL
+     * @param percentile the percentage of the recent requests to cover, between <code>0</code> and <code>100</code>
+     * @return the time to the response headers of this percentage of the recent requests, in nanoseconds;
+     *         <code>-1</code> if too few were made yet
+     */
+    static long percentile(String baseUrl, double percentile) {
+        Window window = WINDOWS.get(baseUrl);
+        return window != null ? window.percentile(percentile) : -1L;
+    }
+
+    private static final class Window {
+        private final long[] samples = new long[WINDOW];
+
+        private int size;
+
+        private int next;
+
+        synchronized void record(long nanos) {
+            samples[next] = nanos;
+            next = (next + 1) % WINDOW;
+            size = Math.min(size + 1, WINDOW);
+        }
+
+        synchronized long percentile(double percentile) {
+            if (size < MINIMUM_SAMPLES) {
+                return -1L;
+            }
+            long[] sorted = Arrays.copyOf(samples, size);
+            Arrays.sort(sorted);
+            int rank = (int) Math.ceil(size * percentile / 100.0);
+            return sorted[Math.min(size, Math.max(1, rank)) - 1];
+        }
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.wagon.shared.http;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.http.Header;
+import org.apache.http.HttpResponse;
+import org.apache.maven.wagon.events.TransferEvent;
+import org.apache.maven.wagon.events.TransferEventSupport;
+
+/**
+ * A resource downloaded in several byte ranges at once, written at their position in a file. The first segment is
+ * the range the get asked for before knowing the length of the resource, the rest is split into segments of equal
+ * length.
+ * <p>
+ * The segments arrive out of order, while listeners such as checksum observers need the content in order: the
+ * bytes extending the contiguous start of the content are notified as they are written, and the bytes the next
+ * segments wrote ahead of it are read back once it reaches them.
+ */
+final class SegmentedDownload {
+    /**
+     * Smallest byte range worth its own request in a segmented download.
+     */
+    private static final long MINIMUM_SEGMENT_LENGTH = 1024L * 1024L;
+
+    final String url;
+
+    final String ifRange;
+
+    /**
+     * The bytes downloaded by all the segments.
+     */
+    final AtomicLong transferred = new AtomicLong();
+
+    /**
+     * The first byte of each segment, then the length of the resource.
+     */
+    private final long[] bounds;
+
+    /**
+     * The end of the bytes written of each segment.
+     */
+    private final long[] written;
+
+    private final TransferEvent progress;
+
+    private final TransferEventSupport transferEventSupport;
+
+    /**
+     * The end of the contiguous bytes notified, all written. Guarded by this.
+     */
+    private long notified;
+
+    /**
+     * @param url                  the URL which answered the get
+     * @param ifRange              the validator the other segments are requested with
+     * @param bounds               the {@link #split(long, long, int) bounds} of the segments
+     * @param progress             the event to notify the progress with
+     * @param transferEventSupport the listeners to notify
+     */
+    SegmentedDownload(
+            String url,
+            String ifRange,
+            long[] bounds,
+            TransferEvent progress,
+            TransferEventSupport transferEventSupport) {
+        this.url = url;
+        this.ifRange = ifRange;
+        this.bounds = bounds;
+        this.written = Arrays.copyOf(bounds, bounds.length - 1);
+        this.progress = progress;
+        this.transferEventSupport = transferEventSupport;
+    }
+
+    /**
+     * Splits a resource into the range of the first request and as many segments of the rest as may be requested
+     * at once besides it, of at least {@value #MINIMUM_SEGMENT_LENGTH} bytes.
+     *
+     * @param length   the length of the resource
+     * @param first    the length of the first range, less than the length of the resource
+     * @param segments the maximum number of ranges requested at once, at least <code>2</code>
+     * @return the first byte of each segment, then the length of the resource
+     */
+    static long[] split(long length, long first, int segments) {
+        long rest = length - first;
+        int count = (int) Math.min(segments - 1L, Math.max(1L, rest / MINIMUM_SEGMENT_LENGTH));
+        long segmentLength = (rest + count - 1L) / count;
+
+        long[] bounds = new long[count + 2];
+        for (int segment = 1; segment <= count; segment++) {
+            bounds[segment] = first + (segment - 1) * segmentLength;
+        }
+        bounds[count + 1] = length;
+        return bounds;
+    }
+
+    /**
+     * @return the length of the whole resource in the <code>Content-Range</code> of a partial response,
+     *         <code>-1</code> if missing, unknown or invalid
+     */
+    static long getContentRangeLength(HttpResponse response) {
+        Header contentRange = response.getFirstHeader("Content-Range");
+        if (contentRange == null) {
+            return -1L;
+        }
+
+        // bytes <first>-<last>/<length>
+        String value = contentRange.getValue().trim();
+        int slash = value.lastIndexOf('/');
+        if (!value.startsWith("bytes ") || slash < 0) {
+            return -1L;
+        }
+        try {
+            return Long.parseLong(value.substring(slash + 1).trim());
+        } catch (NumberFormatException e) {
+            return -1L;
+        }
+    }
+
+    /**
+     * @return the validator to send in <code>If-Range</code> to get more ranges of the same content,
+     *         <code>null</code> if the response has none
+     */
+    static String getIfRange(HttpResponse response) {
+        // If-Range only accepts strong entity tags
+        Header entityTag = response.getFirstHeader("ETag");
+        if (entityTag != null && !entityTag.getValue().startsWith("W/")) {
+            return entityTag.getValue();
+        }
+        Header lastModified = response.getFirstHeader("Last-Modified");
+        return lastModified != null ? lastModified.getValue() : null;
+    }
+
+    int getSegments() {
+        return written.length;
+    }
+
+    long getFirst(int segment) {
+        return bounds[segment];
+    }
+
+    long getLast(int segment) {
+        return bounds[segment + 1] - 1L;
+    }
+
+    /**
+     * Notifies the progress of the bytes a segment just wrote if they extend the contiguous start of the content,
+     * then of the bytes the next segments wrote ahead of it.
+     *
+     * @param channel  the file the segments are written to
+     * @param segment  the segment
+     * @param position the position the bytes were written at
+     * @param buffer   the bytes written, from the start of its array to its limit; used to read the next segments
+     * @throws IOException if the bytes of the next segments could not be read
+     */
+    @SuppressWarnings("RedundantCast")
+    synchronized void written(FileChannel channel, int segment, long position, ByteBuffer buffer) throws IOException {
+        int n = ((Buffer) buffer).limit();
+        written[segment] = position + n;
+        if (notified != position) {
+            // notified once the segments before it are
+            return;
+        }
+        transferEventSupport.fireTransferProgress(progress, buffer.array(), n);
+        notified = position + n;
+
+        for (int next = segment + 1; next < written.length && notified == bounds[next]; next++) {
+            if (!transferEventSupport.hasTransferListeners()) {
+                notified = written[next];
+                continue;
+            }
+            while (notified < written[next]) {
+                ((Buffer) buffer).clear();
+                ((Buffer) buffer).limit((int) Math.min(buffer.capacity(), written[next] - notified));
+                int read = channel.read(buffer, notified);
+                if (read == -1) {
+                    throw new EOFException("Segmented download of " + url + " ended at " + notified);
+                }
+                transferEventSupport.fireTransferProgress(progress, buffer.array(), read);
+                notified += read;
+            }
+        }
+    }
+}
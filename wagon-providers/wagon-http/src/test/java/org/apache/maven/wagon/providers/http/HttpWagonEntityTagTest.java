@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.wagon.providers.http;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.maven.wagon.cache.SidecarEntityTagStore;
+import org.apache.maven.wagon.repository.Repository;
+import org.eclipse.jetty.servlet.ServletHolder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Conditional downloads validated by <code>If-None-Match</code>, for resources whose modification time does not
+ * change with their content.
+ */
+public class HttpWagonEntityTagTest extends HttpWagonHttpServerTestCase {
+    private static final long LAST_MODIFIED = 1200000000000L;
+
+    private final EntityTagServlet servlet = new EntityTagServlet();
+
+    private File directory;
+
+    private File destination;
+
+    private HttpWagon wagon;
+
+    @BeforeEach
+    protected void setUp() throws Exception {
+        context.addServlet(new ServletHolder(servlet), "/*");
+        startServer();
+
+        directory = Files.createTempDirectory("wagon-etag").toFile();
+        destination = new File(directory, "maven-metadata.xml");
+
+        wagon = (HttpWagon) getWagon();
+        wagon.setEntityTagStore(new SidecarEntityTagStore());
+        wagon.connect(new Repository("id", "http://localhost:" + getPort()));
+    }
+
+    @AfterEach
+    protected void tearDown() throws Exception {
+        wagon.disconnect();
+        stopServer();
+        for (File file : directory.listFiles()) {
+            file.delete();
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void testUnchangedResourceIsNotDownloadedAgain() throws Exception {
+        wagon.get("maven-metadata.xml", destination);
+
+        assertFalse(wagon.getIfNewer("maven-metadata.xml", destination, LAST_MODIFIED));
+
+        assertEquals(Arrays.asList(null, "\"v1\""), servlet.ifNoneMatch);
+        assertEquals("v1", new String(Files.readAllBytes(destination.toPath()), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testChangedResourceIsDownloadedDespiteSameLastModified() throws Exception {
+        wagon.get("maven-metadata.xml", destination);
+        servlet.version = "v2";
+
+        assertTrue(wagon.getIfNewer("maven-metadata.xml", destination, LAST_MODIFIED));
+        assertEquals("v2", new String(Files.readAllBytes(destination.toPath()), StandardCharsets.UTF_8));
+
+        assertFalse(wagon.getIfNewer("maven-metadata.xml", destination, LAST_MODIFIED));
+        assertEquals(Arrays.asList(null, "\"v1\"", "\"v2\""), servlet.ifNoneMatch);
+    }
+
+    @Test
+    public void testModifiedLocalCopyIsNotValidatedByEntityTag() throws Exception {
+        wagon.get("maven-metadata.xml", destination);
+        Files.write(destination.toPath(), "local".getBytes(StandardCharsets.UTF_8));
+
+        // falls back to the modification time, which did not change
+        assertFalse(wagon.getIfNewer("maven-metadata.xml", destination, LAST_MODIFIED));
+        assertEquals(Arrays.asList(null, null), servlet.ifNoneMatch);
+    }
+
+    private static class EntityTagServlet extends HttpServlet {
+        private static final long serialVersionUID = 1L;
+
+        private final transient List<String> ifNoneMatch = new ArrayList<>();
+
+        private volatile String version = "v1";
+
+        @Override
+        protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+            ifNoneMatch.add(request.getHeader("If-None-Match"));
+
+            String entityTag = "\"" + version + "\"";
+            response.setHeader("ETag", entityTag);
+            response.setDateHeader("Last-Modified", LAST_MODIFIED);
+            if (entityTag.equals(request.getHeader("If-None-Match"))) {
+                response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return;
+            }
+            if (request.getHeader("If-None-Match") == null
+                    && request.getDateHeader("If-Modified-Since") >= LAST_MODIFIED) {
+                response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return;
+            }
+
+            byte[] content = version.getBytes(StandardCharsets.UTF_8);
+            response.setContentLength(content.length);
+            response.getOutputStream().write(content);
+        }
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.wagon.providers.http;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.maven.wagon.ResourceDoesNotExistException;
+import org.apache.maven.wagon.repository.Repository;
+import org.eclipse.jetty.servlet.ServletHolder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Downloading from the repository or its mirrors, whichever answers first.
+ */
+public class HttpWagonHedgingTest extends HttpWagonHttpServerTestCase {
+    private final ContentServlet slow = new ContentServlet("slow", HttpServletResponse.SC_OK);
+
+    private final ContentServlet fast = new ContentServlet("fast", HttpServletResponse.SC_OK);
+
+    private final ContentServlet failing = new ContentServlet("failing", HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+
+    private final ContentServlet delayed = new ContentServlet("delayed", HttpServletResponse.SC_OK);
+
+    private final ContentServlet missing = new ContentServlet("missing", HttpServletResponse.SC_NOT_FOUND);
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private File destination;
+
+    private HttpWagon wagon;
+
+    @BeforeEach
+    protected void setUp() throws Exception {
+        slow.latch = release;
+        delayed.delayMillis = 500L;
+        context.addServlet(new ServletHolder(slow), "/slow/*");
+        context.addServlet(new ServletHolder(fast), "/fast/*");
+        context.addServlet(new ServletHolder(failing), "/failing/*");
+        context.addServlet(new ServletHolder(delayed), "/delayed/*");
+        context.addServlet(new ServletHolder(missing), "/missing/*");
+        context.addServlet(new ServletHolder(missing), "/missing-mirror/*");
+        startServer();
+
+        destination = File.createTempFile("wagon-hedging", ".tmp");
+
+        wagon = (HttpWagon) getWagon();
+        wagon.setHedgingDelay(100L);
+    }
+
+    @AfterEach
+    protected void tearDown() throws Exception {
+        release.countDown();
+        wagon.disconnect();
+        stopServer();
+        destination.delete();
+    }
+
+    @Test
+    public void testSlowRepositoryIsHedgedOnMirror() throws Exception {
+        connect("slow", "fast");
+
+        long start = System.nanoTime();
+        wagon.get("resource", destination);
+
+        assertEquals("fast", new String(Files.readAllBytes(destination.toPath()), StandardCharsets.UTF_8));
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(10L));
+        assertEquals(1, slow.requests.get());
+        assertEquals(1, fast.requests.get());
+    }
+
+    @Test
+    public void testFailingRepositoryFailsOverToMirror() throws Exception {
+        wagon.setHedgingDelay(TimeUnit.MINUTES.toMillis(1L));
+        connect("failing", "fast");
+
+        wagon.get("resource", destination);
+
+        assertEquals("fast", new String(Files.readAllBytes(destination.toPath()), StandardCharsets.UTF_8));
+        assertEquals(1, failing.requests.get());
+        assertEquals(1, fast.requests.get());
+    }
+
+    @Test
+    public void testMirrorMissingResourceDoesNotBeatRepository() throws Exception {
+        connect("delayed", "missing");
+
+        wagon.get("resource", destination);
+
+        assertEquals("delayed", new String(Files.readAllBytes(destination.toPath()), StandardCharsets.UTF_8));
+        assertEquals(1, delayed.requests.get());
+        assertEquals(1, missing.requests.get());
+    }
+
+    @Test
+    public void testRepositoryMissingResourceFailsOverToMirror() throws Exception {
+        wagon.setHedgingDelay(TimeUnit.MINUTES.toMillis(1L));
+        connect("missing", "fast");
+
+        wagon.get("resource", destination);
+
+        assertEquals("fast", new String(Files.readAllBytes(destination.toPath()), StandardCharsets.UTF_8));
+        assertEquals(1, missing.requests.get());
+    }
+
+    @Test
+    public void testResourceMissingEverywhereDoesNotExist() throws Exception {
+        connect("missing", "missing-mirror");
+
+        assertThrows(ResourceDoesNotExistException.class, () -> wagon.get("resource", destination));
+
+        assertEquals(2, missing.requests.get());
+    }
+
+    @Test
+    public void testFastRepositoryIsNotHedged() throws Exception {
+        connect("fast", "slow");
+
+        wagon.get("resource", destination);
+
+        assertEquals("fast", new String(Files.readAllBytes(destination.toPath()), StandardCharsets.UTF_8));
+        assertEquals(0, slow.requests.get());
+    }
+
+    private void connect(String repository, String... mirrors) throws Exception {
+        Repository repo = new Repository("id", "http://localhost:" + getPort() + "/" + repository);
+        String[] mirrorUrls = new String[mirrors.length];
+        for (int i = 0; i < mirrors.length; i++) {
+            mirrorUrls[i] = "http://localhost:" + getPort() + "/" + mirrors[i];
+        }
+        repo.setMirrorUrls(mirrors.length > 0 ? Arrays.asList(mirrorUrls) : Collections.emptyList());
+        wagon.connect(repo);
+    }
+
+    private static class ContentServlet extends HttpServlet {
+        private static final long serialVersionUID = 1L;
+
+        private final String content;
+
+        private final int status;
+
+        private final AtomicInteger requests = new AtomicInteger();
+
+        private transient volatile CountDownLatch latch;
+
+        private volatile long delayMillis;
+
+        ContentServlet(String content, int status) {
+            this.content = content;
+            this.status = status;
+        }
+
+        @Override
+        protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+            requests.incrementAndGet();
+            if (latch != null) {
+                try {
+                    latch.await(30L, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if (delayMillis > 0L) {
+                try {
+                    Thread.sleep(delayMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            response.setStatus(status);
+            byte[] body = content.getBytes(StandardCharsets.UTF_8);
+            response.setContentLength(body.length);
+            response.getOutputStream().write(body);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.wagon.providers.http;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.maven.wagon.repository.Repository;
+import org.eclipse.jetty.servlet.ServletHolder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Resuming an interrupted download with a <code>Range</code> request validated by <code>If-Range</code>.
+ */
+public class HttpWagonResumeTest extends HttpWagonHttpServerTestCase {
+    private static final byte[] CONTENT = "0123456789abcdefghijklmnopqrstuvwxyz".getBytes(StandardCharsets.US_ASCII);
+
+    private static final String ENTITY_TAG = "\"v1\"";
+
+    private final List<String> ranges = new ArrayList<>();
+
+    private File directory;
+
+    private File destination;
+
+    private HttpWagon wagon;
+
+    @BeforeEach
+    protected void setUp() throws Exception {
+        context.addServlet(new ServletHolder(new RangeServlet(ranges)), "/*");
+        startServer();
+
+        directory = Files.createTempDirectory("wagon-resume").toFile();
+        destination = new File(directory, "resource");
+
+        wagon = (HttpWagon) getWagon();
+        wagon.setResumableGet(true);
+        wagon.connect(new Repository("id", "http://localhost:" + getPort()));
+    }
+
+    @AfterEach
+    protected void tearDown() throws Exception {
+        wagon.disconnect();
+        stopServer();
+        for (File file : directory.listFiles()) {
+            file.delete();
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void testResumeUnchangedResource() throws Exception {
+        writePartialDownload(ENTITY_TAG);
+
+        wagon.get("resource", destination);
+
+        assertEquals(Arrays.asList("bytes=10- if " + ENTITY_TAG), ranges);
+        assertArrayEquals(CONTENT, Files.readAllBytes(destination.toPath()));
+        assertArrayEquals(new String[] {"resource"}, directory.list());
+    }
+
+    @Test
+    public void testRestartChangedResource() throws Exception {
+        writePartialDownload("\"v0\"");
+
+        wagon.get("resource", destination);
+
+        assertEquals(Arrays.asList("bytes=10- if \"v0\""), ranges);
+        assertArrayEquals(CONTENT, Files.readAllBytes(destination.toPath()));
+        assertArrayEquals(new String[] {"resource"}, directory.list());
+    }
+
+    private void writePartialDownload(String entityTag) throws IOException {
+        Files.write(new File(directory, "resource.part").toPath(), Arrays.copyOf(CONTENT, 10));
+        String validators = "entityTag=" + entityTag + "\ncontentLength=" + CONTENT.length + "\n";
+        Files.write(new File(directory, "resource.part.properties").toPath(), validators.getBytes());
+    }
+
+    private static class RangeServlet extends HttpServlet {
+        private static final long serialVersionUID = 1L;
+
+        private final transient List<String> ranges;
+
+        RangeServlet(List<String> ranges) {
+            this.ranges = ranges;
+        }
+
+        @Override
+        protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+            response.setHeader("ETag", ENTITY_TAG);
+
+            String range = request.getHeader("Range");
+            if (range == null) {
+                response.setContentLength(CONTENT.length);
+                response.getOutputStream().write(CONTENT);
+                return;
+            }
+
+            String ifRange = request.getHeader("If-Range");
+            ranges.add(range + " if " + ifRange);
+            if (!ENTITY_TAG.equals(ifRange)) {
+                // the partial data is stale, send the whole resource
+                response.setContentLength(CONTENT.length);
+                response.getOutputStream().write(CONTENT);
+                return;
+            }
+
+            int first = Integer.parseInt(range.substring("bytes=".length(), range.indexOf('-')));
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(
+                    "Content-Range", "bytes " + first + "-" + (CONTENT.length - 1) + "/" + CONTENT.length);
+            response.setContentLength(CONTENT.length - first);
+            response.getOutputStream().write(CONTENT, first, CONTENT.length - first);
+        }
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.wagon.providers.http;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.maven.wagon.events.TransferEvent;
+import org.apache.maven.wagon.observers.AbstractTransferListener;
+import org.apache.maven.wagon.observers.ChecksumObserver;
+import org.apache.maven.wagon.repository.Repository;
+import org.eclipse.jetty.servlet.ServletHolder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Downloading a large resource in several byte ranges at once.
+ */
+public class HttpWagonSegmentedDownloadTest extends HttpWagonHttpServerTestCase {
+    private static final byte[] CONTENT = new byte[3 * 1024 * 1024 + 17];
+
+    private static final String ENTITY_TAG = "\"v1\"";
+
+    static {
+        new Random(0L).nextBytes(CONTENT);
+    }
+
+    private final List<String> ranges = new CopyOnWriteArrayList<>();
+
+    private final RangeServlet servlet = new RangeServlet(ranges);
+
+    private File destination;
+
+    private HttpWagon wagon;
+
+    @BeforeEach
+    protected void setUp() throws Exception {
+        context.addServlet(new ServletHolder(servlet), "/*");
+        startServer();
+
+        destination = File.createTempFile("wagon-segmented", ".tmp");
+
+        wagon = (HttpWagon) getWagon();
+        wagon.setSegmentedDownload(1024L * 1024L, 4);
+        wagon.connect(new Repository("id", "http://localhost:" + getPort()));
+    }
+
+    @AfterEach
+    protected void tearDown() throws Exception {
+        wagon.disconnect();
+        stopServer();
+        destination.delete();
+    }
+
+    @Test
+    public void testSegmentedDownload() throws Exception {
+        ChecksumObserver checksumObserver = new ChecksumObserver("SHA-1");
+        wagon.addTransferListener(checksumObserver);
+
+        wagon.get("resource", destination);
+
+        assertArrayEquals(CONTENT, Files.readAllBytes(destination.toPath()));
+        Collections.sort(ranges);
+        // the get asks for the first range, the rest is split in segments of at least 1 MiB
+        assertEquals(3, ranges.size());
+        assertEquals("bytes=0-1048575", ranges.get(0));
+        assertEquals("bytes=1048576-2097160", ranges.get(1));
+        assertEquals("bytes=2097161-3145744", ranges.get(2));
+        assertEquals(0, servlet.heads.get());
+        // the listeners are notified of the content in order
+        assertEquals(
+                String.format("%040x", new BigInteger(1, MessageDigest.getInstance("SHA-1").digest(CONTENT))),
+                checksumObserver.getActualChecksum());
+    }
+
+    @Test
+    public void testProgressIsNotifiedBeforeAllSegmentsAreDownloaded() throws Exception {
+        CountDownLatch progressed = new CountDownLatch(1);
+        servlet.progressed = progressed;
+        AtomicInteger notified = new AtomicInteger();
+        wagon.addTransferListener(new AbstractTransferListener() {
+            @Override
+            public void transferProgress(TransferEvent transferEvent, byte[] buffer, int length) {
+                notified.addAndGet(length);
+                progressed.countDown();
+            }
+        });
+
+        wagon.get("resource", destination);
+
+        assertArrayEquals(CONTENT, Files.readAllBytes(destination.toPath()));
+        // the other segments were only served once the first one was notified
+        assertEquals(Collections.nCopies(2, true), servlet.waited);
+        assertEquals(CONTENT.length, notified.get());
+    }
+
+    @Test
+    public void testSingleRequestWithoutAcceptRanges() throws Exception {
+        servlet.acceptRanges = false;
+
+        wagon.get("resource", destination);
+
+        assertArrayEquals(CONTENT, Files.readAllBytes(destination.toPath()));
+        assertEquals(Collections.emptyList(), ranges);
+    }
+
+    @Test
+    public void testSingleRequestBelowThreshold() throws Exception {
+        wagon.setSegmentedDownload(CONTENT.length, 4);
+
+        wagon.get("resource", destination);
+
+        assertArrayEquals(CONTENT, Files.readAllBytes(destination.toPath()));
+        // the range of the get covers the whole resource
+        assertEquals(Collections.singletonList("bytes=0-" + (CONTENT.length - 1)), ranges);
+    }
+
+    private static class RangeServlet extends HttpServlet {
+        private static final long serialVersionUID = 1L;
+
+        private final transient List<String> ranges;
+
+        private final transient AtomicInteger heads = new AtomicInteger();
+
+        private final transient List<Boolean> waited = new CopyOnWriteArrayList<>();
+
+        private volatile boolean acceptRanges = true;
+
+        /**
+         * Awaited before serving the ranges requested with <code>If-Range</code>, unless <code>null</code>.
+         */
+        private transient volatile CountDownLatch progressed;
+
+        RangeServlet(List<String> ranges) {
+            this.ranges = ranges;
+        }
+
+        @Override
+        protected void doHead(HttpServletRequest request, HttpServletResponse response) {
+            heads.incrementAndGet();
+            response.setHeader("ETag", ENTITY_TAG);
+            response.setContentLength(CONTENT.length);
+        }
+
+        @Override
+        protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+            response.setHeader("ETag", ENTITY_TAG);
+
+            String range = request.getHeader("Range");
+            String ifRange = request.getHeader("If-Range");
+            if (range == null || !acceptRanges || ifRange != null && !ENTITY_TAG.equals(ifRange)) {
+                response.setContentLength(CONTENT.length);
+                response.getOutputStream().write(CONTENT);
+                return;
+            }
+            if (ifRange != null && progressed != null) {
+                try {
+                    waited.add(progressed.await(10L, TimeUnit.SECONDS));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            ranges.add(range);
+            int dash = range.indexOf('-');
+            int first = Integer.parseInt(range.substring("bytes=".length(), dash));
+            int last = Math.min(Integer.parseInt(range.substring(dash + 1)), CONTENT.length - 1);
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader("Content-Range", "bytes " + first + "-" + last + "/" + CONTENT.length);
+            response.setContentLength(last - first + 1);
+            response.getOutputStream().write(CONTENT, first, last - first + 1);
+        }
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.wagon.providers.http2;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.net.http.HttpResponse.BodySubscriber;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The content of a response, streamed as it arrives, whose reads fail once nothing arrived for the read timeout. The
+ * timeout of a JDK {@link java.net.http.HttpRequest HttpRequest} only runs until the response headers, so a server
+ * stalling in the middle of the content would otherwise block the transfer forever.
+ * <p>
+ * The content is requested from the client one list of buffers at a time, as the previous one is read.
+ */
+final class ContentStream extends InputStream implements BodySubscriber<InputStream> {
+    private static final Object END = new Object();
+
+    private final long readTimeout;
+
+    /**
+     * The lists of buffers received, then {@link #END} or the failure of the response.
+     */
+    private final BlockingQueue<Object> received = new LinkedBlockingQueue<>();
+
+    private volatile Flow.Subscription subscription;
+
+    private volatile boolean closed;
+
+    private Iterator<ByteBuffer> buffers = Collections.emptyIterator();
+
+    private ByteBuffer current;
+
+    private boolean ended;
+
+    private IOException failure;
+
+    /**
+     * @param readTimeout the longest wait for content, in milliseconds; <code>0</code> or less for none
+     */
+    ContentStream(int readTimeout) {
+        this.readTimeout = readTimeout;
+    }
+
+    @Override
+    public CompletionStage<InputStream> getBody() {
+        return CompletableFuture.completedFuture(this);
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        if (closed) {
+            subscription.cancel();
+        } else {
+            subscription.request(1L);
+        }
+    }
+
+    @Override
+    public void onNext(List<ByteBuffer> item) {
+        received.offer(item);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        received.offer(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+        received.offer(END);
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] b = new byte[1];
+        return read(b, 0, 1) == -1 ? -1 : b[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (closed) {
+            throw new IOException("The content stream is closed");
+        }
+        if (len == 0) {
+            return 0;
+        }
+        while (current == null || !current.hasRemaining()) {
+            if (buffers.hasNext()) {
+                current = buffers.next();
+            } else if (!receive()) {
+                return -1;
+            }
+        }
+        int n = Math.min(len, current.remaining());
+        current.get(b, off, n);
+        return n;
+    }
+
+    @Override
+    public int available() {
+        return current != null ? current.remaining() : 0;
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        Flow.Subscription s = subscription;
+        if (s != null && !ended) {
+            s.cancel();
+        }
+    }
+
+    /**
+     * Waits for the next list of buffers.
+     *
+     * @return <code>false</code> at the end of the content
+     */
+    @SuppressWarnings("unchecked")
+    private boolean receive() throws IOException {
+        if (failure != null) {
+            throw failure;
+        }
+        if (ended) {
+            return false;
+        }
+        Object item;
+        try {
+            item = readTimeout > 0L ? received.poll(readTimeout, TimeUnit.MILLISECONDS) : received.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            close();
+            throw new InterruptedIOException("Interrupted while reading the content");
+        }
+        if (item == null) {
+            close();
+            throw new SocketTimeoutException("Read timed out: no content received for " + readTimeout + " ms");
+        }
+        if (item instanceof Throwable) {
+            ended = true;
+            failure = item instanceof IOException ? (IOException) item : new IOException((Throwable) item);
+            throw failure;
+        }
+        if (item == END) {
+            ended = true;
+            return false;
+        }
+        buffers = ((List<ByteBuffer>) item).iterator();
+        subscription.request(1L);
+        return true;
+    }
+}
@@ -0,0 +1,284 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.wagon.providers.http2;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLException;
+import javax.net.ssl.X509ExtendedTrustManager;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.Authenticator;
+import java.net.InetSocketAddress;
+import java.net.PasswordAuthentication;
+import java.net.ProxySelector;
+import java.net.Socket;
+import java.net.http.HttpClient;
+import java.security.GeneralSecurityException;
+import java.security.cert.CertificateException;
+import java.security.cert.X509Certificate;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.http.conn.ssl.DefaultHostnameVerifier;
+import org.apache.maven.wagon.proxy.ProxyInfo;
+import org.apache.maven.wagon.shared.http.RelaxedTrustStrategy;
+
+/**
+ * The JDK HTTP clients of the wagons of this JVM, one per connection settings. A client keeps a single connection per
+ * host for HTTP/2 and multiplexes the requests of all the wagons sharing it as streams over that connection. It is
+ * held as long as a connected wagon uses it, and shut down once the last one disconnects.
+ * <p>
+ * The clients follow the <code>maven.wagon.http.ssl.insecure</code>,
+ * <code>maven.wagon.http.ssl.ignore.validity.dates</code> and <code>maven.wagon.http.ssl.allowall</code> system
+ * properties like the other HTTP providers. Their HTTP/2 flow control only has the JVM-wide
+ * <code>jdk.httpclient</code> system properties, which are left to the user.
+ */
+final class Http2Clients {
+    /**
+     * Trust any certificate, within its validity dates unless {@link #IGNORE_SSL_VALIDITY_DATES}.
+     * <b>disabled by default</b>
+     */
+    private static final boolean SSL_INSECURE = Boolean.getBoolean("maven.wagon.http.ssl.insecure");
+
+    /**
+     * If using {@link #SSL_INSECURE}, certificate date issues will be ignored.
+     * <b>disabled by default</b>
+     */
+    private static final boolean IGNORE_SSL_VALIDITY_DATES =
+            Boolean.getBoolean("maven.wagon.http.ssl.ignore.validity.dates");
+
+    /**
+     * If using {@link #SSL_INSECURE}, the host name is not checked against the certificate.
+     * <b>disabled by default</b>
+     */
+    private static final boolean SSL_ALLOW_ALL = Boolean.getBoolean("maven.wagon.http.ssl.allowall");
+
+    /**
+     * <code>HttpClient.shutdown()</code>, from Java 21 on; before, a client is stopped once unreachable.
+     */
+    private static final Method SHUTDOWN = shutdownMethod();
+
+    private static final Map<List<Object>, SharedClient> CLIENTS = new HashMap<>();
+
+    private Http2Clients() {}
+
+    /**
+     * Leases the client of the settings, to be given back with {@link #release(HttpClient)} on disconnection.
+     *
+     * @param connectTimeout the connection timeout, in milliseconds; <code>0</code> or less for none
+     * @param proxyInfo      the HTTP proxy to connect through, or <code>null</code> to connect directly
+     * @return the client of these settings
+     */
+    static HttpClient acquire(int connectTimeout, ProxyInfo proxyInfo) {
+        List<Object> key = proxyInfo == null
+                ? Arrays.asList(connectTimeout)
+                : Arrays.asList(
+                        connectTimeout,
+                        proxyInfo.getHost(),
+                        proxyInfo.getPort(),
+                        proxyInfo.getUserName(),
+                        proxyInfo.getPassword());
+        synchronized (CLIENTS) {
+            SharedClient shared = CLIENTS.get(key);
+            if (shared == null) {
+                shared = new SharedClient(newClient(connectTimeout, proxyInfo));
+                CLIENTS.put(key, shared);
+            }
+            shared.users++;
+            return shared.client;
+        }
+    }
+
+    /**
+     * Gives a client obtained from {@link #acquire(int, ProxyInfo)} back, shutting it down if no wagon uses it any
+     * more. The requests in flight are completed first.
+     *
+     * @param client the client
+     */
+    static void release(HttpClient client) {
+        synchronized (CLIENTS) {
+            for (Iterator<SharedClient> it = CLIENTS.values().iterator(); it.hasNext(); ) {
+                SharedClient shared = it.next();
+                if (shared.client == client) {
+                    if (--shared.users == 0) {
+                        it.remove();
+                        shutdown(client);
+                    }
+                    return;
+                }
+            }
+        }
+    }
+
+    private static HttpClient newClient(int connectTimeout, ProxyInfo proxyInfo) {
+        // redirects and server authentication are handled by the wagon, which knows its limits and credentials
+        HttpClient.Builder builder = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .followRedirects(HttpClient.Redirect.NEVER);
+        if (connectTimeout > 0) {
+            builder.connectTimeout(Duration.ofMillis(connectTimeout));
+        }
+        if (proxyInfo != null) {
+            InetSocketAddress proxy = InetSocketAddress.createUnresolved(proxyInfo.getHost(), proxyInfo.getPort());
+            builder.proxy(ProxySelector.of(proxy));
+            if (proxyInfo.getUserName() != null) {
+                builder.authenticator(new ProxyAuthenticator(proxyInfo));
+            }
+        }
+        if (SSL_INSECURE) {
+            builder.sslContext(newInsecureSslContext());
+        }
+        return builder.build();
+    }
+
+    private static SSLContext newInsecureSslContext() {
+        try {
+            RelaxedTrustManager trustManager = new RelaxedTrustManager(IGNORE_SSL_VALIDITY_DATES, SSL_ALLOW_ALL);
+            SSLContext sslContext = SSLContext.getInstance("TLS");
+            sslContext.init(null, new RelaxedTrustManager[] {trustManager}, null);
+            return sslContext;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot initialize the insecure SSL context: " + e.getMessage(), e);
+        }
+    }
+
+    private static void shutdown(HttpClient client) {
+        if (SHUTDOWN != null) {
+            try {
+                SHUTDOWN.invoke(client);
+            } catch (IllegalAccessException | InvocationTargetException e) {
+                // released once unreachable, as before Java 21
+            }
+        }
+    }
+
+    private static Method shutdownMethod() {
+        try {
+            return HttpClient.class.getMethod("shutdown");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    private static final class SharedClient {
+        private final HttpClient client;
+
+        private int users;
+
+        SharedClient(HttpClient client) {
+            this.client = client;
+        }
+    }
+
+    /**
+     * Trusts the server certificates like the {@link RelaxedTrustStrategy} of the other HTTP providers. Unlike the
+     * trust manager of the JDK, it verifies the host name itself, with the verifier of the HttpClient of the other
+     * providers, unless all host names are allowed.
+     */
+    static final class RelaxedTrustManager extends X509ExtendedTrustManager {
+        private final RelaxedTrustStrategy trustStrategy;
+
+        private final boolean allowAll;
+
+        RelaxedTrustManager(boolean ignoreValidityDates, boolean allowAll) {
+            this.trustStrategy = new RelaxedTrustStrategy(ignoreValidityDates);
+            this.allowAll = allowAll;
+        }
+
+        @Override
+        public void checkServerTrusted(X509Certificate[] chain, String authType) throws CertificateException {
+            if (!trustStrategy.isTrusted(chain, authType)) {
+                throw new CertificateException("The server sent no certificate");
+            }
+        }
+
+        @Override
+        public void checkServerTrusted(X509Certificate[] chain, String authType, SSLEngine engine)
+                throws CertificateException {
+            checkServerTrusted(chain, authType);
+            checkHost(chain, engine != null ? engine.getPeerHost() : null);
+        }
+
+        @Override
+        public void checkServerTrusted(X509Certificate[] chain, String authType, Socket socket)
+                throws CertificateException {
+            checkServerTrusted(chain, authType);
+            checkHost(chain, socket != null ? socket.getInetAddress().getHostName() : null);
+        }
+
+        @Override
+        public void checkClientTrusted(X509Certificate[] chain, String authType) throws CertificateException {
+            throw new CertificateException("Client certificates are not trusted");
+        }
+
+        @Override
+        public void checkClientTrusted(X509Certificate[] chain, String authType, SSLEngine engine)
+                throws CertificateException {
+            checkClientTrusted(chain, authType);
+        }
+
+        @Override
+        public void checkClientTrusted(X509Certificate[] chain, String authType, Socket socket)
+                throws CertificateException {
+            checkClientTrusted(chain, authType);
+        }
+
+        @Override
+        public X509Certificate[] getAcceptedIssuers() {
+            return new X509Certificate[0];
+        }
+
+        private void checkHost(X509Certificate[] chain, String host) throws CertificateException {
+            if (allowAll) {
+                return;
+            }
+            if (host == null) {
+                throw new CertificateException("The host name of the server is not known, it cannot be verified");
+            }
+            try {
+                new DefaultHostnameVerifier().verify(host, chain[0]);
+            } catch (SSLException e) {
+                throw new CertificateException(e.getMessage(), e);
+            }
+        }
+    }
+
+    private static final class ProxyAuthenticator extends Authenticator {
+        private final ProxyInfo proxyInfo;
+
+        ProxyAuthenticator(ProxyInfo proxyInfo) {
+            this.proxyInfo = proxyInfo;
+        }
+
+        @Override
+        protected PasswordAuthentication getPasswordAuthentication() {
+            if (getRequestorType() != RequestorType.PROXY) {
+                return null;
+            }
+            String password = proxyInfo.getPassword() != null ? proxyInfo.getPassword() : "";
+            return new PasswordAuthentication(proxyInfo.getUserName(), password.toCharArray());
+        }
+    }
+}
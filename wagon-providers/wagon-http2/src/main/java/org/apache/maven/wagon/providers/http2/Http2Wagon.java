@@ -0,0 +1,576 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.wagon.providers.http2;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.net.HttpURLConnection;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublisher;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandler;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.net.http.HttpResponse.BodySubscribers;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BooleanSupplier;
+import java.util.zip.GZIPInputStream;
+
+import org.apache.maven.wagon.ConnectionException;
+import org.apache.maven.wagon.InputData;
+import org.apache.maven.wagon.OutputData;
+import org.apache.maven.wagon.ResourceDoesNotExistException;
+import org.apache.maven.wagon.StreamWagon;
+import org.apache.maven.wagon.TransferFailedException;
+import org.apache.maven.wagon.WagonException;
+import org.apache.maven.wagon.authentication.AuthenticationException;
+import org.apache.maven.wagon.authorization.AuthorizationException;
+import org.apache.maven.wagon.proxy.ProxyInfo;
+import org.apache.maven.wagon.resource.Resource;
+import org.apache.maven.wagon.shared.http.EncodingUtil;
+
+import static org.apache.maven.wagon.shared.http.HttpMessageUtils.UNKNOWN_STATUS_CODE;
+import static org.apache.maven.wagon.shared.http.HttpMessageUtils.formatAuthorizationMessage;
+import static org.apache.maven.wagon.shared.http.HttpMessageUtils.formatResourceDoesNotExistMessage;
+import static org.apache.maven.wagon.shared.http.HttpMessageUtils.formatTransferDebugMessage;
+import static org.apache.maven.wagon.shared.http.HttpMessageUtils.formatTransferFailedMessage;
+
+/**
+ * Wagon provider built on the JDK {@link HttpClient}. It negotiates HTTP/2 with the server, through ALPN over TLS or
+ * an upgrade of cleartext connections, and falls back to HTTP/1.1 otherwise.
+ * <p>
+ * The wagons share their {@link Http2Clients clients}, so that all the requests to a host are multiplexed as streams
+ * over a single connection, including the concurrent transfers of a single wagon. The response bodies are received
+ * asynchronously by the client, within its flow control windows, and queued to a {@link ContentStream} as they arrive.
+ * They are not written straight to the channel of the destination file: the transfer loop of {@link StreamWagon}
+ * copies them from that stream, like for the other stream wagons, so that the progress, the checksums and the
+ * transfer scheduling apply unchanged.
+ *
+ * @since 4.0.0
+ */
+public class Http2Wagon extends StreamWagon {
+    public static final int MAX_REDIRECTS = 10;
+
+    /**
+     * The request body buffered between a put and the client sending it.
+     */
+    private static final int PUT_PIPE_SIZE = 64 * 1024;
+
+    /**
+     * The start of a request body kept to send it again after a redirect or an authentication challenge.
+     */
+    private static final int PUT_REPLAY_BUFFER_SIZE = 1024 * 1024;
+
+    private static final DateTimeFormatter HTTP_DATE_FORMAT =
+            DateTimeFormatter.ofPattern("EEE, dd MMM yyyy HH:mm:ss 'GMT'", Locale.US)
+                    .withZone(ZoneOffset.UTC);
+
+    private boolean preemptiveAuthentication;
+
+    private Properties httpHeaders;
+
+    private HttpClient client;
+
+    private final Map<Resource, PendingPut> pendingPuts = Collections.synchronizedMap(new IdentityHashMap<>());
+
+    /**
+     * Builds a complete URL string from the repository URL and the relative path of the resource passed.
+     *
+     * @param resource the resource to extract the relative path from.
+     * @return the complete URL
+     */
+    private String buildUrl(Resource resource) {
+        return EncodingUtil.encodeURLToString(getRepository().getUrl(), resource.getName());
+    }
+
+    @Override
+    protected void openConnectionInternal() throws ConnectionException, AuthenticationException {
+        ProxyInfo proxyInfo = getProxyInfo(getRepository().getProtocol(), getRepository().getHost());
+        if (proxyInfo != null) {
+            if (ProxyInfo.PROXY_SOCKS4.equals(proxyInfo.getType())
+                    || ProxyInfo.PROXY_SOCKS5.equals(proxyInfo.getType())) {
+                throw new ConnectionException("The JDK HttpClient does not support SOCKS proxies: " + proxyInfo);
+            }
+            this.proxyInfo = proxyInfo;
+        }
+
+        client = Http2Clients.acquire(getTimeout(), proxyInfo);
+
+        boolean usePreemptiveAuthentication = Boolean.getBoolean("maven.wagon.http.preemptiveAuthentication")
+                || Boolean.parseBoolean(repository.getParameter("preemptiveAuthentication"))
+                || this.preemptiveAuthentication;
+
+        setPreemptiveAuthentication(usePreemptiveAuthentication);
+    }
+
+    @Override
+    public void closeConnection() {
+        // the client is shared, only the puts that were not finished belong to this wagon
+        synchronized (pendingPuts) {
+            for (PendingPut pendingPut : pendingPuts.values()) {
+                pendingPut.abort();
+            }
+            pendingPuts.clear();
+        }
+        if (client != null) {
+            Http2Clients.release(client);
+            client = null;
+        }
+    }
+
+    @Override
+    protected boolean supportsConcurrentTransfers() {
+        // every transfer is a stream of its own, only the client is shared
+        return true;
+    }
+
+    @Override
+    public void fillInputData(InputData inputData)
+            throws TransferFailedException, ResourceDoesNotExistException, AuthorizationException {
+        Resource resource = inputData.getResource();
+        String url = buildUrl(resource);
+
+        HttpRequest.Builder request = newRequest(false).GET().header("Accept-Encoding", "gzip");
+        long timestamp = resource.getLastModified();
+        if (timestamp > 0) {
+            request.header("If-Modified-Since", HTTP_DATE_FORMAT.format(Instant.ofEpochMilli(timestamp)));
+        }
+        if (resource.getEntityTag() != null) {
+            // takes precedence over If-Modified-Since
+            request.header("If-None-Match", resource.getEntityTag());
+        }
+
+        // only the content is streamed, the bodies of the other responses are discarded
+        HttpResponse<InputStream> response = execute(
+                request,
+                url,
+                info -> info.statusCode() == HttpURLConnection.HTTP_OK
+                        ? new ContentStream(getReadTimeout())
+                        : BodySubscribers.replacing(null));
+        int statusCode = response.statusCode();
+        fireTransferDebug(formatTransferDebugMessage(url, statusCode, null, getProxyInfo()));
+
+        switch (statusCode) {
+            case HttpURLConnection.HTTP_OK:
+                break;
+
+            case HttpURLConnection.HTTP_NOT_MODIFIED:
+                // return, leaving last modified set to original value so getIfNewer should return unmodified
+                return;
+
+            // TODO Move 401/407 to AuthenticationException after WAGON-587
+            case HttpURLConnection.HTTP_FORBIDDEN:
+            case HttpURLConnection.HTTP_UNAUTHORIZED:
+            case HttpURLConnection.HTTP_PROXY_AUTH:
+                fireSessionConnectionRefused();
+                throw new AuthorizationException(formatAuthorizationMessage(url, statusCode, null, getProxyInfo()));
+
+            case HttpURLConnection.HTTP_NOT_FOUND:
+            case HttpURLConnection.HTTP_GONE:
+                throw new ResourceDoesNotExistException(
+                        formatResourceDoesNotExistMessage(url, statusCode, null, getProxyInfo()));
+
+            default:
+                throw new TransferFailedException(formatTransferFailedMessage(url, statusCode, null, getProxyInfo()));
+        }
+
+        InputStream content = response.body();
+        if ("gzip".equalsIgnoreCase(response.headers().firstValue("Content-Encoding").orElse(null))) {
+            try {
+                content = new GZIPInputStream(content);
+            } catch (IOException e) {
+                throw new TransferFailedException(
+                        formatTransferFailedMessage(url, statusCode, null, getProxyInfo()), e);
+            }
+        } else {
+            // the length of the encoded content is not the length of the resource
+            response.headers().firstValueAsLong("Content-Length").ifPresent(resource::setContentLength);
+        }
+
+        Optional<String> lastModified = response.headers().firstValue("Last-Modified");
+        if (lastModified.isPresent()) {
+            try {
+                resource.setLastModified(ZonedDateTime.parse(lastModified.get(), DateTimeFormatter.RFC_1123_DATE_TIME)
+                        .toInstant()
+                        .toEpochMilli());
+            } catch (DateTimeParseException e) {
+                fireTransferDebug("error parsing last-modified header '" + lastModified.get() + "' " + e);
+            }
+        }
+
+        resource.setEntityTag(response.headers().firstValue("ETag").orElse(null));
+
+        inputData.setInputStream(content);
+    }
+
+    @Override
+    public void fillOutputData(OutputData outputData) throws TransferFailedException {
+        Resource resource = outputData.getResource();
+        String url = buildUrl(resource);
+
+        // the body is written to the pipe by the transfer while the client sends it
+        PipedInputStream body = new PipedInputStream(PUT_PIPE_SIZE);
+        OutputStream output;
+        try {
+            output = new PipedOutputStream(body);
+        } catch (IOException e) {
+            throw new TransferFailedException("Error transferring file: " + e.getMessage(), e);
+        }
+
+        ReplayableBody replayableBody = new ReplayableBody(body, PUT_REPLAY_BUFFER_SIZE);
+        long contentLength = resource.getContentLength();
+        BodyPublisher publisher = BodyPublishers.ofInputStream(replayableBody::open);
+        if (contentLength == 0L) {
+            publisher = BodyPublishers.noBody();
+        } else if (contentLength > 0L) {
+            publisher = BodyPublishers.fromPublisher(publisher, contentLength);
+        }
+
+        // redirects and challenges are followed as long as what was sent of the body can be sent again
+        CompletableFuture<HttpResponse<Void>> response = exchange(
+                newRequest(true).PUT(publisher),
+                toUri(url),
+                BodyHandlers.discarding(),
+                preemptiveAuthentication,
+                new ArrayList<>(),
+                replayableBody::isReplayable);
+        PendingPut pendingPut = new PendingPut(body, response);
+        // the transfer must not block on a full pipe once the client stopped reading it
+        response.whenComplete((result, failure) -> pendingPut.abort());
+        pendingPuts.put(resource, pendingPut);
+
+        outputData.setOutputStream(output);
+    }
+
+    @Override
+    protected void finishPutTransfer(Resource resource, InputStream input, OutputStream output)
+            throws TransferFailedException, AuthorizationException, ResourceDoesNotExistException {
+        String url = buildUrl(resource);
+        PendingPut pendingPut = pendingPuts.remove(resource);
+
+        HttpResponse<Void> response;
+        try {
+            // the end of the request body, from which the server has the read timeout to answer
+            output.close();
+            response = getReadTimeout() > 0
+                    ? pendingPut.response.get(getReadTimeout(), TimeUnit.MILLISECONDS)
+                    : pendingPut.response.get();
+        } catch (IOException e) {
+            throw new TransferFailedException(formatTransferFailedMessage(url, getProxyInfo()), e);
+        } catch (TimeoutException e) {
+            pendingPut.response.cancel(true);
+            throw new TransferFailedException(
+                    formatTransferFailedMessage(url, getProxyInfo()),
+                    new SocketTimeoutException("Read timed out: no response within " + getReadTimeout() + " ms"));
+        } catch (ExecutionException e) {
+            throw new TransferFailedException(formatTransferFailedMessage(url, getProxyInfo()), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pendingPut.abort();
+            throw new TransferFailedException(formatTransferFailedMessage(url, getProxyInfo()), e);
+        }
+
+        int statusCode = response.statusCode();
+        fireTransferDebug(formatTransferDebugMessage(url, statusCode, null, getProxyInfo()));
+
+        switch (statusCode) {
+            // Success Codes
+            case HttpURLConnection.HTTP_OK: // 200
+            case HttpURLConnection.HTTP_CREATED: // 201
+            case HttpURLConnection.HTTP_ACCEPTED: // 202
+            case HttpURLConnection.HTTP_NO_CONTENT: // 204
+                break;
+
+            // TODO Move 401/407 to AuthenticationException after WAGON-587
+            case HttpURLConnection.HTTP_FORBIDDEN:
+            case HttpURLConnection.HTTP_UNAUTHORIZED:
+            case HttpURLConnection.HTTP_PROXY_AUTH:
+                throw new AuthorizationException(formatAuthorizationMessage(url, statusCode, null, getProxyInfo()));
+
+            case HttpURLConnection.HTTP_NOT_FOUND:
+            case HttpURLConnection.HTTP_GONE:
+                throw new ResourceDoesNotExistException(
+                        formatResourceDoesNotExistMessage(url, statusCode, null, getProxyInfo()));
+
+            // add more entries here
+            default:
+                throw new TransferFailedException(formatTransferFailedMessage(url, statusCode, null, getProxyInfo()));
+        }
+    }
+
+    @Override
+    protected void cleanupPutTransfer(Resource resource) {
+        // a put that failed before it was finished must not send what was written of its body so far
+        PendingPut pendingPut = pendingPuts.remove(resource);
+        if (pendingPut != null) {
+            pendingPut.abort();
+        }
+    }
+
+    @Override
+    public boolean resourceExists(String resourceName) throws TransferFailedException, AuthorizationException {
+        String url = buildUrl(new Resource(resourceName));
+        HttpResponse<Void> response =
+                execute(newRequest(false).method("HEAD", BodyPublishers.noBody()), url, BodyHandlers.discarding());
+        return exists(url, response);
+    }
+
+    /**
+     * Sends the request without blocking a thread until the response arrives.
+     */
+    @Override
+    public CompletableFuture<Boolean> resourceExistsAsync(String resourceName) {
+        String url = buildUrl(new Resource(resourceName));
+        CompletableFuture<HttpResponse<Void>> response;
+        try {
+            response = exchange(
+                    newRequest(false).method("HEAD", BodyPublishers.noBody()),
+                    toUri(url),
+                    BodyHandlers.discarding(),
+                    preemptiveAuthentication,
+                    new ArrayList<>(),
+                    () -> true);
+        } catch (TransferFailedException e) {
+            CompletableFuture<Boolean> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            return failed;
+        }
+        return response.handle((result, failure) -> {
+            try {
+                if (failure != null) {
+                    throw transferFailed(url, failure);
+                }
+                return exists(url, result);
+            } catch (WagonException e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    private boolean exists(String url, HttpResponse<?> response)
+            throws TransferFailedException, AuthorizationException {
+        int statusCode = response.statusCode();
+        switch (statusCode) {
+            case HttpURLConnection.HTTP_OK:
+                return true;
+
+            case HttpURLConnection.HTTP_NOT_FOUND:
+            case HttpURLConnection.HTTP_GONE:
+                return false;
+
+            // TODO Move 401/407 to AuthenticationException after WAGON-587
+            case HttpURLConnection.HTTP_FORBIDDEN:
+            case HttpURLConnection.HTTP_UNAUTHORIZED:
+            case HttpURLConnection.HTTP_PROXY_AUTH:
+                throw new AuthorizationException(formatAuthorizationMessage(url, statusCode, null, getProxyInfo()));
+
+            default:
+                throw new TransferFailedException(formatTransferFailedMessage(url, statusCode, null, getProxyInfo()));
+        }
+    }
+
+    /**
+     * @param withBody whether the request sends a body, which the timeout until the response headers would include:
+     *                 the read timeout of a put only runs once its body is sent, see
+     *                 {@link #finishPutTransfer(Resource, InputStream, OutputStream)}
+     */
+    private HttpRequest.Builder newRequest(boolean withBody) {
+        HttpRequest.Builder request = HttpRequest.newBuilder();
+        if (getReadTimeout() > 0 && !withBody) {
+            // until the response headers, the content has the read timeout of its ContentStream
+            request.timeout(Duration.ofMillis(getReadTimeout()));
+        }
+        if (proxyInfo != null && "http".equals(getRepository().getProtocol())) {
+            // what the other providers send, for the proxies that would close HTTP/1.0 connections otherwise
+            request.header("Proxy-Connection", "Keep-Alive");
+        }
+        if (httpHeaders != null) {
+            for (String name : httpHeaders.stringPropertyNames()) {
+                try {
+                    request.setHeader(name, httpHeaders.getProperty(name));
+                } catch (IllegalArgumentException e) {
+                    fireSessionDebug("Ignoring header " + name + ", which the JDK HttpClient sets itself");
+                }
+            }
+        }
+        return request;
+    }
+
+    /**
+     * Sends a request, following its redirects and answering the authentication challenge of the repository, as long
+     * as its body can be sent again.
+     */
+    private <T> HttpResponse<T> execute(HttpRequest.Builder request, String url, BodyHandler<T> bodyHandler)
+            throws TransferFailedException {
+        try {
+            return exchange(request, toUri(url), bodyHandler, preemptiveAuthentication, new ArrayList<>(), () -> true)
+                    .get();
+        } catch (ExecutionException e) {
+            throw transferFailed(url, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TransferFailedException(formatTransferFailedMessage(url, getProxyInfo()), e);
+        }
+    }
+
+    private <T> CompletableFuture<HttpResponse<T>> exchange(
+            HttpRequest.Builder request,
+            URI uri,
+            BodyHandler<T> bodyHandler,
+            boolean authenticate,
+            List<URI> redirects,
+            BooleanSupplier resendable) {
+        HttpRequest.Builder attempt = request.copy().uri(uri);
+        boolean challengeable = !(authenticate && authorize(attempt, uri)) && canAuthorize(uri);
+
+        return client.sendAsync(attempt.build(), bodyHandler).thenCompose(response -> {
+            int statusCode = response.statusCode();
+            if (!resendable.getAsBoolean()) {
+                return CompletableFuture.completedFuture(response);
+            }
+            if (statusCode == HttpURLConnection.HTTP_UNAUTHORIZED && challengeable) {
+                return exchange(request, uri, bodyHandler, true, redirects, resendable);
+            }
+
+            Optional<String> location = response.headers().firstValue("Location");
+            if (isRedirect(statusCode) && location.isPresent()) {
+                URI target = uri.resolve(location.get());
+                // past the limit or in a cycle, the redirect itself is the response
+                if (redirects.size() < MAX_REDIRECTS && !redirects.contains(target)) {
+                    redirects.add(uri);
+                    return exchange(request, target, bodyHandler, authenticate, redirects, resendable);
+                }
+            }
+            return CompletableFuture.completedFuture(response);
+        });
+    }
+
+    private static boolean isRedirect(int statusCode) {
+        switch (statusCode) {
+            case HttpURLConnection.HTTP_MOVED_PERM: // 301
+            case HttpURLConnection.HTTP_MOVED_TEMP: // 302
+            case HttpURLConnection.HTTP_SEE_OTHER: // 303
+            case 307: // Temporary Redirect
+            case 308: // Permanent Redirect
+                return true;
+
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * @return whether the credentials of the repository can be sent to the URI, which they are only to its own host
+     */
+    private boolean canAuthorize(URI uri) {
+        return authenticationInfo != null
+                && authenticationInfo.getUserName() != null
+                && getRepository().getHost().equalsIgnoreCase(uri.getHost());
+    }
+
+    private boolean authorize(HttpRequest.Builder request, URI uri) {
+        if (!canAuthorize(uri)) {
+            return false;
+        }
+        String password = authenticationInfo.getPassword() != null ? authenticationInfo.getPassword() : "";
+        String credentials = authenticationInfo.getUserName() + ":" + password;
+        request.setHeader(
+                "Authorization",
+                "Basic " + Base64.getEncoder().encodeToString(credentials.getBytes(StandardCharsets.UTF_8)));
+        return true;
+    }
+
+    private URI toUri(String url) throws TransferFailedException {
+        try {
+            return URI.create(url);
+        } catch (IllegalArgumentException e) {
+            throw new TransferFailedException("Invalid repository URL: " + e.getMessage(), e);
+        }
+    }
+
+    private TransferFailedException transferFailed(String url, Throwable failure) {
+        Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                ? failure.getCause()
+                : failure;
+        return new TransferFailedException(formatTransferFailedMessage(url, getProxyInfo()), cause);
+    }
+
+    public Properties getHttpHeaders() {
+        return httpHeaders;
+    }
+
+    public void setHttpHeaders(Properties httpHeaders) {
+        this.httpHeaders = httpHeaders;
+    }
+
+    public void setPreemptiveAuthentication(boolean preemptiveAuthentication) {
+        this.preemptiveAuthentication = preemptiveAuthentication;
+    }
+
+    /**
+     * A put whose body is being written by the transfer.
+     */
+    private static final class PendingPut {
+        private final PipedInputStream body;
+
+        private final CompletableFuture<HttpResponse<Void>> response;
+
+        PendingPut(PipedInputStream body, CompletableFuture<HttpResponse<Void>> response) {
+            this.body = body;
+            this.response = response;
+        }
+
+        /**
+         * Fails the reads of the client and the writes of the transfer that are still to come.
+         */
+        void abort() {
+            try {
+                body.close();
+            } catch (IOException ignore) {
+                // a pipe closes without failing
+            }
+        }
+    }
+}
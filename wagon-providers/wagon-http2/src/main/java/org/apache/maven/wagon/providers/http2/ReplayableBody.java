@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.wagon.providers.http2;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * The body of a put, read from the stream of the transfer, that can be sent again as long as what was read of it fits
+ * in a buffer: each attempt to send it reads what the previous attempts read from the buffer, then goes on with the
+ * stream, and the attempts it replaces read nothing more.
+ */
+final class ReplayableBody {
+    private final InputStream source;
+
+    private final int bufferSize;
+
+    private byte[] buffer = new byte[8192];
+
+    private int buffered;
+
+    private int attempts;
+
+    ReplayableBody(InputStream source, int bufferSize) {
+        this.source = source;
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * @return whether the body can be sent again from its beginning
+     */
+    synchronized boolean isReplayable() {
+        return buffer != null;
+    }
+
+    /**
+     * @return the body of a new attempt to send it
+     * @throws IllegalStateException if the body cannot be sent again
+     */
+    synchronized InputStream open() {
+        if (buffer == null) {
+            throw new IllegalStateException("The body was read past its buffer and cannot be sent again");
+        }
+        return new Attempt(++attempts);
+    }
+
+    private synchronized int read(Attempt attempt, byte[] b, int off, int len) throws IOException {
+        if (attempt.number != attempts) {
+            // replaced by a newer attempt
+            return -1;
+        }
+        if (attempt.position < buffered) {
+            int n = Math.min(len, buffered - attempt.position);
+            System.arraycopy(buffer, attempt.position, b, off, n);
+            attempt.position += n;
+            return n;
+        }
+
+        int n = source.read(b, off, len);
+        if (n > 0 && buffer != null) {
+            if (buffered + n <= bufferSize) {
+                if (buffered + n > buffer.length) {
+                    buffer = Arrays.copyOf(buffer, Math.min(bufferSize, Math.max(buffered + n, 2 * buffer.length)));
+                }
+                System.arraycopy(b, off, buffer, buffered, n);
+                buffered += n;
+                attempt.position += n;
+            } else {
+                buffer = null;
+                buffered = 0;
+            }
+        }
+        return n;
+    }
+
+    private final class Attempt extends InputStream {
+        private final int number;
+
+        private int position;
+
+        Attempt(int number) {
+            this.number = number;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            return read(b, 0, 1) == -1 ? -1 : b[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            return ReplayableBody.this.read(this, b, off, len);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.wagon.providers.http2;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ContentStreamTest {
+    private final AtomicLong requested = new AtomicLong();
+
+    private final AtomicBoolean cancelled = new AtomicBoolean();
+
+    @Test
+    public void testContentIsStreamed() throws IOException {
+        ContentStream content = subscribe(new ContentStream(0));
+        assertEquals(1L, requested.get());
+
+        content.onNext(Arrays.asList(buffer("get "), buffer("top ")));
+        content.onNext(Arrays.asList(buffer("secret")));
+        content.onComplete();
+
+        assertArrayEquals("get top secret".getBytes(StandardCharsets.UTF_8), readFully(content));
+        assertEquals(3L, requested.get());
+        assertEquals(-1, content.read());
+    }
+
+    @Test
+    public void testStalledContentTimesOut() throws IOException {
+        ContentStream content = subscribe(new ContentStream(100));
+        content.onNext(Arrays.asList(buffer("get")));
+
+        assertEquals('g', content.read());
+        assertEquals('e', content.read());
+        assertEquals('t', content.read());
+        assertThrows(SocketTimeoutException.class, content::read);
+        assertTrue(cancelled.get());
+    }
+
+    @Test
+    public void testFailureIsNotTheEnd() throws IOException {
+        ContentStream content = subscribe(new ContentStream(0));
+        IOException failure = new IOException("connection reset");
+        content.onNext(Arrays.asList(buffer("get")));
+        content.onError(failure);
+
+        assertEquals(3, content.read(new byte[8]));
+        assertSame(failure, assertThrows(IOException.class, content::read));
+        assertSame(failure, assertThrows(IOException.class, content::read));
+    }
+
+    private ContentStream subscribe(ContentStream content) {
+        content.onSubscribe(new Flow.Subscription() {
+            @Override
+            public void request(long n) {
+                requested.addAndGet(n);
+            }
+
+            @Override
+            public void cancel() {
+                cancelled.set(true);
+            }
+        });
+        return content;
+    }
+
+    private static ByteBuffer buffer(String content) {
+        return ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static byte[] readFully(InputStream input) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        byte[] buffer = new byte[5];
+        int n;
+        while ((n = input.read(buffer)) != -1) {
+            output.write(buffer, 0, n);
+        }
+        return output.toByteArray();
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.wagon.providers.http2;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.net.http.HttpClient;
+import java.security.KeyStore;
+import java.security.cert.CertificateException;
+import java.security.cert.X509Certificate;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class Http2ClientsTest {
+    @Test
+    public void testClientIsSharedWhileUsed() {
+        HttpClient first = Http2Clients.acquire(1234, null);
+        HttpClient second = Http2Clients.acquire(1234, null);
+        assertSame(first, second);
+
+        Http2Clients.release(first);
+        assertSame(first, Http2Clients.acquire(1234, null));
+
+        Http2Clients.release(first);
+        Http2Clients.release(second);
+        HttpClient next = Http2Clients.acquire(1234, null);
+        assertNotSame(first, next);
+        Http2Clients.release(next);
+    }
+
+    @Test
+    public void testRelaxedTrustManager() throws Exception {
+        // the certificate of localhost of the test servers, which expired
+        X509Certificate[] chain = {loadCertificate()};
+        SSLEngine localhost = SSLContext.getDefault().createSSLEngine("localhost", 443);
+        SSLEngine other = SSLContext.getDefault().createSSLEngine("repo.example.org", 443);
+
+        Http2Clients.RelaxedTrustManager insecure = new Http2Clients.RelaxedTrustManager(false, false);
+        assertThrows(CertificateException.class, () -> insecure.checkServerTrusted(chain, "RSA", localhost));
+
+        Http2Clients.RelaxedTrustManager ignoreDates = new Http2Clients.RelaxedTrustManager(true, false);
+        ignoreDates.checkServerTrusted(chain, "RSA", localhost);
+        assertThrows(CertificateException.class, () -> ignoreDates.checkServerTrusted(chain, "RSA", other));
+
+        Http2Clients.RelaxedTrustManager allowAll = new Http2Clients.RelaxedTrustManager(true, true);
+        allowAll.checkServerTrusted(chain, "RSA", other);
+    }
+
+    private static X509Certificate loadCertificate() throws Exception {
+        KeyStore keyStore = KeyStore.getInstance(KeyStore.getDefaultType());
+        try (InputStream input = new FileInputStream(new File("src/test/resources/ssl/keystore"))) {
+            keyStore.load(input, "wagonhttp".toCharArray());
+        }
+        return (X509Certificate) keyStore.getCertificate("jetty");
+    }
+}
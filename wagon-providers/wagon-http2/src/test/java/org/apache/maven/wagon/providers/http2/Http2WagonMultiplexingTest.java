@@ -0,0 +1,288 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.wagon.providers.http2;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.maven.wagon.repository.Repository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The gets are sent over HTTP/2, negotiated by an upgrade of the cleartext connection, and the concurrent gets are
+ * multiplexed as streams of that single connection.
+ */
+public class Http2WagonMultiplexingTest {
+    private static final byte[] CONTENT = "multiplexed content".getBytes(StandardCharsets.UTF_8);
+
+    private H2cServer server;
+
+    @TempDir
+    Path directory;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        server = new H2cServer();
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        server.close();
+    }
+
+    @Test
+    public void testConcurrentGetsShareOneConnection() throws Exception {
+        Http2Wagon wagon = new Http2Wagon();
+        wagon.connect(new Repository("id", "http://localhost:" + server.getPort()));
+        try {
+            File first = directory.resolve("first").toFile();
+            wagon.get("first", first);
+            assertArrayEquals(CONTENT, Files.readAllBytes(first.toPath()));
+
+            // the server answers none of these streams before all of them are open
+            int concurrent = 4;
+            server.setBatch(concurrent);
+            List<CompletableFuture<Void>> gets = new ArrayList<>();
+            for (int i = 0; i < concurrent; i++) {
+                gets.add(wagon.getAsync("resource-" + i, directory.resolve("resource-" + i).toFile()));
+            }
+            for (int i = 0; i < concurrent; i++) {
+                gets.get(i).get(30L, TimeUnit.SECONDS);
+                assertArrayEquals(CONTENT, Files.readAllBytes(directory.resolve("resource-" + i)));
+            }
+        } finally {
+            wagon.disconnect();
+        }
+
+        assertEquals(1, server.connections.get());
+        assertEquals(0, server.http1Requests.get());
+        // the upgraded request, then the streams opened by the client
+        assertEquals(Arrays.asList(1, 3, 5, 7, 9), server.getStreams());
+    }
+
+    /**
+     * An HTTP/2 server, only as far as the wagon gets need it: it upgrades cleartext connections and answers every
+     * request with the same content, without decoding the request headers.
+     */
+    private static class H2cServer implements AutoCloseable {
+        private static final byte[] PREFACE = "PRI * HTTP/2.0\r\n\r\nSM\r\n\r\n".getBytes(StandardCharsets.US_ASCII);
+
+        private static final int DATA = 0x0;
+
+        private static final int HEADERS = 0x1;
+
+        private static final int SETTINGS = 0x4;
+
+        private static final int PING = 0x6;
+
+        private static final int GOAWAY = 0x7;
+
+        private static final int CONTINUATION = 0x9;
+
+        private static final int END_STREAM = 0x1;
+
+        private static final int ACK = 0x1;
+
+        private static final int END_HEADERS = 0x4;
+
+        private final ServerSocket serverSocket = new ServerSocket(0);
+
+        private final List<Socket> sockets = Collections.synchronizedList(new ArrayList<>());
+
+        private final List<Integer> streams = Collections.synchronizedList(new ArrayList<>());
+
+        final AtomicInteger connections = new AtomicInteger();
+
+        final AtomicInteger http1Requests = new AtomicInteger();
+
+        private volatile int batch = 1;
+
+        H2cServer() throws IOException {
+            Thread acceptor = new Thread(this::accept, "h2c-acceptor");
+            acceptor.setDaemon(true);
+            acceptor.start();
+        }
+
+        int getPort() {
+            return serverSocket.getLocalPort();
+        }
+
+        /**
+         * @param batch the number of requests to receive before answering them
+         */
+        void setBatch(int batch) {
+            this.batch = batch;
+        }
+
+        /**
+         * @return the ids of the streams answered, in order
+         */
+        List<Integer> getStreams() {
+            synchronized (streams) {
+                return new ArrayList<>(streams);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            serverSocket.close();
+            synchronized (sockets) {
+                for (Socket socket : sockets) {
+                    socket.close();
+                }
+            }
+        }
+
+        private void accept() {
+            try {
+                while (true) {
+                    Socket socket = serverSocket.accept();
+                    connections.incrementAndGet();
+                    sockets.add(socket);
+                    Thread connection = new Thread(() -> serve(socket), "h2c-connection");
+                    connection.setDaemon(true);
+                    connection.start();
+                }
+            } catch (IOException e) {
+                // closed
+            }
+        }
+
+        private void serve(Socket socket) {
+            try (Socket s = socket) {
+                DataInputStream input = new DataInputStream(s.getInputStream());
+                OutputStream output = s.getOutputStream();
+
+                String head = readHead(input).toLowerCase(Locale.ROOT);
+                if (!head.contains("\r\nupgrade: h2c\r\n")) {
+                    http1Requests.incrementAndGet();
+                    output.write("HTTP/1.1 505 HTTP Version Not Supported\r\nContent-Length: 0\r\n\r\n"
+                            .getBytes(StandardCharsets.US_ASCII));
+                    return;
+                }
+                output.write("HTTP/1.1 101 Switching Protocols\r\nConnection: Upgrade\r\nUpgrade: h2c\r\n\r\n"
+                        .getBytes(StandardCharsets.US_ASCII));
+                writeFrame(output, SETTINGS, 0, 0, new byte[0]);
+                // the upgraded request is the stream 1
+                respond(output, 1);
+
+                byte[] preface = new byte[PREFACE.length];
+                input.readFully(preface);
+                if (!Arrays.equals(PREFACE, preface)) {
+                    throw new IOException("Not an HTTP/2 connection preface");
+                }
+
+                List<Integer> pending = new ArrayList<>();
+                while (true) {
+                    int length = input.readUnsignedShort() << 8 | input.readUnsignedByte();
+                    int type = input.readUnsignedByte();
+                    int flags = input.readUnsignedByte();
+                    int streamId = input.readInt() & 0x7FFFFFFF;
+                    byte[] payload = new byte[length];
+                    input.readFully(payload);
+
+                    if (type == SETTINGS && (flags & ACK) == 0) {
+                        writeFrame(output, SETTINGS, ACK, 0, new byte[0]);
+                    } else if (type == PING && (flags & ACK) == 0) {
+                        writeFrame(output, PING, ACK, 0, payload);
+                    } else if (type == GOAWAY) {
+                        return;
+                    } else if ((type == HEADERS || type == CONTINUATION) && (flags & END_HEADERS) != 0) {
+                        pending.add(streamId);
+                        if (pending.size() >= batch) {
+                            for (int id : pending) {
+                                respond(output, id);
+                            }
+                            pending.clear();
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                // closed
+            }
+        }
+
+        private void respond(OutputStream output, int streamId) throws IOException {
+            byte[] contentLength = String.valueOf(CONTENT.length).getBytes(StandardCharsets.US_ASCII);
+            ByteArrayOutputStream headers = new ByteArrayOutputStream();
+            // :status 200, indexed in the static table
+            headers.write(0x88);
+            // content-length, a literal of the name 28 of the static table, not indexed
+            headers.write(0x0F);
+            headers.write(28 - 15);
+            headers.write(contentLength.length);
+            headers.write(contentLength);
+
+            writeFrame(output, HEADERS, END_HEADERS, streamId, headers.toByteArray());
+            writeFrame(output, DATA, END_STREAM, streamId, CONTENT);
+            output.flush();
+            streams.add(streamId);
+        }
+
+        private static String readHead(DataInputStream input) throws IOException {
+            ByteArrayOutputStream head = new ByteArrayOutputStream();
+            int matched = 0;
+            while (matched < 4) {
+                int b = input.readUnsignedByte();
+                head.write(b);
+                matched = b == "\r\n\r\n".charAt(matched) ? matched + 1 : b == '\r' ? 1 : 0;
+            }
+            return new String(head.toByteArray(), StandardCharsets.ISO_8859_1);
+        }
+
+        private static void writeFrame(OutputStream output, int type, int flags, int streamId, byte[] payload)
+                throws IOException {
+            byte[] header = {
+                (byte) (payload.length >>> 16),
+                (byte) (payload.length >>> 8),
+                (byte) payload.length,
+                (byte) type,
+                (byte) flags,
+                (byte) (streamId >>> 24),
+                (byte) (streamId >>> 16),
+                (byte) (streamId >>> 8),
+                (byte) streamId
+            };
+            output.write(header);
+            output.write(payload);
+        }
+    }
+}
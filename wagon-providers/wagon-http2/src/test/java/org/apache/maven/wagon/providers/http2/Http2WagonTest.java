@@ -0,0 +1,66 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.wagon.providers.http2;
+
+import java.util.Properties;
+
+import org.apache.maven.wagon.StreamingWagon;
+import org.apache.maven.wagon.Wagon;
+import org.apache.maven.wagon.http.HttpWagonTestCase;
+
+public class Http2WagonTest extends HttpWagonTestCase {
+    protected String getProtocol() {
+        return "http";
+    }
+
+    protected String getTestRepositoryUrl() {
+        return getProtocol() + "://localhost:" + getTestRepositoryPort() + "/";
+    }
+
+    protected void setHttpConfiguration(StreamingWagon wagon, Properties headers, Properties params) {
+        ((Http2Wagon) wagon).setHttpHeaders(headers);
+    }
+
+    @Override
+    protected boolean supportPreemptiveAuthenticationGet() {
+        return false;
+    }
+
+    @Override
+    protected boolean supportPreemptiveAuthenticationPut() {
+        return false;
+    }
+
+    @Override
+    protected boolean supportProxyPreemptiveAuthentication() {
+        return false;
+    }
+
+    @Override
+    protected boolean isPutBodyBuffered(Wagon wagon) {
+        // up to its first megabyte
+        return true;
+    }
+
+    @Override
+    protected void verifyWagonExceptionMessage(Exception e, int forStatusCode, String forUrl, String forReasonPhrase) {
+        // the JDK HttpClient does not expose reason phrases, which HTTP/2 has done away with
+        super.verifyWagonExceptionMessage(e, forStatusCode, forUrl, null);
+    }
+}
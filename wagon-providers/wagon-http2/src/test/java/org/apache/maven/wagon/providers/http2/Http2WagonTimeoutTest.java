@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.wagon.providers.http2;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.wagon.TransferFailedException;
+import org.apache.maven.wagon.repository.Repository;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.servlet.ServletContextHandler;
+import org.eclipse.jetty.servlet.ServletHolder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The read timeout applies between the packets of the content, not only until the response headers.
+ */
+public class Http2WagonTimeoutTest {
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private Server server;
+
+    private File destination;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        server = new Server(0);
+        ServletContextHandler context = new ServletContextHandler();
+        context.addServlet(new ServletHolder(new StallingServlet(release)), "/*");
+        server.setHandler(context);
+        server.start();
+
+        destination = File.createTempFile("wagon-http2-timeout", ".tmp");
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        release.countDown();
+        server.stop();
+        destination.delete();
+    }
+
+    @Test
+    public void testStalledContentTimesOut() throws Exception {
+        Http2Wagon wagon = new Http2Wagon();
+        wagon.setReadTimeout(500);
+        int port = ((ServerConnector) server.getConnectors()[0]).getLocalPort();
+        wagon.connect(new Repository("id", "http://localhost:" + port));
+        try {
+            long start = System.nanoTime();
+            TransferFailedException e =
+                    assertThrows(TransferFailedException.class, () -> wagon.get("stalled", destination));
+
+            assertTrue(e.getCause() instanceof SocketTimeoutException, String.valueOf(e.getCause()));
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(10L));
+        } finally {
+            wagon.disconnect();
+        }
+    }
+
+    private static class StallingServlet extends HttpServlet {
+        private static final long serialVersionUID = 1L;
+
+        private final transient CountDownLatch release;
+
+        StallingServlet(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+            response.setContentLength(64 * 1024);
+            response.getOutputStream().write(new byte[1024]);
+            response.flushBuffer();
+            try {
+                release.await(30L, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
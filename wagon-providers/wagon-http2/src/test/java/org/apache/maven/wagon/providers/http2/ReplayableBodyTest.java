@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.wagon.providers.http2;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ReplayableBodyTest {
+    private static final byte[] CONTENT = "put top secret".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    public void testReplayFromTheBeginning() throws IOException {
+        ReplayableBody body = new ReplayableBody(new ByteArrayInputStream(CONTENT), 1024);
+
+        InputStream first = body.open();
+        byte[] start = new byte[3];
+        assertEquals(3, first.read(start));
+
+        InputStream second = body.open();
+        assertEquals(-1, first.read());
+        assertArrayEquals(CONTENT, readFully(second));
+        assertTrue(body.isReplayable());
+        assertArrayEquals(CONTENT, readFully(body.open()));
+    }
+
+    @Test
+    public void testNotReplayablePastTheBuffer() throws IOException {
+        ReplayableBody body = new ReplayableBody(new ByteArrayInputStream(CONTENT), 4);
+
+        assertArrayEquals(CONTENT, readFully(body.open()));
+        assertFalse(body.isReplayable());
+        assertThrows(IllegalStateException.class, body::open);
+    }
+
+    private static byte[] readFully(InputStream input) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        byte[] buffer = new byte[5];
+        int n;
+        while ((n = input.read(buffer)) != -1) {
+            output.write(buffer, 0, n);
+        }
+        return output.toByteArray();
+    }
+}
@@ -398,7 +398,14 @@ public void putDirectory(File sourceDirectory, String destinationDirectory)
     }
 
     public boolean resourceExists(String resourceName) throws TransferFailedException, AuthorizationException {
-        return sshTool.resourceExists(resourceName, repository);
+        if (isKnownMissing(resourceName)) {
+            return false;
+        }
+        boolean exists = sshTool.resourceExists(resourceName, repository);
+        if (!exists) {
+            resourceMissing(resourceName);
+        }
+        return exists;
     }
 
     public boolean supportsDirectoryCopy() {
@@ -29,9 +29,11 @@
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.util.List;
 import java.util.Properties;
 
+import com.jcraft.jsch.Channel;
 import com.jcraft.jsch.ChannelExec;
 import com.jcraft.jsch.HostKey;
 import com.jcraft.jsch.HostKeyRepository;
@@ -53,12 +55,15 @@
 import org.apache.maven.wagon.ResourceDoesNotExistException;
 import org.apache.maven.wagon.StreamWagon;
 import org.apache.maven.wagon.Streams;
+import org.apache.maven.wagon.TransferBufferPool;
 import org.apache.maven.wagon.TransferFailedException;
 import org.apache.maven.wagon.WagonConstants;
 import org.apache.maven.wagon.authentication.AuthenticationException;
 import org.apache.maven.wagon.authentication.AuthenticationInfo;
 import org.apache.maven.wagon.authorization.AuthorizationException;
 import org.apache.maven.wagon.events.TransferEvent;
+import org.apache.maven.wagon.jfr.WagonEvent;
+import org.apache.maven.wagon.jfr.WagonEvents;
 import org.apache.maven.wagon.providers.ssh.CommandExecutorStreamProcessor;
 import org.apache.maven.wagon.providers.ssh.ScpHelper;
 import org.apache.maven.wagon.providers.ssh.SshWagon;
@@ -254,6 +259,25 @@ public void closeConnection() {
         }
     }
 
+    /**
+     * Connects a channel of the session, recording a flight recorder event of it.
+     *
+     * @param channel the channel, opened from the session
+     * @param target the resource or the command of the channel, if any
+     * @since 4.0.0
+     */
+    protected void connectChannel(Channel channel, String target) throws JSchException {
+        WagonEvent event = WagonEvents.channelOpen();
+        event.begin();
+        try {
+            channel.connect();
+        } catch (JSchException e) {
+            commitFlightEvent(event, target, 0L, e);
+            throw e;
+        }
+        commitFlightEvent(event, target, 0L, null);
+    }
+
     public Streams executeCommand(String command, boolean ignoreStdErr, boolean ignoreNoneZeroExitCode)
             throws CommandExecutionException {
         ChannelExec channel = null;
@@ -269,7 +293,7 @@ public Streams executeCommand(String command, boolean ignoreStdErr, boolean igno
             stdoutReader = new BufferedReader(new InputStreamReader(channel.getInputStream()));
             stderrReader = new BufferedReader(new InputStreamReader(channel.getErrStream()));
 
-            channel.connect();
+            connectChannel(channel, command);
 
             streams = CommandExecutorStreamProcessor.processStreams(stderrReader, stdoutReader);
 
@@ -328,7 +352,14 @@ public void putDirectory(File sourceDirectory, String destinationDirectory)
     }
 
     public boolean resourceExists(String resourceName) throws TransferFailedException, AuthorizationException {
-        return sshTool.resourceExists(resourceName, repository);
+        if (isKnownMissing(resourceName)) {
+            return false;
+        }
+        boolean exists = sshTool.resourceExists(resourceName, repository);
+        if (!exists) {
+            resourceMissing(resourceName);
+        }
+        return exists;
     }
 
     public boolean supportsDirectoryCopy() {
@@ -390,26 +421,35 @@ public void setStrictHostKeyChecking(String strictHostKeyChecking) {
     @Override
     protected void transfer(Resource resource, InputStream input, OutputStream output, int requestType, long maxSize)
             throws IOException {
-        byte[] buffer = new byte[DEFAULT_BUFFER_SIZE];
+        TransferBufferPool bufferPool = getTransferBufferPool();
+        ByteBuffer pooledBuffer = bufferPool.acquire(DEFAULT_BUFFER_SIZE);
+        try {
+            byte[] buffer = pooledBuffer.array();
 
-        TransferEvent transferEvent = new TransferEvent(this, resource, TransferEvent.TRANSFER_PROGRESS, requestType);
-        transferEvent.setTimestamp(System.currentTimeMillis());
+            TransferEvent transferEvent =
+                    new TransferEvent(this, resource, TransferEvent.TRANSFER_PROGRESS, requestType);
+            transferEvent.setTimestamp(System.currentTimeMillis());
 
-        long remaining = maxSize;
-        while (remaining > 0L) {
-            // let's safely cast to int because the min value will be lower than the buffer size.
-            int n = input.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+            long remaining = maxSize;
+            while (remaining > 0L) {
+                // let's safely cast to int because the min value will be lower than the buffer size.
+                int n = input.read(buffer, 0, (int) Math.min(DEFAULT_BUFFER_SIZE, remaining));
 
-            if (n == -1) {
-                break;
-            }
+                if (n == -1) {
+                    break;
+                }
 
-            fireTransferProgress(transferEvent, buffer, n);
+                fireTransferProgress(transferEvent, buffer, n);
 
-            output.write(buffer, 0, n);
+                throttle(n);
+                output.write(buffer, 0, n);
+                transferred(n);
 
-            remaining -= n;
+                remaining -= n;
+            }
+            output.flush();
+        } finally {
+            bufferPool.release(pooledBuffer);
         }
-        output.flush();
     }
 }
@@ -211,7 +211,7 @@ public void fillInputData(InputData inputData) throws TransferFailedException, R
             InputStream in = channel.getInputStream();
             inputData.setInputStream(in);
 
-            channel.connect();
+            connectChannel(channel, resource.getName());
 
             sendEom(channelOutputStream);
 
@@ -320,7 +320,7 @@ public void fillOutputData(OutputData outputData) throws TransferFailedException
 
             channelInputStream = channel.getInputStream();
 
-            channel.connect();
+            connectChannel(channel, resourceName);
 
             checkAck(channelInputStream);
 
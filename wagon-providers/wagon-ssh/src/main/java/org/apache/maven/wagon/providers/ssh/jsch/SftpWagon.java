@@ -32,6 +32,7 @@
 import com.jcraft.jsch.SftpException;
 import org.apache.maven.wagon.InputData;
 import org.apache.maven.wagon.OutputData;
+import org.apache.maven.wagon.PartialDownload;
 import org.apache.maven.wagon.PathUtils;
 import org.apache.maven.wagon.ResourceDoesNotExistException;
 import org.apache.maven.wagon.TransferFailedException;
@@ -77,7 +78,7 @@ public void openConnectionInternal() throws AuthenticationException {
         try {
             channel = (ChannelSftp) session.openChannel(SFTP_CHANNEL);
 
-            channel.connect();
+            connectChannel(channel, null);
         } catch (JSchException e) {
             throw new AuthenticationException(
                     "Error connecting to remote repository: " + getRepository().getUrl(), e);
@@ -322,6 +323,10 @@ public List<String> getFileList(String destinationDirectory)
     }
 
     public boolean resourceExists(String resourceName) throws TransferFailedException, AuthorizationException {
+        if (isKnownMissing(resourceName)) {
+            return false;
+        }
+
         String filename = ScpHelper.getResourceFilename(resourceName);
 
         String dir = ScpHelper.getResourceDirectory(resourceName);
@@ -336,6 +341,7 @@ public boolean resourceExists(String resourceName) throws TransferFailedExceptio
 
             return true;
         } catch (ResourceDoesNotExistException e) {
+            resourceMissing(resourceName);
             return false;
         } catch (SftpException e) {
             String msg = "Error occurred while looking for '" + resourceName + "' " + "on remote repository: "
@@ -387,7 +393,22 @@ public void fillInputData(InputData inputData) throws TransferFailedException, R
 
             resource.setLastModified(lastModified);
 
-            inputData.setInputStream(channel.get(filename));
+            long skip = 0L;
+            PartialDownload partialDownload = inputData.getPartialDownload();
+            if (partialDownload != null) {
+                // the partial data is only resumed if the remote file still has the same size and modification time
+                if (partialDownload.getLength() > 0L
+                        && partialDownload.getContentLength() == attrs.getSize()
+                        && partialDownload.getLastModified() == lastModified) {
+                    skip = partialDownload.getLength();
+                    partialDownload.setResumed(true);
+                } else {
+                    partialDownload.restart();
+                }
+                partialDownload.setValidators(null, lastModified, attrs.getSize());
+            }
+
+            inputData.setInputStream(channel.get(filename, null, skip));
         } catch (SftpException e) {
             handleGetException(resource, e);
         }
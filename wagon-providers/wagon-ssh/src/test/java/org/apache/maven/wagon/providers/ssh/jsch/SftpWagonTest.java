@@ -19,18 +19,36 @@
 package org.apache.maven.wagon.providers.ssh.jsch;
 
 import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
 
 import org.apache.maven.wagon.StreamingWagonTestCase;
+import org.apache.maven.wagon.Wagon;
 import org.apache.maven.wagon.authentication.AuthenticationInfo;
+import org.apache.maven.wagon.events.TransferEvent;
+import org.apache.maven.wagon.observers.AbstractTransferListener;
 import org.apache.maven.wagon.providers.ssh.TestData;
 import org.apache.maven.wagon.repository.Repository;
 import org.apache.maven.wagon.resource.Resource;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 
 /**
  * @author <a href="mailto:brett@apache.org">Brett Porter</a>
  *
  */
 public class SftpWagonTest extends StreamingWagonTestCase {
+    private static final byte[] RESUMED_CONTENT =
+            "0123456789abcdefghijklmnopqrstuvwxyz".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * The partial data of the resumed downloads, which differs from the start of the remote file so that resuming
+     * it can be told from downloading the whole file again.
+     */
+    private static final byte[] PARTIAL_CONTENT = "XXXXXXXXXX".getBytes(StandardCharsets.US_ASCII);
+
     protected String getProtocol() {
         return "sftp";
     }
@@ -50,4 +68,89 @@ protected AuthenticationInfo getAuthInfo() {
     protected long getExpectedLastModifiedOnGet(Repository repository, Resource resource) {
         return new File(repository.getBasedir(), resource.getName()).lastModified();
     }
+
+    @Test
+    public void testResumeMatchingPartialDownload() throws Exception {
+        File destination = getPartiallyDownloaded(0L, 0L);
+
+        byte[] expected = Arrays.copyOf(PARTIAL_CONTENT, RESUMED_CONTENT.length);
+        System.arraycopy(
+                RESUMED_CONTENT,
+                PARTIAL_CONTENT.length,
+                expected,
+                PARTIAL_CONTENT.length,
+                RESUMED_CONTENT.length - PARTIAL_CONTENT.length);
+        assertArrayEquals(expected, Files.readAllBytes(destination.toPath()));
+        assertArrayEquals(new String[] {destination.getName()}, destination.getParentFile().list());
+    }
+
+    @Test
+    public void testRestartPartialDownloadOfAnotherSize() throws Exception {
+        File destination = getPartiallyDownloaded(1L, 0L);
+
+        assertArrayEquals(RESUMED_CONTENT, Files.readAllBytes(destination.toPath()));
+        assertArrayEquals(new String[] {destination.getName()}, destination.getParentFile().list());
+    }
+
+    @Test
+    public void testRestartPartialDownloadOfAnotherModificationTime() throws Exception {
+        File destination = getPartiallyDownloaded(0L, -1000L);
+
+        assertArrayEquals(RESUMED_CONTENT, Files.readAllBytes(destination.toPath()));
+        assertArrayEquals(new String[] {destination.getName()}, destination.getParentFile().list());
+    }
+
+    /**
+     * Gets a remote file to a destination holding the partial data of a download of it, whose validators are off
+     * by the given amounts.
+     *
+     * @return the destination
+     */
+    private File getPartiallyDownloaded(long lengthOffset, long lastModifiedOffset) throws Exception {
+        setupWagonTestingFixtures();
+
+        setupRepositories();
+
+        File remote = new File(testRepository.getBasedir(), "resumed.txt");
+        remote.getParentFile().mkdirs();
+        Files.write(remote.toPath(), RESUMED_CONTENT);
+
+        File directory = Files.createTempDirectory("wagon-sftp-resume").toFile();
+        File destination = new File(directory, "resumed.txt");
+
+        Wagon wagon = getWagon();
+        ((SftpWagon) wagon).setResumableGet(true);
+        wagon.connect(testRepository, getAuthInfo());
+        try {
+            // the modification time as listed by the server, to the second
+            long[] lastModified = new long[1];
+            AbstractTransferListener listener = new AbstractTransferListener() {
+                @Override
+                public void transferStarted(TransferEvent transferEvent) {
+                    lastModified[0] = transferEvent.getResource().getLastModified();
+                }
+            };
+            wagon.addTransferListener(listener);
+            wagon.get("resumed.txt", destination);
+            wagon.removeTransferListener(listener);
+
+            Files.write(new File(directory, "resumed.txt.part").toPath(), PARTIAL_CONTENT);
+            String validators = "lastModified=" + (lastModified[0] + lastModifiedOffset) + "\ncontentLength="
+                    + (RESUMED_CONTENT.length + lengthOffset) + "\n";
+            Files.write(
+                    new File(directory, "resumed.txt.part.properties").toPath(),
+                    validators.getBytes(StandardCharsets.US_ASCII));
+            destination.delete();
+
+            wagon.get("resumed.txt", destination);
+        } finally {
+            wagon.disconnect();
+
+            tearDownWagonTestingFixtures();
+        }
+
+        destination.deleteOnExit();
+        directory.deleteOnExit();
+        return destination;
+    }
 }